@@ -3,6 +3,8 @@ package es.iesjandula.reaktor.issues_server;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación que arranca el servicio de gestión de incidencias.
@@ -13,6 +15,8 @@ import org.springframework.context.annotation.ComponentScan;
  */
 @SpringBootApplication
 @ComponentScan(basePackages = {"es.iesjandula"})
+@EnableAsync
+@EnableScheduling
 public class ReaktorIssuesServerApplication
 {
 	/**
@@ -1,6 +1,7 @@
 package es.iesjandula.reaktor.issues_server.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -27,6 +28,7 @@ public class CORSConfig implements WebMvcConfigurer
 		registry.addMapping("/**")
 		        .allowedOrigins(urlCors)
 				.allowedMethods("GET", "POST", "PUT", "DELETE","OPTIONS")
-		        .allowedHeaders("*");
+		        .allowedHeaders("*")
+		        .exposedHeaders(HttpHeaders.ETAG);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package es.iesjandula.reaktor.issues_server.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Configuración de las conexiones a la base de datos.
+ * <p>
+ * La base de datos principal se configura con spring.datasource, como siempre. Si se habilita
+ * reaktor.replica, las transacciones de solo lectura se envían al pool de la réplica
+ * (reaktor.replica.hikari) mediante {@link EnrutadoDataSource}, y las escrituras no compiten con
+ * los listados y las estadísticas por las conexiones de la principal.
+ * </p>
+ */
+@Configuration
+public class DataSourceConfig
+{
+	/** Milisegundos que un usuario lee de la base de datos principal después de escribir */
+	@Value("${reaktor.replica.fijar_principal_ms:5000}")
+	private long fijarPrincipalMs;
+
+	/**
+	 * @param dataSourceProperties Las propiedades de spring.datasource.
+	 * @return El pool de la base de datos principal.
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSourcePrincipal(DataSourceProperties dataSourceProperties)
+	{
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	/**
+	 * @return El pool de la réplica, solo si está habilitada.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "reaktor.replica.habilitada", havingValue = "true")
+	@ConfigurationProperties("reaktor.replica.hikari")
+	public HikariDataSource dataSourceReplica()
+	{
+		return new HikariDataSource();
+	}
+
+	/**
+	 * @param dataSourcePrincipal El pool de la base de datos principal.
+	 * @param dataSourceReplica El pool de la réplica, si está habilitada.
+	 * @return El DataSource que usan JPA, JdbcTemplate y Flyway.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("dataSourcePrincipal") DataSource dataSourcePrincipal,
+								 @Qualifier("dataSourceReplica") ObjectProvider<DataSource> dataSourceReplica)
+	{
+		DataSource replica = dataSourceReplica.getIfAvailable();
+
+		// Sin réplica, todo va a la base de datos principal
+		if (replica == null)
+		{
+			return dataSourcePrincipal;
+		}
+
+		EnrutadoDataSource enrutadoDataSource = new EnrutadoDataSource(dataSourcePrincipal, replica, this.fijarPrincipalMs);
+		enrutadoDataSource.afterPropertiesSet();
+
+		return new LazyConnectionDataSourceProxy(enrutadoDataSource);
+	}
+}
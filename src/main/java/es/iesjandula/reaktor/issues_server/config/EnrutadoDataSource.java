@@ -0,0 +1,112 @@
+package es.iesjandula.reaktor.issues_server.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import es.iesjandula.reaktor.base.security.models.DtoUsuarioExtended;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a la réplica y el resto a la base de
+ * datos principal.
+ * <p>
+ * La réplica se actualiza de forma asíncrona y puede ir algo retrasada. Para que un usuario vea
+ * siempre sus propios cambios, al confirmar una transacción de escritura queda fijado a la base de
+ * datos principal durante unos segundos, y mientras tanto sus lecturas tampoco van a la réplica.
+ * Las tareas programadas no tienen usuario y leen siempre de la réplica.
+ * </p>
+ * <p>
+ * Debe envolverse en un {@link LazyConnectionDataSourceProxy}, para que la conexión real se pida
+ * en la primera sentencia, cuando ya se sabe si la transacción es de solo lectura.
+ * </p>
+ */
+public class EnrutadoDataSource extends AbstractRoutingDataSource
+{
+	/** Clave de la base de datos principal */
+	private static final String PRINCIPAL = "principal";
+
+	/** Clave de la réplica */
+	private static final String REPLICA = "replica";
+
+	/** Milisegundos que un usuario lee de la base de datos principal después de escribir */
+	private final long fijarPrincipalMs;
+
+	/** Instante hasta el que cada usuario (por email) lee de la base de datos principal */
+	private final Map<String, Long> fijadosHasta = new ConcurrentHashMap<String, Long>();
+
+	/**
+	 * @param principal La base de datos principal.
+	 * @param replica La réplica de solo lectura.
+	 * @param fijarPrincipalMs Milisegundos que un usuario lee de la base de datos principal después de escribir.
+	 */
+	public EnrutadoDataSource(DataSource principal, DataSource replica, long fijarPrincipalMs)
+	{
+		this.setTargetDataSources(Map.<Object, Object>of(PRINCIPAL, principal, REPLICA, replica));
+		this.setDefaultTargetDataSource(principal);
+
+		this.fijarPrincipalMs = fijarPrincipalMs;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey()
+	{
+		String email = this.obtenerEmailUsuario();
+
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+		{
+			// Fijamos al usuario cuando la escritura ya es visible, no cuando empieza
+			if (email != null && TransactionSynchronizationManager.isSynchronizationActive())
+			{
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+				{
+					@Override
+					public void afterCommit()
+					{
+						fijadosHasta.put(email, System.currentTimeMillis() + fijarPrincipalMs);
+					}
+				});
+			}
+
+			return PRINCIPAL;
+		}
+
+		if (email != null)
+		{
+			Long hasta = this.fijadosHasta.get(email);
+			if (hasta != null)
+			{
+				if (hasta > System.currentTimeMillis())
+				{
+					return PRINCIPAL;
+				}
+
+				this.fijadosHasta.remove(email, hasta);
+			}
+		}
+
+		return REPLICA;
+	}
+
+	/**
+	 * @return El email del usuario autenticado en el hilo actual, o null si no hay ninguno.
+	 */
+	private String obtenerEmailUsuario()
+	{
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+		if (authentication != null && authentication.getPrincipal() instanceof DtoUsuarioExtended usuario)
+		{
+			return usuario.getEmail();
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,29 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con una actualización de estado y/o solución a aplicar sobre varias incidencias.
+ * Las incidencias se indican por sus ids o mediante un filtro de búsqueda.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActualizacionLoteDto
+{
+	/** Ids de las incidencias a actualizar */
+	private List<Long> ids;
+
+	/** Filtro de las incidencias a actualizar (alternativo a los ids) */
+	private FiltroBusquedaDto filtro;
+
+	/** Nuevo estado (nulo si no cambia) */
+	private String estado;
+
+	/** Nueva solución (nula si no cambia) */
+	private String solucion;
+}
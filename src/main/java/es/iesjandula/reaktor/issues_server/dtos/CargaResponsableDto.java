@@ -0,0 +1,34 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el número de incidencias abiertas de un responsable en una ubicación.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CargaResponsableDto
+{
+    /**
+     * Nombre de la ubicación.
+     */
+    private String ubicacion;
+
+    /**
+     * Nombre de la categoría.
+     */
+    private String nombreCategoria;
+
+    /**
+     * Email del responsable.
+     */
+    private String emailResponsable;
+
+    /**
+     * Número de incidencias abiertas.
+     */
+    private Long cantidad;
+}
@@ -0,0 +1,23 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los datos de una incidencia a crear dentro de un lote.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CrearIncidenciaDto
+{
+	/** Nombre de la ubicación */
+	private String nombreUbicacion;
+
+	/** Descripción del problema */
+	private String problema;
+
+	/** Nombre de la categoría */
+	private String nombreCategoria;
+}
@@ -0,0 +1,22 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el error de una línea de un fichero importado.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ErrorLineaDto
+{
+	/** Número de línea del fichero (la cabecera es la línea 1) */
+	private long linea;
+
+	/** Error de la línea (código y mensaje) */
+	private Map<String, String> error;
+}
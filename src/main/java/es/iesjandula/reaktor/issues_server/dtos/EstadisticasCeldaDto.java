@@ -0,0 +1,19 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el número de incidencias de una combinación de ubicación, categoría y estado.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasCeldaDto
+{
+	private String ubicacion;
+	private String categoria;
+	private String estado;
+	private Long cantidad;
+}
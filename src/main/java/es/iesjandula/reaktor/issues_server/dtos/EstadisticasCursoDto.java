@@ -0,0 +1,25 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con todas las estadísticas de un curso académico: el resumen por dimensiones y el desglose mensual.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasCursoDto
+{
+	/** Resumen por ubicación, categoría y estado */
+	private EstadisticasResumenDto resumen;
+
+	/** Incidencias por mes y categoría, en orden cronológico */
+	private List<EstadisticasMesDto> porMes;
+
+	/** Indica si el curso está cerrado y las estadísticas proceden de una instantánea */
+	private boolean cerrado;
+}
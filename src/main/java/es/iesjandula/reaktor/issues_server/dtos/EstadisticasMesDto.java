@@ -0,0 +1,19 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el número de incidencias de un mes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasMesDto
+{
+	private Integer anio;
+	private Integer mes;
+	private String categoria;
+	private Long cantidad;
+}
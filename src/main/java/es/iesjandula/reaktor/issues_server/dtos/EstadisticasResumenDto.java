@@ -0,0 +1,50 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con todas las estadísticas de incidencias de un curso académico.
+ * <p>
+ * Las tablas cruzadas se devuelven como matrices cuyas filas y columnas siguen el orden
+ * de las listas {@link #ubicaciones}, {@link #categorias} y {@link #estados}.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasResumenDto
+{
+	/** Curso académico */
+	private String cursoAcademico;
+
+	/** Número total de incidencias */
+	private long total;
+
+	/** Nombres de las ubicaciones, ordenados alfabéticamente */
+	private List<String> ubicaciones;
+
+	/** Nombres de las categorías, ordenados alfabéticamente */
+	private List<String> categorias;
+
+	/** Estados, ordenados alfabéticamente */
+	private List<String> estados;
+
+	/** Incidencias por categoría */
+	private List<EstadisticasCategoriaDto> porCategoria;
+
+	/** Incidencias por estado */
+	private List<EstadisticasEstadoDto> porEstado;
+
+	/** Incidencias por ubicación */
+	private List<EstadisticasUbicacionDto> porUbicacion;
+
+	/** Incidencias por ubicación (filas) y categoría (columnas) */
+	private long[][] ubicacionCategoria;
+
+	/** Incidencias por categoría (filas) y estado (columnas) */
+	private long[][] categoriaEstado;
+}
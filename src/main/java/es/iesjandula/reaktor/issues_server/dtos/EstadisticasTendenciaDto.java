@@ -0,0 +1,25 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el número de incidencias de un periodo (día, semana o mes) para un valor de una dimensión.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasTendenciaDto
+{
+	/** Primer día del periodo */
+	private LocalDate inicioPeriodo;
+
+	/** Valor de la dimensión (nombre de la categoría o de la ubicación) */
+	private String valor;
+
+	/** Número de incidencias */
+	private Long cantidad;
+}
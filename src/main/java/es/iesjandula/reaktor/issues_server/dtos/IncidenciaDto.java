@@ -1,5 +1,9 @@
 package es.iesjandula.reaktor.issues_server.dtos;
 
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -78,4 +82,26 @@ public class IncidenciaDto
      * Categoría de la incidencia.
      */
     private String categoria;
+
+    /**
+     * Versión de la incidencia, que se envía en la cabecera If-Match al actualizarla.
+     */
+    private Long version;
+
+    /**
+     * Fecha de la incidencia sin formatear, usada para construir el cursor de la paginación por clave.
+     */
+    @JsonIgnore
+    private LocalDateTime fechaOrden;
+
+    /**
+     * Constructor usado por las consultas que no necesitan la fecha sin formatear.
+     */
+    public IncidenciaDto(Long id, String ubicacion, String email, String nombre, String apellidos, String fecha,
+                         String problema, String estado, String solucion, String emailResponsable,
+                         String nombreResponsable, String categoria, Long version)
+    {
+        this(id, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, emailResponsable,
+             nombreResponsable, categoria, version, null);
+    }
 }
@@ -0,0 +1,24 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa un evento del historial de una incidencia.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IncidenciaEventoDto
+{
+	private Long id;
+	private Long incidenciaId;
+	private LocalDateTime fecha;
+	private String tipo;
+	private String valorAnterior;
+	private String valorNuevo;
+	private String emailUsuario;
+}
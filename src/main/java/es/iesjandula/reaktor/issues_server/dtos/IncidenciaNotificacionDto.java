@@ -0,0 +1,82 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los campos de una incidencia necesarios para actualizar sus contadores, su historial
+ * y enviar sus notificaciones tras una actualización, sin cargar la entidad ni sus relaciones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncidenciaNotificacionDto
+{
+    /**
+     * ID de la incidencia.
+     */
+    private Long id;
+
+    /**
+     * Curso académico de la incidencia.
+     */
+    private String cursoAcademico;
+
+    /**
+     * Email del usuario que creó la incidencia.
+     */
+    private String email;
+
+    /**
+     * Nombre del usuario que creó la incidencia.
+     */
+    private String nombre;
+
+    /**
+     * Apellidos del usuario que creó la incidencia.
+     */
+    private String apellidos;
+
+    /**
+     * Fecha de la incidencia.
+     */
+    private LocalDateTime fecha;
+
+    /**
+     * Nombre de la ubicación de la incidencia.
+     */
+    private String ubicacion;
+
+    /**
+     * Problema de la incidencia.
+     */
+    private String problema;
+
+    /**
+     * Estado de la incidencia.
+     */
+    private String estado;
+
+    /**
+     * Solución de la incidencia.
+     */
+    private String solucion;
+
+    /**
+     * Nombre de la categoría de la incidencia.
+     */
+    private String nombreCategoria;
+
+    /**
+     * Email del responsable de la incidencia.
+     */
+    private String emailResponsable;
+
+    /**
+     * Versión de la incidencia leída, con la que se comprueba que nadie la haya modificado antes de actualizarla.
+     */
+    private Long version;
+}
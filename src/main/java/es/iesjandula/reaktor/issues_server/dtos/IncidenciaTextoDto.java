@@ -0,0 +1,29 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los campos de texto de una incidencia que se indexan para la búsqueda de texto completo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncidenciaTextoDto
+{
+    /**
+     * ID de la incidencia.
+     */
+    private Long id;
+
+    /**
+     * Problema de la incidencia.
+     */
+    private String problema;
+
+    /**
+     * Solución de la incidencia.
+     */
+    private String solucion;
+}
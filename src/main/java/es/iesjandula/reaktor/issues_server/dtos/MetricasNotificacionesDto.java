@@ -0,0 +1,35 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el estado de la bandeja de salida de notificaciones email.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricasNotificacionesDto
+{
+	/** Número de notificaciones pendientes de enviar (incluidas las que esperan un reintento) */
+	private long pendientes;
+
+	/** Número de notificaciones descartadas tras agotar los intentos */
+	private long fallidas;
+
+	/** Segundos que lleva esperando la notificación pendiente más antigua (0 si no hay ninguna) */
+	private long antiguedadSegundos;
+
+	/** Número de notificaciones enviadas desde el arranque del servidor */
+	private long enviadas;
+
+	/** Número de emails enviados desde el arranque del servidor (un resumen con varias notificaciones cuenta como uno) */
+	private long emails;
+
+	/** Número de envíos fallidos que se reintentarán, desde el arranque del servidor */
+	private long reintentos;
+
+	/** Número de notificaciones descartadas desde el arranque del servidor */
+	private long descartadas;
+}
@@ -0,0 +1,45 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con una notificación email de la bandeja de salida (tabla notificacion_pendiente).
+ * Además del email ya preparado, guarda sus datos para poder incluirla en un resumen.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificacionPendienteDto
+{
+	/** Id de la notificación (nulo hasta que se inserta) */
+	private Long id;
+
+	/** Email del destinatario */
+	private String destinatario;
+
+	/** Asunto del email */
+	private String asunto;
+
+	/** Cuerpo HTML del email */
+	private String cuerpo;
+
+	/** Número de envíos fallidos */
+	private int intentos;
+
+	/** Tipo de evento (CREACION, ESTADO o SOLUCION), o nulo si la notificación no se puede agrupar */
+	private String tipo;
+
+	/** Id de la incidencia */
+	private Long incidenciaId;
+
+	/** Ubicación de la incidencia */
+	private String ubicacion;
+
+	/** Nombre y apellidos del usuario que creó la incidencia */
+	private String nombreUsuario;
+
+	/** Problema, nuevo estado o nueva solución, según el tipo */
+	private String detalle;
+}
@@ -0,0 +1,32 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa una página obtenida mediante paginación por cursor.
+ * <p>
+ * A diferencia de {@code Page}, no incluye el total de elementos, ya que calcularlo
+ * obligaría a recorrer la tabla completa en cada petición.
+ * </p>
+ *
+ * @param <T> Tipo de los elementos de la página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDto<T>
+{
+    /**
+     * Elementos de la página.
+     */
+    private List<T> contenido;
+
+    /**
+     * Cursor para pedir la siguiente página (nulo si no hay más elementos).
+     */
+    private String siguienteCursor;
+}
@@ -0,0 +1,26 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las métricas de una región de la caché de segundo nivel desde el arranque del servidor.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RegionCacheDto
+{
+	/** Nombre de la región */
+	private String region;
+
+	/** Número de lecturas servidas desde la caché */
+	private long aciertos;
+
+	/** Número de lecturas que no estaban en la caché */
+	private long fallos;
+
+	/** Número de elementos guardados en la caché */
+	private long escrituras;
+}
@@ -0,0 +1,23 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de una actualización en lote: los datos anteriores de las incidencias
+ * actualizadas y los ids de las que otro usuario modificaba a la vez y no se han podido actualizar.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoActualizacionLoteDto
+{
+	/** Datos de las incidencias actualizadas, con los valores anteriores al cambio */
+	private List<IncidenciaNotificacionDto> actualizadas;
+
+	/** Ids de las incidencias que no se han podido actualizar tras agotar los intentos */
+	private List<Long> conflictos;
+}
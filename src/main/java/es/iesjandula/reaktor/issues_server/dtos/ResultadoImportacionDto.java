@@ -0,0 +1,29 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de la importación de un fichero CSV.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoImportacionDto
+{
+	/** Número de filas leídas (sin contar la cabecera) */
+	private long leidas;
+
+	/** Número de filas importadas */
+	private long importadas;
+
+	/** Número de filas con error */
+	private long erroneas;
+
+	/** Errores de las primeras filas erróneas */
+	private List<ErrorLineaDto> errores = new ArrayList<ErrorLineaDto>();
+}
@@ -0,0 +1,25 @@
+package es.iesjandula.reaktor.issues_server.dtos;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de un elemento de una operación en lote.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoLoteDto
+{
+	/** Posición del elemento en la petición (empezando en 0) */
+	private int posicion;
+
+	/** Id de la incidencia (nulo si el elemento no se ha podido procesar) */
+	private Long id;
+
+	/** Error del elemento (código y mensaje), nulo si se ha procesado correctamente */
+	private Map<String, String> error;
+}
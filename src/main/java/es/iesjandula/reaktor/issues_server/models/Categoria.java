@@ -2,8 +2,13 @@ package es.iesjandula.reaktor.issues_server.models;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -11,15 +16,25 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 /**
- * Entidad que representa una categoría de incidencia
+ * Entidad que representa una categoría de incidencia.
+ * <p>
+ * Sus responsables se cargan de forma perezosa. La igualdad se basa solo en el nombre.
+ * Tanto la categoría como su lista de responsables se guardan en la caché de segundo nivel.
+ * </p>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.REGION_CACHE_CATEGORIA)
 @Table(name = "categoria")
-@Data
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Categoria
@@ -29,6 +44,7 @@ public class Categoria
      */
     @Id
     @Column(nullable = false)
+    @EqualsAndHashCode.Include
     private String nombre;
 
     @Column
@@ -39,15 +55,10 @@ public class Categoria
      * @return Lista de usuarios responsables de la categoría de incidencia
      */
     @OneToMany(mappedBy = "categoria",  cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.REGION_CACHE_USUARIO_CATEGORIA)
     @JsonIgnore 
     private List<UsuarioCategoria> responsables;
 
-    /**
-     * UsuarioCategorias asociadas a la categoría.
-     */
-    @OneToMany(mappedBy = "id.nombreCategoria")
-    private List<UsuarioCategoria> usuarioCategoria;
-    
     /**
      * Método que devuelve una cadena de texto con el nombre de la categoría de incidencia
      * @return Cadena de texto con el nombre de la categoría de incidencia
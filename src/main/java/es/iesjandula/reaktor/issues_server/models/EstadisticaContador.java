@@ -0,0 +1,35 @@
+package es.iesjandula.reaktor.issues_server.models;
+
+import es.iesjandula.reaktor.issues_server.models.ids.EstadisticaContadorId;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad que representa una franja de un contador de estadísticas de incidencias.
+ * 
+ * <p>
+ * Cada contador (curso académico, dimensión y valor) se reparte en varias franjas para que
+ * los incrementos concurrentes no bloqueen la misma fila. El total es la suma de las franjas.
+ * </p>
+ */
+@Entity
+@Table(name = "estadistica_contador")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaContador
+{
+    @EmbeddedId
+    private EstadisticaContadorId id;
+
+    /**
+     * Número de incidencias acumuladas en esta franja.
+     */
+    @Column(nullable = false)
+    private Long cantidad;
+}
@@ -0,0 +1,30 @@
+package es.iesjandula.reaktor.issues_server.models;
+
+import es.iesjandula.reaktor.issues_server.models.ids.EstadisticaDiariaId;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad que representa el número de incidencias de un día para un valor de una dimensión.
+ */
+@Entity
+@Table(name = "estadistica_diaria")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaDiaria
+{
+    @EmbeddedId
+    private EstadisticaDiariaId id;
+
+    /**
+     * Número de incidencias del día.
+     */
+    @Column(nullable = false)
+    private Long cantidad;
+}
@@ -0,0 +1,49 @@
+package es.iesjandula.reaktor.issues_server.models;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad que representa la instantánea de estadísticas de un curso académico cerrado.
+ * 
+ * <p>
+ * Se crea una sola vez cuando se consultan por primera vez las estadísticas de un curso
+ * ya terminado y no se modifica después.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "estadistica_snapshot")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaSnapshot
+{
+    /**
+     * Curso académico (clave primaria)
+     */
+    @Id
+    @Column(nullable = false)
+    private String cursoAcademico;
+
+    /**
+     * Fecha en la que se creó la instantánea
+     */
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Estadísticas del curso en formato JSON ({@link es.iesjandula.reaktor.issues_server.dtos.EstadisticasCursoDto})
+     */
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String contenido;
+}
@@ -4,16 +4,20 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinColumns;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 
 /**
@@ -24,16 +28,29 @@ import lombok.NoArgsConstructor;
  * Utiliza un identificador compuesto definido por {@link IncidenciaId} que 
  * incluye el número de aula, el correo del docente y la fecha de la incidencia.
  * </p>
+ * <p>
+ * La ubicación y el responsable se cargan de forma perezosa: los listados usan proyecciones y el
+ * resto de operaciones (comprobar permisos, borrar, imprimir el parte o notificar) solo necesitan sus
+ * claves, que el proxy conoce sin consultar la base de datos.
+ * </p>
  */
-@Data
+@Getter
+@Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Table(name = "incidencia")
 public class Incidencia 
 {
+    /**
+     * Identificador de la incidencia.
+     * 
+     * Se genera por bloques de 50 (tabla incidencia_seq) para que Hibernate pueda agrupar
+     * las inserciones en lotes JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incidencia_seq")
+    @SequenceGenerator(name = "incidencia_seq", sequenceName = "incidencia_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -47,7 +64,7 @@ public class Incidencia
      * 
      * Este atributo es parte del identificador compuesto de la incidencia.
      */
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "ubicacion", referencedColumnName = "nombre", nullable = false)
 	private Ubicacion ubicacion;
 
@@ -112,13 +129,55 @@ public class Incidencia
      * Relación muchos a uno con UsuarioCategoria
      * @return UsuarioCategoria de incidencia
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumns({
         @JoinColumn(name = "nombreCategoria", referencedColumnName = "nombreCategoria", nullable = false),
         @JoinColumn(name = "emailResponsable", referencedColumnName = "emailResponsable", nullable = false)
     })
     private UsuarioCategoria usuarioCategoria;
 
+    /**
+     * Atributo - Versión de la incidencia para el control de concurrencia optimista.
+     * 
+     * Se incrementa con cada actualización y se expone como ETag en la API.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Dos incidencias son iguales si tienen el mismo id. Una incidencia todavía no guardada solo es igual a sí misma.
+     * @param object El objeto a comparar.
+     * @return true si representan la misma incidencia
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+
+        if (!(object instanceof Incidencia))
+        {
+            return false;
+        }
+
+        Incidencia incidencia = (Incidencia) object;
+
+        return this.id != null && this.id.equals(incidencia.getId());
+    }
+
+    /**
+     * El hash no depende del id, que se asigna al guardar, para que no cambie durante la vida del objeto.
+     * @return El hash de la clase
+     */
+    @Override
+    public int hashCode()
+    {
+        return Incidencia.class.hashCode();
+    }
+
     @Override
     public String toString()
     {
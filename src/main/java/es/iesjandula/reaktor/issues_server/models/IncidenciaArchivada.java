@@ -0,0 +1,116 @@
+package es.iesjandula.reaktor.issues_server.models;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad que representa una incidencia de un curso académico cerrado que se ha movido al archivo.
+ * 
+ * <p>
+ * Las filas las inserta la tarea de archivo
+ * ({@link es.iesjandula.reaktor.issues_server.services.ArchivoIncidenciasService}) y no se modifican.
+ * Guarda los nombres de la ubicación, la categoría y el responsable en lugar de las relaciones,
+ * para que el histórico no dependa de los datos de referencia.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "incidencia_archivo")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncidenciaArchivada
+{
+    /**
+     * Id que tenía la incidencia en la tabla incidencia.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * Curso académico de la incidencia.
+     */
+    @Column(nullable = false)
+    private String cursoAcademico;
+
+    /**
+     * Nombre de la ubicación de la incidencia.
+     */
+    @Column(nullable = false)
+    private String ubicacion;
+
+    /**
+     * Email del usuario que creó la incidencia.
+     */
+    @Column(nullable = false)
+    private String email;
+
+    /**
+     * Nombre del usuario que creó la incidencia.
+     */
+    @Column(nullable = false)
+    private String nombre;
+
+    /**
+     * Apellidos del usuario que creó la incidencia.
+     */
+    @Column(nullable = false)
+    private String apellidos;
+
+    /**
+     * Fecha de la incidencia.
+     */
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    /**
+     * Problema de la incidencia.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String problema;
+
+    /**
+     * Estado final de la incidencia.
+     */
+    @Column
+    private String estado;
+
+    /**
+     * Solución de la incidencia.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String solucion;
+
+    /**
+     * Nombre de la categoría de la incidencia.
+     */
+    @Column(nullable = false)
+    private String nombreCategoria;
+
+    /**
+     * Email del responsable de la incidencia.
+     */
+    @Column(nullable = false)
+    private String emailResponsable;
+
+    /**
+     * Nombre del responsable de la incidencia al archivarla.
+     */
+    @Column
+    private String nombreResponsable;
+
+    /**
+     * Última versión que tuvo la incidencia.
+     */
+    @Column(nullable = false)
+    private Long version;
+}
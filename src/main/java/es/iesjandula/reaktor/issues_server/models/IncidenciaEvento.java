@@ -0,0 +1,72 @@
+package es.iesjandula.reaktor.issues_server.models;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad que representa un evento del historial de una incidencia.
+ * 
+ * <p>
+ * El historial solo crece: los eventos se insertan en lote desde
+ * {@link es.iesjandula.reaktor.issues_server.services.HistorialIncidenciaService} y no se modifican.
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "incidencia_evento")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncidenciaEvento
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Id de la incidencia.
+     */
+    @Column(nullable = false)
+    private Long incidenciaId;
+
+    /**
+     * Fecha del cambio.
+     */
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    /**
+     * Tipo de evento (creación, estado, categoría, solución, responsable o borrado).
+     */
+    @Column(nullable = false, length = 20)
+    private String tipo;
+
+    /**
+     * Valor anterior al cambio.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String valorAnterior;
+
+    /**
+     * Valor posterior al cambio.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String valorNuevo;
+
+    /**
+     * Email del usuario que hizo el cambio.
+     */
+    @Column
+    private String emailUsuario;
+}
@@ -1,16 +1,25 @@
 package es.iesjandula.reaktor.issues_server.models;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.util.List;
-
+import es.iesjandula.reaktor.issues_server.utils.Constants;
 import jakarta.persistence.*;
 import lombok.*;
 
 /**
- * Entidad que representa una ubicación
+ * Entidad que representa una ubicación.
+ * <p>
+ * No expone sus incidencias: se consultan desde {@link Incidencia}. La igualdad se basa solo en el nombre.
+ * Se guarda en la caché de segundo nivel, ya que se lee mucho y se modifica muy poco.
+ * </p>
  */
 @Entity
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.REGION_CACHE_UBICACION)
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "ubicacion")
@@ -20,14 +29,9 @@ public class Ubicacion
      * Nombre de la ubicación (clave única)
      */
     @Id
+    @EqualsAndHashCode.Include
     private String nombre;
 
-    /**
-     * Incidencias asociadas a la ubicación.
-     */
-    @OneToMany(mappedBy = "ubicacion")
-    private List<Incidencia> incidencias;
-
     @Override
     public String toString()
     {
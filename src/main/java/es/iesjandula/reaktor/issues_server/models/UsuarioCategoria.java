@@ -1,29 +1,43 @@
 package es.iesjandula.reaktor.issues_server.models;
 
-import java.util.List;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 /**
- * Entidad que representa un usuario responsable de una categoría de incidencia
+ * Entidad que representa un usuario responsable de una categoría de incidencia.
+ * <p>
+ * La categoría se carga de forma perezosa y no expone sus incidencias. La igualdad se basa solo en el id.
+ * Se guarda en la caché de segundo nivel, ya que se lee mucho y se modifica muy poco.
+ * </p>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.REGION_CACHE_USUARIO_CATEGORIA)
 @Table(name = "usuario_categoria")
-@Data
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class UsuarioCategoria
 {
     @EmbeddedId
+    @EqualsAndHashCode.Include
     private UsuarioCategoriaId id;
 
     /**
@@ -35,16 +49,10 @@ public class UsuarioCategoria
      * Relación muchos a uno con Categoria
      * @return Categoría de incidencia
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "nombreCategoria", referencedColumnName = "nombre", insertable= false, updatable= false)
     private Categoria categoria;
 
-    /**
-     * Incidencias asociadas al usuario responsable de la categoría.
-     */
-    @OneToMany(mappedBy = "usuarioCategoria")
-    private List<Incidencia> incidencias;
-
     /**
      * Método que devuelve una cadena de texto con el nombre del responsable de la categoría de incidencia
      * @return Cadena de texto con el nombre del responsable de la categoría de incidencia
@@ -0,0 +1,43 @@
+package es.iesjandula.reaktor.issues_server.models.ids;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Identificador compuesto para la entidad EstadisticaContador.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class EstadisticaContadorId implements Serializable
+{
+    /**
+	 * SerialVersionUID para la serialización.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Curso académico del contador.
+	 */
+	private String cursoAcademico;
+
+	/**
+	 * Dimensión del contador (categoría, estado o ubicación).
+	 */
+	private String dimension;
+
+	/**
+	 * Valor de la dimensión (por ejemplo, el nombre de la categoría).
+	 */
+	private String valor;
+
+	/**
+	 * Franja del contador.
+	 */
+	private Integer franja;
+}
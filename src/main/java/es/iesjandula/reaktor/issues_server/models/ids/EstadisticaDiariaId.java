@@ -0,0 +1,39 @@
+package es.iesjandula.reaktor.issues_server.models.ids;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Identificador compuesto para la entidad EstadisticaDiaria.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class EstadisticaDiariaId implements Serializable
+{
+    /**
+	 * SerialVersionUID para la serialización.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Día del agregado.
+	 */
+	private LocalDate dia;
+
+	/**
+	 * Dimensión del agregado (categoría o ubicación).
+	 */
+	private String dimension;
+
+	/**
+	 * Valor de la dimensión (por ejemplo, el nombre de la categoría).
+	 */
+	private String valor;
+}
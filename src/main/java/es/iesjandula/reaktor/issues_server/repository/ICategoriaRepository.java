@@ -16,7 +16,7 @@ import es.iesjandula.reaktor.issues_server.models.Categoria;
 public interface ICategoriaRepository extends JpaRepository<Categoria, String>
 {
     /**
-     * Busca todas las categorías ordenadas por nombre
+     * Busca todas las categorías ordenadas por nombre.
      * @return Lista de categorías ordenadas por nombre
      */
     @Query("SELECT new es.iesjandula.reaktor.issues_server.dtos.CategoriaDto(c.nombre, c.imprimirInforme) FROM Categoria c ORDER BY c.nombre ASC")
@@ -0,0 +1,110 @@
+package es.iesjandula.reaktor.issues_server.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCategoriaDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasEstadoDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasUbicacionDto;
+import es.iesjandula.reaktor.issues_server.models.EstadisticaContador;
+import es.iesjandula.reaktor.issues_server.models.ids.EstadisticaContadorId;
+
+/**
+ * Interfaz que define el repositorio para la entidad EstadisticaContador
+ */
+@Repository
+public interface IEstadisticaContadorRepository extends JpaRepository<EstadisticaContador, EstadisticaContadorId>
+{
+	/**
+	 * Suma una cantidad (positiva o negativa) a una franja de un contador, creándola si no existe
+	 * @param cursoAcademico El curso académico
+	 * @param dimension La dimensión del contador
+	 * @param valor El valor de la dimensión
+	 * @param franja La franja a actualizar
+	 * @param cantidad La cantidad a sumar
+	 */
+	@Modifying
+	@Query(value = """
+		INSERT INTO estadistica_contador (curso_academico, dimension, valor, franja, cantidad)
+		VALUES (:cursoAcademico, :dimension, :valor, :franja, :cantidad)
+		ON DUPLICATE KEY UPDATE cantidad = cantidad + :cantidad
+	""", nativeQuery = true)
+	void sumarCantidad(@Param("cursoAcademico") String cursoAcademico,
+					   @Param("dimension") String dimension,
+					   @Param("valor") String valor,
+					   @Param("franja") int franja,
+					   @Param("cantidad") long cantidad);
+
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasCategoriaDto(e.id.valor, SUM(e.cantidad))
+		FROM EstadisticaContador e
+		WHERE e.id.cursoAcademico = :cursoAcademico AND e.id.dimension = 'CATEGORIA'
+		GROUP BY e.id.valor
+		HAVING SUM(e.cantidad) > 0
+		ORDER BY SUM(e.cantidad) DESC
+	""")
+	List<EstadisticasCategoriaDto> obtenerEstadisticasPorCategoria(@Param("cursoAcademico") String cursoAcademico);
+
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasEstadoDto(e.id.valor, SUM(e.cantidad))
+		FROM EstadisticaContador e
+		WHERE e.id.cursoAcademico = :cursoAcademico AND e.id.dimension = 'ESTADO'
+		GROUP BY e.id.valor
+		HAVING SUM(e.cantidad) > 0
+		ORDER BY SUM(e.cantidad) DESC
+	""")
+	List<EstadisticasEstadoDto> obtenerEstadisticasPorEstado(@Param("cursoAcademico") String cursoAcademico);
+
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasUbicacionDto(e.id.valor, SUM(e.cantidad))
+		FROM EstadisticaContador e
+		WHERE e.id.cursoAcademico = :cursoAcademico AND e.id.dimension = 'UBICACION'
+		GROUP BY e.id.valor
+		HAVING SUM(e.cantidad) > 0
+		ORDER BY SUM(e.cantidad) DESC
+	""")
+	List<EstadisticasUbicacionDto> obtenerEstadisticasPorUbicacion(@Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Cuenta las incidencias por curso académico y valor de cada dimensión, incluidas las archivadas
+	 * (lectura consistente, sin bloqueos)
+	 * @return Filas con curso académico, dimensión, valor y número de incidencias
+	 */
+	@Query(value = """
+		SELECT curso_academico, 'CATEGORIA', nombre_categoria, COUNT(*)
+		FROM (SELECT curso_academico, nombre_categoria FROM incidencia
+		      UNION ALL
+		      SELECT curso_academico, nombre_categoria FROM incidencia_archivo) incidencias
+		GROUP BY curso_academico, nombre_categoria
+		UNION ALL
+		SELECT curso_academico, 'ESTADO', estado, COUNT(*)
+		FROM (SELECT curso_academico, estado FROM incidencia
+		      UNION ALL
+		      SELECT curso_academico, estado FROM incidencia_archivo) incidencias
+		WHERE estado IS NOT NULL
+		GROUP BY curso_academico, estado
+		UNION ALL
+		SELECT curso_academico, 'UBICACION', ubicacion, COUNT(*)
+		FROM (SELECT curso_academico, ubicacion FROM incidencia
+		      UNION ALL
+		      SELECT curso_academico, ubicacion FROM incidencia_archivo) incidencias
+		GROUP BY curso_academico, ubicacion
+	""", nativeQuery = true)
+	List<Object[]> contarIncidencias();
+
+	/**
+	 * Suma las franjas de cada contador (lectura consistente, sin bloqueos)
+	 * @return Filas con curso académico, dimensión, valor y total del contador
+	 */
+	@Query(value = """
+		SELECT curso_academico, dimension, valor, SUM(cantidad)
+		FROM estadistica_contador
+		GROUP BY curso_academico, dimension, valor
+	""", nativeQuery = true)
+	List<Object[]> sumarContadores();
+}
@@ -0,0 +1,82 @@
+package es.iesjandula.reaktor.issues_server.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import es.iesjandula.reaktor.issues_server.models.EstadisticaDiaria;
+import es.iesjandula.reaktor.issues_server.models.ids.EstadisticaDiariaId;
+
+/**
+ * Interfaz que define el repositorio para la entidad EstadisticaDiaria
+ */
+@Repository
+public interface IEstadisticaDiariaRepository extends JpaRepository<EstadisticaDiaria, EstadisticaDiariaId>
+{
+	/**
+	 * Suma una cantidad (positiva o negativa) al agregado de un día, creándolo si no existe
+	 * @param dia El día
+	 * @param dimension La dimensión
+	 * @param valor El valor de la dimensión
+	 * @param cantidad La cantidad a sumar
+	 */
+	@Modifying
+	@Query(value = """
+		INSERT INTO estadistica_diaria (dia, dimension, valor, cantidad)
+		VALUES (:dia, :dimension, :valor, :cantidad)
+		ON DUPLICATE KEY UPDATE cantidad = cantidad + :cantidad
+	""", nativeQuery = true)
+	void sumarCantidad(@Param("dia") LocalDate dia,
+					   @Param("dimension") String dimension,
+					   @Param("valor") String valor,
+					   @Param("cantidad") long cantidad);
+
+	/**
+	 * Busca los agregados diarios de una dimensión en un rango de días
+	 * @param dimension La dimensión
+	 * @param desde El primer día (inclusivo)
+	 * @param hasta El último día (inclusivo)
+	 * @return Los agregados ordenados por día
+	 */
+	@Query("""
+		SELECT e
+		FROM EstadisticaDiaria e
+		WHERE e.id.dimension = :dimension AND e.id.dia BETWEEN :desde AND :hasta AND e.cantidad > 0
+		ORDER BY e.id.dia ASC, e.id.valor ASC
+	""")
+	List<EstadisticaDiaria> buscarPorDimensionYRango(@Param("dimension") String dimension,
+													 @Param("desde") LocalDate desde,
+													 @Param("hasta") LocalDate hasta);
+
+	/**
+	 * Cuenta las incidencias por día y valor de categoría y ubicación, incluidas las archivadas
+	 * (lectura consistente, sin bloqueos)
+	 * @return Filas con día, dimensión, valor y número de incidencias
+	 */
+	@Query(value = """
+		SELECT DATE(fecha), 'CATEGORIA', nombre_categoria, COUNT(*)
+		FROM (SELECT fecha, nombre_categoria FROM incidencia
+		      UNION ALL
+		      SELECT fecha, nombre_categoria FROM incidencia_archivo) incidencias
+		GROUP BY DATE(fecha), nombre_categoria
+		UNION ALL
+		SELECT DATE(fecha), 'UBICACION', ubicacion, COUNT(*)
+		FROM (SELECT fecha, ubicacion FROM incidencia
+		      UNION ALL
+		      SELECT fecha, ubicacion FROM incidencia_archivo) incidencias
+		GROUP BY DATE(fecha), ubicacion
+	""", nativeQuery = true)
+	List<Object[]> contarIncidencias();
+
+	/**
+	 * Obtiene todos los agregados diarios (lectura consistente, sin bloqueos)
+	 * @return Filas con día, dimensión, valor y cantidad
+	 */
+	@Query(value = "SELECT dia, dimension, valor, cantidad FROM estadistica_diaria", nativeQuery = true)
+	List<Object[]> obtenerAgregados();
+}
@@ -0,0 +1,42 @@
+package es.iesjandula.reaktor.issues_server.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import es.iesjandula.reaktor.issues_server.models.EstadisticaSnapshot;
+
+/**
+ * Interfaz que define el repositorio para la entidad EstadisticaSnapshot
+ */
+@Repository
+public interface IEstadisticaSnapshotRepository extends JpaRepository<EstadisticaSnapshot, String>
+{
+	/**
+	 * Guarda la instantánea de un curso si todavía no existe (si dos peticiones la calculan a la vez, gana la primera)
+	 * @param cursoAcademico El curso académico
+	 * @param fechaCreacion La fecha de creación
+	 * @param contenido Las estadísticas en formato JSON
+	 */
+	@Modifying
+	@Query(value = """
+		INSERT IGNORE INTO estadistica_snapshot (curso_academico, fecha_creacion, contenido)
+		VALUES (:cursoAcademico, :fechaCreacion, :contenido)
+	""", nativeQuery = true)
+	void insertarSiNoExiste(@Param("cursoAcademico") String cursoAcademico,
+							@Param("fechaCreacion") LocalDateTime fechaCreacion,
+							@Param("contenido") String contenido);
+
+	/**
+	 * Borra las instantáneas de los cursos indicados con una sola sentencia (sin leerlas antes)
+	 * @param cursosAcademicos Los cursos académicos
+	 */
+	@Modifying
+	@Query("DELETE FROM EstadisticaSnapshot e WHERE e.cursoAcademico IN :cursosAcademicos")
+	void borrarPorCursos(@Param("cursosAcademicos") Collection<String> cursosAcademicos);
+}
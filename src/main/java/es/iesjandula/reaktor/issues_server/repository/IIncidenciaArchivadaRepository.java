@@ -0,0 +1,149 @@
+package es.iesjandula.reaktor.issues_server.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCeldaDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasMesDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.models.IncidenciaArchivada;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Interfaz que define el repositorio para la entidad IncidenciaArchivada
+ * <p>
+ * Además de las consultas sobre el archivo, contiene las sentencias nativas con las que la tarea
+ * de archivo mueve un bloque de incidencias desde la tabla incidencia.
+ * </p>
+ */
+@Repository
+public interface IIncidenciaArchivadaRepository extends JpaRepository<IncidenciaArchivada, Long>
+{
+	/**
+	 * Busca los cursos académicos anteriores al indicado que todavía tienen incidencias sin archivar
+	 * @param cursoAcademico El curso académico actual
+	 * @return Los cursos anteriores con incidencias en la tabla incidencia, del más antiguo al más reciente
+	 */
+	@Query("SELECT DISTINCT i.cursoAcademico FROM Incidencia i WHERE i.cursoAcademico < :cursoAcademico ORDER BY i.cursoAcademico")
+	List<String> buscarCursosAnterioresSinArchivar(@Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Cuenta las incidencias de un curso que no están en un estado final
+	 * @param cursoAcademico El curso académico
+	 * @param estadosFinales Los estados finales
+	 * @return El número de incidencias del curso todavía abiertas (o sin estado)
+	 */
+	@Query("SELECT COUNT(i) FROM Incidencia i WHERE i.cursoAcademico = :cursoAcademico AND (i.estado IS NULL OR i.estado NOT IN :estadosFinales)")
+	long contarNoFinalesPorCurso(@Param("cursoAcademico") String cursoAcademico, @Param("estadosFinales") List<String> estadosFinales);
+
+	/**
+	 * Bloquea el siguiente bloque de incidencias archivables de un curso (en estado final), en orden de id.
+	 * El bloqueo impide que se modifiquen entre la copia al archivo y el borrado.
+	 * @param cursoAcademico El curso académico
+	 * @param estadosFinales Los estados finales
+	 * @param limite El tamaño máximo del bloque
+	 * @return Los ids de las incidencias bloqueadas
+	 */
+	@Query(value = """
+		SELECT id
+		FROM incidencia
+		WHERE curso_academico = :cursoAcademico AND estado IN (:estadosFinales)
+		ORDER BY id
+		LIMIT :limite
+		FOR UPDATE
+	""", nativeQuery = true)
+	List<Long> bloquearBloqueArchivable(@Param("cursoAcademico") String cursoAcademico,
+										@Param("estadosFinales") List<String> estadosFinales,
+										@Param("limite") int limite);
+
+	/**
+	 * Copia al archivo las incidencias indicadas, con el nombre actual de su responsable
+	 * @param ids Los ids de las incidencias
+	 * @return El número de incidencias copiadas
+	 */
+	@Modifying
+	@Query(value = """
+		INSERT INTO incidencia_archivo (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion,
+		                                nombre_categoria, email_responsable, nombre_responsable, version)
+		SELECT i.id, i.curso_academico, i.ubicacion, i.email, i.nombre, i.apellidos, i.fecha, i.problema, i.estado, i.solucion,
+		       i.nombre_categoria, i.email_responsable, uc.nombre_responsable, i.version
+		FROM incidencia i
+		JOIN usuario_categoria uc ON uc.nombre_categoria = i.nombre_categoria AND uc.email_responsable = i.email_responsable
+		WHERE i.id IN (:ids)
+	""", nativeQuery = true)
+	int copiarAlArchivo(@Param("ids") List<Long> ids);
+
+	/**
+	 * Borra de la tabla incidencia las incidencias indicadas, ya copiadas al archivo
+	 * @param ids Los ids de las incidencias
+	 * @return El número de incidencias borradas
+	 */
+	@Modifying
+	@Query(value = "DELETE FROM incidencia WHERE id IN (:ids)", nativeQuery = true)
+	int borrarArchivadas(@Param("ids") List<Long> ids);
+
+	/**
+	 * Recorre las incidencias archivadas de un curso académico con un cursor de solo avance,
+	 * igual que {@link IIncidenciaRepository#exportarIncidenciasPorCursoAcademico(String)}.
+	 * @param cursoAcademico El curso académico a exportar.
+	 * @return stream de Incidencias archivadas del curso ordenadas por fecha
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(a.id,
+																				  a.ubicacion,
+																				  a.email,
+																				  a.nombre,
+																				  a.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', a.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  a.problema,
+																				  a.estado,
+																				  a.solucion,
+																				  a.emailResponsable,
+																				  a.nombreResponsable,
+																				  a.nombreCategoria,
+																				  a.version)
+				FROM IncidenciaArchivada a
+				WHERE a.cursoAcademico = :cursoAcademico
+				ORDER BY a.fecha ASC, a.id ASC
+			""")
+	Stream<IncidenciaDto> exportarIncidenciasPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Cuenta las incidencias archivadas de un curso académico por ubicación, categoría y estado
+	 * @param cursoAcademico El curso académico
+	 * @return Una fila por cada combinación con incidencias
+	 */
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasCeldaDto(a.ubicacion, a.nombreCategoria, a.estado, COUNT(a))
+		FROM IncidenciaArchivada a
+		WHERE a.cursoAcademico = :cursoAcademico
+		GROUP BY a.ubicacion, a.nombreCategoria, a.estado
+	""")
+	List<EstadisticasCeldaDto> obtenerEstadisticasPorCelda(@Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Cuenta las incidencias archivadas de un curso académico por mes y categoría
+	 * @param cursoAcademico El curso académico
+	 * @return Una fila por cada mes y categoría con incidencias, en orden cronológico
+	 */
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasMesDto(YEAR(a.fecha), MONTH(a.fecha), a.nombreCategoria, COUNT(a))
+		FROM IncidenciaArchivada a
+		WHERE a.cursoAcademico = :cursoAcademico
+		GROUP BY YEAR(a.fecha), MONTH(a.fecha), a.nombreCategoria
+		ORDER BY YEAR(a.fecha), MONTH(a.fecha), a.nombreCategoria
+	""")
+	List<EstadisticasMesDto> obtenerEstadisticasPorMes(@Param("cursoAcademico") String cursoAcademico);
+}
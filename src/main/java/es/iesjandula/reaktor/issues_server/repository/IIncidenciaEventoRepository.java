@@ -0,0 +1,36 @@
+package es.iesjandula.reaktor.issues_server.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaEventoDto;
+import es.iesjandula.reaktor.issues_server.models.IncidenciaEvento;
+
+/**
+ * Interfaz que define el repositorio para la entidad IncidenciaEvento
+ */
+@Repository
+public interface IIncidenciaEventoRepository extends JpaRepository<IncidenciaEvento, Long>
+{
+	/**
+	 * Busca los eventos de una incidencia posteriores a uno dado, en orden cronológico
+	 * @param incidenciaId El id de la incidencia
+	 * @param despuesDe El id del último evento de la página anterior (0 para la primera)
+	 * @param pageable El número máximo de eventos
+	 * @return Los eventos encontrados
+	 */
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaEventoDto(e.id, e.incidenciaId, e.fecha, e.tipo, e.valorAnterior, e.valorNuevo, e.emailUsuario)
+		FROM IncidenciaEvento e
+		WHERE e.incidenciaId = :incidenciaId AND e.id > :despuesDe
+		ORDER BY e.id ASC
+	""")
+	List<IncidenciaEventoDto> buscarEventosDesde(@Param("incidenciaId") Long incidenciaId,
+												 @Param("despuesDe") Long despuesDe,
+												 Pageable pageable);
+}
@@ -1,19 +1,32 @@
 package es.iesjandula.reaktor.issues_server.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import es.iesjandula.reaktor.issues_server.dtos.CargaResponsableDto;
 import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCategoriaDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCeldaDto;
 import es.iesjandula.reaktor.issues_server.dtos.EstadisticasEstadoDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasMesDto;
 import es.iesjandula.reaktor.issues_server.dtos.EstadisticasUbicacionDto;
 import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaTextoDto;
 import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import jakarta.persistence.QueryHint;
 
 /**
  * Repositorio para gestionar incidencias en la base de datos.
@@ -46,12 +59,41 @@ public interface IIncidenciaRepository extends JpaRepository<Incidencia, Long>
 																			  i.solucion,
 																			  i.usuarioCategoria.id.emailResponsable,
 																			  i.usuarioCategoria.nombreResponsable,
-																			  i.usuarioCategoria.id.nombreCategoria)
+																			  i.usuarioCategoria.id.nombreCategoria,
+																			  i.version)
 			FROM Incidencia i
 			ORDER BY i.fecha DESC
 			  """)
 	Page<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorAdmin(Pageable pageable);
 
+	/**
+	 * Busca las incidencias de un curso académico ordenadas por fecha de forma decreciente.
+	 * Con la tabla particionada, solo lee la partición del curso.
+	 *
+	 * @param cursoAcademico El curso académico.
+	 * @param pageable La página y el tamaño de la página.
+	 * @return lista de Incidencias del curso ordenadas por fecha de forma decreciente
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version)
+				FROM Incidencia i
+				WHERE i.cursoAcademico = :cursoAcademico
+				ORDER BY i.fecha DESC
+			""")
+	Page<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorAdminYCurso(@Param("cursoAcademico") String cursoAcademico, Pageable pageable);
+
 	/**
 	 * Busca incidencias en la base de datos ordenado por fecha de forma decreciente
 	 * por usuario
@@ -74,13 +116,401 @@ public interface IIncidenciaRepository extends JpaRepository<Incidencia, Long>
 																				  i.solucion,
 																				  i.usuarioCategoria.id.emailResponsable,
 																				  i.usuarioCategoria.nombreResponsable,
-																				  i.usuarioCategoria.id.nombreCategoria)
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version)
 				FROM Incidencia i
 				WHERE i.email = :email or i.usuarioCategoria.id.emailResponsable = :email
 				ORDER BY i.fecha DESC
 			""")
 	Page<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorUsuario(Pageable pageable, @Param("email") String email);
 
+	/**
+	 * Busca las incidencias de un usuario en un curso académico ordenadas por fecha de forma decreciente.
+	 * Con la tabla particionada, solo lee la partición del curso.
+	 *
+	 * @param pageable La página y el tamaño de la página.
+	 * @param email El email del usuario.
+	 * @param cursoAcademico El curso académico.
+	 * @return lista de Incidencias del curso ordenadas por fecha de forma decreciente por usuario
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version)
+				FROM Incidencia i
+				WHERE (i.email = :email OR i.usuarioCategoria.id.emailResponsable = :email)
+				  AND i.cursoAcademico = :cursoAcademico
+				ORDER BY i.fecha DESC
+			""")
+	Page<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorUsuarioYCurso(Pageable pageable, @Param("email") String email, @Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Busca incidencias ordenadas por fecha de forma decreciente a partir de un cursor (paginación por clave)
+	 * <p>
+	 * Devuelve las incidencias posteriores, en el orden del listado, al par (fecha, id) indicado.
+	 * Al no usar OFFSET ni contar el total, el coste de cada página es constante independientemente
+	 * de lo lejos que se encuentre del principio del listado.
+	 * </p>
+	 *
+	 * @param fecha    La fecha de la última incidencia de la página anterior.
+	 * @param id       El id de la última incidencia de la página anterior.
+	 * @param pageable Limita el número de filas devueltas (siempre la página 0).
+	 * @return lista de Incidencias ordenadas por fecha de forma decreciente
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version,
+																				  i.fecha)
+				FROM Incidencia i
+				WHERE i.fecha < :fecha OR (i.fecha = :fecha AND i.id < :id)
+				ORDER BY i.fecha DESC, i.id DESC
+			""")
+	List<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorAdminDesdeCursor(@Param("fecha") LocalDateTime fecha,
+																		 @Param("id") Long id,
+																		 Pageable pageable);
+
+	/**
+	 * Busca las incidencias de un curso académico ordenadas por fecha de forma decreciente a partir de un cursor
+	 * (paginación por clave). Con la tabla particionada, solo lee la partición del curso.
+	 *
+	 * @param cursoAcademico El curso académico.
+	 * @param fecha    La fecha de la última incidencia de la página anterior.
+	 * @param id       El id de la última incidencia de la página anterior.
+	 * @param pageable Limita el número de filas devueltas (siempre la página 0).
+	 * @return lista de Incidencias del curso ordenadas por fecha de forma decreciente
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version,
+																				  i.fecha)
+				FROM Incidencia i
+				WHERE i.cursoAcademico = :cursoAcademico
+				  AND (i.fecha < :fecha OR (i.fecha = :fecha AND i.id < :id))
+				ORDER BY i.fecha DESC, i.id DESC
+			""")
+	List<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorAdminYCursoDesdeCursor(@Param("cursoAcademico") String cursoAcademico,
+																			   @Param("fecha") LocalDateTime fecha,
+																			   @Param("id") Long id,
+																			   Pageable pageable);
+
+	/**
+	 * Busca incidencias de un usuario ordenadas por fecha de forma decreciente a partir de un cursor
+	 * (paginación por clave)
+	 *
+	 * @param email    El email del usuario (creador o responsable).
+	 * @param fecha    La fecha de la última incidencia de la página anterior.
+	 * @param id       El id de la última incidencia de la página anterior.
+	 * @param pageable Limita el número de filas devueltas (siempre la página 0).
+	 * @return lista de Incidencias ordenadas por fecha de forma decreciente por usuario
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version,
+																				  i.fecha)
+				FROM Incidencia i
+				WHERE (i.email = :email OR i.usuarioCategoria.id.emailResponsable = :email)
+				  AND (i.fecha < :fecha OR (i.fecha = :fecha AND i.id < :id))
+				ORDER BY i.fecha DESC, i.id DESC
+			""")
+	List<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorUsuarioDesdeCursor(@Param("email") String email,
+																		   @Param("fecha") LocalDateTime fecha,
+																		   @Param("id") Long id,
+																		   Pageable pageable);
+
+	/**
+	 * Busca las incidencias de un usuario en un curso académico ordenadas por fecha de forma decreciente a partir
+	 * de un cursor (paginación por clave). Con la tabla particionada, solo lee la partición del curso.
+	 *
+	 * @param email    El email del usuario (creador o responsable).
+	 * @param cursoAcademico El curso académico.
+	 * @param fecha    La fecha de la última incidencia de la página anterior.
+	 * @param id       El id de la última incidencia de la página anterior.
+	 * @param pageable Limita el número de filas devueltas (siempre la página 0).
+	 * @return lista de Incidencias del curso ordenadas por fecha de forma decreciente por usuario
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version,
+																				  i.fecha)
+				FROM Incidencia i
+				WHERE (i.email = :email OR i.usuarioCategoria.id.emailResponsable = :email)
+				  AND i.cursoAcademico = :cursoAcademico
+				  AND (i.fecha < :fecha OR (i.fecha = :fecha AND i.id < :id))
+				ORDER BY i.fecha DESC, i.id DESC
+			""")
+	List<IncidenciaDto> buscarIncidenciaOrdenadaFechaPorUsuarioYCursoDesdeCursor(@Param("email") String email,
+																				 @Param("cursoAcademico") String cursoAcademico,
+																				 @Param("fecha") LocalDateTime fecha,
+																				 @Param("id") Long id,
+																				 Pageable pageable);
+
+	/**
+	 * Recorre todas las incidencias de un curso académico con un cursor de solo avance.
+	 * <p>
+	 * El tamaño de fetch {@code Integer.MIN_VALUE} hace que el driver de MySQL entregue las filas
+	 * una a una en lugar de cargar el resultado completo en memoria. El stream debe consumirse
+	 * dentro de una transacción y cerrarse al terminar.
+	 * </p>
+	 *
+	 * @param cursoAcademico El curso académico a exportar.
+	 * @return stream de Incidencias del curso ordenadas por fecha
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version)
+				FROM Incidencia i
+				WHERE i.cursoAcademico = :cursoAcademico
+				ORDER BY i.fecha ASC, i.id ASC
+			""")
+	Stream<IncidenciaDto> exportarIncidenciasPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Recorre los campos de texto de todas las incidencias para reconstruir el índice de texto completo.
+	 * <p>
+	 * Igual que la exportación, usa un cursor de solo avance y debe consumirse dentro de una transacción.
+	 * Es la única consulta que recorre la tabla completa a propósito: necesita todas las filas.
+	 * </p>
+	 *
+	 * @return stream con el id, el problema y la solución de cada incidencia
+	 */
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaTextoDto(i.id, i.problema, i.solucion) FROM Incidencia i")
+	Stream<IncidenciaTextoDto> recorrerTextoIncidencias();
+
+	/**
+	 * Busca las incidencias con los ids indicados (sin orden garantizado).
+	 * <p>
+	 * Quien llama solo conoce los ids, no su curso: con la tabla particionada se hace una búsqueda por
+	 * clave primaria en cada partición (una por curso en línea), lo que se acepta frente a guardar el
+	 * curso en el índice de texto o en el cliente.
+	 * </p>
+	 *
+	 * @param ids Los ids de las incidencias.
+	 * @return lista de Incidencias encontradas
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto(i.id,
+																				  i.ubicacion.nombre,
+																				  i.email,
+																				  i.nombre,
+																				  i.apellidos,
+																				  CAST(FUNCTION('DATE_FORMAT', i.fecha, '%d/%m/%Y %H:%i') AS string),
+																				  i.problema,
+																				  i.estado,
+																				  i.solucion,
+																				  i.usuarioCategoria.id.emailResponsable,
+																				  i.usuarioCategoria.nombreResponsable,
+																				  i.usuarioCategoria.id.nombreCategoria,
+																				  i.version)
+				FROM Incidencia i
+				WHERE i.id IN :ids
+			""")
+	List<IncidenciaDto> buscarIncidenciasPorIds(@Param("ids") List<Long> ids);
+
+	/**
+	 * Busca los datos de notificación de una incidencia sin cargar la entidad ni sus relaciones.
+	 * <p>
+	 * Es la lectura que obtiene el curso académico de la incidencia: con la tabla particionada hace una
+	 * búsqueda por clave primaria en cada partición, y el UPDATE o DELETE que la sigue ya lleva el curso.
+	 * </p>
+	 *
+	 * @param id El id de la incidencia.
+	 * @return los datos de la incidencia, si existe
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto(i.id,
+																							  i.cursoAcademico,
+																							  i.email,
+																							  i.nombre,
+																							  i.apellidos,
+																							  i.fecha,
+																							  i.ubicacion.nombre,
+																							  i.problema,
+																							  i.estado,
+																							  i.solucion,
+																							  i.usuarioCategoria.id.nombreCategoria,
+																							  i.usuarioCategoria.id.emailResponsable,
+																							  i.version)
+				FROM Incidencia i
+				WHERE i.id = :id
+			""")
+	Optional<IncidenciaNotificacionDto> buscarDatosNotificacionPorId(@Param("id") Long id);
+
+	/**
+	 * Busca los datos de notificación de las incidencias con los ids indicados.
+	 * <p>
+	 * Igual que {@link #buscarDatosNotificacionPorId(Long)}, obtiene el curso de cada incidencia para el
+	 * lote de UPDATE, así que con la tabla particionada busca los ids en todas las particiones.
+	 * </p>
+	 *
+	 * @param ids Los ids de las incidencias.
+	 * @return lista con los datos de las incidencias encontradas, ordenada por id
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto(i.id,
+																							  i.cursoAcademico,
+																							  i.email,
+																							  i.nombre,
+																							  i.apellidos,
+																							  i.fecha,
+																							  i.ubicacion.nombre,
+																							  i.problema,
+																							  i.estado,
+																							  i.solucion,
+																							  i.usuarioCategoria.id.nombreCategoria,
+																							  i.usuarioCategoria.id.emailResponsable,
+																							  i.version)
+				FROM Incidencia i
+				WHERE i.id IN :ids
+				ORDER BY i.id
+			""")
+	List<IncidenciaNotificacionDto> buscarDatosNotificacionPorIds(@Param("ids") List<Long> ids);
+
+	/**
+	 * Borra una incidencia con una única sentencia DELETE si su versión no ha cambiado.
+	 *
+	 * @param id El id de la incidencia.
+	 * @param cursoAcademico El curso académico leído de la incidencia (permite descartar particiones).
+	 * @param version La versión leída de la incidencia.
+	 * @return número de incidencias borradas (0 si ya no existe o la ha modificado otro usuario)
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Incidencia i WHERE i.id = :id AND i.cursoAcademico = :cursoAcademico AND i.version = :version")
+	int borrarConVersion(@Param("id") Long id, @Param("cursoAcademico") String cursoAcademico, @Param("version") Long version);
+
+	/**
+	 * Actualiza el estado de una incidencia con una única sentencia UPDATE si su versión no ha cambiado.
+	 *
+	 * @param id El id de la incidencia.
+	 * @param cursoAcademico El curso académico leído de la incidencia (permite descartar particiones).
+	 * @param estado El nuevo estado.
+	 * @param version La versión leída de la incidencia.
+	 * @return número de incidencias actualizadas (0 si no existe o la ha modificado otro usuario)
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Incidencia i SET i.estado = :estado, i.version = i.version + 1 WHERE i.id = :id AND i.cursoAcademico = :cursoAcademico AND i.version = :version")
+	int actualizarEstado(@Param("id") Long id, @Param("cursoAcademico") String cursoAcademico, @Param("estado") String estado, @Param("version") Long version);
+
+	/**
+	 * Actualiza la solución de una incidencia con una única sentencia UPDATE si su versión no ha cambiado.
+	 *
+	 * @param id El id de la incidencia.
+	 * @param cursoAcademico El curso académico leído de la incidencia (permite descartar particiones).
+	 * @param solucion La nueva solución.
+	 * @param version La versión leída de la incidencia.
+	 * @return número de incidencias actualizadas (0 si no existe o la ha modificado otro usuario)
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Incidencia i SET i.solucion = :solucion, i.version = i.version + 1 WHERE i.id = :id AND i.cursoAcademico = :cursoAcademico AND i.version = :version")
+	int actualizarSolucion(@Param("id") Long id, @Param("cursoAcademico") String cursoAcademico, @Param("solucion") String solucion, @Param("version") Long version);
+
+	/**
+	 * Actualiza el responsable (y con él, la categoría) de una incidencia con una única sentencia UPDATE
+	 * si su versión no ha cambiado.
+	 *
+	 * @param id El id de la incidencia.
+	 * @param cursoAcademico El curso académico leído de la incidencia (permite descartar particiones).
+	 * @param usuarioCategoria El nuevo responsable de la categoría.
+	 * @param version La versión leída de la incidencia.
+	 * @return número de incidencias actualizadas (0 si no existe o la ha modificado otro usuario)
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Incidencia i SET i.usuarioCategoria = :usuarioCategoria, i.version = i.version + 1 WHERE i.id = :id AND i.cursoAcademico = :cursoAcademico AND i.version = :version")
+	int actualizarUsuarioCategoria(@Param("id") Long id, @Param("cursoAcademico") String cursoAcademico, @Param("usuarioCategoria") UsuarioCategoria usuarioCategoria, @Param("version") Long version);
+
+	/**
+	 * Cuenta las incidencias abiertas de cada responsable en cada ubicación.
+	 * <p>
+	 * Una incidencia abierta puede ser de cualquier curso, así que recorre todas las particiones; solo
+	 * se ejecuta al recalcular el índice de carga de los responsables (al arrancar y cada madrugada).
+	 * </p>
+	 *
+	 * @param estados Los estados que se consideran abiertos.
+	 * @return una fila por cada ubicación y responsable con incidencias abiertas
+	 */
+	@Query("""
+				SELECT new es.iesjandula.reaktor.issues_server.dtos.CargaResponsableDto(i.ubicacion.nombre,
+																						i.usuarioCategoria.id.nombreCategoria,
+																						i.usuarioCategoria.id.emailResponsable,
+																						COUNT(i))
+				FROM Incidencia i
+				WHERE i.estado IN :estados
+				GROUP BY i.ubicacion.nombre, i.usuarioCategoria.id.nombreCategoria, i.usuarioCategoria.id.emailResponsable
+			""")
+	List<CargaResponsableDto> contarAbiertasPorUbicacionYResponsable(@Param("estados") List<String> estados);
+
 	/**
 	 * Verifica si existen incidencias asociadas a una categoría.
 	 * <p>
@@ -95,6 +525,29 @@ public interface IIncidenciaRepository extends JpaRepository<Incidencia, Long>
 	@Query("SELECT COUNT(i) > 0 FROM Incidencia i WHERE i.usuarioCategoria.id.nombreCategoria = :nombreCategoria")
 	boolean validarSiExistenIncidenciasAsociadasACategoria(@Param("nombreCategoria") String nombreCategoria);
 
+	/**
+	 * Verifica si existen incidencias asociadas a una ubicación. Con la tabla incidencia particionada
+	 * no hay clave ajena que lo impida en la base de datos.
+	 * 
+	 * @param nombreUbicacion El nombre de la ubicación.
+	 * @return {@code true} si existen incidencias asociadas a la ubicación;
+	 *         {@code false} en caso contrario.
+	 */
+	@Query("SELECT COUNT(i) > 0 FROM Incidencia i WHERE i.ubicacion.nombre = :nombreUbicacion")
+	boolean validarSiExistenIncidenciasAsociadasAUbicacion(@Param("nombreUbicacion") String nombreUbicacion);
+
+	/**
+	 * Verifica si existen incidencias asignadas a un responsable de una categoría. Con la tabla
+	 * incidencia particionada no hay clave ajena que lo impida en la base de datos.
+	 * 
+	 * @param nombreCategoria El nombre de la categoría.
+	 * @param emailResponsable El email del responsable.
+	 * @return {@code true} si existen incidencias asignadas al responsable;
+	 *         {@code false} en caso contrario.
+	 */
+	@Query("SELECT COUNT(i) > 0 FROM Incidencia i WHERE i.usuarioCategoria.id.nombreCategoria = :nombreCategoria AND i.usuarioCategoria.id.emailResponsable = :emailResponsable")
+	boolean validarSiExistenIncidenciasAsociadasAResponsable(@Param("nombreCategoria") String nombreCategoria, @Param("emailResponsable") String emailResponsable);
+
 	@Query("""
 		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasCategoriaDto(i.usuarioCategoria.id.nombreCategoria, COUNT(i))
 		FROM Incidencia i 
@@ -121,4 +574,31 @@ public interface IIncidenciaRepository extends JpaRepository<Incidencia, Long>
 		ORDER BY COUNT(i) DESC
 	""")
 	List<EstadisticasUbicacionDto> obtenerEstadisticasPorUbicacion(@Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Cuenta las incidencias de un curso académico por ubicación, categoría y estado en una sola consulta
+	 * @param cursoAcademico El curso académico
+	 * @return Una fila por cada combinación con incidencias
+	 */
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasCeldaDto(i.ubicacion.nombre, i.usuarioCategoria.id.nombreCategoria, i.estado, COUNT(i))
+		FROM Incidencia i
+		WHERE i.cursoAcademico = :cursoAcademico
+		GROUP BY i.ubicacion.nombre, i.usuarioCategoria.id.nombreCategoria, i.estado
+	""")
+	List<EstadisticasCeldaDto> obtenerEstadisticasPorCelda(@Param("cursoAcademico") String cursoAcademico);
+
+	/**
+	 * Cuenta las incidencias de un curso académico por mes y categoría
+	 * @param cursoAcademico El curso académico
+	 * @return Una fila por cada mes y categoría con incidencias, en orden cronológico
+	 */
+	@Query("""
+		SELECT new es.iesjandula.reaktor.issues_server.dtos.EstadisticasMesDto(YEAR(i.fecha), MONTH(i.fecha), i.usuarioCategoria.id.nombreCategoria, COUNT(i))
+		FROM Incidencia i
+		WHERE i.cursoAcademico = :cursoAcademico
+		GROUP BY YEAR(i.fecha), MONTH(i.fecha), i.usuarioCategoria.id.nombreCategoria
+		ORDER BY YEAR(i.fecha), MONTH(i.fecha), i.usuarioCategoria.id.nombreCategoria
+	""")
+	List<EstadisticasMesDto> obtenerEstadisticasPorMes(@Param("cursoAcademico") String cursoAcademico);
 }
@@ -17,7 +17,7 @@ import es.iesjandula.reaktor.issues_server.models.Ubicacion;
 public interface IUbicacionRepository extends JpaRepository<Ubicacion, String>
 {
     /**
-     * Busca todas las ubicaciones ordenadas por nombre
+     * Busca todas las ubicaciones ordenadas por nombre.
      * @return Las ubicaciones encontradas
      */
     @Query("SELECT new es.iesjandula.reaktor.issues_server.dtos.UbicacionDto(u.nombre) FROM Ubicacion u ORDER BY u.nombre ASC")
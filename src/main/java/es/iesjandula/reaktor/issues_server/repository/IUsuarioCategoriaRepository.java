@@ -18,10 +18,10 @@ public interface IUsuarioCategoriaRepository
         extends JpaRepository<UsuarioCategoria, UsuarioCategoriaId>
 {
     /**
-     * Busca todos los usuarios-categoría
+     * Busca todos los usuarios-categoría ordenados por categoría y email.
      * @return Los usuarios-categoría encontrados
      */
-    @Query("SELECT new es.iesjandula.reaktor.issues_server.dtos.UsuarioCategoriaDto(uc.id.nombreCategoria, uc.nombreResponsable, uc.id.emailResponsable) FROM UsuarioCategoria uc")
+    @Query("SELECT new es.iesjandula.reaktor.issues_server.dtos.UsuarioCategoriaDto(uc.id.nombreCategoria, uc.nombreResponsable, uc.id.emailResponsable) FROM UsuarioCategoria uc ORDER BY uc.id.nombreCategoria, uc.id.emailResponsable")
     List<UsuarioCategoriaDto> buscarTodos();
 
     /**
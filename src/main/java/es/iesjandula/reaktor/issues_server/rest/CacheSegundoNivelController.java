@@ -0,0 +1,65 @@
+package es.iesjandula.reaktor.issues_server.rest;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import es.iesjandula.reaktor.base.utils.BaseConstants;
+import es.iesjandula.reaktor.issues_server.dtos.RegionCacheDto;
+import es.iesjandula.reaktor.issues_server.services.CacheSegundoNivelService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Controlador REST para consultar la caché de segundo nivel.
+ */
+@Log4j2
+@RestController
+@RequestMapping("/issues/cache")
+public class CacheSegundoNivelController
+{
+    /** Servicio de la caché de segundo nivel */
+    @Autowired
+    private CacheSegundoNivelService cacheSegundoNivelService;
+
+    /**
+     * Obtiene los aciertos, fallos y escrituras de las regiones de caché de los datos de referencia.
+     *
+     * @return ResponseEntity con las métricas de cada región, o 409 (Conflict) si las estadísticas de
+     *         Hibernate están desactivadas
+     */
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+    @GetMapping("/metricas")
+    public ResponseEntity<?> obtenerMetricas()
+    {
+        try
+        {
+            List<RegionCacheDto> metricas = this.cacheSegundoNivelService.obtenerMetricas();
+
+            // Devolvemos la respuesta
+            return ResponseEntity.ok(metricas);
+        }
+        catch (IssuesServerError issuesServerError)
+        {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(issuesServerError.getBodyErrorMessage());
+        }
+        catch (Exception exception)
+        {
+            // Creamos una excepción genérica para devolver al cliente
+            IssuesServerError issuesServerError = new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+            // Log de la excepción
+            log.error("Excepción genérica al obtener las métricas de la caché", issuesServerError);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package es.iesjandula.reaktor.issues_server.rest;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,10 +13,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import es.iesjandula.reaktor.base.utils.BaseConstants;
-import es.iesjandula.reaktor.issues_server.dtos.CategoriaDto;
 import es.iesjandula.reaktor.issues_server.models.Categoria;
 import es.iesjandula.reaktor.issues_server.repository.ICategoriaRepository;
 import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import es.iesjandula.reaktor.issues_server.services.DatosReferenciaService;
 import es.iesjandula.reaktor.issues_server.utils.Constants;
 import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
 import lombok.extern.log4j.Log4j2;
@@ -39,6 +38,12 @@ public class CategoriasController
     @Autowired
     private IIncidenciaRepository incidenciaRepository;
 
+    /***
+     * Servicio de datos de referencia en memoria
+     */
+    @Autowired
+    private DatosReferenciaService datosReferenciaService;
+
     /***
      * Listar todas las categorías de incidencias
      *
@@ -53,14 +58,8 @@ public class CategoriasController
             // Log de la petición   
             log.info("Petición para listar todas las categorías");
 
-            // Buscamos todas las categorías
-            List<CategoriaDto> categoriasDto = this.categoriaRepository.buscarTodasLasCategorias();
-
-            // Log de la respuesta
-            log.info("Se han encontrado {} categorías", categoriasDto.size());
-
-            // Devolvemos la respuesta
-            return ResponseEntity.ok(categoriasDto) ;
+            // Devolvemos el listado ya serializado de la instantánea en memoria
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(this.datosReferenciaService.obtener().getCategoriasJson());
 		}
 		catch (Exception exception)
 		{
@@ -100,6 +99,9 @@ public class CategoriasController
             // Guardamos la categoría
             this.categoriaRepository.saveAndFlush(categoria);
 
+            // Publicamos los nuevos datos de referencia
+            this.datosReferenciaService.recargar();
+
             // Log correcto
             log.info("Categoría '{}' creada correctamente", nombre);
 
@@ -160,6 +162,9 @@ public class CategoriasController
             // Borrar la categoría
             this.categoriaRepository.deleteById(nombre);
 
+            // Publicamos los nuevos datos de referencia
+            this.datosReferenciaService.recargar();
+
             // Log de éxito
             log.info("Categoría '{}' borrada correctamente", nombre);
     
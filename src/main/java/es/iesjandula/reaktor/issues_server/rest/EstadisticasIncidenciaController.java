@@ -9,14 +9,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import es.iesjandula.reaktor.base.utils.BaseConstants;
-import es.iesjandula.reaktor.base.utils.FechasUtils;
 import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCategoriaDto;
 import es.iesjandula.reaktor.issues_server.dtos.EstadisticasEstadoDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasMesDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasResumenDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasTendenciaDto;
 import es.iesjandula.reaktor.issues_server.dtos.EstadisticasUbicacionDto;
-import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import es.iesjandula.reaktor.issues_server.services.EstadisticasService;
 import es.iesjandula.reaktor.issues_server.utils.Constants;
 import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
 
@@ -27,21 +30,18 @@ public class EstadisticasIncidenciaController
 	private static final Logger log = LoggerFactory.getLogger(EstadisticasIncidenciaController.class);
 
 	@Autowired
-	private IIncidenciaRepository incidenciaRepository;
+	private EstadisticasService estadisticasService;
 
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
 	@GetMapping("/por-categoria")
-	public ResponseEntity<?> obtenerEstadisticasPorCategoria()
+	public ResponseEntity<?> obtenerEstadisticasPorCategoria(@RequestParam(required = false) String curso)
 	{
 		try
 		{
 			log.info("Petición para obtener estadísticas de incidencias por categoría");
 
-			// Obtenemos el curso académico actual
-			String cursoAcademico = FechasUtils.obtenerCursoAcademicoActual();
-
 			// Obtenemos las estadísticas por categoría
-			List<EstadisticasCategoriaDto> resultados = incidenciaRepository.obtenerEstadisticasPorCategoria(cursoAcademico);
+			List<EstadisticasCategoriaDto> resultados = this.estadisticasService.obtenerEstadisticasPorCategoria(curso);
 
 			// Devolvemos las estadísticas por categoría
 			return ResponseEntity.ok(resultados);
@@ -58,17 +58,14 @@ public class EstadisticasIncidenciaController
 
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
 	@GetMapping("/por-estado")
-	public ResponseEntity<?> obtenerEstadisticasPorEstado()
+	public ResponseEntity<?> obtenerEstadisticasPorEstado(@RequestParam(required = false) String curso)
 	{
 		try
 		{
 			log.info("Petición para obtener estadísticas de incidencias por estado");
 
-			// Obtenemos el curso académico actual
-			String cursoAcademico = FechasUtils.obtenerCursoAcademicoActual();
-
 			// Obtenemos las estadísticas por estado
-			List<EstadisticasEstadoDto> resultados = incidenciaRepository.obtenerEstadisticasPorEstado(cursoAcademico);
+			List<EstadisticasEstadoDto> resultados = this.estadisticasService.obtenerEstadisticasPorEstado(curso);
 
 			// Devolvemos las estadísticas por estado
 			return ResponseEntity.ok(resultados);
@@ -85,17 +82,14 @@ public class EstadisticasIncidenciaController
 
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
 	@GetMapping("/por-ubicacion")
-	public ResponseEntity<?> obtenerEstadisticasPorUbicacion()
+	public ResponseEntity<?> obtenerEstadisticasPorUbicacion(@RequestParam(required = false) String curso)
 	{
 		try
 		{
 			log.info("Petición para obtener estadísticas de incidencias por ubicación");
 
-			// Obtenemos el curso académico actual
-			String cursoAcademico = FechasUtils.obtenerCursoAcademicoActual();
-
 			// Obtenemos las estadísticas por ubicación
-			List<EstadisticasUbicacionDto> resultados = incidenciaRepository.obtenerEstadisticasPorUbicacion(cursoAcademico);
+			List<EstadisticasUbicacionDto> resultados = this.estadisticasService.obtenerEstadisticasPorUbicacion(curso);
 
 			// Devolvemos las estadísticas por ubicación
 			return ResponseEntity.ok(resultados);
@@ -109,4 +103,83 @@ public class EstadisticasIncidenciaController
 			return ResponseEntity.status(500).body(issuesError.getBodyErrorMessage());
 		}
 	}
+
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
+	@GetMapping("/resumen")
+	public ResponseEntity<?> obtenerResumenEstadisticas(@RequestParam(required = false) String curso)
+	{
+		try
+		{
+			log.info("Petición para obtener el resumen de estadísticas de incidencias");
+
+			// Calculamos todos los desgloses y tablas cruzadas en una sola consulta
+			EstadisticasResumenDto resumen = this.estadisticasService.obtenerResumen(curso);
+
+			// Devolvemos el resumen de estadísticas
+			return ResponseEntity.ok(resumen);
+		}
+		catch (Exception exception)
+		{
+			String mensajeError = "Error inesperado al obtener el resumen de estadísticas";
+			log.error(mensajeError, exception);
+
+			IssuesServerError issuesError = new IssuesServerError(Constants.ERR_GENERICO_CODE, mensajeError, exception);
+			return ResponseEntity.status(500).body(issuesError.getBodyErrorMessage());
+		}
+	}
+
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
+	@GetMapping("/mensual")
+	public ResponseEntity<?> obtenerEstadisticasPorMes(@RequestParam(required = false) String curso)
+	{
+		try
+		{
+			log.info("Petición para obtener estadísticas mensuales de incidencias");
+
+			// Obtenemos las estadísticas por mes y categoría
+			List<EstadisticasMesDto> resultados = this.estadisticasService.obtenerEstadisticasPorMes(curso);
+
+			// Devolvemos las estadísticas mensuales
+			return ResponseEntity.ok(resultados);
+		}
+		catch (Exception exception)
+		{
+			String mensajeError = "Error inesperado al obtener estadísticas mensuales";
+			log.error(mensajeError, exception);
+
+			IssuesServerError issuesError = new IssuesServerError(Constants.ERR_GENERICO_CODE, mensajeError, exception);
+			return ResponseEntity.status(500).body(issuesError.getBodyErrorMessage());
+		}
+	}
+
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
+	@GetMapping("/tendencia")
+	public ResponseEntity<?> obtenerTendencia(@RequestParam(defaultValue = "categoria") String dimension,
+											  @RequestParam(required = false) String desde,
+											  @RequestParam(required = false) String hasta,
+											  @RequestParam(required = false) String periodo)
+	{
+		try
+		{
+			log.info("Petición para obtener la tendencia de incidencias por {}", dimension);
+
+			// Obtenemos la tendencia sumando los agregados diarios
+			List<EstadisticasTendenciaDto> resultados = this.estadisticasService.obtenerTendencia(dimension, desde, hasta, periodo);
+
+			// Devolvemos la tendencia
+			return ResponseEntity.ok(resultados);
+		}
+		catch (IssuesServerError issuesServerError)
+		{
+			return ResponseEntity.badRequest().body(issuesServerError.getBodyErrorMessage());
+		}
+		catch (Exception exception)
+		{
+			String mensajeError = "Error inesperado al obtener la tendencia de incidencias";
+			log.error(mensajeError, exception);
+
+			IssuesServerError issuesError = new IssuesServerError(Constants.ERR_GENERICO_CODE, mensajeError, exception);
+			return ResponseEntity.status(500).body(issuesError.getBodyErrorMessage());
+		}
+	}
 }
\ No newline at end of file
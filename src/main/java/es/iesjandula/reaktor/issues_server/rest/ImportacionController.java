@@ -0,0 +1,174 @@
+package es.iesjandula.reaktor.issues_server.rest;
+
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import es.iesjandula.reaktor.base.utils.BaseConstants;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoImportacionDto;
+import es.iesjandula.reaktor.issues_server.services.ImportacionCsvService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Controlador REST para importar datos desde ficheros CSV (multipart, campo "fichero").
+ * <p>
+ * Todos los endpoints devuelven el número de filas leídas, importadas y erróneas, junto con
+ * el número de línea y el error de las filas que no se han podido importar.
+ * </p>
+ */
+@Log4j2
+@RestController
+@RequestMapping("/issues/importacion")
+public class ImportacionController
+{
+    /** Servicio de importación CSV */
+    @Autowired
+    private ImportacionCsvService importacionCsvService;
+
+    /**
+     * Importa ubicaciones (columna nombre).
+     *
+     * @param fichero El fichero CSV.
+     * @return ResponseEntity con el resultado de la importación
+     */
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+    @PostMapping(value = "/ubicaciones", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarUbicaciones(@RequestParam("fichero") MultipartFile fichero)
+    {
+        try (InputStream inputStream = fichero.getInputStream())
+        {
+            ResultadoImportacionDto resultado = this.importacionCsvService.importarUbicaciones(inputStream);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.ok(resultado);
+        }
+        catch (IssuesServerError issuesServerError)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+        }
+        catch (Exception exception)
+        {
+            // Creamos una excepción genérica para devolver al cliente
+            IssuesServerError issuesServerError = new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+            // Log de la excepción
+            log.error("Excepción genérica al importar las ubicaciones", issuesServerError);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+        }
+    }
+
+    /**
+     * Importa categorías (columnas nombre e imprimirInforme).
+     *
+     * @param fichero El fichero CSV.
+     * @return ResponseEntity con el resultado de la importación
+     */
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+    @PostMapping(value = "/categorias", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarCategorias(@RequestParam("fichero") MultipartFile fichero)
+    {
+        try (InputStream inputStream = fichero.getInputStream())
+        {
+            ResultadoImportacionDto resultado = this.importacionCsvService.importarCategorias(inputStream);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.ok(resultado);
+        }
+        catch (IssuesServerError issuesServerError)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+        }
+        catch (Exception exception)
+        {
+            // Creamos una excepción genérica para devolver al cliente
+            IssuesServerError issuesServerError = new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+            // Log de la excepción
+            log.error("Excepción genérica al importar las categorías", issuesServerError);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+        }
+    }
+
+    /**
+     * Importa responsables de categorías (columnas categoria, emailResponsable y nombreResponsable).
+     *
+     * @param fichero El fichero CSV.
+     * @return ResponseEntity con el resultado de la importación
+     */
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+    @PostMapping(value = "/responsables", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarResponsables(@RequestParam("fichero") MultipartFile fichero)
+    {
+        try (InputStream inputStream = fichero.getInputStream())
+        {
+            ResultadoImportacionDto resultado = this.importacionCsvService.importarResponsables(inputStream);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.ok(resultado);
+        }
+        catch (IssuesServerError issuesServerError)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+        }
+        catch (Exception exception)
+        {
+            // Creamos una excepción genérica para devolver al cliente
+            IssuesServerError issuesServerError = new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+            // Log de la excepción
+            log.error("Excepción genérica al importar los responsables", issuesServerError);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+        }
+    }
+
+    /**
+     * Importa incidencias históricas (columnas de la exportación CSV más cursoAcademico).
+     *
+     * @param fichero El fichero CSV.
+     * @return ResponseEntity con el resultado de la importación
+     */
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+    @PostMapping(value = "/incidencias", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarIncidencias(@RequestParam("fichero") MultipartFile fichero)
+    {
+        try (InputStream inputStream = fichero.getInputStream())
+        {
+            ResultadoImportacionDto resultado = this.importacionCsvService.importarIncidencias(inputStream);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.ok(resultado);
+        }
+        catch (IssuesServerError issuesServerError)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+        }
+        catch (Exception exception)
+        {
+            // Creamos una excepción genérica para devolver al cliente
+            IssuesServerError issuesServerError = new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+            // Log de la excepción
+            log.error("Excepción genérica al importar las incidencias", issuesServerError);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+        }
+    }
+}
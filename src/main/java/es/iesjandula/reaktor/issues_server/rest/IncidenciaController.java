@@ -1,18 +1,18 @@
 package es.iesjandula.reaktor.issues_server.rest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.templatemode.TemplateMode;
-import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,31 +21,45 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import es.iesjandula.reaktor.base.security.models.DtoUsuarioExtended;
 import es.iesjandula.reaktor.base.utils.FechasUtils;
-import es.iesjandula.reaktor.base_client.dtos.NotificationEmailDto;
-import es.iesjandula.reaktor.base_client.requests.notificaciones.RequestNotificacionesEnviarEmail;
-import es.iesjandula.reaktor.base_client.requests.printers.RequestImpresion;
-import es.iesjandula.reaktor.base_client.requests.school_base_server.ObtencionCursoAcademico;
-import es.iesjandula.reaktor.base_client.utils.BaseClientException;
 import es.iesjandula.reaktor.base.utils.BaseConstants;
-import es.iesjandula.reaktor.base.utils.BaseException;
+import es.iesjandula.reaktor.issues_server.dtos.ActualizacionLoteDto;
+import es.iesjandula.reaktor.issues_server.dtos.CrearIncidenciaDto;
 import es.iesjandula.reaktor.issues_server.dtos.FiltroBusquedaDto;
 import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaEventoDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.dtos.PaginaCursorDto;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoActualizacionLoteDto;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoLoteDto;
 import es.iesjandula.reaktor.issues_server.models.Incidencia;
 import es.iesjandula.reaktor.issues_server.models.Ubicacion;
 import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
 import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
-import es.iesjandula.reaktor.issues_server.repository.IUbicacionRepository;
 import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
-import es.iesjandula.reaktor.issues_server.repository.IUsuarioCategoriaRepository;
-import es.iesjandula.reaktor.issues_server.services.PdfParteDesperfectosService;
+import es.iesjandula.reaktor.issues_server.services.BusquedaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.ConsultaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.DatosReferenciaService;
+import es.iesjandula.reaktor.issues_server.services.ExportacionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.HistorialIncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.ImpresionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.IncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.IndiceTextoIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.AsignacionResponsableService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesLote;
 import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.CursorKeyset;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerConflictError;
 import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.log4j.Log4j2;
 
 /**
@@ -70,6 +84,11 @@ import lombok.extern.log4j.Log4j2;
  * <li><strong>Actualizar Responsable de Incidencia:</strong> Permite la actualización del responsable de una incidencia.</li>
  * <li><strong>Listado de Estados de Incidencias:</strong> Permite obtener el listado de estados de las incidencias.</li>
  * <li><strong>Listado de Incidencias Ordenadas por Fecha:</strong> Permite obtener el listado de incidencias ordenadas por fecha.</li>
+ * <li><strong>Listado de Incidencias por Cursor:</strong> Permite recorrer el listado de incidencias con paginación por clave.</li>
+ * <li><strong>Crear Incidencias en Lote:</strong> Permite crear varias incidencias en una sola petición.</li>
+ * <li><strong>Buscar Incidencias por Texto:</strong> Permite buscar incidencias por relevancia en el problema y la solución.</li>
+ * <li><strong>Historial de Incidencia:</strong> Permite consultar los cambios de una incidencia en orden cronológico.</li>
+ * <li><strong>Exportar Incidencias:</strong> Permite descargar las incidencias de un curso académico en CSV o JSON Lines.</li>
  * <li><strong>Borrar Incidencia:</strong> Permite la eliminación de una incidencia.</li>
  * incidencias existentes.</li>
  * <li><strong>Buscar Incidencias:</strong> Permite buscar incidencias basadas
@@ -94,31 +113,41 @@ import lombok.extern.log4j.Log4j2;
 @RequestMapping(value = "/issues/incidencias")
 public class IncidenciaController
 {
-	/** Repositorio de ubicaciones */
+	/** Servicio de datos de referencia en memoria */
+	@Autowired
+	private DatosReferenciaService datosReferenciaService;
+
+	/** Servicio de impresión del parte de desperfectos */
+	@Autowired
+	private ImpresionIncidenciasService impresionIncidenciasService;
+
+	/** Servicio de exportación de incidencias */
 	@Autowired
-	private IUbicacionRepository ubicacionRepository;
-	
-	/** Repositorio de incidencias */
+	private ExportacionIncidenciasService exportacionIncidenciasService;
+
+	/** Servicio de búsqueda de incidencias */
 	@Autowired
-	private IIncidenciaRepository incidenciaRepository;
-	
-	/** Repositorio de usuarios-categoría */
+	private BusquedaIncidenciasService busquedaIncidenciasService;
+
+	/** Servicio del índice de texto completo de incidencias */
 	@Autowired
-	private IUsuarioCategoriaRepository usuarioCategoriaRepository;
+	private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
 
+	/** Servicio de escritura de incidencias */
 	@Autowired
-	private RequestNotificacionesEnviarEmail requestNotificacionesEnviarEmail;
- 
+	private IncidenciaService incidenciaService;
+
+	/** Servicio de lectura de los listados de incidencias */
 	@Autowired
-	private PdfParteDesperfectosService pdfParteDesperfectosService;
+	private ConsultaIncidenciasService consultaIncidenciasService;
 
-	/** Request para obtener el curso académico seleccionado */
+	/** Servicio de asignación de responsables */
 	@Autowired
-	private ObtencionCursoAcademico obtencionCursoAcademico;
+	private AsignacionResponsableService asignacionResponsableService;
 
-	/** Request para imprimir el informe de la incidencia */
+	/** Servicio del historial de incidencias */
 	@Autowired
-	private RequestImpresion requestImpresion;
+	private HistorialIncidenciaService historialIncidenciaService;
 
 	/**
 	 * Crea una nueva incidencia en el sistema por parte del usuario.
@@ -149,21 +178,21 @@ public class IncidenciaController
             // Validaciones previas sobre los datos de la incidencia
 			this.validarCrearIncidencia(nombreUbicacion, problema, nombreCategoria);
 
+			// Leemos los datos de referencia de la instantánea en memoria
+			DatosReferencia datosReferencia = this.datosReferenciaService.obtener();
+
 			// Buscamos la ubicación
-			Optional<Ubicacion> optionalUbicacion = this.ubicacionRepository.findById(nombreUbicacion);
+			Ubicacion ubicacion = datosReferencia.getUbicaciones().get(nombreUbicacion);
 
 			// Validamos que la ubicación exista
-			if (!optionalUbicacion.isPresent())
+			if (ubicacion == null)
 			{
 				log.error(Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_MESSAGE);
 				throw new IssuesServerError(Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_CODE, Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_MESSAGE);
 			}
 
-			// Obtenemos la ubicación
-			Ubicacion ubicacion = optionalUbicacion.get();
-
-			// Buscamos el primer responsable de la categoría
-			UsuarioCategoria responsableCategoria = this.buscarPrimerResponsablePorCategoria(nombreCategoria);
+			// Asignamos el responsable de la categoría según la estrategia configurada
+			UsuarioCategoria responsableCategoria = this.asignarResponsablePorCategoria(datosReferencia, nombreCategoria, nombreUbicacion, null);
 
             // Creamos la nueva incidencia
             Incidencia nuevaIncidencia = new Incidencia();
@@ -178,27 +207,18 @@ public class IncidenciaController
 			nuevaIncidencia.setSolucion(null);
 			nuevaIncidencia.setUsuarioCategoria(responsableCategoria);
 
-            // Guardamos la incidencia en la base de datos
-            this.incidenciaRepository.saveAndFlush(nuevaIncidencia);
+            // Guardamos la incidencia en la base de datos junto con sus contadores de estadísticas y su historial
+            this.incidenciaService.crear(nuevaIncidencia, usuario.getEmail());
 
 			// Logueamos la incidencia creada
             log.info("Incidencia creada correctamente: {}", nuevaIncidencia);
 
-			// Enviamos la notificación email al responsable de la categoría
-			this.enviarEmailCreacionIncidencia(nuevaIncidencia);
+			// Añadimos la incidencia al índice de texto
+			this.indiceTextoIncidenciasService.indexar(nuevaIncidencia.getId(), nuevaIncidencia.getProblema(), nuevaIncidencia.getSolucion());
 
-            // Obtenemos el valor de "imprimirInforme" de la categoría
-            Boolean imprimirInforme = nuevaIncidencia.getUsuarioCategoria().getCategoria().getImprimirInforme();
-
-			// Si la categoría fue configurada así, imprimimos el informe
-			if (imprimirInforme != null && imprimirInforme)
-			{
-				// Obtenemos el curso académico seleccionado
-				String cursoAcademico = this.obtencionCursoAcademico.obtenerCursoAcademicoSeleccionado();
+			// Si la categoría fue configurada así, imprimimos el informe en segundo plano
+			this.impresionIncidenciasService.imprimirPartes(List.of(nuevaIncidencia));
 
-				// Imprimimos el informe de la incidencia
-				this.imprimirInformeIncidencia(cursoAcademico, nuevaIncidencia);
-			}
 			// Devolvemos la respuesta
             return ResponseEntity.ok().build();
         }
@@ -220,29 +240,164 @@ public class IncidenciaController
     }
 
 	/**
-	 * Imprime el informe de la incidencia si la categoría fue configurada así.
-	 * @param incidencia La incidencia a imprimir el informe.
+	 * Crea varias incidencias en una sola petición por parte del usuario.
+	 * 
+	 * Las ubicaciones y los responsables de las categorías se buscan una sola vez para todo el lote
+	 * y las incidencias válidas se insertan juntas en una transacción. Los elementos no válidos no
+	 * impiden crear el resto y se informan en el resultado de su posición.
+	 * 
+	 * @param usuario El usuario que crea las incidencias.
+	 * @param incidencias Las incidencias a crear.
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con el resultado de cada elemento (id creado o error).</li>
+	 *         <li>Un código de estado 400 (Bad Request) si el lote está vacío o es demasiado grande.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
 	 */
-	private void imprimirInformeIncidencia(String cursoAcademico, Incidencia incidencia)
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
+	@PostMapping("/lote")
+	public ResponseEntity<?> crearIncidenciasLote(@AuthenticationPrincipal DtoUsuarioExtended usuario,
+												  @RequestBody(required = false) List<CrearIncidenciaDto> incidencias)
 	{
 		try
 		{
-			// Generamos el PDF del parte de desperfectos
-			byte[] pdfParteDesperfectos = this.pdfParteDesperfectosService.generarPdfParteDesperfectos(cursoAcademico, incidencia);
+			// Validamos el tamaño del lote
+			if (incidencias == null || incidencias.isEmpty() || incidencias.size() > Constants.TAMANIO_LOTE_MAXIMO)
+			{
+				log.error(Constants.ERR_LOTE_NO_VALIDO_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_LOTE_NO_VALIDO_CODE, Constants.ERR_LOTE_NO_VALIDO_MESSAGE);
+			}
+
+			// Todo el lote se valida contra la misma instantánea de los datos de referencia
+			DatosReferencia datosReferencia = this.datosReferenciaService.obtener();
+
+			// Las asignaciones del lote se reparten teniendo en cuenta las anteriores del mismo lote
+			CargaResponsablesLote cargaLote = this.asignacionResponsableService.crearCargaLote();
+
+			// Creamos las incidencias válidas y anotamos el resultado de cada elemento
+			String cursoAcademico                = FechasUtils.obtenerCursoAcademicoActual();
+			LocalDateTime fecha                  = LocalDateTime.now();
+			List<Incidencia> nuevasIncidencias   = new ArrayList<Incidencia>();
+			List<ResultadoLoteDto> resultados    = new ArrayList<ResultadoLoteDto>();
+
+			for (int i = 0; i < incidencias.size(); i++)
+			{
+				CrearIncidenciaDto crearIncidenciaDto = incidencias.get(i);
+				ResultadoLoteDto resultado            = new ResultadoLoteDto(i, null, null);
+
+				try
+				{
+					Incidencia nuevaIncidencia = this.crearIncidenciaLote(crearIncidenciaDto, datosReferencia, cargaLote, usuario, cursoAcademico, fecha);
+
+					nuevasIncidencias.add(nuevaIncidencia);
+				}
+				catch (IssuesServerError issuesServerError)
+				{
+					resultado.setError(issuesServerError.getBodyErrorMessage());
+				}
 
-			// Imprimimos el PDF
-			this.requestImpresion.imprimirPdf(pdfParteDesperfectos);
+				resultados.add(resultado);
+			}
+
+			if (!nuevasIncidencias.isEmpty())
+			{
+				// Guardamos todas las incidencias y su historial en una transacción con inserciones en lote
+				this.incidenciaService.crearLote(nuevasIncidencias, true, usuario.getEmail());
+
+				log.info("Creadas {} incidencias en lote por {}", nuevasIncidencias.size(), usuario.getEmail());
+			}
+
+			// Completamos los resultados con los ids generados (en el mismo orden en que se crearon)
+			int siguiente = 0;
+			for (ResultadoLoteDto resultado : resultados)
+			{
+				if (resultado.getError() == null)
+				{
+					resultado.setId(nuevasIncidencias.get(siguiente++).getId());
+				}
+			}
+
+			// Tareas posteriores a la creación de cada incidencia
+			for (Incidencia nuevaIncidencia : nuevasIncidencias)
+			{
+				this.indiceTextoIncidenciasService.indexar(nuevaIncidencia.getId(), nuevaIncidencia.getProblema(), nuevaIncidencia.getSolucion());
+			}
+
+			// Imprimimos en segundo plano los informes de las categorías configuradas así
+			if (!nuevasIncidencias.isEmpty())
+			{
+				this.impresionIncidenciasService.imprimirPartes(nuevasIncidencias);
+			}
+
+			// Devolvemos la respuesta
+			return ResponseEntity.ok().body(resultados);
 		}
-		catch (BaseException | BaseClientException reaktorException)
+		catch (IssuesServerError issuesServerError)
 		{
-			// Ya ha sido logueada previamente
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
 		}
-		catch (IssuesServerError issuesServerError)
+		catch (Exception exception)
 		{
-			// Ya ha sido logueada previamente
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al crear el lote de incidencias", issuesServerError);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
 		}
 	}
 
+	/**
+	 * Valida un elemento de un lote y crea la incidencia correspondiente (sin guardarla).
+	 * @param crearIncidenciaDto Los datos de la incidencia.
+	 * @param datosReferencia Los datos de referencia con los que se valida el lote.
+	 * @param cargaLote La carga de los responsables con las incidencias ya asignadas en el lote.
+	 * @param usuario El usuario que crea la incidencia.
+	 * @param cursoAcademico El curso académico actual.
+	 * @param fecha La fecha de creación.
+	 * @return La incidencia creada.
+	 * @throws IssuesServerError si los datos del elemento no son válidos
+	 */
+	private Incidencia crearIncidenciaLote(CrearIncidenciaDto crearIncidenciaDto,
+										   DatosReferencia datosReferencia,
+										   CargaResponsablesLote cargaLote,
+										   DtoUsuarioExtended usuario,
+										   String cursoAcademico,
+										   LocalDateTime fecha) throws IssuesServerError
+	{
+		// Validaciones previas sobre los datos de la incidencia
+		this.validarCrearIncidencia(crearIncidenciaDto.getNombreUbicacion(), crearIncidenciaDto.getProblema(), crearIncidenciaDto.getNombreCategoria());
+
+		// Validamos que la ubicación exista
+		Ubicacion ubicacion = datosReferencia.getUbicaciones().get(crearIncidenciaDto.getNombreUbicacion());
+		if (ubicacion == null)
+		{
+			log.error(Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_MESSAGE);
+			throw new IssuesServerError(Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_CODE, Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_MESSAGE);
+		}
+
+		// Asignamos el responsable de la categoría según la estrategia configurada
+		UsuarioCategoria responsableCategoria = this.asignarResponsablePorCategoria(datosReferencia, crearIncidenciaDto.getNombreCategoria(), ubicacion.getNombre(), cargaLote);
+
+		// Creamos la nueva incidencia
+		Incidencia nuevaIncidencia = new Incidencia();
+		nuevaIncidencia.setCursoAcademico(cursoAcademico);
+		nuevaIncidencia.setUbicacion(ubicacion);
+		nuevaIncidencia.setEmail(usuario.getEmail());
+		nuevaIncidencia.setNombre(usuario.getNombre());
+		nuevaIncidencia.setApellidos(usuario.getApellidos());
+		nuevaIncidencia.setFecha(fecha);
+		nuevaIncidencia.setProblema(crearIncidenciaDto.getProblema());
+		nuevaIncidencia.setEstado(Constants.ESTADO_PENDIENTE);
+		nuevaIncidencia.setSolucion(null);
+		nuevaIncidencia.setUsuarioCategoria(responsableCategoria);
+
+		return nuevaIncidencia;
+	}
+
 	/**
 	 * Valida los datos de la incidencia.
 	 * <p>
@@ -284,42 +439,50 @@ public class IncidenciaController
 	 * Este método recibe el ID de la incidencia y el nombre de la categoría a actualizar.
 	 * Se realiza la validación de los datos y, si son válidos, se actualiza la categoría de la incidencia en la base de datos.
 	 * 
+	 * @param usuario El administrador que actualiza la incidencia.
 	 * @param id El ID de la incidencia.
 	 * @param nombreCategoria El nombre de la categoría de la incidencia.
+	 * @param ifMatch La versión (ETag) de la incidencia que conoce el cliente, opcional.
 	 * @return Un objeto {@link ResponseEntity} que puede contener:
 	 *         <ul>
-	 *         <li>Un código de estado 200 (OK) si la categoría de la incidencia se actualiza correctamente.</li>
+	 *         <li>Un código de estado 200 (OK) con la nueva versión en el ETag si la categoría de la incidencia se actualiza correctamente.</li>
 	 *         <li>Un código de estado 400 (Bad Request) si los datos de la incidencia no son válidos.</li>
+	 *         <li>Un código de estado 412 (Precondition Failed) si otro usuario ha modificado la incidencia.</li>
 	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
 	 *         </ul>
 	 * @throws IssuesServerError si los datos de la incidencia no son válidos
 	 */
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
 	@PutMapping("/categoria/")
-	public ResponseEntity<?> actualizarCategoria(@RequestHeader Long id, @RequestHeader String nombreCategoria)
+	public ResponseEntity<?> actualizarCategoria(@AuthenticationPrincipal DtoUsuarioExtended usuario,
+												 @RequestHeader Long id,
+												 @RequestHeader String nombreCategoria,
+												 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
 	{
 		try
 		{
-			// Buscamos la incidencia a actualizar
-			Incidencia incidencia = this.buscarIncidenciaPorId(id);
-
-			// Buscamos el primer responsable de la categoría
-			UsuarioCategoria responsableCategoria = this.buscarPrimerResponsablePorCategoria(nombreCategoria);
+			// Validamos el ID de la incidencia y la versión esperada
+			this.validarIdIncidencia(id);
+			Long versionEsperada = this.obtenerVersionEsperada(ifMatch);
 
-			// Asignamos el primer responsable que se encuentre
-			incidencia.setUsuarioCategoria(responsableCategoria);
+			// Buscamos los responsables de la nueva categoría
+			List<UsuarioCategoria> responsables = this.buscarResponsablesCategoria(this.datosReferenciaService.obtener(), nombreCategoria);
 
-			// Guardamos la incidencia en la base de datos
-			this.incidenciaRepository.saveAndFlush(incidencia);
+			// Asignamos uno de ellos con la ubicación de la incidencia, que se lee al actualizarla, guardamos el responsable
+			// asignado y actualizamos sus contadores y su historial, obteniendo los datos anteriores.
+			// Como la incidencia ha cambiado de categoría, se avisa al nuevo responsable igual que al crearla
+			IncidenciaNotificacionDto anterior = this.incidenciaService.actualizarCategoria(id, nombreUbicacion -> this.asignacionResponsableService.asignar(responsables, nombreUbicacion),
+																							versionEsperada, usuario.getEmail());
 
 			// Logueamos la incidencia actualizada
-			log.info("Categoría de la incidencia actualizada correctamente: {}", incidencia);
+			log.info("Categoría de la incidencia {} actualizada correctamente: {}", id, nombreCategoria);
 
-			// Enviamos la notificación email de creación de incidencia, ya que ha cambiado de categoría
-			this.enviarEmailCreacionIncidencia(incidencia);
-
-			// Devolvemos la respuesta
-			return ResponseEntity.ok().build();
+			// Devolvemos la respuesta con la nueva versión de la incidencia
+			return ResponseEntity.ok().eTag(String.valueOf(anterior.getVersion() + 1)).build();
+		}
+		catch (IssuesServerConflictError issuesServerConflictError)
+		{
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(issuesServerConflictError.getBodyErrorMessage());
 		}
 		catch (IssuesServerError issuesServerError)
 		{
@@ -339,70 +502,39 @@ public class IncidenciaController
 	}
 
 	/**
-	 * Envia una notificación email al responsable elegido para la categoría de la incidencia.
-	 * @param incidencia La incidencia a notificar.
+	 * Asigna un responsable de una categoría con la estrategia de asignación configurada.
+	 * @param datosReferencia Los datos de referencia.
+	 * @param nombreCategoria El nombre de la categoría.
+	 * @param nombreUbicacion La ubicación de la incidencia.
+	 * @param cargaLote La carga de las incidencias ya asignadas en el lote, o null si no se asigna un lote.
+	 * @return El responsable asignado.
+	 * @throws IssuesServerError si la categoría no tiene responsables
 	 */
-	private void enviarEmailCreacionIncidencia(Incidencia incidencia)
+	private UsuarioCategoria asignarResponsablePorCategoria(DatosReferencia datosReferencia,
+															String nombreCategoria,
+															String nombreUbicacion,
+															CargaResponsablesLote cargaLote) throws IssuesServerError
 	{
-		try
-		{
-			// Creamos la lista de destinatarios
-			List<String> destinatarios = Arrays.asList(incidencia.getUsuarioCategoria().getId().getEmailResponsable());
+		// Buscamos los responsables de la categoría
+		List<UsuarioCategoria> responsables = this.buscarResponsablesCategoria(datosReferencia, nombreCategoria);
 
-			// Creamos el asunto de la notificación
-			String asunto = String.format("Nueva incidencia creada por %s %s en %s",
-										  incidencia.getNombre(),
-										  incidencia.getApellidos(),
-										  incidencia.getUbicacion().getNombre());
-			
-			String cuerpo = this.generarCuerpoIncidenciaCreadaHtml(incidencia);
-
-			// Creamos el DTO de la notificación email
-			NotificationEmailDto notificationEmailDto = new NotificationEmailDto(destinatarios, null, null, asunto, cuerpo);
-
-			// Enviamos la notificación email
-			this.requestNotificacionesEnviarEmail.enviarNotificacionEmail(notificationEmailDto);
-		}
-		catch (BaseClientException exception)
+		// Elegimos uno de ellos según la carga actual (y la del lote, si se está asignando uno)
+		if (cargaLote == null)
 		{
-			// Ya ha sido logueada previamente
+			return this.asignacionResponsableService.asignar(responsables, nombreUbicacion);
 		}
-		catch (Exception exception)
-		{
-			// Ya ha sido logueada previamente
-			log.error("Error al enviar la notificación email (creación de incidencia)", exception);
-		}
-	}
 
-	/**
-	 * Genera el cuerpo de la notificación email de creación de incidencia.
-	 * @param incidencia La incidencia a generar el cuerpo.
-	 * @return El cuerpo de la notificación email de creación de incidencia.
-	 */
-	private String generarCuerpoIncidenciaCreadaHtml(Incidencia incidencia)
-	{
-		// Creamos el template engine
-		TemplateEngine engine = this.crearTemplateEngine();
-
-		// Creamos el contexto
-		Context context = new Context();
-
-		// Añadimos las variables al contexto
-		context.setVariable(Constants.VARIABLE_CONTEXT_NOMBRE_USUARIO, incidencia.getNombre() + " " + incidencia.getApellidos());
-		context.setVariable(Constants.VARIABLE_CONTEXT_UBICACION, incidencia.getUbicacion().getNombre());
-		context.setVariable(Constants.VARIABLE_CONTEXT_PROBLEMA, incidencia.getProblema());
-	
-		// Procesamos el template y devolvemos el cuerpo
-		return engine.process(Constants.PLANTILLA_EMAIL_INCIDENCIA_CREADA, context);
+		return this.asignacionResponsableService.asignar(responsables, nombreUbicacion, cargaLote);
 	}
 
 	/**
-	 * Busca el primer responsable de una categoría.
+	 * Busca los responsables de una categoría.
+	 * @param datosReferencia Los datos de referencia.
 	 * @param nombreCategoria El nombre de la categoría.
-	 * @return El primer responsable de la categoría.
-	 * @throws IssuesServerError si el primer responsable no existe
+	 * @return Los responsables de la categoría.
+	 * @throws IssuesServerError si la categoría no está informada o no tiene responsables
 	 */
-	private UsuarioCategoria buscarPrimerResponsablePorCategoria(String nombreCategoria) throws IssuesServerError
+	private List<UsuarioCategoria> buscarResponsablesCategoria(DatosReferencia datosReferencia, String nombreCategoria) throws IssuesServerError
 	{
 		// Validamos el nombre de la categoría
 		if (nombreCategoria == null || nombreCategoria.isEmpty())
@@ -411,18 +543,17 @@ public class IncidenciaController
 			throw new IssuesServerError(Constants.ERR_CATEGORIA_NO_INFORMADA_CODE, Constants.ERR_CATEGORIA_NO_INFORMADA_MESSAGE);
 		}
 
-		// Buscamos los responsables de la categoría (el primero de la lista)
-		List<UsuarioCategoria> responsablesCategoria = this.usuarioCategoriaRepository.buscarResponsablesPorCategoria(nombreCategoria);
+		// Buscamos los responsables de la categoría
+		List<UsuarioCategoria> responsables = datosReferencia.getResponsablesPorCategoria().get(nombreCategoria);
 
-		// Validamos que los responsables existan
-		if (responsablesCategoria.isEmpty())
+		// Validamos que la categoría tenga algún responsable
+		if (responsables == null || responsables.isEmpty())
 		{
 			log.error(Constants.ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_MESSAGE);
 			throw new IssuesServerError(Constants.ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_CODE, Constants.ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_MESSAGE);
 		}
 
-		// Devolvemos el primer responsable
-		return responsablesCategoria.get(0);
+		return responsables;
 	}
 
 	/**
@@ -431,18 +562,24 @@ public class IncidenciaController
 	 * Este método recibe el ID de la incidencia y el estado a actualizar.
 	 * Se realiza la validación de los datos y, si son válidos, se actualiza el estado de la incidencia en la base de datos.
 	 * 
+	 * @param usuario El administrador que actualiza la incidencia.
 	 * @param id El ID de la incidencia.
 	 * @param estado El estado de la incidencia.
+	 * @param ifMatch La versión (ETag) de la incidencia que conoce el cliente, opcional.
 	 * @return Un objeto {@link ResponseEntity} que puede contener:
 	 *         <ul>
-	 *         <li>Un código de estado 200 (OK) si el estado de la incidencia se actualiza correctamente.</li>
+	 *         <li>Un código de estado 200 (OK) con la nueva versión en el ETag si el estado de la incidencia se actualiza correctamente.</li>
 	 *         <li>Un código de estado 400 (Bad Request) si los datos de la incidencia no son válidos.</li>
+	 *         <li>Un código de estado 412 (Precondition Failed) si otro usuario ha modificado la incidencia.</li>
 	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
 	 *         </ul>
 	 */
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
 	@PutMapping("/estado/")
-	public ResponseEntity<?> actualizarEstado(@RequestHeader Long id, @RequestHeader String estado)
+	public ResponseEntity<?> actualizarEstado(@AuthenticationPrincipal DtoUsuarioExtended usuario,
+											  @RequestHeader Long id,
+											  @RequestHeader String estado,
+											  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
 	{
 		try
 		{
@@ -460,23 +597,22 @@ public class IncidenciaController
 				throw new IssuesServerError(Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_CODE, Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_MESSAGE);
 			}
 
-			// Buscamos la incidencia a actualizar
-			Incidencia incidencia = this.buscarIncidenciaPorId(id);
-
-			// Actualizamos el estado de la incidencia
-			incidencia.setEstado(estado);
+			// Validamos el ID de la incidencia y la versión esperada
+			this.validarIdIncidencia(id);
+			Long versionEsperada = this.obtenerVersionEsperada(ifMatch);
 
-			// Guardamos la incidencia en la base de datos
-			this.incidenciaRepository.saveAndFlush(incidencia);
+			// Actualizamos el estado de la incidencia junto con sus contadores y su historial, obteniendo los datos anteriores
+			IncidenciaNotificacionDto anterior = this.incidenciaService.actualizarEstado(id, estado, versionEsperada, usuario.getEmail());
 
 			// Logueamos la incidencia actualizada
-			log.info("Estado de la incidencia actualizado correctamente: {}", incidencia);
+			log.info("Estado de la incidencia {} actualizado correctamente: {}", id, estado);
 
-			// Enviamos la notificación email al usuario y al responsable de la categoría de la incidencia
-			this.enviarEmailActualizacionEstado(incidencia);
-
-			// Devolvemos la respuesta
-			return ResponseEntity.ok().build();
+			// Devolvemos la respuesta con la nueva versión de la incidencia
+			return ResponseEntity.ok().eTag(String.valueOf(anterior.getVersion() + 1)).build();
+		}
+		catch (IssuesServerConflictError issuesServerConflictError)
+		{
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(issuesServerConflictError.getBodyErrorMessage());
 		}
 		catch (IssuesServerError issuesServerError)
 		{
@@ -495,64 +631,6 @@ public class IncidenciaController
 		}
 	}
 
-	/**
-	 * Envia una notificación email al usuario para que sepa que el estado de su incidencia ha cambiado.
-	 * @param incidencia La incidencia a notificar.
-	 */
-	private void enviarEmailActualizacionEstado(Incidencia incidencia)
-	{
-		try
-		{
-			// Creamos la lista de destinatarios
-			List<String> destinatarios = Arrays.asList(incidencia.getEmail());
-
-			// Creamos el asunto de la notificación
-			String asunto = String.format("El estado de la incidencia del aula %s ha cambiado a %s",
-										  incidencia.getUbicacion().getNombre(),
-										  incidencia.getEstado());
-							
-			// Creamos el cuerpo de la notificación
-			String cuerpo = this.generarCuerpoIncidenciaActualizadaHtml(incidencia);
-
-			// Creamos el DTO de la notificación email
-			NotificationEmailDto notificationEmailDto = new NotificationEmailDto(destinatarios, null, null, asunto, cuerpo);
-
-			// Enviamos la notificación email
-			this.requestNotificacionesEnviarEmail.enviarNotificacionEmail(notificationEmailDto);
-		}
-		catch (BaseClientException exception)
-		{
-			// Ya ha sido logueada previamente
-		}
-		catch (Exception exception)
-		{
-			// Ya ha sido logueada previamente
-			log.error("Error al enviar la notificación email (actualización de estado)", exception);
-		}
-	}
-
-
-	/**
-	 * Genera el cuerpo de la notificación email de actualización de estado de incidencia.
-	 * @param incidencia La incidencia a generar el cuerpo.
-	 * @return El cuerpo de la notificación email de actualización de estado de incidencia.
-	 */
-	private String generarCuerpoIncidenciaActualizadaHtml(Incidencia incidencia)
-	{
-		// Creamos el template engine
-		TemplateEngine engine = this.crearTemplateEngine();
-
-		// Creamos el contexto
-		Context context = new Context();
-
-		// Añadimos las variables al contexto
-		context.setVariable(Constants.VARIABLE_CONTEXT_UBICACION, incidencia.getUbicacion().getNombre());
-		context.setVariable(Constants.VARIABLE_CONTEXT_ESTADO, incidencia.getEstado());
-
-		// Procesamos el template y devolvemos el cuerpo
-		return engine.process(Constants.PLANTILLA_EMAIL_ESTADO_INCIDENCIA_ACTUALIZADA, context);
-	}
-
 	/**
 	 * Actualiza la solución de una incidencia en el sistema por parte del administrador.
 	 * 
@@ -561,36 +639,43 @@ public class IncidenciaController
 	 * 
 	 * @param id El ID de la incidencia a actualizar.
 	 * @param solucion La solución de la incidencia a actualizar.
+	 * @param ifMatch La versión (ETag) de la incidencia que conoce el cliente, opcional.
 	 * @return Un objeto {@link ResponseEntity} que puede contener:
 	 *         <ul>
-	 *         <li>Un código de estado 200 (OK) si la solución de la incidencia se actualiza correctamente.</li>
+	 *         <li>Un código de estado 200 (OK) con la nueva versión en el ETag si la solución de la incidencia se actualiza correctamente.</li>
 	 *         <li>Un código de estado 400 (Bad Request) si los datos de la incidencia no son válidos.</li>
+	 *         <li>Un código de estado 412 (Precondition Failed) si otro usuario ha modificado la incidencia.</li>
 	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
 	 *         </ul>
 	 */
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
 	@PutMapping("/solucion/")
-	public ResponseEntity<?> actualizarSolucion(@RequestHeader Long id, @RequestHeader String solucion)
+	public ResponseEntity<?> actualizarSolucion(@AuthenticationPrincipal DtoUsuarioExtended usuario,
+												@RequestHeader Long id,
+												@RequestHeader String solucion,
+												@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
 	{
 		try
 		{
-			// Buscamos la incidencia a actualizar
-			Incidencia incidencia = this.buscarIncidenciaPorId(id);
-
-			// Actualizamos la solución de la incidencia
-			incidencia.setSolucion(solucion);
+			// Validamos el ID de la incidencia y la versión esperada
+			this.validarIdIncidencia(id);
+			Long versionEsperada = this.obtenerVersionEsperada(ifMatch);
 
-			// Guardamos la incidencia en la base de datos
-			this.incidenciaRepository.saveAndFlush(incidencia);
+			// Actualizamos la solución de la incidencia y su historial, obteniendo los datos anteriores
+			IncidenciaNotificacionDto anterior = this.incidenciaService.actualizarSolucion(id, solucion, versionEsperada, usuario.getEmail());
 
 			// Logueamos la incidencia actualizada
-			log.info("Solución de la incidencia actualizada correctamente: {}", incidencia);
+			log.info("Solución de la incidencia {} actualizada correctamente: {}", id, solucion);
 
-			// Enviamos la notificación email al usuario para que sepa que la solución de su incidencia ha cambiado
-			this.enviarEmailActualizacionSolucion(incidencia);
+			// Actualizamos la incidencia en el índice de texto
+			this.indiceTextoIncidenciasService.indexar(id, anterior.getProblema(), solucion);
 
-			// Devolvemos la respuesta
-			return ResponseEntity.ok().build();
+			// Devolvemos la respuesta con la nueva versión de la incidencia
+			return ResponseEntity.ok().eTag(String.valueOf(anterior.getVersion() + 1)).build();
+		}
+		catch (IssuesServerConflictError issuesServerConflictError)
+		{
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(issuesServerConflictError.getBodyErrorMessage());
 		}
 		catch (IssuesServerError issuesServerError)
 		{
@@ -610,59 +695,146 @@ public class IncidenciaController
 	}
 
 	/**
-	 * Envia una notificación email al usuario para que sepa que la solución de su incidencia ha cambiado.
-	 * @param incidencia La incidencia a notificar.
+	 * Actualiza el estado y/o la solución de varias incidencias por parte del administrador.
+	 * 
+	 * Las incidencias se indican por sus ids o mediante un filtro de búsqueda y se actualizan en un
+	 * único lote de sentencias UPDATE condicionadas a su versión; las que otro usuario modifica a la
+	 * vez se reintentan y, si siguen en conflicto, se devuelven con su error. Las notificaciones email se encolan
+	 * en la misma transacción; el historial y el índice de texto se procesan después de confirmar el cambio.
+	 * 
+	 * @param usuario El administrador que actualiza las incidencias.
+	 * @param actualizacionLoteDto Las incidencias a actualizar y los nuevos valores.
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con el resultado de cada incidencia (id actualizado o error).</li>
+	 *         <li>Un código de estado 400 (Bad Request) si los datos de la actualización no son válidos.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
 	 */
-	private void enviarEmailActualizacionSolucion(Incidencia incidencia)
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+	@PutMapping("/lote")
+	public ResponseEntity<?> actualizarIncidenciasLote(@AuthenticationPrincipal DtoUsuarioExtended usuario,
+													   @RequestBody ActualizacionLoteDto actualizacionLoteDto)
 	{
 		try
 		{
-			// Creamos la lista de destinatarios
-			List<String> destinatarios = Arrays.asList(incidencia.getEmail());
+			String estado   = actualizacionLoteDto.getEstado();
+			String solucion = actualizacionLoteDto.getSolucion();
+
+			// Validamos que haya algo que actualizar
+			if (estado == null && solucion == null)
+			{
+				log.error(Constants.ERR_LOTE_SIN_CAMBIOS_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_LOTE_SIN_CAMBIOS_CODE, Constants.ERR_LOTE_SIN_CAMBIOS_MESSAGE);
+			}
+
+			// Validamos si el estado es válido (está en la lista de estados válidos)
+			if (estado != null && !Constants.ESTADOS_VALIDOS.contains(estado))
+			{
+				log.error(Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_CODE, Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_MESSAGE);
+			}
 
-			// Creamos el asunto de la notificación
-			String asunto = String.format("La solución de la incidencia del aula %s ha cambiado",
-										  incidencia.getUbicacion().getNombre());
-							
-			// Creamos el cuerpo de la notificación
-			String cuerpo = this.generarCuerpoIncidenciaSolucionActualizadaHtml(incidencia);
+			// Obtenemos los ids de las incidencias a actualizar
+			List<Long> ids = this.obtenerIdsLote(actualizacionLoteDto);
 
-			// Creamos el DTO de la notificación email
-			NotificationEmailDto notificationEmailDto = new NotificationEmailDto(destinatarios, null, null, asunto, cuerpo);
+			// Actualizamos las incidencias que conservan su versión junto con sus contadores y su historial, reintentando las modificadas a la vez
+			ResultadoActualizacionLoteDto resultadoActualizacion = this.incidenciaService.actualizarLote(ids, estado, solucion, usuario.getEmail());
+			List<IncidenciaNotificacionDto> anteriores           = resultadoActualizacion.getActualizadas();
+
+			log.info("Actualizadas {} incidencias en lote por {}", anteriores.size(), usuario.getEmail());
+
+			// Tareas posteriores a la actualización de cada incidencia
+			Map<Long, IncidenciaNotificacionDto> actualizadas = new HashMap<Long, IncidenciaNotificacionDto>();
+			for (IncidenciaNotificacionDto anterior : anteriores)
+			{
+				actualizadas.put(anterior.getId(), anterior);
 
-			// Enviamos la notificación email
-			this.requestNotificacionesEnviarEmail.enviarNotificacionEmail(notificationEmailDto);
+				if (solucion != null && !solucion.equals(anterior.getSolucion()))
+				{
+					this.indiceTextoIncidenciasService.indexar(anterior.getId(), anterior.getProblema(), solucion);
+				}
+			}
+
+			// Anotamos el resultado de cada id solicitado
+			IssuesServerError noEncontrada = new IssuesServerError(Constants.ERR_INCIDENCIA_NO_ENCONTRADA_CODE, Constants.ERR_INCIDENCIA_NO_ENCONTRADA_MESSAGE);
+			IssuesServerError conflicto    = new IssuesServerConflictError(Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_CODE, Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_MESSAGE);
+
+			List<ResultadoLoteDto> resultados = new ArrayList<ResultadoLoteDto>();
+			for (int i = 0; i < ids.size(); i++)
+			{
+				Long id = ids.get(i);
+
+				if (actualizadas.containsKey(id))
+				{
+					resultados.add(new ResultadoLoteDto(i, id, null));
+				}
+				else if (resultadoActualizacion.getConflictos().contains(id))
+				{
+					resultados.add(new ResultadoLoteDto(i, id, conflicto.getBodyErrorMessage()));
+				}
+				else
+				{
+					resultados.add(new ResultadoLoteDto(i, id, noEncontrada.getBodyErrorMessage()));
+				}
+			}
+
+			// Devolvemos la respuesta
+			return ResponseEntity.ok().body(resultados);
 		}
-		catch (BaseClientException exception)
+		catch (IssuesServerError issuesServerError)
 		{
-			// Ya ha sido logueada previamente
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
 		}
 		catch (Exception exception)
 		{
-			// Ya ha sido logueada previamente
-			log.error("Error al enviar la notificación email (actualización de solución)", exception);
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al actualizar el lote de incidencias", issuesServerError);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
 		}
 	}
 
 	/**
-	 * Genera el cuerpo de la notificación email de actualización de solución de incidencia.
-	 * @param incidencia La incidencia a generar el cuerpo.
-	 * @return El cuerpo de la notificación email de actualización de solución de incidencia.
+	 * Obtiene los ids de una actualización en lote, bien de la lista recibida o bien del filtro.
+	 * @param actualizacionLoteDto La actualización en lote.
+	 * @return Los ids de las incidencias a actualizar, sin repetir.
+	 * @throws IssuesServerError si no se indican ids ni filtro, se indican ambos o el lote está vacío o es demasiado grande
 	 */
-	private String generarCuerpoIncidenciaSolucionActualizadaHtml(Incidencia incidencia)
+	private List<Long> obtenerIdsLote(ActualizacionLoteDto actualizacionLoteDto) throws IssuesServerError
 	{
-		// Creamos el template engine
-		TemplateEngine engine = this.crearTemplateEngine();
+		boolean hayIds    = actualizacionLoteDto.getIds() != null && !actualizacionLoteDto.getIds().isEmpty();
+		boolean hayFiltro = actualizacionLoteDto.getFiltro() != null;
 
-		// Creamos el contexto
-		Context context = new Context();
+		if (hayIds == hayFiltro)
+		{
+			log.error(Constants.ERR_LOTE_SIN_INCIDENCIAS_MESSAGE);
+			throw new IssuesServerError(Constants.ERR_LOTE_SIN_INCIDENCIAS_CODE, Constants.ERR_LOTE_SIN_INCIDENCIAS_MESSAGE);
+		}
+
+		List<Long> ids = null;
+		if (hayIds)
+		{
+			ids = actualizacionLoteDto.getIds().stream().filter(id -> id != null).distinct().toList();
+		}
+		else
+		{
+			// Pedimos uno más del máximo para saber si el filtro lo supera
+			ids = this.busquedaIncidenciasService.buscarIds(actualizacionLoteDto.getFiltro(), Constants.TAMANIO_LOTE_MAXIMO + 1);
+		}
 
-		// Añadimos las variables al contexto
-		context.setVariable(Constants.VARIABLE_CONTEXT_UBICACION, incidencia.getUbicacion().getNombre());
-		context.setVariable(Constants.VARIABLE_CONTEXT_SOLUCION, incidencia.getSolucion());
+		// Validamos el tamaño del lote
+		if (ids.isEmpty() || ids.size() > Constants.TAMANIO_LOTE_MAXIMO)
+		{
+			log.error(Constants.ERR_LOTE_NO_VALIDO_MESSAGE);
+			throw new IssuesServerError(Constants.ERR_LOTE_NO_VALIDO_CODE, Constants.ERR_LOTE_NO_VALIDO_MESSAGE);
+		}
 
-		// Procesamos el template y devolvemos el cuerpo
-		return engine.process(Constants.PLANTILLA_EMAIL_SOLUCION_INCIDENCIA_ACTUALIZADA, context);
+		return ids;
 	}
 
 	/**
@@ -671,39 +843,48 @@ public class IncidenciaController
 	 * Este método recibe el ID de la incidencia, el nombre de la categoría y el email del responsable a actualizar.
 	 * Se realiza la validación de los datos y, si son válidos, se actualiza el responsable de la incidencia en la base de datos.
 	 * 
+	 * @param usuario El administrador que actualiza la incidencia.
 	 * @param id El ID de la incidencia a actualizar.
 	 * @param nombreCategoria El nombre de la categoría a actualizar.
 	 * @param emailResponsable El email del responsable de la categoría a actualizar.
+	 * @param ifMatch La versión (ETag) de la incidencia que conoce el cliente, opcional.
 	 * @return Un objeto {@link ResponseEntity} que puede contener:
 	 *         <ul>
-	 *         <li>Un código de estado 200 (OK) si el responsable de la incidencia se actualiza correctamente.</li>
+	 *         <li>Un código de estado 200 (OK) con la nueva versión en el ETag si el responsable de la incidencia se actualiza correctamente.</li>
 	 *         <li>Un código de estado 400 (Bad Request) si los datos de la incidencia no son válidos.</li>
+	 *         <li>Un código de estado 412 (Precondition Failed) si otro usuario ha modificado la incidencia.</li>
 	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
 	 *         </ul>
 	 */
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
 	@PutMapping("/responsable/")
-    public ResponseEntity<?> actualizarResponsable(@RequestHeader Long id, @RequestHeader String nombreCategoria, @RequestHeader String emailResponsable)
+    public ResponseEntity<?> actualizarResponsable(@AuthenticationPrincipal DtoUsuarioExtended usuario,
+												   @RequestHeader Long id,
+												   @RequestHeader String nombreCategoria,
+												   @RequestHeader String emailResponsable,
+												   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
 	{
 		try
 		{
 			// Validamos y obtenemos la categoría
 			UsuarioCategoria usuarioCategoria = this.validarYBuscarUsuarioCategoria(nombreCategoria, emailResponsable);
 			
-			// Buscamos la incidencia a actualizar
-			Incidencia incidencia = this.buscarIncidenciaPorId(id);
-
-			// Actualizamos el responsable de la incidencia
-			incidencia.setUsuarioCategoria(usuarioCategoria);
+			// Validamos el ID de la incidencia y la versión esperada
+			this.validarIdIncidencia(id);
+			Long versionEsperada = this.obtenerVersionEsperada(ifMatch);
 
-			// Guardamos la incidencia en la base de datos
-			this.incidenciaRepository.saveAndFlush(incidencia);
+			// Actualizamos el responsable de la incidencia junto con sus contadores y su historial, obteniendo los datos anteriores
+			IncidenciaNotificacionDto anterior = this.incidenciaService.actualizarUsuarioCategoria(id, usuarioCategoria, versionEsperada, usuario.getEmail());
 
 			// Logueamos la incidencia actualizada	
-			log.info("Responsable de la incidencia {} actualizado correctamente: {}", id, incidencia);
+			log.info("Responsable de la incidencia {} actualizado correctamente: {}", id, emailResponsable);
 
-			// Devolvemos la respuesta
-			return ResponseEntity.ok().build();
+			// Devolvemos la respuesta con la nueva versión de la incidencia
+			return ResponseEntity.ok().eTag(String.valueOf(anterior.getVersion() + 1)).build();
+		}
+		catch (IssuesServerConflictError issuesServerConflictError)
+		{
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(issuesServerConflictError.getBodyErrorMessage());
 		}
 		catch (IssuesServerError issuesServerError)
 		{
@@ -742,14 +923,14 @@ public class IncidenciaController
         UsuarioCategoriaId id = new UsuarioCategoriaId(nombreCategoria, emailResponsable);
 		
 		// Validamos si el usuario-categoría existe
-		Optional<UsuarioCategoria> optionalUsuarioCategoria = this.usuarioCategoriaRepository.findById(id);
-		if (!optionalUsuarioCategoria.isPresent())
+		UsuarioCategoria usuarioCategoria = this.datosReferenciaService.obtener().getResponsables().get(id);
+		if (usuarioCategoria == null)
 		{
 			log.error(Constants.ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_MESSAGE);
 			throw new IssuesServerError(Constants.ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_CODE, Constants.ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_MESSAGE);
 		}
 
-		return optionalUsuarioCategoria.get();
+		return usuarioCategoria;
 	}
 
 	/**
@@ -796,6 +977,7 @@ public class IncidenciaController
 	 * 
 	 * @param usuario El usuario que lista las incidencias (profesor o administrador).
 	 * @param pageable La página de incidencias a listar (paginación).
+	 * @param curso El curso académico al que se limita el listado (opcional; por defecto, todos).
 	 * @return Un objeto {@link ResponseEntity} que puede contener:
 	 *         <ul>
 	 *         <li>Un código de estado 200 (OK) si la lista de incidencias se devuelve correctamente.</li>
@@ -804,7 +986,8 @@ public class IncidenciaController
 	 */
 	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
 	@GetMapping("/") 	
-	public ResponseEntity<?> listarIncidenciasOrdenadasPorFecha(@AuthenticationPrincipal DtoUsuarioExtended usuario, Pageable pageable)
+	public ResponseEntity<?> listarIncidenciasOrdenadasPorFecha(@AuthenticationPrincipal DtoUsuarioExtended usuario, Pageable pageable,
+																@RequestParam(required = false) String curso)
 	{ 	   
 		try
 		{    
@@ -815,12 +998,12 @@ public class IncidenciaController
 			if (!usuario.getRoles().contains(BaseConstants.ROLE_ADMINISTRADOR))
 			{
 				// Buscamos las incidencias del usuario
-				incidencias = this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuario(pageable, usuario.getEmail());
+				incidencias = this.consultaIncidenciasService.listarPorUsuario(pageable, usuario.getEmail(), curso);
 			}
 			else
 			{
 				// Buscamos todas las incidencias
-				incidencias = this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdmin(pageable); 	    
+				incidencias = this.consultaIncidenciasService.listarTodas(pageable, curso);	    
 			}
 
 			// Devolvemos la respuesta
@@ -839,6 +1022,426 @@ public class IncidenciaController
 		}
 	}
 
+	/**
+	 * Lista las incidencias ordenadas por fecha usando paginación por cursor.
+	 *
+	 * A diferencia de {@link #listarIncidenciasOrdenadasPorFecha}, no usa OFFSET ni calcula el total de elementos,
+	 * por lo que el coste de cada página es constante aunque el administrador avance muchas páginas.
+	 *
+	 * @param usuario El usuario que lista las incidencias (profesor o administrador).
+	 * @param cursor El cursor devuelto en la página anterior (vacío para la primera página).
+	 * @param size El tamaño de la página.
+	 * @param curso El curso académico al que se limita el listado (opcional; por defecto, todos).
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con la página y el cursor de la siguiente.</li>
+	 *         <li>Un código de estado 400 (Bad Request) si el cursor no es válido.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
+	 */
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_PROFESOR + "')")
+	@GetMapping("/cursor/")
+	public ResponseEntity<?> listarIncidenciasPorCursor(@AuthenticationPrincipal DtoUsuarioExtended usuario,
+														@RequestParam(required = false) String cursor,
+														@RequestParam(defaultValue = "" + Constants.TAMANIO_PAGINA_CURSOR_DEFECTO) int size,
+														@RequestParam(required = false) String curso)
+	{
+		try
+		{
+			// Decodificamos el cursor (si no viene, empezamos por el principio)
+			CursorKeyset cursorKeyset = CursorKeyset.decodificar(cursor);
+
+			// Acotamos el tamaño de la página
+			int tamanioPagina = Math.max(1, Math.min(size, Constants.TAMANIO_PAGINA_CURSOR_MAXIMO));
+
+			// Pedimos una fila más de las necesarias para saber si existe una página siguiente
+			Pageable limite = PageRequest.of(0, tamanioPagina + 1);
+
+			// Creamos una variable para las incidencias
+			List<IncidenciaDto> incidencias = null;
+
+			// Si el rol es de profesor, solo buscamos las incidencias del usuario
+			if (!usuario.getRoles().contains(BaseConstants.ROLE_ADMINISTRADOR))
+			{
+				incidencias = this.consultaIncidenciasService.listarPorUsuarioDesdeCursor(usuario.getEmail(),
+																						  curso,
+																						  cursorKeyset.getFecha(),
+																						  cursorKeyset.getId(),
+																						  limite);
+			}
+			else
+			{
+				incidencias = this.consultaIncidenciasService.listarTodasDesdeCursor(curso,
+																					 cursorKeyset.getFecha(),
+																					 cursorKeyset.getId(),
+																					 limite);
+			}
+
+			// Devolvemos la respuesta
+			return ResponseEntity.ok().body(this.crearPaginaCursor(incidencias, tamanioPagina));
+		}
+		catch (IssuesServerError issuesServerError)
+		{
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+		}
+		catch (Exception exception)
+		{
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al listar las incidencias por cursor", issuesServerError);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+		}
+	}
+
+	/**
+	 * Busca incidencias a partir de un filtro usando paginación por cursor.
+	 *
+	 * Solo se aplican los criterios informados en el filtro. El resultado se ordena por fecha de forma
+	 * decreciente y se pagina con el mismo cursor que el listado de incidencias.
+	 *
+	 * @param filtro El filtro de búsqueda.
+	 * @param cursor El cursor devuelto en la página anterior (vacío para la primera página).
+	 * @param size El tamaño de la página.
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con la página y el cursor de la siguiente.</li>
+	 *         <li>Un código de estado 400 (Bad Request) si el filtro o el cursor no son válidos.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
+	 */
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+	@PostMapping("/busqueda/")
+	public ResponseEntity<?> buscarIncidencias(@RequestBody(required = false) FiltroBusquedaDto filtro,
+											   @RequestParam(required = false) String cursor,
+											   @RequestParam(defaultValue = "" + Constants.TAMANIO_PAGINA_CURSOR_DEFECTO) int size)
+	{
+		try
+		{
+			// Decodificamos el cursor (si no viene, empezamos por el principio)
+			CursorKeyset cursorKeyset = CursorKeyset.decodificar(cursor);
+
+			// Acotamos el tamaño de la página
+			int tamanioPagina = Math.max(1, Math.min(size, Constants.TAMANIO_PAGINA_CURSOR_MAXIMO));
+
+			// Buscamos una fila más de las necesarias para saber si existe una página siguiente
+			List<IncidenciaDto> incidencias = this.busquedaIncidenciasService.buscar(filtro, cursorKeyset, tamanioPagina + 1);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.ok().body(this.crearPaginaCursor(incidencias, tamanioPagina));
+		}
+		catch (IssuesServerError issuesServerError)
+		{
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+		}
+		catch (Exception exception)
+		{
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al buscar incidencias", issuesServerError);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+		}
+	}
+
+	/**
+	 * Busca incidencias por texto en el problema y la solución, ordenadas por relevancia.
+	 *
+	 * La búsqueda se resuelve con el índice de texto completo, que ignora mayúsculas y acentos y reduce
+	 * las palabras a su raíz, por lo que no recorre las columnas de texto de la tabla.
+	 *
+	 * @param q El texto a buscar.
+	 * @param size El número máximo de resultados.
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con las incidencias ordenadas por relevancia.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
+	 */
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+	@GetMapping("/texto/")
+	public ResponseEntity<?> buscarIncidenciasPorTexto(@RequestParam(required = false) String q,
+													   @RequestParam(defaultValue = "" + Constants.TAMANIO_PAGINA_CURSOR_DEFECTO) int size)
+	{
+		try
+		{
+			List<IncidenciaDto> resultado = new ArrayList<IncidenciaDto>();
+
+			// Si no hay texto, no hay resultados
+			if (q == null || q.isBlank())
+			{
+				return ResponseEntity.ok().body(resultado);
+			}
+
+			// Acotamos el número de resultados
+			int limite = Math.max(1, Math.min(size, Constants.TAMANIO_PAGINA_CURSOR_MAXIMO));
+
+			// Obtenemos los ids ordenados por relevancia
+			List<Long> ids = this.indiceTextoIncidenciasService.buscar(q, limite);
+
+			if (!ids.isEmpty())
+			{
+				// Cargamos las incidencias y las colocamos en el orden de relevancia
+				Map<Long, IncidenciaDto> incidenciasPorId = new HashMap<Long, IncidenciaDto>();
+				for (IncidenciaDto incidenciaDto : this.consultaIncidenciasService.buscarPorIds(ids))
+				{
+					incidenciasPorId.put(incidenciaDto.getId(), incidenciaDto);
+				}
+
+				for (Long id : ids)
+				{
+					IncidenciaDto incidenciaDto = incidenciasPorId.get(id);
+					if (incidenciaDto != null)
+					{
+						resultado.add(incidenciaDto);
+					}
+				}
+			}
+
+			// Devolvemos la respuesta
+			return ResponseEntity.ok().body(resultado);
+		}
+		catch (Exception exception)
+		{
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al buscar incidencias por texto", issuesServerError);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+		}
+	}
+
+	/**
+	 * Obtiene una incidencia por su ID con su versión en el ETag, para usarla como If-Match al editarla.
+	 *
+	 * @param usuario El usuario que consulta la incidencia (profesor o administrador).
+	 * @param id El ID de la incidencia.
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con la incidencia y su versión en el ETag.</li>
+	 *         <li>Un código de estado 400 (Bad Request) si la incidencia no existe o el usuario no puede verla.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
+	 */
+	@PreAuthorize("hasAnyRole('" + BaseConstants.ROLE_PROFESOR + "', '" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+	@GetMapping("/detalle/")
+	public ResponseEntity<?> obtenerIncidencia(@AuthenticationPrincipal DtoUsuarioExtended usuario, @RequestParam(required = false) Long id)
+	{
+		try
+		{
+			// Validamos el ID de la incidencia
+			this.validarIdIncidencia(id);
+
+			// Buscamos la incidencia en la base de datos principal, para que su versión sea la última
+			Optional<IncidenciaDto> optionalIncidencia = this.incidenciaService.buscarParaEdicion(id);
+
+			// Validamos que la incidencia exista
+			if (!optionalIncidencia.isPresent())
+			{
+				log.error(Constants.ERR_INCIDENCIA_NO_ENCONTRADA_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_INCIDENCIA_NO_ENCONTRADA_CODE, Constants.ERR_INCIDENCIA_NO_ENCONTRADA_MESSAGE);
+			}
+
+			IncidenciaDto incidenciaDto = optionalIncidencia.get();
+
+			// Si el rol es de profesor, validamos que el usuario sea el que creó la incidencia o el responsable de la incidencia
+			if (!usuario.getRoles().contains(BaseConstants.ROLE_ADMINISTRADOR) &&
+				!usuario.getEmail().equals(incidenciaDto.getEmail()) &&
+				!usuario.getEmail().equals(incidenciaDto.getEmailResponsable()))
+			{
+				log.error(Constants.ERR_INCIDENCIA_USUARIO_NO_PERMITIDO_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_INCIDENCIA_USUARIO_NO_PERMITIDO_CODE, Constants.ERR_INCIDENCIA_USUARIO_NO_PERMITIDO_MESSAGE);
+			}
+
+			// Devolvemos la incidencia con su versión
+			return ResponseEntity.ok().eTag(String.valueOf(incidenciaDto.getVersion())).body(incidenciaDto);
+		}
+		catch (IssuesServerError issuesServerError)
+		{
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+		}
+		catch (Exception exception)
+		{
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al obtener la incidencia", issuesServerError);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+		}
+	}
+
+	/**
+	 * Obtiene el historial de cambios de una incidencia en orden cronológico, paginado por el id del evento.
+	 *
+	 * @param id El ID de la incidencia.
+	 * @param cursor El id del último evento de la página anterior (vacío para la primera página).
+	 * @param size El tamaño de la página.
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con la página de eventos y el cursor de la siguiente.</li>
+	 *         <li>Un código de estado 400 (Bad Request) si el ID de la incidencia no es válido.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
+	 */
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+	@GetMapping("/historial/")
+	public ResponseEntity<?> obtenerHistorialIncidencia(@RequestParam(required = false) Long id,
+														@RequestParam(required = false) Long cursor,
+														@RequestParam(defaultValue = "" + Constants.TAMANIO_PAGINA_CURSOR_DEFECTO) int size)
+	{
+		try
+		{
+			// Validamos el ID de la incidencia
+			if (id == null || id <= 0)
+			{
+				log.error(Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_CODE, Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_MESSAGE);
+			}
+
+			// Acotamos el tamaño de la página
+			int tamanioPagina = Math.max(1, Math.min(size, Constants.TAMANIO_PAGINA_CURSOR_MAXIMO));
+
+			// Pedimos una fila más de las necesarias para saber si existe una página siguiente
+			List<IncidenciaEventoDto> eventos = this.historialIncidenciaService.buscarEventos(id, cursor, tamanioPagina + 1);
+
+			String siguienteCursor = null;
+			if (eventos.size() > tamanioPagina)
+			{
+				eventos         = eventos.subList(0, tamanioPagina);
+				siguienteCursor = String.valueOf(eventos.get(tamanioPagina - 1).getId());
+			}
+
+			// Devolvemos la respuesta
+			return ResponseEntity.ok().body(new PaginaCursorDto<IncidenciaEventoDto>(eventos, siguienteCursor));
+		}
+		catch (IssuesServerError issuesServerError)
+		{
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+		}
+		catch (Exception exception)
+		{
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al obtener el historial de la incidencia", issuesServerError);
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+		}
+	}
+
+	/**
+	 * Exporta todas las incidencias de un curso académico en CSV o JSON Lines.
+	 *
+	 * Las incidencias se leen con un cursor de solo avance y se escriben directamente en la respuesta,
+	 * por lo que el consumo de memoria no depende del número de incidencias del curso.
+	 *
+	 * @param curso El curso académico a exportar.
+	 * @param format El formato de exportación (csv o jsonl).
+	 * @param response La respuesta HTTP donde se escriben las incidencias.
+	 * @return Un objeto {@link ResponseEntity} que puede contener:
+	 *         <ul>
+	 *         <li>Un código de estado 200 (OK) con el fichero exportado.</li>
+	 *         <li>Un código de estado 400 (Bad Request) si el curso o el formato no son válidos.</li>
+	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
+	 *         </ul>
+	 */
+	@PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+	@GetMapping("/export")
+	public ResponseEntity<?> exportarIncidencias(@RequestParam(required = false) String curso,
+												 @RequestParam(defaultValue = Constants.FORMATO_EXPORTACION_CSV) String format,
+												 HttpServletResponse response)
+	{
+		try
+		{
+			// Validamos el curso académico
+			if (curso == null || curso.isEmpty())
+			{
+				log.error(Constants.ERR_EXPORTACION_CURSO_NO_INFORMADO_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_EXPORTACION_CURSO_NO_INFORMADO_CODE, Constants.ERR_EXPORTACION_CURSO_NO_INFORMADO_MESSAGE);
+			}
+
+			// Validamos el formato
+			if (!Constants.FORMATO_EXPORTACION_CSV.equals(format) && !Constants.FORMATO_EXPORTACION_JSONL.equals(format))
+			{
+				log.error(Constants.ERR_EXPORTACION_FORMATO_NO_VALIDO_MESSAGE);
+				throw new IssuesServerError(Constants.ERR_EXPORTACION_FORMATO_NO_VALIDO_CODE, Constants.ERR_EXPORTACION_FORMATO_NO_VALIDO_MESSAGE);
+			}
+
+			// Preparamos la cabecera de la respuesta
+			String contentType = Constants.FORMATO_EXPORTACION_CSV.equals(format) ? "text/csv" : "application/x-ndjson";
+
+			response.setStatus(HttpStatus.OK.value());
+			response.setContentType(contentType);
+			response.setCharacterEncoding("UTF-8");
+			response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"incidencias_" + curso + "." + format + "\"");
+
+			// Escribimos las incidencias directamente en la respuesta
+			this.exportacionIncidenciasService.exportar(curso, format, response.getOutputStream());
+
+			// La respuesta ya ha sido escrita
+			return null;
+		}
+		catch (IssuesServerError issuesServerError)
+		{
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(issuesServerError.getBodyErrorMessage());
+		}
+		catch (Exception exception)
+		{
+			// Creamos una excepción genérica para devolver al cliente
+			IssuesServerError issuesServerError =  new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+			// Log de la excepción
+			log.error("Excepción genérica al exportar las incidencias", issuesServerError);
+
+			// Si ya hemos empezado a escribir el fichero no podemos cambiar la respuesta
+			if (response.isCommitted())
+			{
+				return null;
+			}
+
+			// Devolvemos la respuesta
+			return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+		}
+	}
+
+	/**
+	 * Construye la página de respuesta a partir de las filas obtenidas (que incluyen una fila de más
+	 * si existe página siguiente).
+	 * @param incidencias Las incidencias obtenidas de la base de datos.
+	 * @param tamanioPagina El tamaño de la página solicitado.
+	 * @return La página con el cursor de la siguiente página.
+	 */
+	private PaginaCursorDto<IncidenciaDto> crearPaginaCursor(List<IncidenciaDto> incidencias, int tamanioPagina)
+	{
+		// Si no hemos recibido la fila de más, es la última página
+		if (incidencias.size() <= tamanioPagina)
+		{
+			return new PaginaCursorDto<IncidenciaDto>(incidencias, null);
+		}
+
+		// Descartamos la fila de más y construimos el cursor a partir de la última fila devuelta
+		List<IncidenciaDto> contenido = incidencias.subList(0, tamanioPagina);
+		IncidenciaDto ultima          = contenido.get(tamanioPagina - 1);
+
+		String siguienteCursor = new CursorKeyset(ultima.getFechaOrden(), ultima.getId()).codificar();
+
+		return new PaginaCursorDto<IncidenciaDto>(contenido, siguienteCursor);
+	}
+
 	/**
 	 * Elimina una incidencia de la base de datos.
 	 * 
@@ -851,6 +1454,7 @@ public class IncidenciaController
 	 *         <ul>
 	 *         <li>Un código de estado 200 (OK) si la incidencia se elimina correctamente.</li>
 	 *         <li>Un código de estado 400 (Bad Request) si los datos de la incidencia no son válidos.</li>
+	 *         <li>Un código de estado 412 (Precondition Failed) si otro usuario ha modificado la incidencia mientras se borraba.</li>
 	 *         <li>Un código de estado 500 (Internal Server Error) si ocurre un error inesperado.</li>
 	 *         </ul>
 	 */
@@ -873,15 +1477,24 @@ public class IncidenciaController
 				throw new IssuesServerError(Constants.ERR_INCIDENCIA_USUARIO_NO_PERMITIDO_CODE, Constants.ERR_INCIDENCIA_USUARIO_NO_PERMITIDO_MESSAGE);
 			}
 
-			// Eliminamos la incidencia de la base de datos
-			this.incidenciaRepository.delete(incidencia);
+			// Eliminamos la incidencia de la base de datos junto con sus contadores y registramos el borrado en el historial
+			// (solo si nadie la ha borrado o modificado antes)
+			this.incidenciaService.borrar(incidencia, usuario.getEmail());
 
 			// Elimina la incidencia de la base de datos y loguea la accion.
 			log.info("Incidencia eliminada con éxito: {}", incidencia);
 
+			// Eliminamos la incidencia del índice de texto
+			this.indiceTextoIncidenciasService.eliminar(incidencia.getId());
+
 			// Devolvemos la respuesta
 			return ResponseEntity.ok().build();
 		}
+		catch (IssuesServerConflictError issuesServerConflictError)
+		{
+			// La incidencia ha cambiado de versión entre la lectura y el borrado
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(issuesServerConflictError.getBodyErrorMessage());
+		}
 		catch (IssuesServerError exception)
 		{
 			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getBodyErrorMessage()) ;
@@ -912,14 +1525,10 @@ public class IncidenciaController
 	private Incidencia buscarIncidenciaPorId(Long id) throws IssuesServerError
 	{
 		// Validamos el ID de la incidencia
-		if (id == null || id <= 0)
-		{
-			log.error(Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_MESSAGE);
-			throw new IssuesServerError(Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_CODE, Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_MESSAGE);
-		}
+		this.validarIdIncidencia(id);
 
 		// Buscamos la incidencia por su ID
-		Optional<Incidencia> optionalIncidencia = this.incidenciaRepository.findById(id);
+		Optional<Incidencia> optionalIncidencia = this.incidenciaService.buscarPorId(id);
 
 		// Validamos que la incidencia exista
 		if (!optionalIncidencia.isPresent())
@@ -932,51 +1541,56 @@ public class IncidenciaController
 		return optionalIncidencia.get();
 	}
 
-    /** Método - Generar cuerpo del email en HTML
-     *
-     * @param incidencia - La incidencia a generar el cuerpo del email
-     * @param destinatario - El destinatario del email
-     * @return String - El cuerpo del email en HTML
-     */
-    private String generarCuerpoEmailHtml(Incidencia incidencia, String destinatario)
-    {
-        // Creo el template engine
-        TemplateEngine engine = this.crearTemplateEngine();
+	/**
+	 * Valida el ID de una incidencia.
+	 * 
+	 * @param id El ID de la incidencia.
+	 * @throws IssuesServerError si el ID no está informado o no es válido
+	 */
+	private void validarIdIncidencia(Long id) throws IssuesServerError
+	{
+		if (id == null || id <= 0)
+		{
+			log.error(Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_MESSAGE);
+			throw new IssuesServerError(Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_CODE, Constants.ERR_INCIDENCIA_ID_NO_INTRODUCIDO_MESSAGE);
+		}
+	}
+
+	/**
+	 * Obtiene la versión esperada de la cabecera If-Match, con el formato del ETag que devuelve la
+	 * actualización ("3", también admitido como débil W/"3" o sin comillas).
+	 * 
+	 * @param ifMatch El valor de la cabecera If-Match.
+	 * @return La versión esperada, o null si no se indica ninguna o se indica "*".
+	 * @throws IssuesServerError si la versión no es válida
+	 */
+	private Long obtenerVersionEsperada(String ifMatch) throws IssuesServerError
+	{
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+		{
+			return null;
+		}
 
-        // Creo el contexto
-        Context context = new Context();
+		String version = ifMatch.trim();
+		if (version.startsWith("W/"))
+		{
+			version = version.substring(2);
+		}
 
-        // Añado las variables al contexto
-        context.setVariable("destinatario", destinatario);
-        context.setVariable("ubicacion", incidencia.getUbicacion().getNombre());
-        context.setVariable("responsable", incidencia.getUsuarioCategoria().getNombreResponsable());
-        context.setVariable("estado", incidencia.getEstado());
+		if (version.length() >= 2 && version.startsWith("\"") && version.endsWith("\""))
+		{
+			version = version.substring(1, version.length() - 1);
+		}
 
-        // Proceso el template y devuelvo el cuerpo del email en HTML
-        return engine.process("incidencia_actualizada", context);
-    }
+		try
+		{
+			return Long.parseLong(version);
+		}
+		catch (NumberFormatException numberFormatException)
+		{
+			log.error(Constants.ERR_INCIDENCIA_VERSION_NO_VALIDA_MESSAGE, numberFormatException);
+			throw new IssuesServerError(Constants.ERR_INCIDENCIA_VERSION_NO_VALIDA_CODE, Constants.ERR_INCIDENCIA_VERSION_NO_VALIDA_MESSAGE, numberFormatException);
+		}
+	}
 
-    /** Método - Crear template engine
-     *
-     * @return TemplateEngine - El template engine creado
-     */
-    private TemplateEngine crearTemplateEngine()
-    {
-        // Creo el resolver de templates
-        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
-
-        // Configuro el resolver de templates
-        templateResolver.setPrefix("templates/");
-        templateResolver.setSuffix(".html");
-        templateResolver.setTemplateMode(TemplateMode.HTML);
-        templateResolver.setCharacterEncoding("UTF-8");
-        templateResolver.setCacheable(true);
-
-        // Configuro el template engine
-        TemplateEngine templateEngine = new TemplateEngine();
-        templateEngine.setTemplateResolver(templateResolver);
-
-        // Devuelvo el template engine
-        return templateEngine;
-    }
 }
\ No newline at end of file
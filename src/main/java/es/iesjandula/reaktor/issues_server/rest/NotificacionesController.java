@@ -0,0 +1,57 @@
+package es.iesjandula.reaktor.issues_server.rest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import es.iesjandula.reaktor.base.utils.BaseConstants;
+import es.iesjandula.reaktor.issues_server.dtos.MetricasNotificacionesDto;
+import es.iesjandula.reaktor.issues_server.services.DespachoNotificacionesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Controlador REST para consultar la bandeja de salida de las notificaciones email.
+ */
+@Log4j2
+@RestController
+@RequestMapping("/issues/notificaciones")
+public class NotificacionesController
+{
+    /** Servicio de despacho de las notificaciones */
+    @Autowired
+    private DespachoNotificacionesService despachoNotificacionesService;
+
+    /**
+     * Obtiene las notificaciones pendientes y fallidas, la antigüedad de la más antigua y los envíos desde el arranque.
+     *
+     * @return ResponseEntity con las métricas de las notificaciones
+     */
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_ADMINISTRADOR + "')")
+    @GetMapping("/metricas")
+    public ResponseEntity<?> obtenerMetricas()
+    {
+        try
+        {
+            MetricasNotificacionesDto metricas = this.despachoNotificacionesService.obtenerMetricas();
+
+            // Devolvemos la respuesta
+            return ResponseEntity.ok(metricas);
+        }
+        catch (Exception exception)
+        {
+            // Creamos una excepción genérica para devolver al cliente
+            IssuesServerError issuesServerError = new IssuesServerError(Constants.ERR_GENERICO_CODE, Constants.ERR_GENERICO_MESSAGE, exception);
+
+            // Log de la excepción
+            log.error("Excepción genérica al obtener las métricas de las notificaciones", issuesServerError);
+
+            // Devolvemos la respuesta
+            return ResponseEntity.status(500).body(issuesServerError.getBodyErrorMessage());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package es.iesjandula.reaktor.issues_server.rest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,7 +14,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import es.iesjandula.reaktor.base.utils.BaseConstants;
 import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
 import es.iesjandula.reaktor.issues_server.repository.IUbicacionRepository;
+import es.iesjandula.reaktor.issues_server.services.DatosReferenciaService;
 import es.iesjandula.reaktor.issues_server.utils.Constants;
 import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
 import lombok.extern.log4j.Log4j2;
@@ -26,6 +29,14 @@ public class UbicacionController
     @Autowired
     private IUbicacionRepository ubicacionRepository;
 
+    /** Repositorio de incidencias, para no borrar ubicaciones en uso */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /** Servicio de datos de referencia en memoria */
+    @Autowired
+    private DatosReferenciaService datosReferenciaService;
+
     /** 
      * Listar todas las ubicaciones (para el desplegable, PROFESOR puede verlas)
      *
@@ -37,7 +48,8 @@ public class UbicacionController
     {
         try
         {
-            return ResponseEntity.ok(this.ubicacionRepository.buscarTodasLasUbicaciones());
+            // Devolvemos el listado ya serializado de la instantánea en memoria
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(this.datosReferenciaService.obtener().getUbicacionesJson());
         }
         catch (Exception exception)
         {
@@ -89,6 +101,9 @@ public class UbicacionController
             // Guardamos la ubicación
             this.ubicacionRepository.saveAndFlush(ubicacion);
 
+            // Publicamos los nuevos datos de referencia
+            this.datosReferenciaService.recargar();
+
             // Log de la ubicación creada
             log.info("Ubicacion creada: {}", ubicacion);
 
@@ -143,9 +158,21 @@ public class UbicacionController
                 throw new IssuesServerError(Constants.ERR_UBICACION_NO_ENCONTRADA_CODE, errorString);
             }
 
+            // Verificamos si la ubicación tiene incidencias asociadas
+            if (this.incidenciaRepository.validarSiExistenIncidenciasAsociadasAUbicacion(nombre))
+            {
+                String errorString = "No se puede borrar la ubicación '" + nombre + "' porque existen incidencias asociadas.";
+
+                log.error(errorString);
+                throw new IssuesServerError(Constants.ERR_UBICACION_NO_BORRABLE_CODE, errorString);
+            }
+
             // Borramos la ubicación
             this.ubicacionRepository.deleteById(nombre);
 
+            // Publicamos los nuevos datos de referencia
+            this.datosReferenciaService.recargar();
+
             // Log de la ubicación eliminada
             log.info("Ubicación eliminada con ID '{}'", nombre);
 
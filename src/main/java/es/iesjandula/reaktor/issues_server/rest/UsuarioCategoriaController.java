@@ -1,10 +1,10 @@
 package es.iesjandula.reaktor.issues_server.rest;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,12 +15,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import es.iesjandula.reaktor.base.utils.BaseConstants;
-import es.iesjandula.reaktor.issues_server.dtos.UsuarioCategoriaDto;
 import es.iesjandula.reaktor.issues_server.models.Categoria;
 import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
 import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
 import es.iesjandula.reaktor.issues_server.repository.ICategoriaRepository;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
 import es.iesjandula.reaktor.issues_server.repository.IUsuarioCategoriaRepository;
+import es.iesjandula.reaktor.issues_server.services.DatosReferenciaService;
 import es.iesjandula.reaktor.issues_server.utils.Constants;
 import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
 import lombok.extern.log4j.Log4j2;
@@ -42,6 +43,18 @@ public class UsuarioCategoriaController
     @Autowired
     private ICategoriaRepository categoriaRepository;
 
+    /**
+     * Repositorio de incidencias, para no borrar responsables con incidencias asignadas.
+     */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /**
+     * Servicio de datos de referencia en memoria.
+     */
+    @Autowired
+    private DatosReferenciaService datosReferenciaService;
+
     /** 
      * Listar todos los responsables
      * <p>
@@ -59,14 +72,8 @@ public class UsuarioCategoriaController
             // Log de la petición
             log.info("Petición para listar todos los usuarios-responsables de categoría");
 
-            // Listamos todos los usuarios-responsables
-            List<UsuarioCategoriaDto> usuariosCategoriasDto = this.usuarioCategoriaRepository.buscarTodos();
-
-            // Log de la lista
-            log.info("Se han encontrado {} usuarios-responsables", usuariosCategoriasDto.size());
-
-            // Devolvemos la respuesta
-            return ResponseEntity.ok(usuariosCategoriasDto);
+            // Devolvemos el listado ya serializado de la instantánea en memoria
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(this.datosReferenciaService.obtener().getResponsablesJson());
         }
         catch (Exception exception)
         {
@@ -128,6 +135,9 @@ public class UsuarioCategoriaController
             // Guardamos la relación usuario-categoría
             this.usuarioCategoriaRepository.saveAndFlush(usuarioCategoria);
 
+            // Publicamos los nuevos datos de referencia
+            this.datosReferenciaService.recargar();
+
             // Devolvemos la respuesta
             return ResponseEntity.ok().build();
         }
@@ -178,9 +188,21 @@ public class UsuarioCategoriaController
                 throw new IssuesServerError(Constants.ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_CODE, errorString);
             }
 
+            // Validamos que el responsable no tenga incidencias asignadas
+            if (this.incidenciaRepository.validarSiExistenIncidenciasAsociadasAResponsable(nombreCategoria, emailResponsable))
+            {
+                String errorString = "No se puede borrar el usuario-responsable '" + nombreResponsable + "' de la categoría '" + nombreCategoria + "' porque tiene incidencias asignadas";
+
+                log.error(errorString);
+                throw new IssuesServerError(Constants.ERR_USUARIO_CATEGORIA_NO_BORRABLE_CODE, errorString);
+            }
+
             // Borramos la relación usuario-categoría
             this.usuarioCategoriaRepository.deleteById(id);
 
+            // Publicamos los nuevos datos de referencia
+            this.datosReferenciaService.recargar();
+
             // Log de la eliminación
             log.info("Usuario-responsable '{}' ({}) borrado correctamente de la categoría '{}'", nombreResponsable, emailResponsable, nombreCategoria);
 
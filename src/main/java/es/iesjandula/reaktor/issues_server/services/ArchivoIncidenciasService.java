@@ -0,0 +1,128 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.iesjandula.reaktor.base.utils.FechasUtils;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaArchivadaRepository;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que mueve al archivo (tabla incidencia_archivo) las incidencias de los cursos académicos cerrados.
+ * <p>
+ * Un curso se archiva cuando es anterior al curso actual y todas sus incidencias están en un estado
+ * final. Las incidencias se mueven por bloques de tamaño acotado, cada uno en su propia transacción
+ * corta: se bloquean las filas del bloque, se copian al archivo y se borran de la tabla incidencia.
+ * Así la tabla incidencia y sus índices solo contienen, en la práctica, el curso en vigor.
+ * </p>
+ * <p>
+ * La tarea es idempotente: si se interrumpe, la siguiente ejecución continúa con los bloques que faltan.
+ * </p>
+ */
+@Log4j2
+@Service
+public class ArchivoIncidenciasService
+{
+    /** Repositorio del archivo de incidencias */
+    @Autowired
+    private IIncidenciaArchivadaRepository incidenciaArchivadaRepository;
+
+    /** Índice de texto completo, del que se quitan las incidencias archivadas */
+    @Autowired
+    private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
+
+    /** Transacciones de cada bloque */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** Número máximo de incidencias que se mueven en cada transacción */
+    @Value("${reaktor.archivo.tamanio_bloque:1000}")
+    private int tamanioBloque;
+
+    /** Con la tabla particionada por curso académico los cursos cerrados se quedan en línea */
+    @Value("${reaktor.particionado.habilitado:false}")
+    private boolean particionadoHabilitado;
+
+    /**
+     * Archiva los cursos académicos cerrados cuyas incidencias están todas en un estado final.
+     */
+    @Scheduled(cron = "${reaktor.archivo.cron:0 0 4 * * *}")
+    public void archivarCursosCerrados()
+    {
+        if (this.particionadoHabilitado)
+        {
+            return;
+        }
+
+        String cursoActual = FechasUtils.obtenerCursoAcademicoActual();
+
+        for (String cursoAcademico : this.incidenciaArchivadaRepository.buscarCursosAnterioresSinArchivar(cursoActual))
+        {
+            try
+            {
+                this.archivarCurso(cursoAcademico);
+            }
+            catch (Exception exception)
+            {
+                log.error("Error al archivar las incidencias del curso académico {}", cursoAcademico, exception);
+            }
+        }
+    }
+
+    /**
+     * Archiva un curso académico cerrado si todas sus incidencias están en un estado final.
+     * @param cursoAcademico El curso académico.
+     */
+    private void archivarCurso(String cursoAcademico)
+    {
+        long noFinales = this.incidenciaArchivadaRepository.contarNoFinalesPorCurso(cursoAcademico, Constants.ESTADOS_FINALES);
+        if (noFinales > 0)
+        {
+            log.warn("El curso académico {} no se archiva: tiene {} incidencias sin cerrar", cursoAcademico, noFinales);
+            return;
+        }
+
+        long archivadas = 0;
+        List<Long> ids  = null;
+
+        do
+        {
+            ids = this.transactionTemplate.execute(status -> this.archivarBloque(cursoAcademico));
+
+            // Las incidencias archivadas dejan de aparecer en la búsqueda por texto
+            for (Long id : ids)
+            {
+                this.indiceTextoIncidenciasService.eliminar(id);
+            }
+
+            archivadas += ids.size();
+        }
+        while (ids.size() == this.tamanioBloque);
+
+        log.info("Archivadas {} incidencias del curso académico {}", archivadas, cursoAcademico);
+    }
+
+    /**
+     * Mueve al archivo el siguiente bloque de incidencias de un curso, dentro de la transacción en curso.
+     * @param cursoAcademico El curso académico.
+     * @return Los ids de las incidencias archivadas.
+     */
+    private List<Long> archivarBloque(String cursoAcademico)
+    {
+        List<Long> ids = this.incidenciaArchivadaRepository.bloquearBloqueArchivable(cursoAcademico, Constants.ESTADOS_FINALES, this.tamanioBloque);
+
+        if (!ids.isEmpty())
+        {
+            this.incidenciaArchivadaRepository.copiarAlArchivo(ids);
+            this.incidenciaArchivadaRepository.borrarArchivadas(ids);
+        }
+
+        return ids;
+    }
+}
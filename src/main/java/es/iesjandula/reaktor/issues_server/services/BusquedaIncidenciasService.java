@@ -0,0 +1,278 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.iesjandula.reaktor.issues_server.dtos.FiltroBusquedaDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.CursorKeyset;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que busca incidencias a partir de un {@link FiltroBusquedaDto}.
+ * <p>
+ * La consulta se construye dinámicamente con la API Criteria, añadiendo solo los predicados de los
+ * filtros informados. El filtro de ubicación se aplica sobre la columna de clave ajena de la propia
+ * tabla incidencia, por lo que no se une la tabla ubicacion; la única unión es con usuario_categoria,
+ * necesaria para proyectar el nombre del responsable. Los resultados se proyectan
+ * directamente en {@link IncidenciaDto} y se paginan por cursor (fecha, id).
+ * </p>
+ */
+@Log4j2
+@Service
+public class BusquedaIncidenciasService
+{
+    /** Formato de fecha usado en los listados de incidencias */
+    private static final String FORMATO_FECHA_LISTADO = "%d/%m/%Y %H:%i";
+
+    /** Carácter de escape para los patrones LIKE */
+    private static final char ESCAPE_LIKE = '\\';
+
+    /** Gestor de entidades */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Busca las incidencias que cumplen el filtro a partir del cursor indicado.
+     * @param filtro El filtro de búsqueda.
+     * @param cursorKeyset El cursor de la página anterior.
+     * @param limite El número máximo de filas a devolver.
+     * @return Las incidencias encontradas ordenadas por fecha de forma decreciente.
+     * @throws IssuesServerError si el filtro no es válido
+     */
+    @Transactional(readOnly = true)
+    public List<IncidenciaDto> buscar(FiltroBusquedaDto filtro, CursorKeyset cursorKeyset, int limite) throws IssuesServerError
+    {
+        CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<IncidenciaDto> query = criteriaBuilder.createQuery(IncidenciaDto.class);
+        Root<Incidencia> incidencia        = query.from(Incidencia.class);
+
+        // Única unión necesaria: el nombre del responsable solo está en usuario_categoria
+        Join<Incidencia, UsuarioCategoria> usuarioCategoria = incidencia.join("usuarioCategoria");
+
+        Path<LocalDateTime> fecha = incidencia.get("fecha");
+        Path<Long> id             = incidencia.get("id");
+
+        // Proyectamos directamente en el DTO
+        query.select(criteriaBuilder.construct(IncidenciaDto.class,
+                                               id,
+                                               incidencia.get("ubicacion").get("nombre"),
+                                               incidencia.get("email"),
+                                               incidencia.get("nombre"),
+                                               incidencia.get("apellidos"),
+                                               criteriaBuilder.function("DATE_FORMAT", String.class, fecha, criteriaBuilder.literal(FORMATO_FECHA_LISTADO)),
+                                               incidencia.get("problema"),
+                                               incidencia.get("estado"),
+                                               incidencia.get("solucion"),
+                                               usuarioCategoria.get("id").get("emailResponsable"),
+                                               usuarioCategoria.get("nombreResponsable"),
+                                               usuarioCategoria.get("id").get("nombreCategoria"),
+                                               incidencia.get("version"),
+                                               fecha));
+
+        // Construimos los predicados de los filtros informados
+        List<Predicate> predicados = this.crearPredicados(criteriaBuilder, incidencia, filtro);
+
+        // Añadimos la posición del cursor
+        predicados.add(criteriaBuilder.or(criteriaBuilder.lessThan(fecha, cursorKeyset.getFecha()),
+                                          criteriaBuilder.and(criteriaBuilder.equal(fecha, cursorKeyset.getFecha()),
+                                                              criteriaBuilder.lessThan(id, cursorKeyset.getId()))));
+
+        query.where(predicados.toArray(new Predicate[0]));
+        query.orderBy(criteriaBuilder.desc(fecha), criteriaBuilder.desc(id));
+
+        return this.entityManager.createQuery(query)
+                                 .setMaxResults(limite)
+                                 .getResultList();
+    }
+
+    /**
+     * Busca los ids de las incidencias que cumplen el filtro, ordenados de forma creciente.
+     * @param filtro El filtro de búsqueda.
+     * @param limite El número máximo de ids a devolver.
+     * @return Los ids de las incidencias encontradas.
+     * @throws IssuesServerError si el filtro no es válido
+     */
+    @Transactional(readOnly = true)
+    public List<Long> buscarIds(FiltroBusquedaDto filtro, int limite) throws IssuesServerError
+    {
+        CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query   = criteriaBuilder.createQuery(Long.class);
+        Root<Incidencia> incidencia = query.from(Incidencia.class);
+        Path<Long> id               = incidencia.get("id");
+
+        query.select(id);
+        query.where(this.crearPredicados(criteriaBuilder, incidencia, filtro).toArray(new Predicate[0]));
+        query.orderBy(criteriaBuilder.asc(id));
+
+        return this.entityManager.createQuery(query)
+                                 .setMaxResults(limite)
+                                 .getResultList();
+    }
+
+    /**
+     * Crea los predicados correspondientes a los filtros informados.
+     * @param criteriaBuilder El constructor de criterios.
+     * @param incidencia La raíz de la consulta.
+     * @param filtro El filtro de búsqueda.
+     * @return La lista de predicados.
+     * @throws IssuesServerError si algún filtro no es válido
+     */
+    private List<Predicate> crearPredicados(CriteriaBuilder criteriaBuilder, Root<Incidencia> incidencia, FiltroBusquedaDto filtro) throws IssuesServerError
+    {
+        List<Predicate> predicados = new ArrayList<Predicate>();
+
+        if (filtro == null)
+        {
+            return predicados;
+        }
+
+        // Ubicación (columna de clave ajena, sin unir la tabla ubicacion)
+        if (this.informado(filtro.getUbicacion()))
+        {
+            predicados.add(criteriaBuilder.equal(incidencia.get("ubicacion").get("nombre"), filtro.getUbicacion()));
+        }
+
+        // Correo del docente
+        if (this.informado(filtro.getCorreoDocente()))
+        {
+            predicados.add(criteriaBuilder.equal(incidencia.get("email"), filtro.getCorreoDocente()));
+        }
+
+        // Estado
+        if (this.informado(filtro.getEstadoIncidencia()))
+        {
+            if (!Constants.ESTADOS_VALIDOS.contains(filtro.getEstadoIncidencia()))
+            {
+                log.error(Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_MESSAGE);
+                throw new IssuesServerError(Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_CODE, Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_MESSAGE);
+            }
+
+            predicados.add(criteriaBuilder.equal(incidencia.get("estado"), filtro.getEstadoIncidencia()));
+        }
+
+        // Rango de fechas (inicio inclusivo, fin inclusivo)
+        if (this.informado(filtro.getFechaInicio()))
+        {
+            predicados.add(criteriaBuilder.greaterThanOrEqualTo(incidencia.get("fecha"), this.parsearFecha(filtro.getFechaInicio(), false)));
+        }
+
+        if (this.informado(filtro.getFechaFin()))
+        {
+            predicados.add(criteriaBuilder.lessThan(incidencia.get("fecha"), this.parsearFecha(filtro.getFechaFin(), true)));
+        }
+
+        // Los filtros de texto no pueden usar índices, por eso se evalúan tras el resto
+        if (this.informado(filtro.getDescripcionIncidencia()))
+        {
+            predicados.add(criteriaBuilder.like(incidencia.get("problema"), this.patronContiene(filtro.getDescripcionIncidencia()), ESCAPE_LIKE));
+        }
+
+        if (this.informado(filtro.getComentario()))
+        {
+            predicados.add(criteriaBuilder.like(incidencia.get("solucion"), this.patronContiene(filtro.getComentario()), ESCAPE_LIKE));
+        }
+
+        return predicados;
+    }
+
+    /**
+     * Indica si un filtro de texto está informado.
+     * @param valor El valor del filtro.
+     * @return true si el filtro tiene valor.
+     */
+    private boolean informado(String valor)
+    {
+        return valor != null && !valor.isBlank();
+    }
+
+    /**
+     * Crea un patrón LIKE que busca el texto en cualquier posición, escapando los comodines.
+     * @param texto El texto a buscar.
+     * @return El patrón LIKE.
+     */
+    private String patronContiene(String texto)
+    {
+        String escapado = texto.replace("\\", "\\\\")
+                               .replace("%", "\\%")
+                               .replace("_", "\\_");
+
+        return "%" + escapado + "%";
+    }
+
+    /**
+     * Calcula la duración de la unidad más pequeña de una fecha y hora ISO, según lo que se haya indicado:
+     * un minuto para 10:30, un segundo para 10:30:15 y, con fracción, la de su último dígito.
+     * @param valor La fecha y hora ISO, ya validada.
+     * @return La duración de la unidad en nanosegundos.
+     */
+    private long calcularPrecisionNanos(String valor)
+    {
+        String hora = valor.substring(valor.indexOf('T') + 1);
+
+        int punto = hora.indexOf('.');
+        if (punto >= 0)
+        {
+            int digitos = hora.length() - punto - 1;
+
+            return (long) Math.pow(10, 9 - digitos);
+        }
+
+        return hora.length() > 5 ? 1_000_000_000L : 60_000_000_000L;
+    }
+
+    /**
+     * Parsea una fecha del filtro. Admite fecha y hora ISO (2025-01-15T10:30, con segundos opcionales) o solo fecha (2025-01-15).
+     * @param valor El valor a parsear.
+     * @param limiteSuperior Si es el límite superior del rango (se devuelve el instante exclusivo).
+     * @return La fecha parseada.
+     * @throws IssuesServerError si la fecha no es válida
+     */
+    private LocalDateTime parsearFecha(String valor, boolean limiteSuperior) throws IssuesServerError
+    {
+        try
+        {
+            // Fecha y hora: el límite superior incluye la última unidad indicada completa (minuto, segundo o fracción)
+            LocalDateTime fecha = LocalDateTime.parse(valor);
+
+            return limiteSuperior ? fecha.plusNanos(this.calcularPrecisionNanos(valor)) : fecha;
+        }
+        catch (DateTimeParseException dateTimeParseException)
+        {
+            // Probamos con solo fecha
+        }
+
+        try
+        {
+            // Solo fecha: el límite superior incluye el día completo
+            LocalDate fecha = LocalDate.parse(valor);
+
+            return limiteSuperior ? fecha.plusDays(1).atStartOfDay() : fecha.atStartOfDay();
+        }
+        catch (DateTimeParseException dateTimeParseException)
+        {
+            log.error(Constants.ERR_BUSQUEDA_FECHA_NO_VALIDA_MESSAGE, dateTimeParseException);
+            throw new IssuesServerError(Constants.ERR_BUSQUEDA_FECHA_NO_VALIDA_CODE, Constants.ERR_BUSQUEDA_FECHA_NO_VALIDA_MESSAGE, dateTimeParseException);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import es.iesjandula.reaktor.issues_server.dtos.RegionCacheDto;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que gestiona la caché de segundo nivel de Hibernate (JCache sobre Caffeine, local a cada instancia).
+ * <p>
+ * Guarda las ubicaciones y las categorías con sus responsables, en regiones acotadas por tamaño y
+ * antigüedad (application.conf). No se usa la caché de consultas: los listados se sirven desde la
+ * instantánea de {@link DatosReferenciaService}, y sus consultas solo se ejecutan al recargarla, justo
+ * después de vaciar las regiones, así que nunca acertarían. Las escrituras hechas con Hibernate actualizan la caché por sí solas, pero la importación CSV escribe
+ * directamente con JDBC y otras instancias pueden modificar las tablas, por lo que las regiones se vacían
+ * cada vez que se recargan los datos de referencia.
+ * </p>
+ */
+@Log4j2
+@Service
+public class CacheSegundoNivelService
+{
+    /** Factoría de entity managers */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Vacía las regiones de los datos de referencia (entidades y colección de responsables).
+     */
+    public void vaciarDatosReferencia()
+    {
+        Cache cache = this.entityManagerFactory.unwrap(SessionFactory.class).getCache();
+
+        cache.evictEntityData(Ubicacion.class);
+        cache.evictEntityData(Categoria.class);
+        cache.evictEntityData(UsuarioCategoria.class);
+        cache.evictCollectionData(Categoria.class.getName() + ".responsables");
+
+        log.debug("Regiones de caché de los datos de referencia vaciadas");
+    }
+
+    /**
+     * Obtiene los aciertos, fallos y escrituras de las regiones de los datos de referencia. Requiere las
+     * estadísticas de Hibernate (reaktor.cache.estadisticas), que están desactivadas por defecto porque
+     * añaden contadores compartidos a cada sentencia.
+     * @return Las métricas de cada región.
+     * @throws IssuesServerError si las estadísticas de Hibernate están desactivadas
+     */
+    public List<RegionCacheDto> obtenerMetricas() throws IssuesServerError
+    {
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        if (!statistics.isStatisticsEnabled())
+        {
+            throw new IssuesServerError(Constants.ERR_CACHE_METRICAS_DESHABILITADAS_CODE, Constants.ERR_CACHE_METRICAS_DESHABILITADAS_MESSAGE);
+        }
+
+        // Solo se informa de las regiones que Hibernate ha creado
+        List<String> regionesExistentes = Arrays.asList(statistics.getSecondLevelCacheRegionNames());
+
+        List<RegionCacheDto> metricas = new ArrayList<RegionCacheDto>();
+
+        for (String region : Constants.REGIONES_CACHE_DATOS_REFERENCIA)
+        {
+            if (!regionesExistentes.contains(region))
+            {
+                metricas.add(new RegionCacheDto(region, 0, 0, 0));
+                continue;
+            }
+
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+
+            metricas.add(new RegionCacheDto(region, regionStatistics.getHitCount(), regionStatistics.getMissCount(), regionStatistics.getPutCount()));
+        }
+
+        return metricas;
+    }
+}
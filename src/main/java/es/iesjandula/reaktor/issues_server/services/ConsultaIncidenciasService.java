@@ -0,0 +1,117 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+
+/**
+ * Servicio que agrupa las lecturas de los listados de incidencias.
+ * <p>
+ * Todos sus métodos son transacciones de solo lectura, de modo que, si hay una réplica
+ * configurada, se resuelven en ella y no ocupan conexiones de la base de datos principal.
+ * </p>
+ * <p>
+ * Los listados admiten un curso académico opcional. Con la tabla incidencia particionada, el listado
+ * de un curso solo lee su partición; sin curso, recorre el índice de fecha de todas las particiones.
+ * </p>
+ */
+@Service
+public class ConsultaIncidenciasService
+{
+    /** Repositorio de incidencias */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /**
+     * Lista todas las incidencias ordenadas por fecha.
+     * @param pageable La página de incidencias a listar.
+     * @param cursoAcademico El curso académico al que se limita el listado, o null para todos.
+     * @return La página de incidencias.
+     */
+    @Transactional(readOnly = true)
+    public Page<IncidenciaDto> listarTodas(Pageable pageable, String cursoAcademico)
+    {
+        if (cursoAcademico != null)
+        {
+            return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminYCurso(cursoAcademico, pageable);
+        }
+
+        return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdmin(pageable);
+    }
+
+    /**
+     * Lista las incidencias de un usuario ordenadas por fecha.
+     * @param pageable La página de incidencias a listar.
+     * @param email El email del usuario.
+     * @param cursoAcademico El curso académico al que se limita el listado, o null para todos.
+     * @return La página de incidencias.
+     */
+    @Transactional(readOnly = true)
+    public Page<IncidenciaDto> listarPorUsuario(Pageable pageable, String email, String cursoAcademico)
+    {
+        if (cursoAcademico != null)
+        {
+            return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuarioYCurso(pageable, email, cursoAcademico);
+        }
+
+        return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuario(pageable, email);
+    }
+
+    /**
+     * Lista todas las incidencias ordenadas por fecha a partir de un cursor.
+     * @param cursoAcademico El curso académico al que se limita el listado, o null para todos.
+     * @param fecha La fecha del cursor.
+     * @param id El id del cursor.
+     * @param limite El número de incidencias a leer.
+     * @return Las incidencias posteriores al cursor.
+     */
+    @Transactional(readOnly = true)
+    public List<IncidenciaDto> listarTodasDesdeCursor(String cursoAcademico, LocalDateTime fecha, Long id, Pageable limite)
+    {
+        if (cursoAcademico != null)
+        {
+            return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminYCursoDesdeCursor(cursoAcademico, fecha, id, limite);
+        }
+
+        return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminDesdeCursor(fecha, id, limite);
+    }
+
+    /**
+     * Lista las incidencias de un usuario ordenadas por fecha a partir de un cursor.
+     * @param email El email del usuario.
+     * @param cursoAcademico El curso académico al que se limita el listado, o null para todos.
+     * @param fecha La fecha del cursor.
+     * @param id El id del cursor.
+     * @param limite El número de incidencias a leer.
+     * @return Las incidencias posteriores al cursor.
+     */
+    @Transactional(readOnly = true)
+    public List<IncidenciaDto> listarPorUsuarioDesdeCursor(String email, String cursoAcademico, LocalDateTime fecha, Long id, Pageable limite)
+    {
+        if (cursoAcademico != null)
+        {
+            return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuarioYCursoDesdeCursor(email, cursoAcademico, fecha, id, limite);
+        }
+
+        return this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuarioDesdeCursor(email, fecha, id, limite);
+    }
+
+    /**
+     * Busca las incidencias con los ids indicados.
+     * @param ids Los ids de las incidencias.
+     * @return Las incidencias encontradas, sin un orden concreto.
+     */
+    @Transactional(readOnly = true)
+    public List<IncidenciaDto> buscarPorIds(List<Long> ids)
+    {
+        return this.incidenciaRepository.buscarIncidenciasPorIds(ids);
+    }
+}
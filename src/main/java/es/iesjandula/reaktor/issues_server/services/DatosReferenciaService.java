@@ -0,0 +1,174 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.iesjandula.reaktor.issues_server.dtos.CategoriaDto;
+import es.iesjandula.reaktor.issues_server.dtos.UbicacionDto;
+import es.iesjandula.reaktor.issues_server.dtos.UsuarioCategoriaDto;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.repository.ICategoriaRepository;
+import es.iesjandula.reaktor.issues_server.repository.IUbicacionRepository;
+import es.iesjandula.reaktor.issues_server.repository.IUsuarioCategoriaRepository;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que mantiene en memoria los datos de referencia (ubicaciones, categorías y responsables).
+ * <p>
+ * Estas tablas cambian muy pocas veces al año, así que se cargan al arrancar en una instantánea
+ * inmutable ({@link DatosReferencia}) que se sustituye de forma atómica cada vez que se modifican
+ * desde sus controladores o la importación CSV (copia en escritura). Las lecturas no consultan la
+ * base de datos ni bloquean. Como red de seguridad, por si otra instancia modificase las tablas,
+ * la instantánea también se recarga periódicamente.
+ * </p>
+ */
+@Log4j2
+@Service
+public class DatosReferenciaService
+{
+    /** Repositorio de ubicaciones */
+    @Autowired
+    private IUbicacionRepository ubicacionRepository;
+
+    /** Repositorio de categorías */
+    @Autowired
+    private ICategoriaRepository categoriaRepository;
+
+    /** Repositorio de usuarios-categoría */
+    @Autowired
+    private IUsuarioCategoriaRepository usuarioCategoriaRepository;
+
+    /** Servicio de la caché de segundo nivel */
+    @Autowired
+    private CacheSegundoNivelService cacheSegundoNivelService;
+
+    /** Serializador JSON */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Instantánea publicada */
+    private final AtomicReference<DatosReferencia> datosReferencia = new AtomicReference<DatosReferencia>();
+
+    /** Cerrojo de las recargas (no synchronized, que bloquearía el hilo portador de un hilo virtual durante las consultas) */
+    private final ReentrantLock cerrojoRecarga = new ReentrantLock();
+
+    /**
+     * Carga la primera instantánea al arrancar.
+     * @throws JsonProcessingException si no se pueden serializar los listados
+     */
+    @PostConstruct
+    public void cargar() throws JsonProcessingException
+    {
+        this.recargar();
+    }
+
+    /**
+     * Obtiene la instantánea actual. Quien necesite varios datos debe leerlos de la misma instantánea.
+     * @return Los datos de referencia.
+     */
+    public DatosReferencia obtener()
+    {
+        return this.datosReferencia.get();
+    }
+
+    /**
+     * Vacía la caché de segundo nivel de estas tablas, vuelve a leerlas y publica la nueva instantánea.
+     * Se serializa para que una recarga anterior no pueda publicarse después de otra más reciente.
+     * @throws JsonProcessingException si no se pueden serializar los listados
+     */
+    public void recargar() throws JsonProcessingException
+    {
+        this.cerrojoRecarga.lock();
+        try
+        {
+            this.recargarSinCerrojo();
+        }
+        finally
+        {
+            this.cerrojoRecarga.unlock();
+        }
+    }
+
+    /**
+     * Lee los datos de referencia y publica la nueva instantánea. Solo se llama con el cerrojo tomado.
+     * @throws JsonProcessingException si no se pueden serializar los listados
+     */
+    private void recargarSinCerrojo() throws JsonProcessingException
+    {
+        // La importación CSV y otras instancias escriben sin pasar por la caché de esta instancia
+        this.cacheSegundoNivelService.vaciarDatosReferencia();
+
+        List<UbicacionDto> ubicacionesDto               = this.ubicacionRepository.buscarTodasLasUbicaciones();
+        List<CategoriaDto> categoriasDto                = this.categoriaRepository.buscarTodasLasCategorias();
+        List<UsuarioCategoriaDto> usuariosCategoriasDto = this.usuarioCategoriaRepository.buscarTodos();
+
+        Map<String, Ubicacion> ubicaciones = new HashMap<String, Ubicacion>();
+        for (UbicacionDto ubicacionDto : ubicacionesDto)
+        {
+            ubicaciones.put(ubicacionDto.getNombre(), new Ubicacion(ubicacionDto.getNombre()));
+        }
+
+        Map<String, Categoria> categorias = new HashMap<String, Categoria>();
+        for (CategoriaDto categoriaDto : categoriasDto)
+        {
+            categorias.put(categoriaDto.getNombre(), new Categoria(categoriaDto.getNombre(), categoriaDto.getImprimirInforme(), null));
+        }
+
+        // Los responsables llegan ordenados por categoría y email, así que el primero de cada lista es el de antes
+        Map<UsuarioCategoriaId, UsuarioCategoria> responsables        = new HashMap<UsuarioCategoriaId, UsuarioCategoria>();
+        Map<String, List<UsuarioCategoria>> responsablesPorCategoria = new HashMap<String, List<UsuarioCategoria>>();
+        for (UsuarioCategoriaDto usuarioCategoriaDto : usuariosCategoriasDto)
+        {
+            UsuarioCategoriaId id             = new UsuarioCategoriaId(usuarioCategoriaDto.getNombreCategoria(), usuarioCategoriaDto.getEmailResponsable());
+            UsuarioCategoria usuarioCategoria = new UsuarioCategoria(id, usuarioCategoriaDto.getNombreResponsable(), categorias.get(id.getNombreCategoria()));
+
+            responsables.put(id, usuarioCategoria);
+            responsablesPorCategoria.computeIfAbsent(id.getNombreCategoria(), nombreCategoria -> new ArrayList<UsuarioCategoria>()).add(usuarioCategoria);
+        }
+
+        responsablesPorCategoria.replaceAll((nombreCategoria, lista) -> Collections.unmodifiableList(lista));
+
+        this.datosReferencia.set(new DatosReferencia(Collections.unmodifiableMap(ubicaciones),
+                                                     Collections.unmodifiableMap(categorias),
+                                                     Collections.unmodifiableMap(responsables),
+                                                     Collections.unmodifiableMap(responsablesPorCategoria),
+                                                     this.objectMapper.writeValueAsBytes(ubicacionesDto),
+                                                     this.objectMapper.writeValueAsBytes(categoriasDto),
+                                                     this.objectMapper.writeValueAsBytes(usuariosCategoriasDto)));
+
+        log.info("Datos de referencia cargados: {} ubicaciones, {} categorías y {} responsables", ubicaciones.size(), categorias.size(), responsables.size());
+    }
+
+    /**
+     * Recarga periódicamente la instantánea.
+     */
+    @Scheduled(fixedDelayString = "${reaktor.datos_referencia.recargar_ms:300000}", initialDelayString = "${reaktor.datos_referencia.recargar_ms:300000}")
+    public void recargarPeriodicamente()
+    {
+        try
+        {
+            this.recargar();
+        }
+        catch (Exception exception)
+        {
+            log.error("Error al recargar los datos de referencia", exception);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.iesjandula.reaktor.base_client.dtos.NotificationEmailDto;
+import es.iesjandula.reaktor.base_client.requests.notificaciones.RequestNotificacionesEnviarEmail;
+import es.iesjandula.reaktor.issues_server.dtos.MetricasNotificacionesDto;
+import es.iesjandula.reaktor.issues_server.dtos.NotificacionPendienteDto;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que envía las notificaciones email guardadas en la bandeja de salida (tabla notificacion_pendiente).
+ * <p>
+ * Periódicamente reserva un lote de notificaciones listas (SELECT ... FOR UPDATE SKIP LOCKED, de modo
+ * que varias instancias pueden despachar a la vez sin repetir envíos) y las envía fuera de la transacción.
+ * Las enviadas se borran. Las que fallan se reintentan con espera exponencial y, agotados los intentos,
+ * se marcan como fallidas y se quedan en la tabla para revisarlas a mano. La entrega es "al menos una vez":
+ * si la instancia se detiene tras enviar y antes de borrar, el email se repite al vencer la reserva.
+ * </p>
+ * <p>
+ * Al reservar un lote se reservan también las notificaciones nuevas de los mismos destinatarios que aún
+ * esperan su ventana, y todas las de un destinatario se envían en un único email de resumen. Las que
+ * esperan un reintento no se adelantan: siguen su espera exponencial.
+ * La reserva debe durar más que la ventana; si no, una notificación reservada por otra instancia volvería
+ * a parecer nueva dentro de la ventana y se enviaría dos veces. Dentro
+ * del resumen, de los cambios de estado o de solución de una misma incidencia solo se incluye el último.
+ * </p>
+ */
+@Log4j2
+@Service
+public class DespachoNotificacionesService
+{
+    /** Sentencia que bloquea el siguiente lote de notificaciones listas y obtiene sus destinatarios */
+    private static final String SQL_RESERVAR = "SELECT destinatario FROM notificacion_pendiente " +
+                                               "WHERE fallida = FALSE AND siguiente_intento <= ? ORDER BY siguiente_intento, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    /**
+     * Sentencia que bloquea las notificaciones de los destinatarios reservados que se envían ya, o que son nuevas
+     * (sin intentos) y están en la ventana (se completa con un ? por destinatario)
+     */
+    private static final String SQL_RESERVAR_DESTINATARIOS = "SELECT id, destinatario, asunto, cuerpo, intentos, tipo, incidencia_id, ubicacion, nombre_usuario, detalle " +
+                                                             "FROM notificacion_pendiente WHERE fallida = FALSE " +
+                                                             "AND (siguiente_intento <= ? OR (intentos = 0 AND siguiente_intento <= ?)) AND destinatario IN (%s) " +
+                                                             "ORDER BY id FOR UPDATE SKIP LOCKED";
+
+    /** Sentencia que aplaza una notificación (reserva o reintento) */
+    private static final String SQL_APLAZAR = "UPDATE notificacion_pendiente SET siguiente_intento = ? WHERE id = ?";
+
+    /** Sentencia que borra una notificación enviada */
+    private static final String SQL_BORRAR = "DELETE FROM notificacion_pendiente WHERE id = ?";
+
+    /** Sentencia que anota un envío fallido */
+    private static final String SQL_FALLO = "UPDATE notificacion_pendiente SET intentos = ?, siguiente_intento = ?, fallida = ?, ultimo_error = ? WHERE id = ?";
+
+    /** Sentencia que obtiene el tamaño de la cola */
+    private static final String SQL_METRICAS = "SELECT SUM(CASE WHEN fallida = FALSE THEN 1 ELSE 0 END) AS pendientes, " +
+                                               "SUM(CASE WHEN fallida = TRUE THEN 1 ELSE 0 END) AS fallidas, " +
+                                               "MIN(CASE WHEN fallida = FALSE THEN fecha_creacion END) AS mas_antigua FROM notificacion_pendiente";
+
+    /** Longitud máxima del último error guardado */
+    private static final int LONGITUD_MAXIMA_ERROR = 1000;
+
+    /** Acceso JDBC a la bandeja de salida */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Transacción de la reserva de cada lote */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** Cliente del servidor de notificaciones */
+    @Autowired
+    private RequestNotificacionesEnviarEmail requestNotificacionesEnviarEmail;
+
+    /** Servicio que prepara los emails de resumen */
+    @Autowired
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Número máximo de notificaciones que se reservan de una vez */
+    @Value("${reaktor.notificaciones.tamanio_lote:50}")
+    private int tamanioLote;
+
+    /** Número de intentos tras los que una notificación se da por fallida */
+    @Value("${reaktor.notificaciones.max_intentos:8}")
+    private int maxIntentos;
+
+    /** Espera antes del primer reintento, que se duplica en cada fallo */
+    @Value("${reaktor.notificaciones.espera_inicial_ms:5000}")
+    private long esperaInicialMs;
+
+    /** Espera máxima entre reintentos */
+    @Value("${reaktor.notificaciones.espera_maxima_ms:3600000}")
+    private long esperaMaximaMs;
+
+    /** Ventana durante la que se agrupan las notificaciones de un mismo destinatario */
+    @Value("${reaktor.notificaciones.ventana_ms:60000}")
+    private long ventanaMs;
+
+    /** Tiempo durante el que una notificación reservada no la toma otro despachador */
+    @Value("${reaktor.notificaciones.reserva_ms:600000}")
+    private long reservaMs;
+
+    /** Notificaciones enviadas desde el arranque */
+    private final AtomicLong enviadas = new AtomicLong();
+
+    /** Emails enviados al servidor de notificaciones desde el arranque (un resumen cuenta como uno) */
+    private final AtomicLong emails = new AtomicLong();
+
+    /** Envíos fallidos que se reintentarán */
+    private final AtomicLong reintentos = new AtomicLong();
+
+    /** Notificaciones que han agotado los intentos */
+    private final AtomicLong descartadas = new AtomicLong();
+
+    /**
+     * Comprueba al arrancar que la reserva dura más que la ventana de agrupación.
+     */
+    @PostConstruct
+    public void init()
+    {
+        if (this.reservaMs <= this.ventanaMs)
+        {
+            throw new IllegalStateException("reaktor.notificaciones.reserva_ms (" + this.reservaMs + ") debe ser mayor que reaktor.notificaciones.ventana_ms (" +
+                                            this.ventanaMs + ")");
+        }
+    }
+
+    /**
+     * Envía las notificaciones pendientes, lote a lote, mientras haya lotes completos.
+     */
+    @Scheduled(fixedDelayString = "${reaktor.notificaciones.despachar_ms:2000}")
+    public void despachar()
+    {
+        try
+        {
+            List<NotificacionPendienteDto> lote = null;
+            do
+            {
+                lote = this.transactionTemplate.execute(status -> this.reservarLote());
+
+                this.enviarLote(lote);
+            }
+            while (lote.size() >= this.tamanioLote);
+        }
+        catch (Exception exception)
+        {
+            log.error("Error al despachar las notificaciones email pendientes", exception);
+        }
+    }
+
+    /**
+     * Bloquea el siguiente lote de notificaciones listas, junto con las nuevas de sus destinatarios que
+     * esperan la ventana, y lo aplaza durante la reserva, dentro de la transacción en curso.
+     * @return Las notificaciones reservadas, ordenadas por id.
+     */
+    private List<NotificacionPendienteDto> reservarLote()
+    {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        Set<String> destinatarios = new LinkedHashSet<String>(this.jdbcTemplate.queryForList(SQL_RESERVAR, String.class, Timestamp.valueOf(ahora), this.tamanioLote));
+        if (destinatarios.isEmpty())
+        {
+            return List.of();
+        }
+
+        List<Object> parametros = new ArrayList<Object>(destinatarios.size() + 2);
+        parametros.add(Timestamp.valueOf(ahora));
+        parametros.add(Timestamp.valueOf(ahora.plus(Duration.ofMillis(this.ventanaMs))));
+        parametros.addAll(destinatarios);
+
+        String sql = String.format(SQL_RESERVAR_DESTINATARIOS, String.join(", ", Collections.nCopies(destinatarios.size(), "?")));
+
+        List<NotificacionPendienteDto> lote = this.jdbcTemplate.query(sql, (resultSet, fila) ->
+            new NotificacionPendienteDto(resultSet.getLong("id"), resultSet.getString("destinatario"), resultSet.getString("asunto"),
+                                         resultSet.getString("cuerpo"), resultSet.getInt("intentos"), resultSet.getString("tipo"),
+                                         resultSet.getObject("incidencia_id", Long.class), resultSet.getString("ubicacion"),
+                                         resultSet.getString("nombre_usuario"), resultSet.getString("detalle")),
+            parametros.toArray());
+
+        if (!lote.isEmpty())
+        {
+            Timestamp finReserva = Timestamp.valueOf(ahora.plus(Duration.ofMillis(this.reservaMs)));
+
+            this.jdbcTemplate.batchUpdate(SQL_APLAZAR, lote, lote.size(), (preparedStatement, notificacion) ->
+            {
+                preparedStatement.setTimestamp(1, finReserva);
+                preparedStatement.setLong(2, notificacion.getId());
+            });
+        }
+
+        return lote;
+    }
+
+    /**
+     * Envía las notificaciones reservadas, un email por destinatario, borra las enviadas y anota los fallos.
+     * @param lote Las notificaciones reservadas.
+     */
+    private void enviarLote(List<NotificacionPendienteDto> lote)
+    {
+        Map<String, List<NotificacionPendienteDto>> porDestinatario = new LinkedHashMap<String, List<NotificacionPendienteDto>>();
+        for (NotificacionPendienteDto notificacion : lote)
+        {
+            porDestinatario.computeIfAbsent(notificacion.getDestinatario(), destinatario -> new ArrayList<NotificacionPendienteDto>()).add(notificacion);
+        }
+
+        List<Long> idsEnviadas = new ArrayList<Long>();
+
+        for (Map.Entry<String, List<NotificacionPendienteDto>> entrada : porDestinatario.entrySet())
+        {
+            // Las notificaciones sin tipo no se pueden resumir y se envían solas
+            List<NotificacionPendienteDto> agrupables = new ArrayList<NotificacionPendienteDto>();
+            for (NotificacionPendienteDto notificacion : entrada.getValue())
+            {
+                if (notificacion.getTipo() == null)
+                {
+                    this.enviar(notificacion, List.of(notificacion), idsEnviadas);
+                }
+                else
+                {
+                    agrupables.add(notificacion);
+                }
+            }
+
+            if (!agrupables.isEmpty())
+            {
+                List<NotificacionPendienteDto> resumidas = this.quedarseConUltimosCambios(agrupables);
+
+                NotificacionPendienteDto email = resumidas.size() == 1 ? resumidas.get(0) :
+                                                 this.notificacionesIncidenciaService.crearResumen(entrada.getKey(), resumidas);
+
+                this.enviar(email, agrupables, idsEnviadas);
+            }
+        }
+
+        if (!idsEnviadas.isEmpty())
+        {
+            this.jdbcTemplate.batchUpdate(SQL_BORRAR, idsEnviadas, idsEnviadas.size(), (preparedStatement, id) -> preparedStatement.setLong(1, id));
+            this.enviadas.addAndGet(idsEnviadas.size());
+        }
+    }
+
+    /**
+     * Quita los cambios de estado o de solución de una incidencia que ha vuelto a cambiar después,
+     * porque el usuario solo necesita conocer el último.
+     * @param notificaciones Las notificaciones de un destinatario, ordenadas por id.
+     * @return Las notificaciones que se incluyen en el email, en el mismo orden.
+     */
+    private List<NotificacionPendienteDto> quedarseConUltimosCambios(List<NotificacionPendienteDto> notificaciones)
+    {
+        Map<String, NotificacionPendienteDto> ultimas = new LinkedHashMap<String, NotificacionPendienteDto>();
+        for (NotificacionPendienteDto notificacion : notificaciones)
+        {
+            // Las altas se conservan todas (su clave es única); los cambios se quedan con el último
+            String clave = Constants.EVENTO_CREACION.equals(notificacion.getTipo()) ? "N" + notificacion.getId() :
+                           notificacion.getTipo() + notificacion.getIncidenciaId();
+
+            ultimas.remove(clave);
+            ultimas.put(clave, notificacion);
+        }
+
+        return new ArrayList<NotificacionPendienteDto>(ultimas.values());
+    }
+
+    /**
+     * Envía un email y, según el resultado, anota como enviadas o como fallidas las notificaciones que incluye.
+     * @param email El email que se envía.
+     * @param incluidas Las notificaciones que incluye el email.
+     * @param idsEnviadas Los ids de las notificaciones enviadas, a los que se añaden las incluidas si el envío va bien.
+     */
+    private void enviar(NotificacionPendienteDto email, List<NotificacionPendienteDto> incluidas, List<Long> idsEnviadas)
+    {
+        try
+        {
+            this.requestNotificacionesEnviarEmail.enviarNotificacionEmail(new NotificationEmailDto(List.of(email.getDestinatario()), null, null,
+                                                                                                   email.getAsunto(), email.getCuerpo()));
+            this.emails.incrementAndGet();
+
+            for (NotificacionPendienteDto notificacion : incluidas)
+            {
+                idsEnviadas.add(notificacion.getId());
+            }
+        }
+        catch (Exception exception)
+        {
+            for (NotificacionPendienteDto notificacion : incluidas)
+            {
+                this.anotarFallo(notificacion, exception);
+            }
+        }
+    }
+
+    /**
+     * Anota un envío fallido: programa el siguiente intento con espera exponencial o, si se han agotado
+     * los intentos, marca la notificación como fallida.
+     * @param notificacion La notificación.
+     * @param exception El error del envío.
+     */
+    private void anotarFallo(NotificacionPendienteDto notificacion, Exception exception)
+    {
+        int intentos     = notificacion.getIntentos() + 1;
+        boolean fallida  = intentos >= this.maxIntentos;
+        long espera      = this.esperaInicialMs << Math.min(intentos - 1, 30);
+        LocalDateTime siguienteIntento = LocalDateTime.now().plus(Duration.ofMillis(Math.min(espera, this.esperaMaximaMs)));
+
+        String error = String.valueOf(exception.getMessage());
+        if (error.length() > LONGITUD_MAXIMA_ERROR)
+        {
+            error = error.substring(0, LONGITUD_MAXIMA_ERROR);
+        }
+
+        this.jdbcTemplate.update(SQL_FALLO, intentos, Timestamp.valueOf(siguienteIntento), fallida, error, notificacion.getId());
+
+        if (fallida)
+        {
+            this.descartadas.incrementAndGet();
+            log.error("La notificación email {} a {} se da por fallida tras {} intentos", notificacion.getId(), notificacion.getDestinatario(), intentos, exception);
+        }
+        else
+        {
+            this.reintentos.incrementAndGet();
+            log.warn("Error al enviar la notificación email {} (intento {}), se reintentará a las {}", notificacion.getId(), intentos, siguienteIntento);
+        }
+    }
+
+    /**
+     * Obtiene el tamaño de la bandeja de salida y los contadores de envíos desde el arranque.
+     * @return Las métricas de las notificaciones.
+     */
+    public MetricasNotificacionesDto obtenerMetricas()
+    {
+        return this.jdbcTemplate.queryForObject(SQL_METRICAS, (resultSet, fila) ->
+        {
+            Timestamp masAntigua    = resultSet.getTimestamp("mas_antigua");
+            long antiguedadSegundos = masAntigua == null ? 0 : Math.max(0, Duration.between(masAntigua.toLocalDateTime(), LocalDateTime.now()).getSeconds());
+
+            return new MetricasNotificacionesDto(resultSet.getLong("pendientes"), resultSet.getLong("fallidas"), antiguedadSegundos,
+                                                 this.enviadas.get(), this.emails.get(), this.reintentos.get(), this.descartadas.get());
+        });
+    }
+}
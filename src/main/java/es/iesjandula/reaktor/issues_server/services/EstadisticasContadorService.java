@@ -0,0 +1,337 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.repository.IEstadisticaContadorRepository;
+import es.iesjandula.reaktor.issues_server.repository.IEstadisticaDiariaRepository;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que mantiene los contadores de estadísticas de incidencias.
+ * <p>
+ * Los métodos de actualización se ejecutan dentro de la transacción que modifica la incidencia,
+ * de modo que el contador y la incidencia se confirman o se deshacen juntos. Cada incremento
+ * se aplica sobre una franja elegida al azar para repartir los bloqueos entre varias filas.
+ * Además de los contadores por curso, se mantienen los agregados diarios por categoría y
+ * ubicación que usa la tendencia. Cuando cambian los contadores de un curso anterior al actual,
+ * se descarta en la misma transacción su instantánea de estadísticas, que ya no es válida. Un proceso nocturno recalcula contadores y agregados desde
+ * las tablas incidencia e incidencia_archivo para corregir cualquier desviación; los cursos archivados conservan así sus contadores.
+ * </p>
+ * <p>
+ * La reconciliación no bloquea las escrituras: lee los recuentos reales y los contadores con
+ * lecturas consistentes (sin bloqueos) de una misma instantánea, y aplica solo las diferencias
+ * como incrementos, en transacciones cortas. Los cambios confirmados después de la instantánea
+ * ya están en los contadores y en la tabla incidencia, así que sumar la diferencia no los pisa.
+ * </p>
+ */
+@Log4j2
+@Service
+public class EstadisticasContadorService
+{
+    /** Repositorio de contadores de estadísticas */
+    @Autowired
+    private IEstadisticaContadorRepository estadisticaContadorRepository;
+
+    /** Repositorio de agregados diarios */
+    @Autowired
+    private IEstadisticaDiariaRepository estadisticaDiariaRepository;
+
+    /** Servicio de estadísticas, del que se descartan las instantáneas de los cursos cerrados que se modifican */
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    /** Transacciones de la reconciliación */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Suma una incidencia a los contadores de sus dimensiones.
+     * @param incidencia La incidencia creada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlta(Incidencia incidencia)
+    {
+        this.sumarIncidencia(incidencia, 1);
+
+        this.estadisticasService.invalidarSnapshotsCursosAnteriores(List.of(incidencia.getCursoAcademico()));
+    }
+
+    /**
+     * Suma un lote de incidencias a los contadores, agrupando los incrementos que caen
+     * en el mismo contador para lanzar una sola actualización por cada uno.
+     * @param incidencias Las incidencias creadas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAltas(List<Incidencia> incidencias)
+    {
+        Map<List<Object>, Long> incrementosCurso = new HashMap<List<Object>, Long>();
+        Map<List<Object>, Long> incrementosDia   = new HashMap<List<Object>, Long>();
+
+        for (Incidencia incidencia : incidencias)
+        {
+            String cursoAcademico = incidencia.getCursoAcademico();
+            LocalDate dia         = incidencia.getFecha().toLocalDate();
+            String categoria      = incidencia.getUsuarioCategoria().getId().getNombreCategoria();
+            String ubicacion      = incidencia.getUbicacion().getNombre();
+
+            incrementosCurso.merge(List.of(cursoAcademico, Constants.DIMENSION_CATEGORIA, categoria), 1L, Long::sum);
+            incrementosCurso.merge(List.of(cursoAcademico, Constants.DIMENSION_UBICACION, ubicacion), 1L, Long::sum);
+            incrementosDia.merge(List.of(dia, Constants.DIMENSION_CATEGORIA, categoria), 1L, Long::sum);
+            incrementosDia.merge(List.of(dia, Constants.DIMENSION_UBICACION, ubicacion), 1L, Long::sum);
+
+            if (incidencia.getEstado() != null)
+            {
+                incrementosCurso.merge(List.of(cursoAcademico, Constants.DIMENSION_ESTADO, incidencia.getEstado()), 1L, Long::sum);
+            }
+        }
+
+        for (Map.Entry<List<Object>, Long> incremento : incrementosCurso.entrySet())
+        {
+            List<Object> clave = incremento.getKey();
+            int franja         = ThreadLocalRandom.current().nextInt(Constants.NUMERO_FRANJAS_CONTADOR);
+
+            this.estadisticaContadorRepository.sumarCantidad((String) clave.get(0), (String) clave.get(1), (String) clave.get(2), franja, incremento.getValue());
+        }
+
+        for (Map.Entry<List<Object>, Long> incremento : incrementosDia.entrySet())
+        {
+            List<Object> clave = incremento.getKey();
+
+            this.estadisticaDiariaRepository.sumarCantidad((LocalDate) clave.get(0), (String) clave.get(1), (String) clave.get(2), incremento.getValue());
+        }
+
+        this.estadisticasService.invalidarSnapshotsCursosAnteriores(incidencias.stream().map(Incidencia::getCursoAcademico).toList());
+    }
+
+    /**
+     * Resta una incidencia de los contadores de sus dimensiones.
+     * @param incidencia La incidencia eliminada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarBaja(Incidencia incidencia)
+    {
+        this.sumarIncidencia(incidencia, -1);
+
+        this.estadisticasService.invalidarSnapshotsCursosAnteriores(List.of(incidencia.getCursoAcademico()));
+    }
+
+    /**
+     * Mueve una incidencia de un valor a otro dentro de una dimensión.
+     * @param anterior Los datos de la incidencia antes del cambio.
+     * @param dimension La dimensión que cambia.
+     * @param valorAnterior El valor anterior.
+     * @param valorNuevo El valor nuevo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambio(IncidenciaNotificacionDto anterior, String dimension, String valorAnterior, String valorNuevo)
+    {
+        // Si el valor no cambia, no hay nada que actualizar
+        if (Objects.equals(valorAnterior, valorNuevo))
+        {
+            return;
+        }
+
+        this.sumar(anterior.getCursoAcademico(), anterior.getFecha(), dimension, valorAnterior, -1);
+        this.sumar(anterior.getCursoAcademico(), anterior.getFecha(), dimension, valorNuevo, 1);
+
+        this.estadisticasService.invalidarSnapshotsCursosAnteriores(List.of(anterior.getCursoAcademico()));
+    }
+
+    /**
+     * Mueve un conjunto de incidencias a un nuevo estado, agrupando los cambios que caen
+     * en el mismo contador para lanzar una sola actualización por cada uno.
+     * @param anteriores Los datos de las incidencias antes del cambio.
+     * @param estado El nuevo estado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambiosEstado(List<IncidenciaNotificacionDto> anteriores, String estado)
+    {
+        Map<List<String>, Long> incrementos = new HashMap<List<String>, Long>();
+
+        for (IncidenciaNotificacionDto anterior : anteriores)
+        {
+            // Si el valor no cambia, no hay nada que actualizar
+            if (Objects.equals(anterior.getEstado(), estado))
+            {
+                continue;
+            }
+
+            if (anterior.getEstado() != null)
+            {
+                incrementos.merge(List.of(anterior.getCursoAcademico(), anterior.getEstado()), -1L, Long::sum);
+            }
+
+            incrementos.merge(List.of(anterior.getCursoAcademico(), estado), 1L, Long::sum);
+        }
+
+        for (Map.Entry<List<String>, Long> incremento : incrementos.entrySet())
+        {
+            // Los movimientos dentro del mismo curso pueden compensarse
+            if (incremento.getValue() == 0)
+            {
+                continue;
+            }
+
+            List<String> clave = incremento.getKey();
+            int franja         = ThreadLocalRandom.current().nextInt(Constants.NUMERO_FRANJAS_CONTADOR);
+
+            this.estadisticaContadorRepository.sumarCantidad(clave.get(0), Constants.DIMENSION_ESTADO, clave.get(1), franja, incremento.getValue());
+        }
+
+        this.estadisticasService.invalidarSnapshotsCursosAnteriores(anteriores.stream()
+                                                                              .filter(anterior -> !Objects.equals(anterior.getEstado(), estado))
+                                                                              .map(IncidenciaNotificacionDto::getCursoAcademico)
+                                                                              .toList());
+    }
+
+    /**
+     * Corrige los contadores y los agregados diarios con las diferencias respecto a las incidencias, incluidas las archivadas.
+     */
+    @Scheduled(cron = "${reaktor.estadisticas.reconciliar_cron:0 30 3 * * *}")
+    public void reconciliar()
+    {
+        // Recuentos reales y valores actuales de la misma instantánea (REPEATABLE READ, lecturas sin bloqueo)
+        List<List<Object>> diferencias = this.transactionTemplate.execute(status ->
+        {
+            List<List<Object>> calculadas = new ArrayList<List<Object>>();
+
+            calculadas.addAll(this.calcularDiferencias(this.estadisticaContadorRepository.contarIncidencias(),
+                                                       this.estadisticaContadorRepository.sumarContadores()));
+            calculadas.addAll(this.calcularDiferencias(this.estadisticaDiariaRepository.contarIncidencias(),
+                                                       this.estadisticaDiariaRepository.obtenerAgregados()));
+            return calculadas;
+        });
+
+        // Cada bloque de diferencias se aplica en su propia transacción corta
+        for (int inicio = 0; inicio < diferencias.size(); inicio += Constants.TAMANIO_BLOQUE_RECONCILIACION)
+        {
+            List<List<Object>> bloque = diferencias.subList(inicio, Math.min(inicio + Constants.TAMANIO_BLOQUE_RECONCILIACION, diferencias.size()));
+
+            this.transactionTemplate.executeWithoutResult(status -> this.aplicarDiferencias(bloque));
+        }
+
+        log.info("Contadores y agregados diarios de estadísticas reconciliados con las incidencias: {} valores corregidos", diferencias.size());
+    }
+
+    /**
+     * Compara los recuentos reales con los valores guardados.
+     * @param reales Filas (clave, dimensión, valor, recuento real), donde la clave es el curso académico o el día.
+     * @param guardados Filas (clave, dimensión, valor, valor guardado).
+     * @return Las diferencias distintas de cero, como (clave, dimensión, valor, diferencia).
+     */
+    private List<List<Object>> calcularDiferencias(List<Object[]> reales, List<Object[]> guardados)
+    {
+        Map<List<Object>, Long> diferencias = new HashMap<List<Object>, Long>();
+
+        for (Object[] fila : reales)
+        {
+            diferencias.merge(List.of(this.normalizarClave(fila[0]), fila[1], fila[2]), ((Number) fila[3]).longValue(), Long::sum);
+        }
+
+        for (Object[] fila : guardados)
+        {
+            diferencias.merge(List.of(this.normalizarClave(fila[0]), fila[1], fila[2]), -((Number) fila[3]).longValue(), Long::sum);
+        }
+
+        List<List<Object>> resultado = new ArrayList<List<Object>>();
+        for (Map.Entry<List<Object>, Long> diferencia : diferencias.entrySet())
+        {
+            if (diferencia.getValue() != 0)
+            {
+                List<Object> clave = diferencia.getKey();
+                resultado.add(List.of(clave.get(0), clave.get(1), clave.get(2), diferencia.getValue()));
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Suma las diferencias a los contadores (franja 0) o a los agregados diarios, dentro de la transacción en curso.
+     * @param diferencias Las diferencias, como (curso académico o día, dimensión, valor, diferencia).
+     */
+    private void aplicarDiferencias(List<List<Object>> diferencias)
+    {
+        for (List<Object> diferencia : diferencias)
+        {
+            if (diferencia.get(0) instanceof LocalDate dia)
+            {
+                this.estadisticaDiariaRepository.sumarCantidad(dia, (String) diferencia.get(1), (String) diferencia.get(2), (Long) diferencia.get(3));
+            }
+            else
+            {
+                this.estadisticaContadorRepository.sumarCantidad((String) diferencia.get(0), (String) diferencia.get(1), (String) diferencia.get(2), 0, (Long) diferencia.get(3));
+            }
+        }
+    }
+
+    /**
+     * Unifica el tipo de la clave leída por las consultas nativas (los días pueden llegar como java.sql.Date).
+     * @param clave El curso académico o el día.
+     * @return La clave, con los días como LocalDate.
+     */
+    private Object normalizarClave(Object clave)
+    {
+        return clave instanceof Date fecha ? fecha.toLocalDate() : clave;
+    }
+
+    /**
+     * Suma una cantidad a los contadores de todas las dimensiones de una incidencia.
+     * @param incidencia La incidencia.
+     * @param cantidad La cantidad a sumar.
+     */
+    private void sumarIncidencia(Incidencia incidencia, long cantidad)
+    {
+        this.sumar(incidencia.getCursoAcademico(), incidencia.getFecha(), Constants.DIMENSION_CATEGORIA, incidencia.getUsuarioCategoria().getId().getNombreCategoria(), cantidad);
+        this.sumar(incidencia.getCursoAcademico(), incidencia.getFecha(), Constants.DIMENSION_ESTADO, incidencia.getEstado(), cantidad);
+        this.sumar(incidencia.getCursoAcademico(), incidencia.getFecha(), Constants.DIMENSION_UBICACION, incidencia.getUbicacion().getNombre(), cantidad);
+    }
+
+    /**
+     * Suma una cantidad a una franja aleatoria del contador del curso de la incidencia y, para
+     * las dimensiones categoría y ubicación, al agregado del día de la incidencia.
+     * @param cursoAcademico El curso académico de la incidencia.
+     * @param fecha La fecha de la incidencia.
+     * @param dimension La dimensión.
+     * @param valor El valor de la dimensión.
+     * @param cantidad La cantidad a sumar.
+     */
+    private void sumar(String cursoAcademico, LocalDateTime fecha, String dimension, String valor, long cantidad)
+    {
+        // Los valores nulos no se cuentan
+        if (valor == null)
+        {
+            return;
+        }
+
+        int franja = ThreadLocalRandom.current().nextInt(Constants.NUMERO_FRANJAS_CONTADOR);
+
+        this.estadisticaContadorRepository.sumarCantidad(cursoAcademico, dimension, valor, franja, cantidad);
+
+        // La tendencia solo se calcula por categoría y ubicación
+        if (!Constants.DIMENSION_ESTADO.equals(dimension))
+        {
+            LocalDate dia = fecha.toLocalDate();
+
+            this.estadisticaDiariaRepository.sumarCantidad(dia, dimension, valor, cantidad);
+        }
+    }
+}
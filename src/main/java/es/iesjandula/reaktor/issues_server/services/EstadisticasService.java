@@ -0,0 +1,632 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.iesjandula.reaktor.base.utils.FechasUtils;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCategoriaDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCeldaDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasCursoDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasEstadoDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasMesDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasResumenDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasTendenciaDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasUbicacionDto;
+import es.iesjandula.reaktor.issues_server.models.EstadisticaDiaria;
+import es.iesjandula.reaktor.issues_server.models.EstadisticaSnapshot;
+import es.iesjandula.reaktor.issues_server.repository.IEstadisticaContadorRepository;
+import es.iesjandula.reaktor.issues_server.repository.IEstadisticaDiariaRepository;
+import es.iesjandula.reaktor.issues_server.repository.IEstadisticaSnapshotRepository;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaArchivadaRepository;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que obtiene las estadísticas de incidencias de un curso académico.
+ * <p>
+ * Las estadísticas del curso en vigor se leen de los contadores o se calculan al momento.
+ * Las de un curso cerrado (anterior al actual y con todas sus incidencias en un estado final) se
+ * calculan una sola vez (sumando las incidencias ya movidas al archivo), se guardan como instantánea
+ * y a partir de entonces se sirven desde ella sin consultar la tabla incidencia. Si después se
+ * modifica alguna incidencia del curso, los contadores descartan la instantánea.
+ * </p>
+ * <p>
+ * El resumen se calcula con una única consulta agrupada por (ubicación, categoría, estado) cuyas
+ * filas se acumulan en arrays de tipos primitivos indexados por identificadores de diccionario,
+ * de los que salen los tres desgloses y las dos tablas cruzadas.
+ * </p>
+ * <p>
+ * La tendencia por día, semana o mes se obtiene sumando los agregados diarios de la tabla
+ * estadistica_diaria, sin recorrer rangos de fechas de la tabla incidencia.
+ * </p>
+ */
+@Log4j2
+@Service
+public class EstadisticasService
+{
+    /** Repositorio de incidencias */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /** Repositorio del archivo de incidencias de cursos cerrados */
+    @Autowired
+    private IIncidenciaArchivadaRepository incidenciaArchivadaRepository;
+
+    /** Repositorio de contadores de estadísticas */
+    @Autowired
+    private IEstadisticaContadorRepository estadisticaContadorRepository;
+
+    /** Repositorio de instantáneas de estadísticas */
+    @Autowired
+    private IEstadisticaSnapshotRepository estadisticaSnapshotRepository;
+
+    /** Repositorio de agregados diarios */
+    @Autowired
+    private IEstadisticaDiariaRepository estadisticaDiariaRepository;
+
+    /** Serializador JSON */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Gestor de transacciones, para crear las instantáneas fuera de las lecturas de solo lectura */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** Instantáneas ya leídas (solo cambian al descartarlas, así que se pueden conservar en memoria) */
+    private final Map<String, EstadisticasCursoDto> snapshotsLeidos = new ConcurrentHashMap<String, EstadisticasCursoDto>();
+
+    /**
+     * Obtiene las estadísticas por categoría de un curso académico.
+     * @param cursoAcademico El curso académico (nulo o vacío para el curso actual).
+     * @return Las estadísticas por categoría.
+     * @throws JsonProcessingException si no se puede leer o guardar la instantánea
+     */
+    @Transactional(readOnly = true)
+    public List<EstadisticasCategoriaDto> obtenerEstadisticasPorCategoria(String cursoAcademico) throws JsonProcessingException
+    {
+        String curso = this.resolverCurso(cursoAcademico);
+
+        EstadisticasCursoDto snapshot = this.obtenerSnapshot(curso);
+        if (snapshot != null)
+        {
+            return snapshot.getResumen().getPorCategoria();
+        }
+
+        return this.estadisticaContadorRepository.obtenerEstadisticasPorCategoria(curso);
+    }
+
+    /**
+     * Obtiene las estadísticas por estado de un curso académico.
+     * @param cursoAcademico El curso académico (nulo o vacío para el curso actual).
+     * @return Las estadísticas por estado.
+     * @throws JsonProcessingException si no se puede leer o guardar la instantánea
+     */
+    @Transactional(readOnly = true)
+    public List<EstadisticasEstadoDto> obtenerEstadisticasPorEstado(String cursoAcademico) throws JsonProcessingException
+    {
+        String curso = this.resolverCurso(cursoAcademico);
+
+        EstadisticasCursoDto snapshot = this.obtenerSnapshot(curso);
+        if (snapshot != null)
+        {
+            return snapshot.getResumen().getPorEstado();
+        }
+
+        return this.estadisticaContadorRepository.obtenerEstadisticasPorEstado(curso);
+    }
+
+    /**
+     * Obtiene las estadísticas por ubicación de un curso académico.
+     * @param cursoAcademico El curso académico (nulo o vacío para el curso actual).
+     * @return Las estadísticas por ubicación.
+     * @throws JsonProcessingException si no se puede leer o guardar la instantánea
+     */
+    @Transactional(readOnly = true)
+    public List<EstadisticasUbicacionDto> obtenerEstadisticasPorUbicacion(String cursoAcademico) throws JsonProcessingException
+    {
+        String curso = this.resolverCurso(cursoAcademico);
+
+        EstadisticasCursoDto snapshot = this.obtenerSnapshot(curso);
+        if (snapshot != null)
+        {
+            return snapshot.getResumen().getPorUbicacion();
+        }
+
+        return this.estadisticaContadorRepository.obtenerEstadisticasPorUbicacion(curso);
+    }
+
+    /**
+     * Obtiene el resumen de estadísticas de un curso académico.
+     * @param cursoAcademico El curso académico (nulo o vacío para el curso actual).
+     * @return El resumen de estadísticas.
+     * @throws JsonProcessingException si no se puede leer o guardar la instantánea
+     */
+    @Transactional(readOnly = true)
+    public EstadisticasResumenDto obtenerResumen(String cursoAcademico) throws JsonProcessingException
+    {
+        String curso = this.resolverCurso(cursoAcademico);
+
+        EstadisticasCursoDto snapshot = this.obtenerSnapshot(curso);
+        if (snapshot != null)
+        {
+            return snapshot.getResumen();
+        }
+
+        return this.calcularResumen(curso);
+    }
+
+    /**
+     * Obtiene el desglose mensual por categoría de un curso académico.
+     * @param cursoAcademico El curso académico (nulo o vacío para el curso actual).
+     * @return Las incidencias por mes y categoría.
+     * @throws JsonProcessingException si no se puede leer o guardar la instantánea
+     */
+    @Transactional(readOnly = true)
+    public List<EstadisticasMesDto> obtenerEstadisticasPorMes(String cursoAcademico) throws JsonProcessingException
+    {
+        String curso = this.resolverCurso(cursoAcademico);
+
+        EstadisticasCursoDto snapshot = this.obtenerSnapshot(curso);
+        if (snapshot != null)
+        {
+            return snapshot.getPorMes();
+        }
+
+        if (this.esCursoAnterior(curso))
+        {
+            return this.obtenerPorMesConArchivo(curso);
+        }
+
+        return this.incidenciaRepository.obtenerEstadisticasPorMes(curso);
+    }
+
+    /**
+     * Descarta las instantáneas de los cursos indicados para que se vuelvan a calcular en la siguiente
+     * consulta. Se usa cuando cambian las incidencias de un curso cerrado: al importar históricos o al
+     * modificar, desde cualquier endpoint, una incidencia de un curso anterior. Las filas se borran en la
+     * transacción en curso y las copias en memoria, cuando se confirma, para que una lectura simultánea
+     * no vuelva a guardar en memoria la instantánea que se está descartando.
+     * @param cursosAcademicos Los cursos académicos modificados.
+     */
+    @Transactional
+    public void invalidarSnapshots(Collection<String> cursosAcademicos)
+    {
+        this.estadisticaSnapshotRepository.borrarPorCursos(cursosAcademicos);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            this.snapshotsLeidos.keySet().removeAll(cursosAcademicos);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+        {
+            @Override
+            public void afterCommit()
+            {
+                EstadisticasService.this.snapshotsLeidos.keySet().removeAll(cursosAcademicos);
+            }
+        });
+    }
+
+    /**
+     * Descarta las instantáneas de los cursos anteriores al actual entre los indicados. Los
+     * contadores lo llaman con los cursos de las incidencias que modifican.
+     * @param cursosAcademicos Los cursos académicos de las incidencias modificadas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invalidarSnapshotsCursosAnteriores(Collection<String> cursosAcademicos)
+    {
+        List<String> cursosAnteriores = cursosAcademicos.stream().filter(this::esCursoAnterior).distinct().toList();
+
+        if (!cursosAnteriores.isEmpty())
+        {
+            this.invalidarSnapshots(cursosAnteriores);
+        }
+    }
+
+    /**
+     * Obtiene la tendencia de incidencias por categoría o ubicación agrupada por día, semana o mes.
+     * @param dimension La dimensión (categoria o ubicacion).
+     * @param desde El primer día del rango (yyyy-MM-dd, por defecto hace 30 días).
+     * @param hasta El último día del rango (yyyy-MM-dd, por defecto hoy).
+     * @param periodo El periodo de agrupación (dia, semana o mes, por defecto dia).
+     * @return Las incidencias por periodo y valor, en orden cronológico.
+     * @throws IssuesServerError si algún parámetro no es válido
+     */
+    @Transactional(readOnly = true)
+    public List<EstadisticasTendenciaDto> obtenerTendencia(String dimension, String desde, String hasta, String periodo) throws IssuesServerError
+    {
+        String dimensionValidada = this.validarDimensionTendencia(dimension);
+        String periodoValidado   = this.validarPeriodoTendencia(periodo);
+
+        LocalDate fechaHasta = this.parsearDia(hasta, LocalDate.now());
+        LocalDate fechaDesde = this.parsearDia(desde, fechaHasta.minusDays(29));
+
+        if (fechaDesde.isAfter(fechaHasta))
+        {
+            log.error(Constants.ERR_ESTADISTICAS_RANGO_NO_VALIDO_MESSAGE);
+            throw new IssuesServerError(Constants.ERR_ESTADISTICAS_RANGO_NO_VALIDO_CODE, Constants.ERR_ESTADISTICAS_RANGO_NO_VALIDO_MESSAGE);
+        }
+
+        // Sumamos los agregados diarios en el periodo al que pertenece cada día
+        Map<LocalDate, Map<String, Long>> periodos = new TreeMap<LocalDate, Map<String, Long>>();
+
+        for (EstadisticaDiaria estadisticaDiaria : this.estadisticaDiariaRepository.buscarPorDimensionYRango(dimensionValidada, fechaDesde, fechaHasta))
+        {
+            LocalDate inicioPeriodo = this.calcularInicioPeriodo(estadisticaDiaria.getId().getDia(), periodoValidado);
+
+            periodos.computeIfAbsent(inicioPeriodo, clave -> new TreeMap<String, Long>())
+                    .merge(estadisticaDiaria.getId().getValor(), estadisticaDiaria.getCantidad(), Long::sum);
+        }
+
+        List<EstadisticasTendenciaDto> tendencia = new ArrayList<EstadisticasTendenciaDto>();
+
+        for (Map.Entry<LocalDate, Map<String, Long>> periodoEntry : periodos.entrySet())
+        {
+            for (Map.Entry<String, Long> valorEntry : periodoEntry.getValue().entrySet())
+            {
+                tendencia.add(new EstadisticasTendenciaDto(periodoEntry.getKey(), valorEntry.getKey(), valorEntry.getValue()));
+            }
+        }
+
+        return tendencia;
+    }
+
+    /**
+     * Valida la dimensión de la tendencia y devuelve la dimensión de los agregados.
+     * @param dimension La dimensión recibida.
+     * @return La dimensión de los agregados.
+     * @throws IssuesServerError si la dimensión no es válida
+     */
+    private String validarDimensionTendencia(String dimension) throws IssuesServerError
+    {
+        if (Constants.DIMENSION_CATEGORIA.equalsIgnoreCase(dimension))
+        {
+            return Constants.DIMENSION_CATEGORIA;
+        }
+
+        if (Constants.DIMENSION_UBICACION.equalsIgnoreCase(dimension))
+        {
+            return Constants.DIMENSION_UBICACION;
+        }
+
+        log.error(Constants.ERR_ESTADISTICAS_DIMENSION_NO_VALIDA_MESSAGE);
+        throw new IssuesServerError(Constants.ERR_ESTADISTICAS_DIMENSION_NO_VALIDA_CODE, Constants.ERR_ESTADISTICAS_DIMENSION_NO_VALIDA_MESSAGE);
+    }
+
+    /**
+     * Valida el periodo de agrupación de la tendencia.
+     * @param periodo El periodo recibido.
+     * @return El periodo validado.
+     * @throws IssuesServerError si el periodo no es válido
+     */
+    private String validarPeriodoTendencia(String periodo) throws IssuesServerError
+    {
+        if (periodo == null || periodo.isBlank())
+        {
+            return Constants.PERIODO_DIA;
+        }
+
+        if (!Constants.PERIODO_DIA.equals(periodo) && !Constants.PERIODO_SEMANA.equals(periodo) && !Constants.PERIODO_MES.equals(periodo))
+        {
+            log.error(Constants.ERR_ESTADISTICAS_PERIODO_NO_VALIDO_MESSAGE);
+            throw new IssuesServerError(Constants.ERR_ESTADISTICAS_PERIODO_NO_VALIDO_CODE, Constants.ERR_ESTADISTICAS_PERIODO_NO_VALIDO_MESSAGE);
+        }
+
+        return periodo;
+    }
+
+    /**
+     * Parsea un día en formato ISO (yyyy-MM-dd).
+     * @param valor El valor a parsear.
+     * @param valorPorDefecto El valor si no se informa.
+     * @return El día parseado.
+     * @throws IssuesServerError si el día no es válido
+     */
+    private LocalDate parsearDia(String valor, LocalDate valorPorDefecto) throws IssuesServerError
+    {
+        if (valor == null || valor.isBlank())
+        {
+            return valorPorDefecto;
+        }
+
+        try
+        {
+            return LocalDate.parse(valor);
+        }
+        catch (DateTimeParseException dateTimeParseException)
+        {
+            log.error(Constants.ERR_ESTADISTICAS_RANGO_NO_VALIDO_MESSAGE, dateTimeParseException);
+            throw new IssuesServerError(Constants.ERR_ESTADISTICAS_RANGO_NO_VALIDO_CODE, Constants.ERR_ESTADISTICAS_RANGO_NO_VALIDO_MESSAGE, dateTimeParseException);
+        }
+    }
+
+    /**
+     * Calcula el primer día del periodo al que pertenece un día.
+     * @param dia El día.
+     * @param periodo El periodo (dia, semana o mes).
+     * @return El primer día del periodo.
+     */
+    private LocalDate calcularInicioPeriodo(LocalDate dia, String periodo)
+    {
+        if (Constants.PERIODO_SEMANA.equals(periodo))
+        {
+            return dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        if (Constants.PERIODO_MES.equals(periodo))
+        {
+            return dia.withDayOfMonth(1);
+        }
+
+        return dia;
+    }
+
+    /**
+     * Devuelve el curso indicado o, si no se indica, el curso académico actual.
+     * @param cursoAcademico El curso académico recibido.
+     * @return El curso académico a consultar.
+     */
+    private String resolverCurso(String cursoAcademico)
+    {
+        if (cursoAcademico == null || cursoAcademico.isBlank())
+        {
+            return FechasUtils.obtenerCursoAcademicoActual();
+        }
+
+        return cursoAcademico.trim();
+    }
+
+    /**
+     * Indica si un curso académico ya ha terminado (es anterior al curso actual).
+     * @param cursoAcademico El curso académico.
+     * @return true si el curso es anterior al actual.
+     */
+    private boolean esCursoAnterior(String cursoAcademico)
+    {
+        return cursoAcademico.compareTo(FechasUtils.obtenerCursoAcademicoActual()) < 0;
+    }
+
+    /**
+     * Obtiene la instantánea de un curso cerrado, creándola si todavía no existe. Un curso está cerrado
+     * cuando es anterior al actual y todas sus incidencias están en un estado final, la misma condición
+     * con la que se archiva: mientras tenga incidencias abiertas se pueden seguir modificando y sus
+     * estadísticas se calculan al momento.
+     * @param cursoAcademico El curso académico.
+     * @return Las estadísticas congeladas del curso, o null si el curso no está cerrado.
+     * @throws JsonProcessingException si no se puede leer o guardar la instantánea
+     */
+    private EstadisticasCursoDto obtenerSnapshot(String cursoAcademico) throws JsonProcessingException
+    {
+        if (!this.esCursoAnterior(cursoAcademico))
+        {
+            return null;
+        }
+
+        // Si ya la hemos leído antes, la devolvemos directamente
+        EstadisticasCursoDto estadisticasCurso = this.snapshotsLeidos.get(cursoAcademico);
+        if (estadisticasCurso != null)
+        {
+            return estadisticasCurso;
+        }
+
+        Optional<EstadisticaSnapshot> optionalSnapshot = this.estadisticaSnapshotRepository.findById(cursoAcademico);
+
+        if (optionalSnapshot.isPresent())
+        {
+            estadisticasCurso = this.objectMapper.readValue(optionalSnapshot.get().getContenido(), EstadisticasCursoDto.class);
+        }
+        else
+        {
+            // La instantánea se calcula y se guarda en una transacción de escritura propia, que va a la base
+            // de datos principal: se congela hasta que se modifique el curso y no debe salir de una réplica retrasada
+            TransactionTemplate transaccionEscritura = new TransactionTemplate(this.transactionManager);
+            transaccionEscritura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+            // Comprobamos que el curso está cerrado y lo calculamos en la misma lectura
+            estadisticasCurso = transaccionEscritura.execute(status ->
+            {
+                if (this.incidenciaArchivadaRepository.contarNoFinalesPorCurso(cursoAcademico, Constants.ESTADOS_FINALES) > 0)
+                {
+                    return null;
+                }
+
+                return new EstadisticasCursoDto(this.calcularResumen(cursoAcademico), this.obtenerPorMesConArchivo(cursoAcademico), true);
+            });
+
+            if (estadisticasCurso == null)
+            {
+                log.debug("El curso académico {} tiene incidencias sin cerrar: sus estadísticas se calculan al momento", cursoAcademico);
+                return null;
+            }
+
+            String contenido = this.objectMapper.writeValueAsString(estadisticasCurso);
+            transaccionEscritura.executeWithoutResult(status -> this.estadisticaSnapshotRepository.insertarSiNoExiste(cursoAcademico, LocalDateTime.now(), contenido));
+
+            log.info("Creada la instantánea de estadísticas del curso académico {}", cursoAcademico);
+        }
+
+        this.snapshotsLeidos.put(cursoAcademico, estadisticasCurso);
+
+        return estadisticasCurso;
+    }
+
+    /**
+     * Obtiene el desglose mensual de un curso anterior al actual sumando las incidencias que siguen en
+     * la tabla incidencia y las que ya se han movido al archivo.
+     * @param cursoAcademico El curso académico.
+     * @return Las incidencias por mes y categoría, en orden cronológico.
+     */
+    private List<EstadisticasMesDto> obtenerPorMesConArchivo(String cursoAcademico)
+    {
+        List<EstadisticasMesDto> meses = new ArrayList<EstadisticasMesDto>(this.incidenciaRepository.obtenerEstadisticasPorMes(cursoAcademico));
+        meses.addAll(this.incidenciaArchivadaRepository.obtenerEstadisticasPorMes(cursoAcademico));
+
+        meses.sort(Comparator.comparing(EstadisticasMesDto::getAnio)
+                             .thenComparing(EstadisticasMesDto::getMes)
+                             .thenComparing(EstadisticasMesDto::getCategoria));
+
+        // Si el curso está archivado a medias, el mismo mes y categoría puede venir de las dos tablas
+        List<EstadisticasMesDto> unidos = new ArrayList<EstadisticasMesDto>();
+        for (EstadisticasMesDto mes : meses)
+        {
+            EstadisticasMesDto ultimo = unidos.isEmpty() ? null : unidos.get(unidos.size() - 1);
+
+            if (ultimo != null && ultimo.getAnio().equals(mes.getAnio()) && ultimo.getMes().equals(mes.getMes()) && ultimo.getCategoria().equals(mes.getCategoria()))
+            {
+                ultimo.setCantidad(ultimo.getCantidad() + mes.getCantidad());
+            }
+            else
+            {
+                unidos.add(mes);
+            }
+        }
+
+        return unidos;
+    }
+
+    /**
+     * Calcula el resumen de estadísticas de un curso académico a partir de la tabla incidencia y,
+     * si el curso es anterior al actual, también del archivo.
+     * @param cursoAcademico El curso académico.
+     * @return El resumen de estadísticas.
+     */
+    private EstadisticasResumenDto calcularResumen(String cursoAcademico)
+    {
+        List<EstadisticasCeldaDto> celdas = this.incidenciaRepository.obtenerEstadisticasPorCelda(cursoAcademico);
+
+        // Las celdas repetidas en las dos tablas se suman al acumular
+        if (this.esCursoAnterior(cursoAcademico))
+        {
+            celdas = new ArrayList<EstadisticasCeldaDto>(celdas);
+            celdas.addAll(this.incidenciaArchivadaRepository.obtenerEstadisticasPorCelda(cursoAcademico));
+        }
+
+        // Construimos los diccionarios (nombre -> id) ordenados alfabéticamente
+        TreeSet<String> nombresUbicaciones = new TreeSet<String>();
+        TreeSet<String> nombresCategorias  = new TreeSet<String>();
+        TreeSet<String> nombresEstados     = new TreeSet<String>();
+
+        for (EstadisticasCeldaDto celda : celdas)
+        {
+            nombresUbicaciones.add(celda.getUbicacion());
+            nombresCategorias.add(celda.getCategoria());
+
+            if (celda.getEstado() != null)
+            {
+                nombresEstados.add(celda.getEstado());
+            }
+        }
+
+        List<String> ubicaciones = new ArrayList<String>(nombresUbicaciones);
+        List<String> categorias  = new ArrayList<String>(nombresCategorias);
+        List<String> estados     = new ArrayList<String>(nombresEstados);
+
+        Map<String, Integer> idsUbicaciones = this.crearDiccionario(ubicaciones);
+        Map<String, Integer> idsCategorias  = this.crearDiccionario(categorias);
+        Map<String, Integer> idsEstados     = this.crearDiccionario(estados);
+
+        // Acumulamos todos los desgloses en una sola pasada
+        long[] porUbicacion = new long[ubicaciones.size()];
+        long[] porCategoria = new long[categorias.size()];
+        long[] porEstado    = new long[estados.size()];
+
+        long[][] ubicacionCategoria = new long[ubicaciones.size()][categorias.size()];
+        long[][] categoriaEstado    = new long[categorias.size()][estados.size()];
+
+        long total = 0;
+
+        for (EstadisticasCeldaDto celda : celdas)
+        {
+            int idUbicacion = idsUbicaciones.get(celda.getUbicacion());
+            int idCategoria = idsCategorias.get(celda.getCategoria());
+            long cantidad   = celda.getCantidad();
+
+            total                                        += cantidad;
+            porUbicacion[idUbicacion]                    += cantidad;
+            porCategoria[idCategoria]                    += cantidad;
+            ubicacionCategoria[idUbicacion][idCategoria] += cantidad;
+
+            // Las incidencias sin estado no aparecen en los desgloses por estado
+            if (celda.getEstado() != null)
+            {
+                int idEstado = idsEstados.get(celda.getEstado());
+
+                porEstado[idEstado]                    += cantidad;
+                categoriaEstado[idCategoria][idEstado] += cantidad;
+            }
+        }
+
+        // Convertimos los desgloses al formato de los endpoints individuales (de mayor a menor)
+        List<EstadisticasUbicacionDto> listaPorUbicacion = new ArrayList<EstadisticasUbicacionDto>();
+        for (int i = 0; i < ubicaciones.size(); i++)
+        {
+            listaPorUbicacion.add(new EstadisticasUbicacionDto(ubicaciones.get(i), porUbicacion[i]));
+        }
+        listaPorUbicacion.sort(Comparator.comparing(EstadisticasUbicacionDto::getCantidad).reversed());
+
+        List<EstadisticasCategoriaDto> listaPorCategoria = new ArrayList<EstadisticasCategoriaDto>();
+        for (int i = 0; i < categorias.size(); i++)
+        {
+            listaPorCategoria.add(new EstadisticasCategoriaDto(categorias.get(i), porCategoria[i]));
+        }
+        listaPorCategoria.sort(Comparator.comparing(EstadisticasCategoriaDto::getCantidad).reversed());
+
+        List<EstadisticasEstadoDto> listaPorEstado = new ArrayList<EstadisticasEstadoDto>();
+        for (int i = 0; i < estados.size(); i++)
+        {
+            listaPorEstado.add(new EstadisticasEstadoDto(estados.get(i), porEstado[i]));
+        }
+        listaPorEstado.sort(Comparator.comparing(EstadisticasEstadoDto::getCantidad).reversed());
+
+        return new EstadisticasResumenDto(cursoAcademico, total, ubicaciones, categorias, estados,
+                                          listaPorCategoria, listaPorEstado, listaPorUbicacion,
+                                          ubicacionCategoria, categoriaEstado);
+    }
+
+    /**
+     * Crea un diccionario que asigna a cada nombre su posición en la lista.
+     * @param nombres Los nombres.
+     * @return El diccionario nombre -> id.
+     */
+    private Map<String, Integer> crearDiccionario(List<String> nombres)
+    {
+        Map<String, Integer> diccionario = new HashMap<String, Integer>();
+
+        for (int i = 0; i < nombres.size(); i++)
+        {
+            diccionario.put(nombres.get(i), i);
+        }
+
+        return diccionario;
+    }
+}
@@ -0,0 +1,182 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.iesjandula.reaktor.base.utils.FechasUtils;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaArchivadaRepository;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que exporta las incidencias de un curso académico escribiéndolas directamente
+ * en un flujo de salida.
+ * <p>
+ * Las filas se leen con un cursor de solo avance y se escriben según llegan, de modo que
+ * la memoria usada no depende del número de incidencias del curso.
+ * </p>
+ */
+@Log4j2
+@Service
+public class ExportacionIncidenciasService
+{
+    /** Tamaño del buffer de escritura */
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    /** Cabecera del fichero CSV */
+    private static final String CABECERA_CSV = "id,ubicacion,email,nombre,apellidos,fecha,problema,estado,solucion,emailResponsable,nombreResponsable,categoria";
+
+    /** Repositorio de incidencias */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /** Repositorio del archivo de incidencias de cursos cerrados */
+    @Autowired
+    private IIncidenciaArchivadaRepository incidenciaArchivadaRepository;
+
+    /** Serializador JSON */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Exporta las incidencias de un curso académico en el formato indicado. Si el curso está cerrado,
+     * se escriben primero las incidencias ya movidas al archivo y después las que quedan en la tabla incidencia.
+     * @param cursoAcademico El curso académico a exportar.
+     * @param formato El formato de exportación (csv o jsonl).
+     * @param outputStream El flujo donde se escriben las incidencias.
+     * @return El número de incidencias exportadas.
+     * @throws IOException si hay un error al escribir en el flujo de salida.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(String cursoAcademico, String formato, OutputStream outputStream) throws IOException
+    {
+        long exportadas = 0;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+
+        // Si es CSV, escribimos la cabecera
+        if (Constants.FORMATO_EXPORTACION_CSV.equals(formato))
+        {
+            writer.write(CABECERA_CSV);
+            writer.write('\n');
+        }
+
+        // Solo se consulta el archivo si se pide un curso anterior. Los dos cursores se recorren uno
+        // detrás de otro, ya que el driver no admite dos resultados en streaming a la vez en la misma conexión
+        if (cursoAcademico.compareTo(FechasUtils.obtenerCursoAcademicoActual()) < 0)
+        {
+            try (Stream<IncidenciaDto> incidencias = this.incidenciaArchivadaRepository.exportarIncidenciasPorCursoAcademico(cursoAcademico))
+            {
+                exportadas += this.escribirIncidencias(writer, incidencias, formato);
+            }
+        }
+
+        try (Stream<IncidenciaDto> incidencias = this.incidenciaRepository.exportarIncidenciasPorCursoAcademico(cursoAcademico))
+        {
+            exportadas += this.escribirIncidencias(writer, incidencias, formato);
+        }
+
+        writer.flush();
+
+        log.info("Exportadas {} incidencias del curso académico {} en formato {}", exportadas, cursoAcademico, formato);
+
+        return exportadas;
+    }
+
+    /**
+     * Escribe las incidencias según las vamos leyendo del cursor.
+     * @param writer El writer de salida.
+     * @param incidencias Las incidencias a escribir.
+     * @param formato El formato de exportación (csv o jsonl).
+     * @return El número de incidencias escritas.
+     * @throws IOException si hay un error al escribir.
+     */
+    private long escribirIncidencias(Writer writer, Stream<IncidenciaDto> incidencias, String formato) throws IOException
+    {
+        long escritas = 0;
+
+        Iterator<IncidenciaDto> iterator = incidencias.iterator();
+        while (iterator.hasNext())
+        {
+            IncidenciaDto incidenciaDto = iterator.next();
+
+            if (Constants.FORMATO_EXPORTACION_CSV.equals(formato))
+            {
+                this.escribirLineaCsv(writer, incidenciaDto);
+            }
+            else
+            {
+                writer.write(this.objectMapper.writeValueAsString(incidenciaDto));
+                writer.write('\n');
+            }
+
+            escritas++;
+        }
+
+        return escritas;
+    }
+
+    /**
+     * Escribe una incidencia como una línea CSV.
+     * @param writer El writer de salida.
+     * @param incidenciaDto La incidencia a escribir.
+     * @throws IOException si hay un error al escribir.
+     */
+    private void escribirLineaCsv(Writer writer, IncidenciaDto incidenciaDto) throws IOException
+    {
+        writer.write(String.valueOf(incidenciaDto.getId()));
+        this.escribirCampoCsv(writer, incidenciaDto.getUbicacion());
+        this.escribirCampoCsv(writer, incidenciaDto.getEmail());
+        this.escribirCampoCsv(writer, incidenciaDto.getNombre());
+        this.escribirCampoCsv(writer, incidenciaDto.getApellidos());
+        this.escribirCampoCsv(writer, incidenciaDto.getFecha());
+        this.escribirCampoCsv(writer, incidenciaDto.getProblema());
+        this.escribirCampoCsv(writer, incidenciaDto.getEstado());
+        this.escribirCampoCsv(writer, incidenciaDto.getSolucion());
+        this.escribirCampoCsv(writer, incidenciaDto.getEmailResponsable());
+        this.escribirCampoCsv(writer, incidenciaDto.getNombreResponsable());
+        this.escribirCampoCsv(writer, incidenciaDto.getCategoria());
+        writer.write('\n');
+    }
+
+    /**
+     * Escribe un campo CSV precedido del separador, entrecomillándolo si es necesario (RFC 4180).
+     * @param writer El writer de salida.
+     * @param valor El valor del campo.
+     * @throws IOException si hay un error al escribir.
+     */
+    private void escribirCampoCsv(Writer writer, String valor) throws IOException
+    {
+        writer.write(',');
+
+        if (valor == null)
+        {
+            return;
+        }
+
+        // Solo entrecomillamos si el valor contiene caracteres especiales
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0)
+        {
+            writer.write(valor);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
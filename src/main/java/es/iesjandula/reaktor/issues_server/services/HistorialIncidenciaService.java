@@ -0,0 +1,92 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaEventoDto;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaEventoRepository;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que registra y consulta el historial de cambios de las incidencias.
+ * <p>
+ * Los eventos se insertan dentro de la transacción que modifica la incidencia, de modo que el
+ * historial tiene un evento si y solo si se confirma el cambio. Los de una operación sobre varias
+ * incidencias se envían en un único lote JDBC.
+ * </p>
+ */
+@Log4j2
+@Service
+public class HistorialIncidenciaService
+{
+    /** Sentencia de inserción de eventos */
+    private static final String SQL_INSERTAR_EVENTO = "INSERT INTO incidencia_evento (incidencia_id, fecha, tipo, valor_anterior, valor_nuevo, email_usuario) VALUES (?, ?, ?, ?, ?, ?)";
+
+    /** Acceso JDBC para la inserción en lote */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Repositorio de eventos de incidencias */
+    @Autowired
+    private IIncidenciaEventoRepository incidenciaEventoRepository;
+
+    /**
+     * Registra un cambio en una incidencia.
+     * @param incidenciaId El id de la incidencia.
+     * @param tipo El tipo de evento.
+     * @param valorAnterior El valor anterior.
+     * @param valorNuevo El valor nuevo.
+     * @param emailUsuario El email del usuario que hizo el cambio.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long incidenciaId, String tipo, String valorAnterior, String valorNuevo, String emailUsuario)
+    {
+        this.registrar(List.of(new IncidenciaEventoDto(null, incidenciaId, LocalDateTime.now(), tipo, valorAnterior, valorNuevo, emailUsuario)));
+    }
+
+    /**
+     * Registra en lote los cambios de varias incidencias.
+     * @param eventos Los eventos.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(List<IncidenciaEventoDto> eventos)
+    {
+        if (eventos.isEmpty())
+        {
+            return;
+        }
+
+        this.jdbcTemplate.batchUpdate(SQL_INSERTAR_EVENTO, eventos, eventos.size(), (preparedStatement, evento) ->
+        {
+            preparedStatement.setLong(1, evento.getIncidenciaId());
+            preparedStatement.setTimestamp(2, Timestamp.valueOf(evento.getFecha()));
+            preparedStatement.setString(3, evento.getTipo());
+            preparedStatement.setString(4, evento.getValorAnterior());
+            preparedStatement.setString(5, evento.getValorNuevo());
+            preparedStatement.setString(6, evento.getEmailUsuario());
+        });
+
+        log.debug("Registrados {} eventos en el historial de incidencias", eventos.size());
+    }
+
+    /**
+     * Obtiene los eventos de una incidencia posteriores a uno dado.
+     * @param incidenciaId El id de la incidencia.
+     * @param despuesDe El id del último evento recibido (nulo para empezar por el principio).
+     * @param limite El número máximo de eventos.
+     * @return Los eventos en orden cronológico.
+     */
+    @Transactional(readOnly = true)
+    public List<IncidenciaEventoDto> buscarEventos(Long incidenciaId, Long despuesDe, int limite)
+    {
+        return this.incidenciaEventoRepository.buscarEventosDesde(incidenciaId, despuesDe == null ? 0L : despuesDe, PageRequest.of(0, limite));
+    }
+}
@@ -0,0 +1,495 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import es.iesjandula.reaktor.base.utils.FechasUtils;
+import es.iesjandula.reaktor.issues_server.dtos.ErrorLineaDto;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoImportacionDto;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que importa ubicaciones, categorías, responsables e incidencias históricas desde ficheros CSV.
+ * <p>
+ * El fichero se lee fila a fila sin cargarlo entero en memoria. Las filas se validan y se guardan en
+ * bloques de {@link Constants#TAMANIO_BLOQUE_IMPORTACION}: los datos de referencia con sentencias
+ * INSERT ... ON DUPLICATE KEY UPDATE enviadas en lote por JDBC y las incidencias con inserciones JPA
+ * en lote, cada bloque en su propia transacción. Una fila no válida no impide importar las demás y
+ * se informa con su número de línea.
+ * </p>
+ */
+@Log4j2
+@Service
+public class ImportacionCsvService
+{
+    /** Sentencia de alta o actualización de ubicaciones */
+    private static final String SQL_UPSERT_UBICACION = "INSERT INTO ubicacion (nombre) VALUES (?) ON DUPLICATE KEY UPDATE nombre = VALUES(nombre)";
+
+    /** Sentencia de alta o actualización de categorías */
+    private static final String SQL_UPSERT_CATEGORIA = "INSERT INTO categoria (nombre, imprimir_informe) VALUES (?, ?) ON DUPLICATE KEY UPDATE imprimir_informe = VALUES(imprimir_informe)";
+
+    /** Sentencia de alta o actualización de responsables */
+    private static final String SQL_UPSERT_RESPONSABLE = "INSERT INTO usuario_categoria (nombre_categoria, email_responsable, nombre_responsable) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE nombre_responsable = VALUES(nombre_responsable)";
+
+    /** Formato de fecha de la exportación (para poder reimportar un fichero exportado) */
+    private static final DateTimeFormatter FORMATO_FECHA_EXPORTACION = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    /** Columnas del fichero de ubicaciones */
+    private static final String[] COLUMNAS_UBICACIONES = { "nombre" };
+
+    /** Columnas del fichero de categorías */
+    private static final String[] COLUMNAS_CATEGORIAS = { "nombre", "imprimirInforme" };
+
+    /** Columnas del fichero de responsables */
+    private static final String[] COLUMNAS_RESPONSABLES = { "categoria", "emailResponsable", "nombreResponsable" };
+
+    /** Columnas del fichero de incidencias */
+    private static final String[] COLUMNAS_INCIDENCIAS = { "cursoAcademico", "ubicacion", "email", "nombre", "apellidos", "fecha",
+                                                           "problema", "estado", "solucion", "categoria", "emailResponsable" };
+
+    /** Acceso JDBC para las inserciones en lote */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Servicio de datos de referencia en memoria */
+    @Autowired
+    private DatosReferenciaService datosReferenciaService;
+
+    /** Servicio de escritura de incidencias */
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    /** Servicio del índice de texto de incidencias */
+    @Autowired
+    private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
+
+    /** Servicio de estadísticas */
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    /**
+     * Importa ubicaciones (columna nombre). Las ubicaciones existentes se mantienen.
+     * @param inputStream El contenido del fichero CSV.
+     * @return El resultado de la importación.
+     * @throws IssuesServerError si el fichero no es válido
+     */
+    public ResultadoImportacionDto importarUbicaciones(InputStream inputStream) throws IssuesServerError
+    {
+        ResultadoImportacionDto resultado = this.importar(inputStream, COLUMNAS_UBICACIONES,
+                                                          csvRecord -> this.obligatorio(csvRecord, "nombre"),
+                                                          bloque -> this.jdbcTemplate.batchUpdate(SQL_UPSERT_UBICACION, bloque, bloque.size(), (preparedStatement, nombre) ->
+                                                          {
+                                                              preparedStatement.setString(1, nombre);
+                                                          }));
+
+        this.recargarDatosReferencia(resultado);
+
+        return resultado;
+    }
+
+    /**
+     * Importa categorías (columnas nombre e imprimirInforme). Las categorías existentes actualizan imprimirInforme.
+     * @param inputStream El contenido del fichero CSV.
+     * @return El resultado de la importación.
+     * @throws IssuesServerError si el fichero no es válido
+     */
+    public ResultadoImportacionDto importarCategorias(InputStream inputStream) throws IssuesServerError
+    {
+        ResultadoImportacionDto resultado = this.importar(inputStream, COLUMNAS_CATEGORIAS,
+                                                          csvRecord -> new Categoria(this.obligatorio(csvRecord, "nombre"), Boolean.parseBoolean(csvRecord.get("imprimirInforme")), null),
+                                                          bloque -> this.jdbcTemplate.batchUpdate(SQL_UPSERT_CATEGORIA, bloque, bloque.size(), (preparedStatement, categoria) ->
+                                                          {
+                                                              preparedStatement.setString(1, categoria.getNombre());
+                                                              preparedStatement.setBoolean(2, categoria.getImprimirInforme());
+                                                          }));
+
+        this.recargarDatosReferencia(resultado);
+
+        return resultado;
+    }
+
+    /**
+     * Importa responsables de categorías (columnas categoria, emailResponsable y nombreResponsable).
+     * Los responsables existentes actualizan su nombre.
+     * @param inputStream El contenido del fichero CSV.
+     * @return El resultado de la importación.
+     * @throws IssuesServerError si el fichero no es válido
+     */
+    public ResultadoImportacionDto importarResponsables(InputStream inputStream) throws IssuesServerError
+    {
+        // Todas las filas se validan contra la misma instantánea de los datos de referencia
+        DatosReferencia datosReferencia = this.datosReferenciaService.obtener();
+
+        ResultadoImportacionDto resultado = this.importar(inputStream, COLUMNAS_RESPONSABLES,
+                                                          csvRecord -> this.validarResponsable(csvRecord, datosReferencia),
+                                                          bloque -> this.jdbcTemplate.batchUpdate(SQL_UPSERT_RESPONSABLE, bloque, bloque.size(), (preparedStatement, usuarioCategoria) ->
+                                                          {
+                                                              preparedStatement.setString(1, usuarioCategoria.getId().getNombreCategoria());
+                                                              preparedStatement.setString(2, usuarioCategoria.getId().getEmailResponsable());
+                                                              preparedStatement.setString(3, usuarioCategoria.getNombreResponsable());
+                                                          }));
+
+        this.recargarDatosReferencia(resultado);
+
+        return resultado;
+    }
+
+    /**
+     * Importa incidencias históricas. Las columnas coinciden con las de la exportación CSV más el curso académico.
+     * No se envían notificaciones ni se imprimen partes; sí se actualizan los contadores, el índice de texto y,
+     * si se importan incidencias de cursos cerrados, se descartan sus instantáneas de estadísticas.
+     * @param inputStream El contenido del fichero CSV.
+     * @return El resultado de la importación.
+     * @throws IssuesServerError si el fichero no es válido
+     */
+    public ResultadoImportacionDto importarIncidencias(InputStream inputStream) throws IssuesServerError
+    {
+        // Todas las filas se validan contra la misma instantánea de los datos de referencia
+        DatosReferencia datosReferencia = this.datosReferenciaService.obtener();
+
+        String cursoActual           = FechasUtils.obtenerCursoAcademicoActual();
+        Set<String> cursosCerrados   = new HashSet<String>();
+
+        ResultadoImportacionDto resultado = this.importar(inputStream, COLUMNAS_INCIDENCIAS,
+                                                          csvRecord -> this.validarIncidencia(csvRecord, datosReferencia),
+                                                          bloque ->
+                                                          {
+                                                              this.incidenciaService.crearLote(bloque, false, null);
+
+                                                              for (Incidencia incidencia : bloque)
+                                                              {
+                                                                  this.indiceTextoIncidenciasService.indexar(incidencia.getId(), incidencia.getProblema(), incidencia.getSolucion());
+
+                                                                  if (incidencia.getCursoAcademico().compareTo(cursoActual) < 0)
+                                                                  {
+                                                                      cursosCerrados.add(incidencia.getCursoAcademico());
+                                                                  }
+                                                              }
+                                                          });
+
+        // Las estadísticas congeladas de los cursos cerrados ya no son válidas
+        if (!cursosCerrados.isEmpty())
+        {
+            this.estadisticasService.invalidarSnapshots(cursosCerrados);
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Publica los nuevos datos de referencia si se ha importado alguna fila.
+     * @param resultado El resultado de la importación.
+     */
+    private void recargarDatosReferencia(ResultadoImportacionDto resultado)
+    {
+        if (resultado.getImportadas() == 0)
+        {
+            return;
+        }
+
+        try
+        {
+            this.datosReferenciaService.recargar();
+        }
+        catch (Exception exception)
+        {
+            // La recarga periódica los publicará más tarde
+            log.error("Error al recargar los datos de referencia tras la importación", exception);
+        }
+    }
+
+    /**
+     * Lee el fichero fila a fila, valida cada fila y guarda las válidas en bloques.
+     * @param <T> El tipo de los elementos a guardar.
+     * @param inputStream El contenido del fichero CSV.
+     * @param columnas Las columnas obligatorias de la cabecera.
+     * @param validador Convierte una fila en el elemento a guardar o lanza el error de la fila.
+     * @param guardado Guarda un bloque de elementos válidos.
+     * @return El resultado de la importación.
+     * @throws IssuesServerError si el fichero no es válido
+     */
+    private <T> ResultadoImportacionDto importar(InputStream inputStream, String[] columnas, ValidadorFila<T> validador, GuardadoBloque<T> guardado) throws IssuesServerError
+    {
+        ResultadoImportacionDto resultado = new ResultadoImportacionDto();
+
+        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
+                                               .setHeader()
+                                               .setSkipHeaderRecord(true)
+                                               .setIgnoreEmptyLines(true)
+                                               .setTrim(true)
+                                               .build();
+
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+             CSVParser csvParser = csvFormat.parse(reader))
+        {
+            // Validamos que la cabecera tenga todas las columnas obligatorias
+            if (!csvParser.getHeaderMap().keySet().containsAll(List.of(columnas)))
+            {
+                String errorString = Constants.ERR_IMPORTACION_FICHERO_NO_VALIDO_MESSAGE + String.join(",", columnas);
+
+                log.error(errorString);
+                throw new IssuesServerError(Constants.ERR_IMPORTACION_FICHERO_NO_VALIDO_CODE, errorString);
+            }
+
+            List<T> bloque       = new ArrayList<T>(Constants.TAMANIO_BLOQUE_IMPORTACION);
+            List<Long> lineas    = new ArrayList<Long>(Constants.TAMANIO_BLOQUE_IMPORTACION);
+
+            for (CSVRecord csvRecord : csvParser)
+            {
+                // La cabecera es la línea 1
+                long linea = csvRecord.getRecordNumber() + 1;
+
+                resultado.setLeidas(resultado.getLeidas() + 1);
+
+                try
+                {
+                    bloque.add(validador.validar(csvRecord));
+                    lineas.add(linea);
+                }
+                catch (IssuesServerError issuesServerError)
+                {
+                    this.anotarError(resultado, linea, issuesServerError);
+                }
+
+                if (bloque.size() == Constants.TAMANIO_BLOQUE_IMPORTACION)
+                {
+                    this.guardarBloque(resultado, bloque, lineas, guardado);
+                }
+            }
+
+            // Guardamos el último bloque
+            if (!bloque.isEmpty())
+            {
+                this.guardarBloque(resultado, bloque, lineas, guardado);
+            }
+        }
+        catch (IOException | IllegalArgumentException | IllegalStateException exception)
+        {
+            // Errores de lectura o de formato CSV (cabecera duplicada, comillas sin cerrar...)
+            String errorString = Constants.ERR_IMPORTACION_FICHERO_NO_VALIDO_MESSAGE + String.join(",", columnas);
+
+            log.error(errorString, exception);
+            throw new IssuesServerError(Constants.ERR_IMPORTACION_FICHERO_NO_VALIDO_CODE, errorString, exception);
+        }
+
+        log.info("Importación CSV: {} filas leídas, {} importadas y {} con error", resultado.getLeidas(), resultado.getImportadas(), resultado.getErroneas());
+
+        return resultado;
+    }
+
+    /**
+     * Guarda un bloque de elementos válidos y lo vacía. Si el bloque falla, todas sus líneas se anotan como erróneas.
+     * @param <T> El tipo de los elementos a guardar.
+     * @param resultado El resultado de la importación.
+     * @param bloque Los elementos a guardar.
+     * @param lineas Las líneas de cada elemento.
+     * @param guardado Guarda un bloque de elementos válidos.
+     */
+    private <T> void guardarBloque(ResultadoImportacionDto resultado, List<T> bloque, List<Long> lineas, GuardadoBloque<T> guardado)
+    {
+        try
+        {
+            guardado.guardar(bloque);
+
+            resultado.setImportadas(resultado.getImportadas() + bloque.size());
+        }
+        catch (Exception exception)
+        {
+            IssuesServerError issuesServerError = new IssuesServerError(Constants.ERR_IMPORTACION_BLOQUE_NO_GUARDADO_CODE, Constants.ERR_IMPORTACION_BLOQUE_NO_GUARDADO_MESSAGE);
+
+            log.error("Error al guardar el bloque de {} filas que empieza en la línea {}", bloque.size(), lineas.get(0), exception);
+
+            for (Long linea : lineas)
+            {
+                this.anotarError(resultado, linea, issuesServerError);
+            }
+        }
+
+        bloque.clear();
+        lineas.clear();
+    }
+
+    /**
+     * Anota el error de una línea. Solo se devuelven los primeros errores, pero se cuentan todos.
+     * @param resultado El resultado de la importación.
+     * @param linea La línea errónea.
+     * @param issuesServerError El error de la línea.
+     */
+    private void anotarError(ResultadoImportacionDto resultado, long linea, IssuesServerError issuesServerError)
+    {
+        resultado.setErroneas(resultado.getErroneas() + 1);
+
+        if (resultado.getErrores().size() < Constants.MAXIMO_ERRORES_IMPORTACION)
+        {
+            resultado.getErrores().add(new ErrorLineaDto(linea, issuesServerError.getBodyErrorMessage()));
+        }
+    }
+
+    /**
+     * Valida una fila del fichero de responsables.
+     * @param csvRecord La fila.
+     * @param datosReferencia Los datos de referencia.
+     * @return El responsable de la fila.
+     * @throws IssuesServerError si la fila no es válida
+     */
+    private UsuarioCategoria validarResponsable(CSVRecord csvRecord, DatosReferencia datosReferencia) throws IssuesServerError
+    {
+        String nombreCategoria   = this.obligatorio(csvRecord, "categoria");
+        String emailResponsable  = this.obligatorio(csvRecord, "emailResponsable");
+        String nombreResponsable = this.obligatorio(csvRecord, "nombreResponsable");
+
+        if (!datosReferencia.getCategorias().containsKey(nombreCategoria))
+        {
+            throw new IssuesServerError(Constants.ERR_CATEGORIA_NO_ENCONTRADA_CODE, Constants.ERR_CATEGORIA_NO_ENCONTRADA_MESSAGE);
+        }
+
+        UsuarioCategoria usuarioCategoria = new UsuarioCategoria();
+        usuarioCategoria.setId(new UsuarioCategoriaId(nombreCategoria, emailResponsable));
+        usuarioCategoria.setNombreResponsable(nombreResponsable);
+
+        return usuarioCategoria;
+    }
+
+    /**
+     * Valida una fila del fichero de incidencias.
+     * @param csvRecord La fila.
+     * @param datosReferencia Los datos de referencia.
+     * @return La incidencia de la fila (sin guardar).
+     * @throws IssuesServerError si la fila no es válida
+     */
+    private Incidencia validarIncidencia(CSVRecord csvRecord, DatosReferencia datosReferencia) throws IssuesServerError
+    {
+        Ubicacion ubicacion = datosReferencia.getUbicaciones().get(this.obligatorio(csvRecord, "ubicacion"));
+        if (ubicacion == null)
+        {
+            throw new IssuesServerError(Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_CODE, Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_MESSAGE);
+        }
+
+        UsuarioCategoria usuarioCategoria = datosReferencia.getResponsables().get(new UsuarioCategoriaId(this.obligatorio(csvRecord, "categoria"), this.obligatorio(csvRecord, "emailResponsable")));
+        if (usuarioCategoria == null)
+        {
+            throw new IssuesServerError(Constants.ERR_IMPORTACION_RESPONSABLE_NO_ENCONTRADO_CODE, Constants.ERR_IMPORTACION_RESPONSABLE_NO_ENCONTRADO_MESSAGE);
+        }
+
+        String estado = this.obligatorio(csvRecord, "estado");
+        if (!Constants.ESTADOS_VALIDOS.contains(estado))
+        {
+            throw new IssuesServerError(Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_CODE, Constants.ERR_INCIDENCIA_ESTADO_NO_VALIDO_MESSAGE);
+        }
+
+        String solucion = csvRecord.get("solucion");
+
+        Incidencia incidencia = new Incidencia();
+        incidencia.setCursoAcademico(this.obligatorio(csvRecord, "cursoAcademico"));
+        incidencia.setUbicacion(ubicacion);
+        incidencia.setEmail(this.obligatorio(csvRecord, "email"));
+        incidencia.setNombre(this.obligatorio(csvRecord, "nombre"));
+        incidencia.setApellidos(this.obligatorio(csvRecord, "apellidos"));
+        incidencia.setFecha(this.parsearFecha(this.obligatorio(csvRecord, "fecha")));
+        incidencia.setProblema(this.obligatorio(csvRecord, "problema"));
+        incidencia.setEstado(estado);
+        incidencia.setSolucion(solucion.isEmpty() ? null : solucion);
+        incidencia.setUsuarioCategoria(usuarioCategoria);
+
+        return incidencia;
+    }
+
+    /**
+     * Obtiene el valor de un campo obligatorio de una fila.
+     * @param csvRecord La fila.
+     * @param columna La columna.
+     * @return El valor del campo.
+     * @throws IssuesServerError si el campo está vacío
+     */
+    private String obligatorio(CSVRecord csvRecord, String columna) throws IssuesServerError
+    {
+        String valor = csvRecord.isSet(columna) ? csvRecord.get(columna) : null;
+
+        if (valor == null || valor.isEmpty())
+        {
+            throw new IssuesServerError(Constants.ERR_IMPORTACION_CAMPO_OBLIGATORIO_CODE, Constants.ERR_IMPORTACION_CAMPO_OBLIGATORIO_MESSAGE + columna);
+        }
+
+        return valor;
+    }
+
+    /**
+     * Parsea la fecha de una incidencia. Admite el formato de la exportación (dd/MM/yyyy HH:mm) e ISO (yyyy-MM-ddTHH:mm).
+     * @param valor El valor a parsear.
+     * @return La fecha parseada.
+     * @throws IssuesServerError si la fecha no es válida
+     */
+    private LocalDateTime parsearFecha(String valor) throws IssuesServerError
+    {
+        try
+        {
+            return LocalDateTime.parse(valor, FORMATO_FECHA_EXPORTACION);
+        }
+        catch (DateTimeParseException dateTimeParseException)
+        {
+            // Probamos con el formato ISO
+        }
+
+        try
+        {
+            return LocalDateTime.parse(valor);
+        }
+        catch (DateTimeParseException dateTimeParseException)
+        {
+            throw new IssuesServerError(Constants.ERR_IMPORTACION_FECHA_NO_VALIDA_CODE, Constants.ERR_IMPORTACION_FECHA_NO_VALIDA_MESSAGE);
+        }
+    }
+
+    /**
+     * Convierte una fila del fichero en el elemento a guardar.
+     * @param <T> El tipo del elemento.
+     */
+    @FunctionalInterface
+    private interface ValidadorFila<T>
+    {
+        /**
+         * @param csvRecord La fila.
+         * @return El elemento a guardar.
+         * @throws IssuesServerError si la fila no es válida
+         */
+        T validar(CSVRecord csvRecord) throws IssuesServerError;
+    }
+
+    /**
+     * Guarda un bloque de elementos válidos.
+     * @param <T> El tipo de los elementos.
+     */
+    @FunctionalInterface
+    private interface GuardadoBloque<T>
+    {
+        /**
+         * @param bloque Los elementos a guardar.
+         */
+        void guardar(List<T> bloque);
+    }
+}
@@ -0,0 +1,111 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import es.iesjandula.reaktor.base.utils.BaseException;
+import es.iesjandula.reaktor.base_client.requests.printers.RequestImpresion;
+import es.iesjandula.reaktor.base_client.requests.school_base_server.ObtencionCursoAcademico;
+import es.iesjandula.reaktor.base_client.utils.BaseClientException;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que imprime el parte de desperfectos de las incidencias nuevas cuya categoría lo pide.
+ * <p>
+ * La impresión necesita dos llamadas a otros servidores (el curso académico seleccionado y la
+ * impresora) y la respuesta de la creación no depende de ellas, así que se ejecuta en segundo
+ * plano (@Async), igual que las notificaciones email: un servidor lento no retiene la petición ni
+ * su conexión a la base de datos. La categoría se consulta en los datos de referencia en memoria,
+ * ya que el responsable de la incidencia es una referencia sin inicializar.
+ * </p>
+ */
+@Log4j2
+@Service
+public class ImpresionIncidenciasService
+{
+    /** Servicio de generación del parte de desperfectos */
+    @Autowired
+    private PdfParteDesperfectosService pdfParteDesperfectosService;
+
+    /** Request para obtener el curso académico seleccionado */
+    @Autowired
+    private ObtencionCursoAcademico obtencionCursoAcademico;
+
+    /** Request para imprimir el informe de la incidencia */
+    @Autowired
+    private RequestImpresion requestImpresion;
+
+    /** Servicio de los datos de referencia en memoria */
+    @Autowired
+    private DatosReferenciaService datosReferenciaService;
+
+    /**
+     * Imprime el parte de desperfectos de las incidencias cuya categoría fue configurada así.
+     * @param incidencias Las incidencias recién creadas.
+     */
+    @Async
+    public void imprimirPartes(List<Incidencia> incidencias)
+    {
+        DatosReferencia datosReferencia = this.datosReferenciaService.obtener();
+
+        List<Incidencia> aImprimir = incidencias.stream()
+                                                .filter(incidencia -> this.imprimeInforme(datosReferencia, incidencia))
+                                                .toList();
+
+        if (aImprimir.isEmpty())
+        {
+            return;
+        }
+
+        String cursoAcademico = null;
+        try
+        {
+            // Obtenemos el curso académico seleccionado una sola vez para todas las incidencias
+            cursoAcademico = this.obtencionCursoAcademico.obtenerCursoAcademicoSeleccionado();
+        }
+        catch (Exception exception)
+        {
+            log.error("Error al obtener el curso académico seleccionado para imprimir los partes de desperfectos", exception);
+            return;
+        }
+
+        for (Incidencia incidencia : aImprimir)
+        {
+            try
+            {
+                // Generamos el PDF del parte de desperfectos
+                byte[] pdfParteDesperfectos = this.pdfParteDesperfectosService.generarPdfParteDesperfectos(cursoAcademico, incidencia);
+
+                // Imprimimos el PDF
+                this.requestImpresion.imprimirPdf(pdfParteDesperfectos);
+            }
+            catch (BaseException | BaseClientException reaktorException)
+            {
+                // Ya ha sido logueada previamente
+            }
+            catch (IssuesServerError issuesServerError)
+            {
+                // Ya ha sido logueada previamente
+            }
+        }
+    }
+
+    /**
+     * @param datosReferencia La instantánea de los datos de referencia.
+     * @param incidencia La incidencia.
+     * @return true si la categoría de la incidencia pide imprimir el parte de desperfectos.
+     */
+    private boolean imprimeInforme(DatosReferencia datosReferencia, Incidencia incidencia)
+    {
+        Categoria categoria = datosReferencia.getCategorias().get(incidencia.getUsuarioCategoria().getId().getNombreCategoria());
+
+        return categoria != null && Boolean.TRUE.equals(categoria.getImprimirInforme());
+    }
+}
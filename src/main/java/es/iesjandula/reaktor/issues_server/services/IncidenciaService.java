@@ -0,0 +1,561 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaEventoDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoActualizacionLoteDto;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerConflictError;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que agrupa las escrituras sobre incidencias.
+ * <p>
+ * Cada operación guarda la incidencia y actualiza sus contadores de estadísticas en una
+ * única transacción; al confirmarse, actualiza también la carga de los responsables. Las notificaciones por email se
+ * guardan en la bandeja de salida dentro de esa misma transacción, de modo que no se pierden ni se envían por cambios
+ * que no se han confirmado; las envía después {@link DespachoNotificacionesService}. Los eventos del historial se
+ * insertan también en esa transacción.
+ * Las actualizaciones de estado, solución y responsable lanzan un UPDATE directo y devuelven
+ * una proyección con los valores anteriores, en lugar de cargar la incidencia con sus relaciones.
+ * Todas ellas son condicionales: solo se aplican si la incidencia conserva la versión leída, de
+ * modo que dos actualizaciones simultáneas no se pisan sin necesidad de bloquear la fila.
+ * Las lecturas previas a una escritura se hacen en transacciones de escritura, para que vayan a la
+ * base de datos principal aunque haya una réplica configurada.
+ * La ubicación y el responsable de las incidencias nuevas llegan desde la instantánea de
+ * {@link DatosReferenciaService}, fuera de la sesión; antes de guardarlas se sustituyen por referencias
+ * de la sesión para que Hibernate no tenga que consultar sus tablas para saber si existen.
+ * </p>
+ */
+@Log4j2
+@Service
+public class IncidenciaService
+{
+    /** Actualización en lote condicionada a la versión de cada incidencia (los valores nulos conservan el actual) */
+    private static final String SQL_ACTUALIZAR_LOTE = "UPDATE incidencia SET estado = COALESCE(?, estado), solucion = COALESCE(?, solucion), version = version + 1 WHERE id = ? AND curso_academico = ? AND version = ?";
+
+    /** Repositorio de incidencias */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /** Servicio de contadores de estadísticas */
+    @Autowired
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @Autowired
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @Autowired
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Historial de cambios de las incidencias */
+    @Autowired
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    /** Acceso JDBC para la actualización en lote */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Transacciones de cada intento de las actualizaciones condicionales */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** Gestor de entidades */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Guarda una nueva incidencia.
+     * @param incidencia La incidencia a guardar.
+     * @param emailUsuario El email del usuario que la crea, para el historial.
+     */
+    @Transactional
+    public void crear(Incidencia incidencia, String emailUsuario)
+    {
+        this.asociarReferencias(incidencia);
+        this.incidenciaRepository.saveAndFlush(incidencia);
+
+        this.estadisticasContadorService.registrarAlta(incidencia);
+        this.cargaResponsablesService.registrarAlta(incidencia);
+
+        this.notificacionesIncidenciaService.encolarEmailCreacionIncidencia(incidencia.getId(), incidencia.getUsuarioCategoria().getId().getEmailResponsable(), incidencia.getNombre(),
+                                                                            incidencia.getApellidos(), incidencia.getUbicacion().getNombre(), incidencia.getProblema());
+
+        this.historialIncidenciaService.registrar(incidencia.getId(), Constants.EVENTO_CREACION, null, incidencia.getEstado(), emailUsuario);
+    }
+
+    /**
+     * Guarda un lote de incidencias nuevas. Los ids se reservan por bloques y las inserciones
+     * se envían en lotes JDBC (hibernate.jdbc.batch_size).
+     * @param incidencias Las incidencias a guardar.
+     * @param notificarResponsables Si se avisa a sus responsables (no en la importación de incidencias históricas).
+     * @param emailUsuario El email del usuario que las crea, para el historial, o null si no se registran en él
+     *                     (importación de incidencias históricas).
+     */
+    @Transactional
+    public void crearLote(List<Incidencia> incidencias, boolean notificarResponsables, String emailUsuario)
+    {
+        incidencias.forEach(this::asociarReferencias);
+        this.incidenciaRepository.saveAll(incidencias);
+        this.incidenciaRepository.flush();
+
+        this.estadisticasContadorService.registrarAltas(incidencias);
+        this.cargaResponsablesService.registrarAltas(incidencias);
+
+        if (notificarResponsables)
+        {
+            this.notificacionesIncidenciaService.encolarEmailsCreacionIncidencias(incidencias);
+        }
+
+        if (emailUsuario != null)
+        {
+            List<IncidenciaEventoDto> eventos = new ArrayList<IncidenciaEventoDto>(incidencias.size());
+            for (Incidencia incidencia : incidencias)
+            {
+                eventos.add(this.crearEvento(incidencia.getId(), Constants.EVENTO_CREACION, null, incidencia.getEstado(), emailUsuario));
+            }
+
+            this.historialIncidenciaService.registrar(eventos);
+        }
+    }
+
+    /**
+     * Sustituye la ubicación y el responsable de una incidencia nueva por referencias de la sesión.
+     * Las de la instantánea de datos de referencia están desasociadas y, como su id es asignado,
+     * Hibernate lanzaría un SELECT por cada una al guardarla para comprobar que no son nuevas; una
+     * referencia sin inicializar no consulta nada y solo aporta su id a la clave ajena.
+     * @param incidencia La incidencia a guardar.
+     */
+    private void asociarReferencias(Incidencia incidencia)
+    {
+        incidencia.setUbicacion(this.entityManager.getReference(Ubicacion.class, incidencia.getUbicacion().getNombre()));
+        incidencia.setUsuarioCategoria(this.entityManager.getReference(UsuarioCategoria.class, incidencia.getUsuarioCategoria().getId()));
+    }
+
+    /**
+     * Actualiza el estado de una incidencia con una única sentencia UPDATE, sin cargar la entidad.
+     * @param id El id de la incidencia.
+     * @param estado El nuevo estado.
+     * @param versionEsperada La versión que debe tener la incidencia (If-Match), o null si no se exige ninguna.
+     * @param emailUsuario El email del usuario que hace el cambio, para el historial.
+     * @return Los datos de la incidencia, con los valores anteriores al cambio.
+     * @throws IssuesServerError si la incidencia no existe o la ha modificado otro usuario
+     */
+    public IncidenciaNotificacionDto actualizarEstado(Long id, String estado, Long versionEsperada, String emailUsuario) throws IssuesServerError
+    {
+        return this.actualizarConVersion(id, versionEsperada, anterior ->
+        {
+            if (this.incidenciaRepository.actualizarEstado(id, anterior.getCursoAcademico(), estado, anterior.getVersion()) == 0)
+            {
+                return false;
+            }
+
+            this.estadisticasContadorService.registrarCambio(anterior, Constants.DIMENSION_ESTADO, anterior.getEstado(), estado);
+            this.cargaResponsablesService.registrarCambiosEstado(List.of(anterior), estado);
+
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionEstado(List.of(anterior), estado);
+
+            this.historialIncidenciaService.registrar(id, Constants.EVENTO_ESTADO, anterior.getEstado(), estado, emailUsuario);
+
+            return true;
+        });
+    }
+
+    /**
+     * Actualiza la solución de una incidencia con una única sentencia UPDATE, sin cargar la entidad.
+     * @param id El id de la incidencia.
+     * @param solucion La nueva solución.
+     * @param versionEsperada La versión que debe tener la incidencia (If-Match), o null si no se exige ninguna.
+     * @param emailUsuario El email del usuario que hace el cambio, para el historial.
+     * @return Los datos de la incidencia, con los valores anteriores al cambio.
+     * @throws IssuesServerError si la incidencia no existe o la ha modificado otro usuario
+     */
+    public IncidenciaNotificacionDto actualizarSolucion(Long id, String solucion, Long versionEsperada, String emailUsuario) throws IssuesServerError
+    {
+        return this.actualizarConVersion(id, versionEsperada, anterior ->
+        {
+            if (this.incidenciaRepository.actualizarSolucion(id, anterior.getCursoAcademico(), solucion, anterior.getVersion()) == 0)
+            {
+                return false;
+            }
+
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionSolucion(List.of(anterior), solucion);
+
+            this.historialIncidenciaService.registrar(id, Constants.EVENTO_SOLUCION, anterior.getSolucion(), solucion, emailUsuario);
+
+            return true;
+        });
+    }
+
+    /**
+     * Actualiza el estado y/o la solución de varias incidencias.
+     * <p>
+     * Cada incidencia se actualiza solo si conserva la versión leída (comparar y asignar), con
+     * todas las sentencias en un único lote JDBC. Las que otro usuario ha modificado entre la
+     * lectura y la escritura se vuelven a leer y se reintentan, hasta
+     * {@link Constants#INTENTOS_ACTUALIZACION_INCIDENCIA} veces. Cada intento es una transacción
+     * corta, para que la nueva lectura vea los cambios confirmados por el otro usuario.
+     * </p>
+     * @param ids Los ids de las incidencias.
+     * @param estado El nuevo estado (nulo si no cambia).
+     * @param solucion La nueva solución (nula si no cambia).
+     * @param emailUsuario El email del usuario que hace el cambio, para el historial.
+     * @return Los datos anteriores de las incidencias actualizadas y los ids de las que no se han podido actualizar.
+     */
+    public ResultadoActualizacionLoteDto actualizarLote(List<Long> ids, String estado, String solucion, String emailUsuario)
+    {
+        List<IncidenciaNotificacionDto> actualizadas = new ArrayList<IncidenciaNotificacionDto>();
+        List<Long> pendientes                        = ids;
+
+        for (int intento = 1; intento <= Constants.INTENTOS_ACTUALIZACION_INCIDENCIA && !pendientes.isEmpty(); intento++)
+        {
+            // Leemos los valores anteriores para el historial y los contadores (las que no existen desaparecen aquí)
+            List<Long> idsLeer                         = pendientes;
+            List<IncidenciaNotificacionDto> anteriores = this.transactionTemplate.execute(status -> this.incidenciaRepository.buscarDatosNotificacionPorIds(idsLeer));
+
+            if (anteriores.isEmpty())
+            {
+                pendientes = List.of();
+            }
+            else
+            {
+                List<IncidenciaNotificacionDto> aplicadas = this.transactionTemplate.execute(status -> this.aplicarLote(anteriores, estado, solucion, emailUsuario));
+
+                actualizadas.addAll(aplicadas);
+
+                // Las que no se han aplicado las ha modificado otro usuario: las volvemos a intentar
+                Set<Long> idsAplicadas = aplicadas.stream().map(IncidenciaNotificacionDto::getId).collect(Collectors.toSet());
+                pendientes             = anteriores.stream().map(IncidenciaNotificacionDto::getId).filter(id -> !idsAplicadas.contains(id)).toList();
+
+                if (!pendientes.isEmpty())
+                {
+                    log.warn("{} incidencias del lote modificadas a la vez por otro usuario (intento {})", pendientes.size(), intento);
+                }
+            }
+        }
+
+        return new ResultadoActualizacionLoteDto(actualizadas, pendientes);
+    }
+
+    /**
+     * Aplica un intento de la actualización en lote dentro de la transacción en curso.
+     * @param anteriores Los datos leídos de las incidencias, con su versión.
+     * @param estado El nuevo estado (nulo si no cambia).
+     * @param solucion La nueva solución (nula si no cambia).
+     * @param emailUsuario El email del usuario que hace el cambio, para el historial.
+     * @return Los datos de las incidencias que conservaban su versión y se han actualizado.
+     */
+    private List<IncidenciaNotificacionDto> aplicarLote(List<IncidenciaNotificacionDto> anteriores, String estado, String solucion, String emailUsuario)
+    {
+        int[][] filas = this.jdbcTemplate.batchUpdate(SQL_ACTUALIZAR_LOTE, anteriores, anteriores.size(), (preparedStatement, anterior) ->
+        {
+            preparedStatement.setString(1, estado);
+            preparedStatement.setString(2, solucion);
+            preparedStatement.setLong(3, anterior.getId());
+            preparedStatement.setString(4, anterior.getCursoAcademico());
+            preparedStatement.setLong(5, anterior.getVersion());
+        });
+
+        List<IncidenciaNotificacionDto> aplicadas = new ArrayList<IncidenciaNotificacionDto>();
+        for (int i = 0; i < anteriores.size(); i++)
+        {
+            if (filas[0][i] > 0)
+            {
+                aplicadas.add(anteriores.get(i));
+            }
+        }
+
+        if (estado != null && !aplicadas.isEmpty())
+        {
+            this.estadisticasContadorService.registrarCambiosEstado(aplicadas, estado);
+            this.cargaResponsablesService.registrarCambiosEstado(aplicadas, estado);
+        }
+
+        // Solo se avisa a los usuarios cuyas incidencias cambian de verdad
+        if (estado != null)
+        {
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionEstado(aplicadas.stream().filter(anterior -> !estado.equals(anterior.getEstado())).toList(), estado);
+        }
+
+        if (solucion != null)
+        {
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionSolucion(aplicadas.stream().filter(anterior -> !solucion.equals(anterior.getSolucion())).toList(), solucion);
+        }
+
+        // En el historial, igual, solo los cambios de verdad
+        List<IncidenciaEventoDto> eventos = new ArrayList<IncidenciaEventoDto>();
+        for (IncidenciaNotificacionDto anterior : aplicadas)
+        {
+            if (estado != null && !estado.equals(anterior.getEstado()))
+            {
+                eventos.add(this.crearEvento(anterior.getId(), Constants.EVENTO_ESTADO, anterior.getEstado(), estado, emailUsuario));
+            }
+
+            if (solucion != null && !solucion.equals(anterior.getSolucion()))
+            {
+                eventos.add(this.crearEvento(anterior.getId(), Constants.EVENTO_SOLUCION, anterior.getSolucion(), solucion, emailUsuario));
+            }
+        }
+
+        this.historialIncidenciaService.registrar(eventos);
+
+        return aplicadas;
+    }
+
+    /**
+     * Actualiza el responsable (y con él, la categoría) de una incidencia con una única sentencia
+     * UPDATE, sin cargar la entidad.
+     * @param id El id de la incidencia.
+     * @param usuarioCategoria El nuevo responsable de la categoría.
+     * @param versionEsperada La versión que debe tener la incidencia (If-Match), o null si no se exige ninguna.
+     * @param emailUsuario El email del usuario que hace el cambio, para el historial.
+     * @return Los datos de la incidencia, con los valores anteriores al cambio.
+     * @throws IssuesServerError si la incidencia no existe o la ha modificado otro usuario
+     */
+    public IncidenciaNotificacionDto actualizarUsuarioCategoria(Long id, UsuarioCategoria usuarioCategoria, Long versionEsperada, String emailUsuario) throws IssuesServerError
+    {
+        return this.actualizarConVersion(id, versionEsperada, anterior ->
+        {
+            if (!this.aplicarUsuarioCategoria(anterior, usuarioCategoria, false))
+            {
+                return false;
+            }
+
+            // Registramos el cambio en el historial (y el de categoría, si también ha cambiado)
+            String nombreCategoria            = usuarioCategoria.getId().getNombreCategoria();
+            List<IncidenciaEventoDto> eventos = new ArrayList<IncidenciaEventoDto>(2);
+            eventos.add(this.crearEvento(id, Constants.EVENTO_RESPONSABLE, anterior.getEmailResponsable(), usuarioCategoria.getId().getEmailResponsable(), emailUsuario));
+
+            if (!anterior.getNombreCategoria().equals(nombreCategoria))
+            {
+                eventos.add(this.crearEvento(id, Constants.EVENTO_CATEGORIA, anterior.getNombreCategoria(), nombreCategoria, emailUsuario));
+            }
+
+            this.historialIncidenciaService.registrar(eventos);
+
+            return true;
+        });
+    }
+
+    /**
+     * Cambia una incidencia de categoría y le asigna uno de los responsables de la nueva categoría, que
+     * se elige con la ubicación leída de la incidencia (en cada intento, si hay que reintentar). El
+     * nuevo responsable recibe el aviso de creación.
+     * @param id El id de la incidencia.
+     * @param asignacion La elección del responsable de la nueva categoría a partir de la ubicación de la incidencia.
+     * @param versionEsperada La versión que debe tener la incidencia (If-Match), o null si no se exige ninguna.
+     * @param emailUsuario El email del usuario que hace el cambio, para el historial.
+     * @return Los datos de la incidencia, con los valores anteriores al cambio.
+     * @throws IssuesServerError si la incidencia no existe o la ha modificado otro usuario
+     */
+    public IncidenciaNotificacionDto actualizarCategoria(Long id, Function<String, UsuarioCategoria> asignacion, Long versionEsperada, String emailUsuario) throws IssuesServerError
+    {
+        return this.actualizarConVersion(id, versionEsperada, anterior ->
+        {
+            UsuarioCategoria usuarioCategoria = asignacion.apply(anterior.getUbicacion());
+
+            if (!this.aplicarUsuarioCategoria(anterior, usuarioCategoria, true))
+            {
+                return false;
+            }
+
+            this.historialIncidenciaService.registrar(id, Constants.EVENTO_CATEGORIA, anterior.getNombreCategoria(), usuarioCategoria.getId().getNombreCategoria(), emailUsuario);
+
+            return true;
+        });
+    }
+
+    /**
+     * Aplica el cambio de responsable dentro de la transacción en curso, si la incidencia conserva la versión leída.
+     * @param anterior Los datos leídos de la incidencia, con su versión.
+     * @param usuarioCategoria El nuevo responsable de la categoría.
+     * @param notificarResponsable Si se avisa al nuevo responsable como si la incidencia se acabase de crear.
+     * @return true si se ha actualizado la incidencia.
+     */
+    private boolean aplicarUsuarioCategoria(IncidenciaNotificacionDto anterior, UsuarioCategoria usuarioCategoria, boolean notificarResponsable)
+    {
+        if (this.incidenciaRepository.actualizarUsuarioCategoria(anterior.getId(), anterior.getCursoAcademico(), usuarioCategoria, anterior.getVersion()) == 0)
+        {
+            return false;
+        }
+
+        this.estadisticasContadorService.registrarCambio(anterior, Constants.DIMENSION_CATEGORIA, anterior.getNombreCategoria(), usuarioCategoria.getId().getNombreCategoria());
+        this.cargaResponsablesService.registrarCambioResponsable(anterior, usuarioCategoria.getId());
+
+        if (notificarResponsable)
+        {
+            this.notificacionesIncidenciaService.encolarEmailCreacionIncidencia(anterior.getId(), usuarioCategoria.getId().getEmailResponsable(), anterior.getNombre(),
+                                                                                anterior.getApellidos(), anterior.getUbicacion(), anterior.getProblema());
+        }
+
+        return true;
+    }
+
+    /**
+     * Lee la incidencia y le aplica una actualización condicionada a la versión leída (comparar y asignar).
+     * <p>
+     * Si el cliente indica la versión que conoce y no coincide, o si otro usuario la modifica entre
+     * la lectura y la escritura, la incidencia no se toca y se devuelve un conflicto. Si no la indica,
+     * el conflicto se resuelve volviendo a leer la incidencia, hasta
+     * {@link Constants#INTENTOS_ACTUALIZACION_INCIDENCIA} veces. Ningún caso espera por bloqueos.
+     * </p>
+     * @param id El id de la incidencia.
+     * @param versionEsperada La versión que debe tener la incidencia, o null si no se exige ninguna.
+     * @param actualizacion La actualización, que se ejecuta en una transacción.
+     * @return Los datos de la incidencia, con los valores anteriores al cambio.
+     * @throws IssuesServerError si la incidencia no existe o la ha modificado otro usuario
+     */
+    private IncidenciaNotificacionDto actualizarConVersion(Long id, Long versionEsperada, ActualizacionConVersion actualizacion) throws IssuesServerError
+    {
+        int intentos = versionEsperada == null ? Constants.INTENTOS_ACTUALIZACION_INCIDENCIA : 1;
+
+        for (int intento = 1; intento <= intentos; intento++)
+        {
+            // Leemos en una transacción aparte para ver siempre la última versión confirmada
+            IncidenciaNotificacionDto anterior = this.buscarDatosNotificacion(id);
+
+            if (versionEsperada != null && !versionEsperada.equals(anterior.getVersion()))
+            {
+                break;
+            }
+
+            if (Boolean.TRUE.equals(this.transactionTemplate.execute(status -> actualizacion.aplicar(anterior))))
+            {
+                return anterior;
+            }
+
+            log.warn("La incidencia {} ha sido modificada a la vez por otro usuario (intento {})", id, intento);
+        }
+
+        log.error(Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_MESSAGE);
+        throw new IssuesServerConflictError(Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_CODE, Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_MESSAGE);
+    }
+
+    /**
+     * Elimina una incidencia con una única sentencia DELETE condicionada a la versión leída. Los
+     * contadores y la carga solo se descuentan si la sentencia ha borrado la fila, de modo que dos
+     * borrados simultáneos de la misma incidencia no la descuentan dos veces.
+     * @param incidencia La incidencia a eliminar, tal como se leyó.
+     * @param emailUsuario El email del usuario que la borra, para el historial.
+     * @throws IssuesServerError si la incidencia ya no existe o la ha modificado otro usuario
+     */
+    @Transactional
+    public void borrar(Incidencia incidencia, String emailUsuario) throws IssuesServerError
+    {
+        if (this.incidenciaRepository.borrarConVersion(incidencia.getId(), incidencia.getCursoAcademico(), incidencia.getVersion()) == 0)
+        {
+            if (!this.incidenciaRepository.existsById(incidencia.getId()))
+            {
+                log.error(Constants.ERR_INCIDENCIA_NO_ENCONTRADA_MESSAGE);
+                throw new IssuesServerError(Constants.ERR_INCIDENCIA_NO_ENCONTRADA_CODE, Constants.ERR_INCIDENCIA_NO_ENCONTRADA_MESSAGE);
+            }
+
+            log.error(Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_MESSAGE);
+            throw new IssuesServerConflictError(Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_CODE, Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_MESSAGE);
+        }
+
+        this.estadisticasContadorService.registrarBaja(incidencia);
+        this.cargaResponsablesService.registrarBaja(incidencia);
+
+        this.historialIncidenciaService.registrar(incidencia.getId(), Constants.EVENTO_BORRADO, incidencia.getEstado(), null, emailUsuario);
+    }
+
+    /**
+     * Busca una incidencia para modificarla o borrarla. Se lee en una transacción de escritura para
+     * que vaya a la base de datos principal y no a la réplica, que puede no tener su última versión.
+     * La ubicación y el responsable quedan como proxies con su clave, que es todo lo que se necesita.
+     * Con la tabla particionada, la búsqueda por id consulta la clave primaria de cada partición, ya que
+     * el curso de la incidencia se conoce al leerla.
+     * @param id El id de la incidencia.
+     * @return La incidencia, si existe.
+     */
+    @Transactional
+    public Optional<Incidencia> buscarPorId(Long id)
+    {
+        return this.incidenciaRepository.findById(id);
+    }
+
+    /**
+     * Busca una incidencia para mostrarla antes de editarla. Igual que {@link #buscarPorId(Long)}, se
+     * lee en la base de datos principal, para que la versión que se devuelve como ETag sea la última y
+     * el If-Match de la siguiente edición no falle por un retraso de la réplica.
+     * @param id El id de la incidencia.
+     * @return La incidencia, si existe.
+     */
+    @Transactional
+    public Optional<IncidenciaDto> buscarParaEdicion(Long id)
+    {
+        return this.incidenciaRepository.buscarIncidenciasPorIds(List.of(id)).stream().findFirst();
+    }
+
+    /**
+     * Busca los datos de notificación de una incidencia en la base de datos principal.
+     * @param id El id de la incidencia.
+     * @return Los datos de la incidencia.
+     * @throws IssuesServerError si la incidencia no existe
+     */
+    private IncidenciaNotificacionDto buscarDatosNotificacion(Long id) throws IssuesServerError
+    {
+        Optional<IncidenciaNotificacionDto> optionalAnterior = this.transactionTemplate.execute(status -> this.incidenciaRepository.buscarDatosNotificacionPorId(id));
+
+        // Validamos que la incidencia exista
+        if (!optionalAnterior.isPresent())
+        {
+            log.error(Constants.ERR_INCIDENCIA_NO_ENCONTRADA_MESSAGE);
+            throw new IssuesServerError(Constants.ERR_INCIDENCIA_NO_ENCONTRADA_CODE, Constants.ERR_INCIDENCIA_NO_ENCONTRADA_MESSAGE);
+        }
+
+        return optionalAnterior.get();
+    }
+
+    /**
+     * Prepara el evento del historial de un cambio en una incidencia, con la fecha actual.
+     * @param incidenciaId El id de la incidencia.
+     * @param tipo El tipo de evento.
+     * @param valorAnterior El valor anterior.
+     * @param valorNuevo El valor nuevo.
+     * @param emailUsuario El email del usuario que hace el cambio.
+     * @return El evento.
+     */
+    private IncidenciaEventoDto crearEvento(Long incidenciaId, String tipo, String valorAnterior, String valorNuevo, String emailUsuario)
+    {
+        return new IncidenciaEventoDto(null, incidenciaId, LocalDateTime.now(), tipo, valorAnterior, valorNuevo, emailUsuario);
+    }
+
+    /**
+     * Actualización de una incidencia condicionada a la versión leída.
+     */
+    @FunctionalInterface
+    private interface ActualizacionConVersion
+    {
+        /**
+         * @param anterior Los datos leídos de la incidencia, con su versión.
+         * @return true si la incidencia conservaba la versión y se ha actualizado
+         */
+        boolean aplicar(IncidenciaNotificacionDto anterior);
+    }
+}
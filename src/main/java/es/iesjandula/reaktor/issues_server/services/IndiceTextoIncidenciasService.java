@@ -0,0 +1,423 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaTextoDto;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import es.iesjandula.reaktor.issues_server.utils.AnalizadorTextoEspanol;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que mantiene un índice invertido (Lucene) sobre el problema y la solución de las incidencias.
+ * <p>
+ * El índice se guarda en disco local, se actualiza de forma incremental cada vez que se crea una incidencia,
+ * se modifica su solución o se borra, y puede reconstruirse completo desde la base de datos al arrancar.
+ * Las escrituras se hacen visibles a las búsquedas inmediatamente (near real time) y se consolidan en disco
+ * de forma periódica; si se perdiese algún cambio no consolidado, la reconstrucción al arrancar lo recupera.
+ * </p>
+ * <p>
+ * La reconstrucción no vacía el índice: mientras se recorre la base de datos las búsquedas siguen
+ * viendo el índice anterior completo. Cada documento se sustituye por su id y se marca con la
+ * generación de la reconstrucción; al terminar se borran los de generaciones anteriores, que son
+ * las incidencias que ya no existen. Las incidencias que se indexan o eliminan mientras tanto tienen
+ * datos más recientes que el recorrido, así que la reconstrucción no las toca. Cada escritura en el
+ * índice y su anotación se hacen bajo un mismo cerrojo para que ninguna se intercale.
+ * </p>
+ */
+@Log4j2
+@Service
+public class IndiceTextoIncidenciasService
+{
+    /** Campo del índice con el id de la incidencia */
+    private static final String CAMPO_ID = "id";
+
+    /** Campo del índice con el problema de la incidencia */
+    private static final String CAMPO_PROBLEMA = "problema";
+
+    /** Campo del índice con la solución de la incidencia */
+    private static final String CAMPO_SOLUCION = "solucion";
+
+    /** Campo del índice con la generación de la reconstrucción que escribió el documento */
+    private static final String CAMPO_GENERACION = "generacion";
+
+    /** Peso de las coincidencias en el problema frente a las de la solución */
+    private static final float PESO_PROBLEMA = 2.0f;
+
+    /** Repositorio de incidencias */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /** Ruta del directorio del índice */
+    @Value("${reaktor.indice_texto.ruta}")
+    private String ruta;
+
+    /** Indica si el índice se reconstruye desde la base de datos al arrancar */
+    @Value("${reaktor.indice_texto.reconstruir_al_arrancar:true}")
+    private boolean reconstruirAlArrancar;
+
+    /** Analizador de texto */
+    private Analyzer analyzer;
+
+    /** Directorio del índice */
+    private Directory directory;
+
+    /** Escritor del índice */
+    private IndexWriter indexWriter;
+
+    /** Gestor de lectores del índice */
+    private SearcherManager searcherManager;
+
+    /** Cerrojo de cada escritura en el índice (no synchronized, que bloquearía el hilo portador de un hilo virtual) */
+    private final ReentrantLock cerrojo = new ReentrantLock();
+
+    /** Generación con la que se marcan los documentos escritos (se renueva en cada reconstrucción) */
+    private String generacion = UUID.randomUUID().toString();
+
+    /** Ids indexados o eliminados durante la reconstrucción en curso (nulo si no hay ninguna) */
+    private Set<Long> modificadasDuranteReconstruccion;
+
+    /**
+     * Abre el índice (o lo crea si no existe).
+     * @throws IOException si hay un error al abrir el índice
+     */
+    @PostConstruct
+    public void abrir() throws IOException
+    {
+        this.analyzer  = new AnalizadorTextoEspanol();
+        this.directory = FSDirectory.open(Paths.get(this.ruta));
+
+        IndexWriterConfig indexWriterConfig = new IndexWriterConfig(this.analyzer);
+        indexWriterConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+
+        this.indexWriter     = new IndexWriter(this.directory, indexWriterConfig);
+        this.searcherManager = new SearcherManager(this.indexWriter, null);
+
+        log.info("Índice de texto de incidencias abierto en {}", this.ruta);
+    }
+
+    /**
+     * Consolida y cierra el índice.
+     */
+    @PreDestroy
+    public void cerrar()
+    {
+        try
+        {
+            this.searcherManager.close();
+            this.indexWriter.close();
+            this.directory.close();
+        }
+        catch (IOException ioException)
+        {
+            log.error("Error al cerrar el índice de texto de incidencias", ioException);
+        }
+    }
+
+    /**
+     * Reconstruye el índice completo desde la base de datos al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir()
+    {
+        if (!this.reconstruirAlArrancar)
+        {
+            return;
+        }
+
+        long indexadas = 0;
+
+        // Nueva generación: desde aquí, todo lo que se escribe en el índice queda marcado con ella
+        String generacionReconstruccion = UUID.randomUUID().toString();
+
+        this.cerrojo.lock();
+        try
+        {
+            this.generacion                       = generacionReconstruccion;
+            this.modificadasDuranteReconstruccion = new HashSet<Long>();
+        }
+        finally
+        {
+            this.cerrojo.unlock();
+        }
+
+        try (Stream<IncidenciaTextoDto> incidencias = this.incidenciaRepository.recorrerTextoIncidencias())
+        {
+            Iterator<IncidenciaTextoDto> iterator = incidencias.iterator();
+            while (iterator.hasNext())
+            {
+                IncidenciaTextoDto incidenciaTextoDto = iterator.next();
+
+                this.cerrojo.lock();
+                try
+                {
+                    // Si se ha indexado o eliminado durante la reconstrucción, el dato leído ya es antiguo
+                    if (!this.modificadasDuranteReconstruccion.contains(incidenciaTextoDto.getId()))
+                    {
+                        this.indexWriter.updateDocument(new Term(CAMPO_ID, String.valueOf(incidenciaTextoDto.getId())),
+                                                        this.crearDocumento(incidenciaTextoDto.getId(), incidenciaTextoDto.getProblema(), incidenciaTextoDto.getSolucion()));
+                    }
+                }
+                finally
+                {
+                    this.cerrojo.unlock();
+                }
+
+                indexadas++;
+            }
+
+            // Los documentos que no se han vuelto a escribir son de incidencias que ya no existen
+            BooleanQuery.Builder anteriores = new BooleanQuery.Builder();
+            anteriores.add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER);
+            anteriores.add(new TermQuery(new Term(CAMPO_GENERACION, generacionReconstruccion)), BooleanClause.Occur.MUST_NOT);
+
+            this.indexWriter.deleteDocuments(anteriores.build());
+
+            this.indexWriter.commit();
+            this.searcherManager.maybeRefresh();
+
+            log.info("Índice de texto de incidencias reconstruido con {} incidencias", indexadas);
+        }
+        catch (IOException ioException)
+        {
+            log.error("Error al reconstruir el índice de texto de incidencias", ioException);
+        }
+        finally
+        {
+            this.cerrojo.lock();
+            try
+            {
+                this.modificadasDuranteReconstruccion = null;
+            }
+            finally
+            {
+                this.cerrojo.unlock();
+            }
+        }
+    }
+
+    /**
+     * Añade o actualiza una incidencia en el índice.
+     * @param id El id de la incidencia.
+     * @param problema El problema de la incidencia.
+     * @param solucion La solución de la incidencia.
+     */
+    public void indexar(Long id, String problema, String solucion)
+    {
+        try
+        {
+            this.cerrojo.lock();
+            try
+            {
+                this.anotarModificacion(id);
+                this.indexWriter.updateDocument(new Term(CAMPO_ID, String.valueOf(id)), this.crearDocumento(id, problema, solucion));
+            }
+            finally
+            {
+                this.cerrojo.unlock();
+            }
+
+            this.searcherManager.maybeRefresh();
+        }
+        catch (IOException ioException)
+        {
+            log.error("Error al indexar la incidencia {}", id, ioException);
+        }
+    }
+
+    /**
+     * Elimina una incidencia del índice.
+     * @param id El id de la incidencia.
+     */
+    public void eliminar(Long id)
+    {
+        try
+        {
+            this.cerrojo.lock();
+            try
+            {
+                this.anotarModificacion(id);
+                this.indexWriter.deleteDocuments(new Term(CAMPO_ID, String.valueOf(id)));
+            }
+            finally
+            {
+                this.cerrojo.unlock();
+            }
+
+            this.searcherManager.maybeRefresh();
+        }
+        catch (IOException ioException)
+        {
+            log.error("Error al eliminar la incidencia {} del índice", id, ioException);
+        }
+    }
+
+    /**
+     * Anota que una incidencia se ha indexado o eliminado durante la reconstrucción en curso, si la hay.
+     * Solo se llama con el cerrojo tomado.
+     * @param id El id de la incidencia.
+     */
+    private void anotarModificacion(Long id)
+    {
+        if (this.modificadasDuranteReconstruccion != null)
+        {
+            this.modificadasDuranteReconstruccion.add(id);
+        }
+    }
+
+    /**
+     * Consolida en disco los cambios pendientes del índice.
+     */
+    @Scheduled(fixedDelayString = "${reaktor.indice_texto.consolidar_ms:30000}")
+    public void consolidar()
+    {
+        try
+        {
+            if (this.indexWriter.hasUncommittedChanges())
+            {
+                this.indexWriter.commit();
+            }
+        }
+        catch (IOException ioException)
+        {
+            log.error("Error al consolidar el índice de texto de incidencias", ioException);
+        }
+    }
+
+    /**
+     * Busca incidencias por texto y devuelve sus ids ordenados por relevancia.
+     * @param texto El texto a buscar.
+     * @param limite El número máximo de resultados.
+     * @return Los ids de las incidencias ordenados por relevancia.
+     * @throws IOException si hay un error al consultar el índice
+     */
+    public List<Long> buscar(String texto, int limite) throws IOException
+    {
+        List<Long> ids = new ArrayList<Long>();
+
+        Query query = this.crearConsulta(texto);
+
+        // Si el texto solo contiene palabras vacías no hay nada que buscar
+        if (query == null)
+        {
+            return ids;
+        }
+
+        IndexSearcher indexSearcher = this.searcherManager.acquire();
+        try
+        {
+            TopDocs topDocs          = indexSearcher.search(query, limite);
+            StoredFields storedFields = indexSearcher.storedFields();
+
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs)
+            {
+                ids.add(Long.valueOf(storedFields.document(scoreDoc.doc).get(CAMPO_ID)));
+            }
+        }
+        finally
+        {
+            this.searcherManager.release(indexSearcher);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Crea la consulta sobre el problema y la solución, dando más peso al problema.
+     * @param texto El texto a buscar.
+     * @return La consulta, o null si el texto no contiene términos indexables.
+     */
+    private Query crearConsulta(String texto)
+    {
+        QueryBuilder queryBuilder = new QueryBuilder(this.analyzer);
+
+        Query queryProblema = queryBuilder.createBooleanQuery(CAMPO_PROBLEMA, texto);
+        Query querySolucion = queryBuilder.createBooleanQuery(CAMPO_SOLUCION, texto);
+
+        if (queryProblema == null && querySolucion == null)
+        {
+            return null;
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+
+        if (queryProblema != null)
+        {
+            builder.add(new BoostQuery(queryProblema, PESO_PROBLEMA), BooleanClause.Occur.SHOULD);
+        }
+
+        if (querySolucion != null)
+        {
+            builder.add(querySolucion, BooleanClause.Occur.SHOULD);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Crea el documento del índice para una incidencia, marcado con la generación actual.
+     * @param id El id de la incidencia.
+     * @param problema El problema de la incidencia.
+     * @param solucion La solución de la incidencia.
+     * @return El documento.
+     */
+    private Document crearDocumento(Long id, String problema, String solucion)
+    {
+        Document document = new Document();
+        document.add(new StringField(CAMPO_ID, String.valueOf(id), Field.Store.YES));
+        document.add(new StringField(CAMPO_GENERACION, this.generacion, Field.Store.NO));
+
+        if (problema != null)
+        {
+            document.add(new TextField(CAMPO_PROBLEMA, problema, Field.Store.NO));
+        }
+
+        if (solucion != null)
+        {
+            document.add(new TextField(CAMPO_SOLUCION, solucion, Field.Store.NO));
+        }
+
+        return document;
+    }
+}
@@ -0,0 +1,250 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.dtos.NotificacionPendienteDto;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que prepara las notificaciones email de las incidencias y las deja en la bandeja de
+ * salida (tabla notificacion_pendiente).
+ * <p>
+ * Los métodos se ejecutan dentro de la transacción que modifica la incidencia, de modo que la
+ * notificación se guarda si y solo si se confirma el cambio, y la petición no espera al servidor de
+ * notificaciones. El envío lo hace después {@link DespachoNotificacionesService}, con reintentos.
+ * </p>
+ * <p>
+ * Cada notificación espera una ventana antes de enviarse. Las que se acumulan para un mismo
+ * destinatario durante la ventana se envían juntas en un único email de resumen
+ * ({@link #crearResumen(String, List)}), en lugar de un email por cambio.
+ * </p>
+ */
+@Log4j2
+@Service
+public class NotificacionesIncidenciaService
+{
+    /** Sentencia de inserción en la bandeja de salida */
+    private static final String SQL_ENCOLAR = "INSERT INTO notificacion_pendiente (destinatario, asunto, cuerpo, fecha_creacion, siguiente_intento, tipo, incidencia_id, ubicacion, nombre_usuario, detalle) " +
+                                              "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** Acceso JDBC para la inserción en lote */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Tiempo que espera cada notificación por si llegan otras para el mismo destinatario */
+    @Value("${reaktor.notificaciones.ventana_ms:60000}")
+    private long ventanaMs;
+
+    /** Motor de plantillas (se crea una sola vez y cachea las plantillas) */
+    private final TemplateEngine templateEngine = this.crearTemplateEngine();
+
+    /**
+     * Encola una notificación email al responsable elegido para la categoría de la incidencia.
+     * @param incidenciaId El id de la incidencia.
+     * @param emailResponsable El email del responsable.
+     * @param nombre El nombre del usuario que creó la incidencia.
+     * @param apellidos Los apellidos del usuario que creó la incidencia.
+     * @param ubicacion La ubicación de la incidencia.
+     * @param problema El problema de la incidencia.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void encolarEmailCreacionIncidencia(Long incidenciaId, String emailResponsable, String nombre, String apellidos, String ubicacion, String problema)
+    {
+        this.encolar(List.of(this.crearEmailCreacionIncidencia(incidenciaId, emailResponsable, nombre, apellidos, ubicacion, problema)));
+    }
+
+    /**
+     * Encola las notificaciones email de creación de varias incidencias, una a su responsable.
+     * @param incidencias Las incidencias creadas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void encolarEmailsCreacionIncidencias(List<Incidencia> incidencias)
+    {
+        List<NotificacionPendienteDto> notificaciones = new ArrayList<NotificacionPendienteDto>(incidencias.size());
+        for (Incidencia incidencia : incidencias)
+        {
+            notificaciones.add(this.crearEmailCreacionIncidencia(incidencia.getId(), incidencia.getUsuarioCategoria().getId().getEmailResponsable(), incidencia.getNombre(),
+                                                                 incidencia.getApellidos(), incidencia.getUbicacion().getNombre(), incidencia.getProblema()));
+        }
+
+        this.encolar(notificaciones);
+    }
+
+    /**
+     * Encola una notificación email a los usuarios que crearon las incidencias para que sepan que su estado ha cambiado.
+     * @param anteriores Los datos de las incidencias.
+     * @param estado El nuevo estado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void encolarEmailsActualizacionEstado(List<IncidenciaNotificacionDto> anteriores, String estado)
+    {
+        List<NotificacionPendienteDto> notificaciones = new ArrayList<NotificacionPendienteDto>(anteriores.size());
+        for (IncidenciaNotificacionDto anterior : anteriores)
+        {
+            // Creamos el asunto de la notificación
+            String asunto = String.format("El estado de la incidencia del aula %s ha cambiado a %s", anterior.getUbicacion(), estado);
+
+            // Creamos el contexto
+            Context context = new Context();
+            context.setVariable(Constants.VARIABLE_CONTEXT_UBICACION, anterior.getUbicacion());
+            context.setVariable(Constants.VARIABLE_CONTEXT_ESTADO, estado);
+
+            // Creamos el cuerpo de la notificación
+            String cuerpo = this.templateEngine.process(Constants.PLANTILLA_EMAIL_ESTADO_INCIDENCIA_ACTUALIZADA, context);
+
+            notificaciones.add(new NotificacionPendienteDto(null, anterior.getEmail(), asunto, cuerpo, 0, Constants.EVENTO_ESTADO, anterior.getId(),
+                                                            anterior.getUbicacion(), null, estado));
+        }
+
+        this.encolar(notificaciones);
+    }
+
+    /**
+     * Encola una notificación email a los usuarios que crearon las incidencias para que sepan que su solución ha cambiado.
+     * @param anteriores Los datos de las incidencias.
+     * @param solucion La nueva solución.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void encolarEmailsActualizacionSolucion(List<IncidenciaNotificacionDto> anteriores, String solucion)
+    {
+        List<NotificacionPendienteDto> notificaciones = new ArrayList<NotificacionPendienteDto>(anteriores.size());
+        for (IncidenciaNotificacionDto anterior : anteriores)
+        {
+            // Creamos el asunto de la notificación
+            String asunto = String.format("La solución de la incidencia del aula %s ha cambiado", anterior.getUbicacion());
+
+            // Creamos el contexto
+            Context context = new Context();
+            context.setVariable(Constants.VARIABLE_CONTEXT_UBICACION, anterior.getUbicacion());
+            context.setVariable(Constants.VARIABLE_CONTEXT_SOLUCION, solucion);
+
+            // Creamos el cuerpo de la notificación
+            String cuerpo = this.templateEngine.process(Constants.PLANTILLA_EMAIL_SOLUCION_INCIDENCIA_ACTUALIZADA, context);
+
+            notificaciones.add(new NotificacionPendienteDto(null, anterior.getEmail(), asunto, cuerpo, 0, Constants.EVENTO_SOLUCION, anterior.getId(),
+                                                            anterior.getUbicacion(), null, solucion));
+        }
+
+        this.encolar(notificaciones);
+    }
+
+    /**
+     * Prepara la notificación email de creación de una incidencia para su responsable.
+     * @param incidenciaId El id de la incidencia.
+     * @param emailResponsable El email del responsable.
+     * @param nombre El nombre del usuario que creó la incidencia.
+     * @param apellidos Los apellidos del usuario que creó la incidencia.
+     * @param ubicacion La ubicación de la incidencia.
+     * @param problema El problema de la incidencia.
+     * @return La notificación.
+     */
+    private NotificacionPendienteDto crearEmailCreacionIncidencia(Long incidenciaId, String emailResponsable, String nombre, String apellidos, String ubicacion, String problema)
+    {
+        // Creamos el asunto de la notificación
+        String asunto = String.format("Nueva incidencia creada por %s %s en %s", nombre, apellidos, ubicacion);
+
+        // Creamos el contexto
+        Context context = new Context();
+        context.setVariable(Constants.VARIABLE_CONTEXT_NOMBRE_USUARIO, nombre + " " + apellidos);
+        context.setVariable(Constants.VARIABLE_CONTEXT_UBICACION, ubicacion);
+        context.setVariable(Constants.VARIABLE_CONTEXT_PROBLEMA, problema);
+
+        // Creamos el cuerpo de la notificación
+        String cuerpo = this.templateEngine.process(Constants.PLANTILLA_EMAIL_INCIDENCIA_CREADA, context);
+
+        return new NotificacionPendienteDto(null, emailResponsable, asunto, cuerpo, 0, Constants.EVENTO_CREACION, incidenciaId,
+                                            ubicacion, nombre + " " + apellidos, problema);
+    }
+
+    /**
+     * Prepara el email de resumen de varias notificaciones a un mismo destinatario.
+     * @param destinatario El email del destinatario.
+     * @param notificaciones Las notificaciones, en el orden en que se produjeron.
+     * @return La notificación con el resumen.
+     */
+    public NotificacionPendienteDto crearResumen(String destinatario, List<NotificacionPendienteDto> notificaciones)
+    {
+        // Creamos el asunto de la notificación
+        String asunto = String.format("Resumen de %d avisos de incidencias", notificaciones.size());
+
+        // Creamos el contexto
+        Context context = new Context();
+        context.setVariable(Constants.VARIABLE_CONTEXT_NOTIFICACIONES, notificaciones);
+
+        // Creamos el cuerpo de la notificación
+        String cuerpo = this.templateEngine.process(Constants.PLANTILLA_EMAIL_RESUMEN_NOTIFICACIONES, context);
+
+        return new NotificacionPendienteDto(null, destinatario, asunto, cuerpo, 0, null, null, null, null, null);
+    }
+
+    /**
+     * Inserta en lote las notificaciones en la bandeja de salida, que se enviarán al cerrarse la ventana.
+     * @param notificaciones Las notificaciones.
+     */
+    private void encolar(List<NotificacionPendienteDto> notificaciones)
+    {
+        if (notificaciones.isEmpty())
+        {
+            return;
+        }
+
+        LocalDateTime ahora        = LocalDateTime.now();
+        Timestamp fechaCreacion    = Timestamp.valueOf(ahora);
+        Timestamp siguienteIntento = Timestamp.valueOf(ahora.plus(Duration.ofMillis(this.ventanaMs)));
+
+        this.jdbcTemplate.batchUpdate(SQL_ENCOLAR, notificaciones, notificaciones.size(), (preparedStatement, notificacion) ->
+        {
+            preparedStatement.setString(1, notificacion.getDestinatario());
+            preparedStatement.setString(2, notificacion.getAsunto());
+            preparedStatement.setString(3, notificacion.getCuerpo());
+            preparedStatement.setTimestamp(4, fechaCreacion);
+            preparedStatement.setTimestamp(5, siguienteIntento);
+            preparedStatement.setString(6, notificacion.getTipo());
+            preparedStatement.setObject(7, notificacion.getIncidenciaId());
+            preparedStatement.setString(8, notificacion.getUbicacion());
+            preparedStatement.setString(9, notificacion.getNombreUsuario());
+            preparedStatement.setString(10, notificacion.getDetalle());
+        });
+
+        log.debug("Encoladas {} notificaciones email", notificaciones.size());
+    }
+
+    /**
+     * Crea el motor de plantillas de los emails.
+     * @return El motor de plantillas.
+     */
+    private TemplateEngine crearTemplateEngine()
+    {
+        // Creamos el resolver de plantillas
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(true);
+
+        // Creamos el motor de plantillas
+        TemplateEngine engine = new TemplateEngine();
+        engine.setTemplateResolver(templateResolver);
+
+        return engine;
+    }
+}
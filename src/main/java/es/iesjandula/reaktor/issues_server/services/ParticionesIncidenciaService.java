@@ -0,0 +1,91 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import es.iesjandula.reaktor.base.utils.FechasUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que mantiene las particiones de la tabla incidencia cuando está particionada por curso
+ * académico (migración opcional db/particionado y reaktor.particionado.habilitado).
+ * <p>
+ * La última partición llega hasta MAXVALUE, por lo que las incidencias de un curso nuevo nunca
+ * fallan al insertarse: caen en la partición del curso anterior. Al arrancar y cada noche se
+ * comprueba si el curso actual ya tiene su propia partición y, si no, se divide la última en dos
+ * por el nombre del curso actual. Solo se reescriben las filas de esa partición, una vez por curso.
+ * </p>
+ */
+@Log4j2
+@Service
+public class ParticionesIncidenciaService
+{
+    /** Partición que llega hasta MAXVALUE */
+    private static final String SQL_ULTIMA_PARTICION = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                                                       "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'incidencia' AND PARTITION_DESCRIPTION = 'MAXVALUE'";
+
+    /** Acceso JDBC para las sentencias DDL */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Indica si la tabla incidencia está particionada */
+    @Value("${reaktor.particionado.habilitado:false}")
+    private boolean particionadoHabilitado;
+
+    /**
+     * Comprueba la partición del curso actual al arrancar.
+     */
+    @PostConstruct
+    public void comprobarAlArrancar()
+    {
+        this.crearParticionCursoActual();
+    }
+
+    /**
+     * Crea la partición del curso actual si todavía no existe.
+     */
+    @Scheduled(cron = "${reaktor.particionado.cron:0 5 0 * * *}")
+    public void crearParticionCursoActual()
+    {
+        if (!this.particionadoHabilitado)
+        {
+            return;
+        }
+
+        try
+        {
+            List<String> ultimas = this.jdbcTemplate.queryForList(SQL_ULTIMA_PARTICION, String.class);
+            if (ultimas.isEmpty())
+            {
+                log.warn("El particionado está habilitado pero la tabla incidencia no está particionada; falta aplicar la migración de db/particionado");
+                return;
+            }
+
+            String ultimaParticion = ultimas.get(0);
+            String cursoActual     = FechasUtils.obtenerCursoAcademicoActual();
+            String nuevaParticion  = "p_" + cursoActual.replaceAll("[^0-9A-Za-z]", "_");
+
+            if (ultimaParticion.equalsIgnoreCase(nuevaParticion))
+            {
+                return;
+            }
+
+            // La última partición se queda con los cursos anteriores y el actual estrena la suya
+            this.jdbcTemplate.execute("ALTER TABLE incidencia REORGANIZE PARTITION " + ultimaParticion + " INTO (" +
+                                      "PARTITION " + ultimaParticion + " VALUES LESS THAN ('" + cursoActual.replace("'", "''") + "'), " +
+                                      "PARTITION " + nuevaParticion + " VALUES LESS THAN (MAXVALUE))");
+
+            log.info("Creada la partición {} de la tabla incidencia para el curso académico {}", nuevaParticion, cursoActual);
+        }
+        catch (Exception exception)
+        {
+            log.error("Error al crear la partición del curso académico actual", exception);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Servicio que asigna el responsable de una incidencia con la estrategia configurada en
+ * {@code reaktor.asignacion.estrategia} (primero, round_robin, menos_abiertas o afinidad_ubicacion).
+ */
+@Log4j2
+@Service
+public class AsignacionResponsableService
+{
+    /** Estrategias disponibles */
+    @Autowired
+    private List<IEstrategiaAsignacion> estrategias;
+
+    /** Índice de la carga de los responsables */
+    @Autowired
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Nombre de la estrategia configurada */
+    @Value("${reaktor.asignacion.estrategia:primero}")
+    private String nombreEstrategia;
+
+    /** Estrategia configurada */
+    private IEstrategiaAsignacion estrategia;
+
+    /**
+     * Busca la estrategia configurada al arrancar.
+     */
+    @PostConstruct
+    public void init()
+    {
+        for (IEstrategiaAsignacion estrategiaAsignacion : this.estrategias)
+        {
+            if (estrategiaAsignacion.getNombre().equals(this.nombreEstrategia))
+            {
+                this.estrategia = estrategiaAsignacion;
+            }
+        }
+
+        if (this.estrategia == null)
+        {
+            throw new IllegalStateException("Estrategia de asignación de responsables desconocida: " + this.nombreEstrategia);
+        }
+
+        log.info("Estrategia de asignación de responsables: {}", this.nombreEstrategia);
+    }
+
+    /**
+     * Asigna el responsable de una incidencia.
+     * @param responsables Los responsables de la categoría, ordenados por email (nunca vacía).
+     * @param nombreUbicacion La ubicación de la incidencia, o null si no se conoce.
+     * @return El responsable asignado.
+     */
+    public UsuarioCategoria asignar(List<UsuarioCategoria> responsables, String nombreUbicacion)
+    {
+        return this.estrategia.elegir(responsables, nombreUbicacion, this.cargaResponsablesService);
+    }
+
+    /**
+     * Asigna el responsable de una incidencia de un lote, teniendo en cuenta las ya asignadas en el lote.
+     * @param responsables Los responsables de la categoría, ordenados por email (nunca vacía).
+     * @param nombreUbicacion La ubicación de la incidencia.
+     * @param cargaLote La carga del lote, creada con {@link #crearCargaLote()}.
+     * @return El responsable asignado.
+     */
+    public UsuarioCategoria asignar(List<UsuarioCategoria> responsables, String nombreUbicacion, CargaResponsablesLote cargaLote)
+    {
+        UsuarioCategoria responsable = this.estrategia.elegir(responsables, nombreUbicacion, cargaLote);
+
+        cargaLote.anotar(nombreUbicacion, responsable.getId());
+
+        return responsable;
+    }
+
+    /**
+     * Crea la carga con la que se asigna un lote de incidencias.
+     * @return La carga del lote.
+     */
+    public CargaResponsablesLote crearCargaLote()
+    {
+        return new CargaResponsablesLote(this.cargaResponsablesService);
+    }
+}
@@ -0,0 +1,59 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+
+/**
+ * Carga de los responsables durante la asignación de un lote de incidencias.
+ * <p>
+ * El índice solo se actualiza al confirmar la transacción, así que, mientras se asigna un lote,
+ * esta vista suma a la carga confirmada las incidencias del lote ya asignadas. Sin ella, todas las
+ * incidencias del lote irían al mismo responsable. No es segura entre hilos: se usa en una sola petición.
+ * </p>
+ */
+public class CargaResponsablesLote implements ICargaResponsables
+{
+    /** Carga confirmada */
+    private final ICargaResponsables cargaConfirmada;
+
+    /** Incidencias del lote asignadas a cada responsable */
+    private final Map<UsuarioCategoriaId, Long> asignadas = new HashMap<UsuarioCategoriaId, Long>();
+
+    /** Incidencias del lote asignadas a cada responsable en cada ubicación */
+    private final Map<List<Object>, Long> asignadasPorUbicacion = new HashMap<List<Object>, Long>();
+
+    /**
+     * Constructor.
+     * @param cargaConfirmada La carga confirmada de los responsables.
+     */
+    public CargaResponsablesLote(ICargaResponsables cargaConfirmada)
+    {
+        this.cargaConfirmada = cargaConfirmada;
+    }
+
+    /**
+     * Anota una incidencia del lote asignada a un responsable.
+     * @param nombreUbicacion La ubicación de la incidencia.
+     * @param id El id del responsable.
+     */
+    public void anotar(String nombreUbicacion, UsuarioCategoriaId id)
+    {
+        this.asignadas.merge(id, 1L, Long::sum);
+        this.asignadasPorUbicacion.merge(List.of(nombreUbicacion, id), 1L, Long::sum);
+    }
+
+    @Override
+    public long contarAbiertas(UsuarioCategoriaId id)
+    {
+        return this.cargaConfirmada.contarAbiertas(id) + this.asignadas.getOrDefault(id, 0L);
+    }
+
+    @Override
+    public long contarAbiertas(String nombreUbicacion, UsuarioCategoriaId id)
+    {
+        return this.cargaConfirmada.contarAbiertas(nombreUbicacion, id) + this.asignadasPorUbicacion.getOrDefault(List.of(nombreUbicacion, id), 0L);
+    }
+}
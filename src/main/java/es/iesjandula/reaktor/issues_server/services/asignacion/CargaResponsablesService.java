@@ -0,0 +1,206 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import es.iesjandula.reaktor.issues_server.dtos.CargaResponsableDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Índice en memoria del número de incidencias abiertas de cada responsable, en total y por ubicación.
+ * <p>
+ * Se calcula al arrancar con una consulta agrupada y después lo mantienen las escrituras de
+ * {@code IncidenciaService}: cada cambio se aplica al confirmarse su transacción, de modo que una
+ * transacción deshecha no altera el índice. Cada madrugada se recalcula desde la tabla de incidencias
+ * para corregir cualquier desviación, por ejemplo por cambios hechos desde otra instancia.
+ * </p>
+ */
+@Log4j2
+@Service
+public class CargaResponsablesService implements ICargaResponsables
+{
+    /** Repositorio de incidencias */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /** Incidencias abiertas de cada responsable */
+    private volatile Map<UsuarioCategoriaId, AtomicLong> abiertas = new ConcurrentHashMap<UsuarioCategoriaId, AtomicLong>();
+
+    /** Incidencias abiertas de cada responsable en cada ubicación */
+    private volatile Map<String, Map<UsuarioCategoriaId, AtomicLong>> abiertasPorUbicacion = new ConcurrentHashMap<String, Map<UsuarioCategoriaId, AtomicLong>>();
+
+    /**
+     * Recalcula el índice desde la tabla de incidencias, al arrancar y cada madrugada.
+     */
+    @PostConstruct
+    @Scheduled(cron = "${reaktor.asignacion.recalcular_cron:0 45 3 * * *}")
+    public void recalcular()
+    {
+        Map<UsuarioCategoriaId, AtomicLong> nuevasAbiertas                     = new ConcurrentHashMap<UsuarioCategoriaId, AtomicLong>();
+        Map<String, Map<UsuarioCategoriaId, AtomicLong>> nuevasPorUbicacion = new ConcurrentHashMap<String, Map<UsuarioCategoriaId, AtomicLong>>();
+
+        for (CargaResponsableDto cargaResponsableDto : this.incidenciaRepository.contarAbiertasPorUbicacionYResponsable(Constants.ESTADOS_ABIERTOS))
+        {
+            UsuarioCategoriaId id = new UsuarioCategoriaId(cargaResponsableDto.getNombreCategoria(), cargaResponsableDto.getEmailResponsable());
+
+            this.sumar(nuevasAbiertas, nuevasPorUbicacion, cargaResponsableDto.getUbicacion(), id, cargaResponsableDto.getCantidad());
+        }
+
+        this.abiertas             = nuevasAbiertas;
+        this.abiertasPorUbicacion = nuevasPorUbicacion;
+
+        log.info("Carga de los responsables recalculada: {} responsables con incidencias abiertas", nuevasAbiertas.size());
+    }
+
+    @Override
+    public long contarAbiertas(UsuarioCategoriaId id)
+    {
+        AtomicLong cantidad = this.abiertas.get(id);
+
+        return cantidad == null ? 0 : cantidad.get();
+    }
+
+    @Override
+    public long contarAbiertas(String nombreUbicacion, UsuarioCategoriaId id)
+    {
+        Map<UsuarioCategoriaId, AtomicLong> abiertasUbicacion = this.abiertasPorUbicacion.get(nombreUbicacion);
+        AtomicLong cantidad                                   = abiertasUbicacion == null ? null : abiertasUbicacion.get(id);
+
+        return cantidad == null ? 0 : cantidad.get();
+    }
+
+    /**
+     * Suma una incidencia creada a la carga de su responsable si está abierta.
+     * @param incidencia La incidencia creada.
+     */
+    public void registrarAlta(Incidencia incidencia)
+    {
+        if (Constants.ESTADOS_ABIERTOS.contains(incidencia.getEstado()))
+        {
+            this.sumarAlConfirmar(incidencia.getUbicacion().getNombre(), incidencia.getUsuarioCategoria().getId(), 1);
+        }
+    }
+
+    /**
+     * Suma un lote de incidencias creadas a la carga de sus responsables.
+     * @param incidencias Las incidencias creadas.
+     */
+    public void registrarAltas(List<Incidencia> incidencias)
+    {
+        for (Incidencia incidencia : incidencias)
+        {
+            this.registrarAlta(incidencia);
+        }
+    }
+
+    /**
+     * Resta una incidencia eliminada de la carga de su responsable si estaba abierta.
+     * @param incidencia La incidencia eliminada.
+     */
+    public void registrarBaja(Incidencia incidencia)
+    {
+        if (Constants.ESTADOS_ABIERTOS.contains(incidencia.getEstado()))
+        {
+            this.sumarAlConfirmar(incidencia.getUbicacion().getNombre(), incidencia.getUsuarioCategoria().getId(), -1);
+        }
+    }
+
+    /**
+     * Actualiza la carga del responsable de un conjunto de incidencias que cambian de estado.
+     * @param anteriores Los datos de las incidencias antes del cambio.
+     * @param estado El nuevo estado.
+     */
+    public void registrarCambiosEstado(List<IncidenciaNotificacionDto> anteriores, String estado)
+    {
+        boolean abiertaDespues = Constants.ESTADOS_ABIERTOS.contains(estado);
+
+        for (IncidenciaNotificacionDto anterior : anteriores)
+        {
+            boolean abiertaAntes = Constants.ESTADOS_ABIERTOS.contains(anterior.getEstado());
+
+            if (abiertaAntes != abiertaDespues)
+            {
+                UsuarioCategoriaId id = new UsuarioCategoriaId(anterior.getNombreCategoria(), anterior.getEmailResponsable());
+
+                this.sumarAlConfirmar(anterior.getUbicacion(), id, abiertaDespues ? 1 : -1);
+            }
+        }
+    }
+
+    /**
+     * Mueve la carga de una incidencia abierta de su responsable anterior al nuevo.
+     * @param anterior Los datos de la incidencia antes del cambio.
+     * @param nuevoResponsable El id del nuevo responsable.
+     */
+    public void registrarCambioResponsable(IncidenciaNotificacionDto anterior, UsuarioCategoriaId nuevoResponsable)
+    {
+        UsuarioCategoriaId anteriorResponsable = new UsuarioCategoriaId(anterior.getNombreCategoria(), anterior.getEmailResponsable());
+
+        if (Constants.ESTADOS_ABIERTOS.contains(anterior.getEstado()) && !Objects.equals(anteriorResponsable, nuevoResponsable))
+        {
+            this.sumarAlConfirmar(anterior.getUbicacion(), anteriorResponsable, -1);
+            this.sumarAlConfirmar(anterior.getUbicacion(), nuevoResponsable, 1);
+        }
+    }
+
+    /**
+     * Suma una cantidad a la carga de un responsable cuando se confirme la transacción actual,
+     * o inmediatamente si no hay transacción.
+     * @param nombreUbicacion La ubicación de la incidencia.
+     * @param id El id del responsable.
+     * @param cantidad La cantidad a sumar.
+     */
+    private void sumarAlConfirmar(String nombreUbicacion, UsuarioCategoriaId id, long cantidad)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            this.sumar(this.abiertas, this.abiertasPorUbicacion, nombreUbicacion, id, cantidad);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+        {
+            @Override
+            public void afterCommit()
+            {
+                CargaResponsablesService.this.sumar(CargaResponsablesService.this.abiertas, CargaResponsablesService.this.abiertasPorUbicacion, nombreUbicacion, id, cantidad);
+            }
+        });
+    }
+
+    /**
+     * Suma una cantidad a la carga total y por ubicación de un responsable.
+     * @param abiertas Las incidencias abiertas de cada responsable.
+     * @param abiertasPorUbicacion Las incidencias abiertas de cada responsable en cada ubicación.
+     * @param nombreUbicacion La ubicación.
+     * @param id El id del responsable.
+     * @param cantidad La cantidad a sumar.
+     */
+    private void sumar(Map<UsuarioCategoriaId, AtomicLong> abiertas,
+                       Map<String, Map<UsuarioCategoriaId, AtomicLong>> abiertasPorUbicacion,
+                       String nombreUbicacion,
+                       UsuarioCategoriaId id,
+                       long cantidad)
+    {
+        abiertas.computeIfAbsent(id, clave -> new AtomicLong()).addAndGet(cantidad);
+
+        abiertasPorUbicacion.computeIfAbsent(nombreUbicacion, clave -> new ConcurrentHashMap<UsuarioCategoriaId, AtomicLong>())
+                            .computeIfAbsent(id, clave -> new AtomicLong())
+                            .addAndGet(cantidad);
+    }
+}
@@ -0,0 +1,56 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Asigna el responsable de la categoría con más incidencias abiertas en la misma ubicación, para
+ * que quien ya tiene que ir a esa ubicación resuelva también la nueva. Si nadie tiene incidencias
+ * abiertas en ella, o no se conoce la ubicación, asigna el responsable con menos incidencias abiertas.
+ */
+@Component
+public class EstrategiaAsignacionAfinidadUbicacion implements IEstrategiaAsignacion
+{
+    /** Estrategia para cuando no hay afinidad */
+    @Autowired
+    private EstrategiaAsignacionMenosAbiertas estrategiaAsignacionMenosAbiertas;
+
+    @Override
+    public String getNombre()
+    {
+        return Constants.ASIGNACION_AFINIDAD_UBICACION;
+    }
+
+    @Override
+    public UsuarioCategoria elegir(List<UsuarioCategoria> responsables, String nombreUbicacion, ICargaResponsables cargaResponsables)
+    {
+        UsuarioCategoria elegido = null;
+        long mayorCarga          = 0;
+
+        if (nombreUbicacion != null)
+        {
+            for (UsuarioCategoria responsable : responsables)
+            {
+                long carga = cargaResponsables.contarAbiertas(nombreUbicacion, responsable.getId());
+
+                if (carga > mayorCarga)
+                {
+                    elegido    = responsable;
+                    mayorCarga = carga;
+                }
+            }
+        }
+
+        if (elegido == null)
+        {
+            elegido = this.estrategiaAsignacionMenosAbiertas.elegir(responsables, nombreUbicacion, cargaResponsables);
+        }
+
+        return elegido;
+    }
+}
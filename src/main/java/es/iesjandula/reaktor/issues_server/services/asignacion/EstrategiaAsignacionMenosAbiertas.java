@@ -0,0 +1,41 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Asigna el responsable de la categoría con menos incidencias abiertas. En caso de empate, el primero por email.
+ */
+@Component
+public class EstrategiaAsignacionMenosAbiertas implements IEstrategiaAsignacion
+{
+    @Override
+    public String getNombre()
+    {
+        return Constants.ASIGNACION_MENOS_ABIERTAS;
+    }
+
+    @Override
+    public UsuarioCategoria elegir(List<UsuarioCategoria> responsables, String nombreUbicacion, ICargaResponsables cargaResponsables)
+    {
+        UsuarioCategoria elegido = null;
+        long menorCarga          = Long.MAX_VALUE;
+
+        for (UsuarioCategoria responsable : responsables)
+        {
+            long carga = cargaResponsables.contarAbiertas(responsable.getId());
+
+            if (carga < menorCarga)
+            {
+                elegido    = responsable;
+                menorCarga = carga;
+            }
+        }
+
+        return elegido;
+    }
+}
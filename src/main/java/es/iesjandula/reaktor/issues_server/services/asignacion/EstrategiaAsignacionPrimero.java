@@ -0,0 +1,27 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Asigna siempre el primer responsable de la categoría (por email). Es el comportamiento original.
+ */
+@Component
+public class EstrategiaAsignacionPrimero implements IEstrategiaAsignacion
+{
+    @Override
+    public String getNombre()
+    {
+        return Constants.ASIGNACION_PRIMERO;
+    }
+
+    @Override
+    public UsuarioCategoria elegir(List<UsuarioCategoria> responsables, String nombreUbicacion, ICargaResponsables cargaResponsables)
+    {
+        return responsables.get(0);
+    }
+}
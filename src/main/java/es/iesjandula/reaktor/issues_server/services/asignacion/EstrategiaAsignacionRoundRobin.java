@@ -0,0 +1,38 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Asigna por turnos los responsables de cada categoría, con un turno independiente por categoría.
+ * Los turnos se guardan en memoria y empiezan de cero al arrancar.
+ */
+@Component
+public class EstrategiaAsignacionRoundRobin implements IEstrategiaAsignacion
+{
+    /** Siguiente turno de cada categoría */
+    private final Map<String, AtomicInteger> turnos = new ConcurrentHashMap<String, AtomicInteger>();
+
+    @Override
+    public String getNombre()
+    {
+        return Constants.ASIGNACION_ROUND_ROBIN;
+    }
+
+    @Override
+    public UsuarioCategoria elegir(List<UsuarioCategoria> responsables, String nombreUbicacion, ICargaResponsables cargaResponsables)
+    {
+        String nombreCategoria = responsables.get(0).getId().getNombreCategoria();
+        int turno              = this.turnos.computeIfAbsent(nombreCategoria, categoria -> new AtomicInteger()).getAndIncrement();
+
+        // Si cambia el número de responsables, el turno sigue siendo válido
+        return responsables.get(Math.floorMod(turno, responsables.size()));
+    }
+}
@@ -0,0 +1,24 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+
+/**
+ * Consulta del número de incidencias abiertas de cada responsable, que usan las estrategias de asignación.
+ */
+public interface ICargaResponsables
+{
+    /**
+     * Obtiene el número de incidencias abiertas de un responsable.
+     * @param id El id del responsable.
+     * @return El número de incidencias abiertas.
+     */
+    long contarAbiertas(UsuarioCategoriaId id);
+
+    /**
+     * Obtiene el número de incidencias abiertas de un responsable en una ubicación.
+     * @param nombreUbicacion El nombre de la ubicación.
+     * @param id El id del responsable.
+     * @return El número de incidencias abiertas en la ubicación.
+     */
+    long contarAbiertas(String nombreUbicacion, UsuarioCategoriaId id);
+}
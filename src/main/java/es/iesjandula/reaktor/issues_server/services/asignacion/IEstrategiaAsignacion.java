@@ -0,0 +1,30 @@
+package es.iesjandula.reaktor.issues_server.services.asignacion;
+
+import java.util.List;
+
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+
+/**
+ * Estrategia para elegir el responsable al que se asigna una incidencia entre los de su categoría.
+ * <p>
+ * Las implementaciones se registran como componentes de Spring y se eligen por su nombre con la
+ * propiedad {@code reaktor.asignacion.estrategia}. No deben consultar la base de datos: la carga
+ * de cada responsable se lee del índice en memoria.
+ * </p>
+ */
+public interface IEstrategiaAsignacion
+{
+    /**
+     * @return El nombre con el que se configura la estrategia.
+     */
+    String getNombre();
+
+    /**
+     * Elige el responsable de una incidencia.
+     * @param responsables Los responsables de la categoría, ordenados por email (nunca vacía).
+     * @param nombreUbicacion La ubicación de la incidencia, o null si no se conoce.
+     * @param cargaResponsables La carga actual de los responsables.
+     * @return El responsable elegido.
+     */
+    UsuarioCategoria elegir(List<UsuarioCategoria> responsables, String nombreUbicacion, ICargaResponsables cargaResponsables);
+}
@@ -0,0 +1,42 @@
+package es.iesjandula.reaktor.issues_server.utils;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.es.SpanishLightStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Analizador de texto en español para el índice de texto completo de incidencias.
+ * <p>
+ * Pasa el texto a minúsculas, elimina las palabras vacías, pliega los acentos (así "proyector"
+ * encuentra "proyéctor" y "calefacción" encuentra "calefaccion") y reduce cada palabra a su raíz
+ * con un stemmer ligero para que "enchufe" y "enchufes" coincidan.
+ * </p>
+ */
+public class AnalizadorTextoEspanol extends Analyzer
+{
+	@Override
+	protected TokenStreamComponents createComponents(String fieldName)
+	{
+		Tokenizer tokenizer = new StandardTokenizer();
+
+		// Las palabras vacías se eliminan antes de plegar los acentos, ya que la lista los incluye
+		TokenStream tokenStream = new LowerCaseFilter(tokenizer);
+		tokenStream = new StopFilter(tokenStream, SpanishAnalyzer.getDefaultStopSet());
+		tokenStream = new ASCIIFoldingFilter(tokenStream);
+		tokenStream = new SpanishLightStemFilter(tokenStream);
+
+		return new TokenStreamComponents(tokenizer, tokenStream);
+	}
+
+	@Override
+	protected TokenStream normalize(String fieldName, TokenStream in)
+	{
+		return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+	}
+}
@@ -50,6 +50,28 @@ public final class Constants
 	/** Lista de estados válidos */
 	public final static List<String> ESTADOS_VALIDOS = Arrays.asList(ESTADO_PENDIENTE, ESTADO_EN_PROGRESO, ESTADO_CANCELADA, ESTADO_RESUELTA, ESTADO_DUPLICADA);
 
+	/** Lista de estados en los que la incidencia sigue abierta (cuentan como carga de su responsable) */
+	public final static List<String> ESTADOS_ABIERTOS = Arrays.asList(ESTADO_PENDIENTE, ESTADO_EN_PROGRESO);
+
+	/** Lista de estados finales (las incidencias de un curso cerrado en estos estados se pueden archivar) */
+	public final static List<String> ESTADOS_FINALES = Arrays.asList(ESTADO_CANCELADA, ESTADO_RESUELTA, ESTADO_DUPLICADA);
+
+	/********************************************/
+	/************** Paginación ******************/
+	/********************************************/
+
+	/** Tamaño de página por defecto en la paginación por cursor */
+	public static final int TAMANIO_PAGINA_CURSOR_DEFECTO = 20;
+
+	/** Tamaño de página máximo en la paginación por cursor */
+	public static final int TAMANIO_PAGINA_CURSOR_MAXIMO = 100;
+
+	/** Número máximo de elementos en una operación en lote */
+	public static final int TAMANIO_LOTE_MAXIMO = 500;
+
+	/** Número máximo de intentos de una actualización cuando otro usuario modifica la incidencia a la vez */
+	public static final int INTENTOS_ACTUALIZACION_INCIDENCIA = 3;
+
 	/********************************************/
 	/**************** Errores *******************/
 	/********************************************/
@@ -127,6 +149,9 @@ public final class Constants
 	/** Error de usuario categoría no encontrada - Mensaje */
 	public final static String ERR_USUARIO_CATEGORIA_NO_ENCONTRADA_MESSAGE = "No se encontró ningún responsable para la categoría.";
 
+	/** Error de usuario categoría no borrable - Codigo */
+	public final static int ERR_USUARIO_CATEGORIA_NO_BORRABLE_CODE = 404;
+
 	/********************************************/
 	/********** Errores de Incidencias **********/
 	/********************************************/
@@ -191,6 +216,48 @@ public final class Constants
 	/** Error de incidencia estado no válido - Mensaje */
 	public final static String ERR_INCIDENCIA_ESTADO_NO_VALIDO_MESSAGE = "El estado de la incidencia no es válido.";
 
+	/** Error de cursor de paginación no válido - Código */
+	public final static int ERR_CURSOR_NO_VALIDO_CODE = 511;
+
+	/** Error de cursor de paginación no válido - Mensaje */
+	public final static String ERR_CURSOR_NO_VALIDO_MESSAGE = "El cursor de paginación no es válido.";
+
+	/** Error de búsqueda con fecha no válida - Código */
+	public final static int ERR_BUSQUEDA_FECHA_NO_VALIDA_CODE = 512;
+
+	/** Error de búsqueda con fecha no válida - Mensaje */
+	public final static String ERR_BUSQUEDA_FECHA_NO_VALIDA_MESSAGE = "La fecha del filtro de búsqueda no es válida (yyyy-MM-dd o yyyy-MM-ddTHH:mm).";
+
+	/** Error de lote de incidencias vacío o demasiado grande - Código */
+	public final static int ERR_LOTE_NO_VALIDO_CODE = 513;
+
+	/** Error de lote de incidencias vacío o demasiado grande - Mensaje */
+	public final static String ERR_LOTE_NO_VALIDO_MESSAGE = "El lote debe contener entre 1 y " + Constants.TAMANIO_LOTE_MAXIMO + " elementos.";
+
+	/** Error de actualización en lote sin cambios - Código */
+	public final static int ERR_LOTE_SIN_CAMBIOS_CODE = 514;
+
+	/** Error de actualización en lote sin cambios - Mensaje */
+	public final static String ERR_LOTE_SIN_CAMBIOS_MESSAGE = "La actualización en lote debe indicar un estado o una solución.";
+
+	/** Error de actualización en lote sin incidencias - Código */
+	public final static int ERR_LOTE_SIN_INCIDENCIAS_CODE = 515;
+
+	/** Error de actualización en lote sin incidencias - Mensaje */
+	public final static String ERR_LOTE_SIN_INCIDENCIAS_MESSAGE = "La actualización en lote debe indicar los ids o un filtro de incidencias, pero no ambos.";
+
+	/** Error de versión de incidencia no válida en If-Match - Código */
+	public final static int ERR_INCIDENCIA_VERSION_NO_VALIDA_CODE = 516;
+
+	/** Error de versión de incidencia no válida en If-Match - Mensaje */
+	public final static String ERR_INCIDENCIA_VERSION_NO_VALIDA_MESSAGE = "La versión de la incidencia indicada en If-Match no es válida.";
+
+	/** Error de incidencia modificada por otro usuario - Código */
+	public final static int ERR_INCIDENCIA_VERSION_CONFLICTO_CODE = 517;
+
+	/** Error de incidencia modificada por otro usuario - Mensaje */
+	public final static String ERR_INCIDENCIA_VERSION_CONFLICTO_MESSAGE = "La incidencia ha sido modificada por otro usuario. Vuelve a cargarla e inténtalo de nuevo.";
+
 	/********************************************/
 	/********** Errores de PDF ******************/
 	/********************************************/
@@ -201,6 +268,192 @@ public final class Constants
 	/** Error de PDF no generado - Mensaje */
 	public final static String ERR_PDF_NO_GENERADO_MESSAGE = "No se ha podido generar el PDF.";
 
+	/********************************************/
+	/********* Errores de Exportación ***********/
+	/********************************************/
+
+	/** Error de exportación curso académico no informado - Código */
+	public final static int ERR_EXPORTACION_CURSO_NO_INFORMADO_CODE = 700;
+
+	/** Error de exportación curso académico no informado - Mensaje */
+	public final static String ERR_EXPORTACION_CURSO_NO_INFORMADO_MESSAGE = "El curso académico a exportar es obligatorio.";
+
+	/** Error de exportación formato no válido - Código */
+	public final static int ERR_EXPORTACION_FORMATO_NO_VALIDO_CODE = 701;
+
+	/** Error de exportación formato no válido - Mensaje */
+	public final static String ERR_EXPORTACION_FORMATO_NO_VALIDO_MESSAGE = "El formato de exportación no es válido (csv o jsonl).";
+
+	/********************************************/
+	/******** Errores de Estadísticas ***********/
+	/********************************************/
+
+	/** Error de estadísticas dimensión no válida - Código */
+	public final static int ERR_ESTADISTICAS_DIMENSION_NO_VALIDA_CODE = 800;
+
+	/** Error de estadísticas dimensión no válida - Mensaje */
+	public final static String ERR_ESTADISTICAS_DIMENSION_NO_VALIDA_MESSAGE = "La dimensión no es válida (categoria o ubicacion).";
+
+	/** Error de estadísticas periodo no válido - Código */
+	public final static int ERR_ESTADISTICAS_PERIODO_NO_VALIDO_CODE = 801;
+
+	/** Error de estadísticas periodo no válido - Mensaje */
+	public final static String ERR_ESTADISTICAS_PERIODO_NO_VALIDO_MESSAGE = "El periodo no es válido (dia, semana o mes).";
+
+	/** Error de estadísticas rango de fechas no válido - Código */
+	public final static int ERR_ESTADISTICAS_RANGO_NO_VALIDO_CODE = 802;
+
+	/** Error de estadísticas rango de fechas no válido - Mensaje */
+	public final static String ERR_ESTADISTICAS_RANGO_NO_VALIDO_MESSAGE = "El rango de fechas no es válido (formato yyyy-MM-dd y desde anterior o igual a hasta).";
+
+	/********************************************/
+	/********* Errores de Importación ***********/
+	/********************************************/
+
+	/** Error de importación fichero no válido - Código */
+	public final static int ERR_IMPORTACION_FICHERO_NO_VALIDO_CODE = 900;
+
+	/** Error de importación fichero no válido - Mensaje */
+	public final static String ERR_IMPORTACION_FICHERO_NO_VALIDO_MESSAGE = "El fichero CSV no es válido o no contiene las columnas obligatorias: ";
+
+	/** Error de importación campo obligatorio - Código */
+	public final static int ERR_IMPORTACION_CAMPO_OBLIGATORIO_CODE = 901;
+
+	/** Error de importación campo obligatorio - Mensaje */
+	public final static String ERR_IMPORTACION_CAMPO_OBLIGATORIO_MESSAGE = "Falta un campo obligatorio: ";
+
+	/** Error de importación fecha no válida - Código */
+	public final static int ERR_IMPORTACION_FECHA_NO_VALIDA_CODE = 902;
+
+	/** Error de importación fecha no válida - Mensaje */
+	public final static String ERR_IMPORTACION_FECHA_NO_VALIDA_MESSAGE = "La fecha no es válida (dd/MM/yyyy HH:mm o yyyy-MM-ddTHH:mm).";
+
+	/** Error de importación responsable no encontrado - Código */
+	public final static int ERR_IMPORTACION_RESPONSABLE_NO_ENCONTRADO_CODE = 903;
+
+	/** Error de importación responsable no encontrado - Mensaje */
+	public final static String ERR_IMPORTACION_RESPONSABLE_NO_ENCONTRADO_MESSAGE = "El responsable no existe para la categoría indicada.";
+
+	/** Error de importación bloque no guardado - Código */
+	public final static int ERR_IMPORTACION_BLOQUE_NO_GUARDADO_CODE = 904;
+
+	/** Error de importación bloque no guardado - Mensaje */
+	public final static String ERR_IMPORTACION_BLOQUE_NO_GUARDADO_MESSAGE = "No se ha podido guardar el bloque de filas que contiene esta línea.";
+
+	/********************************************/
+	/*********** Errores de Caché ***************/
+	/********************************************/
+
+	/** Error de caché métricas deshabilitadas - Código */
+	public final static int ERR_CACHE_METRICAS_DESHABILITADAS_CODE = 1000;
+
+	/** Error de caché métricas deshabilitadas - Mensaje */
+	public final static String ERR_CACHE_METRICAS_DESHABILITADAS_MESSAGE = "Las métricas de la caché están deshabilitadas (reaktor.cache.estadisticas).";
+
+	/********************************************/
+	/************* Importación CSV **************/
+	/********************************************/
+
+	/** Número de filas que se validan y guardan juntas */
+	public static final int TAMANIO_BLOQUE_IMPORTACION = 500;
+
+	/** Número máximo de errores de línea que se devuelven en el resultado */
+	public static final int MAXIMO_ERRORES_IMPORTACION = 1000;
+
+	/********************************************/
+	/******* Asignación de responsables *********/
+	/********************************************/
+
+	/** Estrategia de asignación - Primer responsable de la categoría por email */
+	public static final String ASIGNACION_PRIMERO = "primero";
+
+	/** Estrategia de asignación - Responsables de la categoría por turnos */
+	public static final String ASIGNACION_ROUND_ROBIN = "round_robin";
+
+	/** Estrategia de asignación - Responsable con menos incidencias abiertas */
+	public static final String ASIGNACION_MENOS_ABIERTAS = "menos_abiertas";
+
+	/** Estrategia de asignación - Responsable con más incidencias abiertas en la misma ubicación */
+	public static final String ASIGNACION_AFINIDAD_UBICACION = "afinidad_ubicacion";
+
+	/********************************************/
+	/********* Caché de segundo nivel ***********/
+	/********************************************/
+
+	/** Región de caché de las ubicaciones */
+	public static final String REGION_CACHE_UBICACION = "ubicacion";
+
+	/** Región de caché de las categorías */
+	public static final String REGION_CACHE_CATEGORIA = "categoria";
+
+	/** Región de caché de los responsables de categoría (entidades y colección de cada categoría) */
+	public static final String REGION_CACHE_USUARIO_CATEGORIA = "usuario_categoria";
+
+	/** Regiones de caché de los datos de referencia (declaradas con su tamaño máximo en application.conf) */
+	public static final List<String> REGIONES_CACHE_DATOS_REFERENCIA = List.of(REGION_CACHE_UBICACION,
+																			   REGION_CACHE_CATEGORIA,
+																			   REGION_CACHE_USUARIO_CATEGORIA);
+
+	/********************************************/
+	/********** Formatos de exportación *********/
+	/********************************************/
+
+	/** Formato de exportación CSV */
+	public static final String FORMATO_EXPORTACION_CSV = "csv";
+
+	/** Formato de exportación JSON Lines */
+	public static final String FORMATO_EXPORTACION_JSONL = "jsonl";
+
+	/********************************************/
+	/********* Contadores de estadísticas *******/
+	/********************************************/
+
+	/** Dimensión de los contadores - Categoría */
+	public static final String DIMENSION_CATEGORIA = "CATEGORIA";
+
+	/** Dimensión de los contadores - Estado */
+	public static final String DIMENSION_ESTADO = "ESTADO";
+
+	/** Dimensión de los contadores - Ubicación */
+	public static final String DIMENSION_UBICACION = "UBICACION";
+
+	/** Número de franjas en las que se reparte cada contador */
+	public static final int NUMERO_FRANJAS_CONTADOR = 8;
+
+	/** Número de diferencias que la reconciliación de estadísticas aplica en cada transacción */
+	public static final int TAMANIO_BLOQUE_RECONCILIACION = 500;
+
+	/** Periodo de agrupación de la tendencia - Día */
+	public static final String PERIODO_DIA = "dia";
+
+	/** Periodo de agrupación de la tendencia - Semana (de lunes a domingo) */
+	public static final String PERIODO_SEMANA = "semana";
+
+	/** Periodo de agrupación de la tendencia - Mes */
+	public static final String PERIODO_MES = "mes";
+
+	/********************************************/
+	/******** Historial de incidencias **********/
+	/********************************************/
+
+	/** Tipo de evento del historial - Creación */
+	public static final String EVENTO_CREACION = "CREACION";
+
+	/** Tipo de evento del historial - Cambio de estado */
+	public static final String EVENTO_ESTADO = "ESTADO";
+
+	/** Tipo de evento del historial - Cambio de categoría */
+	public static final String EVENTO_CATEGORIA = "CATEGORIA";
+
+	/** Tipo de evento del historial - Cambio de solución */
+	public static final String EVENTO_SOLUCION = "SOLUCION";
+
+	/** Tipo de evento del historial - Cambio de responsable */
+	public static final String EVENTO_RESPONSABLE = "RESPONSABLE";
+
+	/** Tipo de evento del historial - Borrado */
+	public static final String EVENTO_BORRADO = "BORRADO";
+
 	/************************************************/
 	/** Plantilla y campos del PDF de desperfectos **/
 	/************************************************/
@@ -236,6 +489,9 @@ public final class Constants
 	/** Plantilla de email de solución de incidencia actualizada */
 	public static final String PLANTILLA_EMAIL_SOLUCION_INCIDENCIA_ACTUALIZADA = "solucion_incidencia_actualizada";
 
+	/** Plantilla de email con el resumen de varias notificaciones a un mismo destinatario */
+	public static final String PLANTILLA_EMAIL_RESUMEN_NOTIFICACIONES = "resumen_notificaciones";
+
 	/********************************************/
 	/********* Variables de contexto ************/
 	/********************************************/
@@ -254,4 +510,7 @@ public final class Constants
 
 	/** Variable de contexto del problema de la incidencia */
 	public static final String VARIABLE_CONTEXT_PROBLEMA       = "problema";
+
+	/** Variable de contexto de las notificaciones de un resumen */
+	public static final String VARIABLE_CONTEXT_NOTIFICACIONES = "notificaciones";
 }
@@ -0,0 +1,91 @@
+package es.iesjandula.reaktor.issues_server.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Cursor de continuación para la paginación por clave (keyset) de incidencias.
+ * <p>
+ * El cursor identifica la última fila devuelta mediante el par (fecha, id), de forma que la
+ * siguiente página se obtiene con un predicado de rango sobre el índice en lugar de un OFFSET.
+ * Se serializa en Base64 (URL-safe) para que el cliente lo trate como un valor opaco.
+ * </p>
+ */
+@Log4j2
+@Data
+@AllArgsConstructor
+public class CursorKeyset
+{
+	/** Separador entre la fecha y el id dentro del cursor */
+	private static final String SEPARADOR = "|";
+
+	/** Fecha máxima admitida por MySQL en columnas DATETIME (cursor de la primera página) */
+	private static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+	/**
+	 * Fecha de la última fila devuelta.
+	 */
+	private LocalDateTime fecha;
+
+	/**
+	 * ID de la última fila devuelta.
+	 */
+	private Long id;
+
+	/**
+	 * Crea el cursor de la primera página (posición anterior a cualquier fila).
+	 * @return El cursor inicial.
+	 */
+	public static CursorKeyset inicial()
+	{
+		return new CursorKeyset(FECHA_MAXIMA, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Codifica el cursor como una cadena opaca.
+	 * @return El cursor codificado.
+	 */
+	public String codificar()
+	{
+		String cursor = this.fecha.toString() + SEPARADOR + this.id;
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodifica un cursor recibido del cliente. Si no se informa, se devuelve el cursor inicial.
+	 * @param cursor El cursor codificado.
+	 * @return El cursor decodificado.
+	 * @throws IssuesServerError si el cursor no es válido
+	 */
+	public static CursorKeyset decodificar(String cursor) throws IssuesServerError
+	{
+		// Si no hay cursor, empezamos por la primera página
+		if (cursor == null || cursor.isEmpty())
+		{
+			return CursorKeyset.inicial();
+		}
+
+		try
+		{
+			String decodificado = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+			int posicionSeparador = decodificado.lastIndexOf(SEPARADOR);
+
+			LocalDateTime fecha = LocalDateTime.parse(decodificado.substring(0, posicionSeparador));
+			Long id             = Long.valueOf(decodificado.substring(posicionSeparador + 1));
+
+			return new CursorKeyset(fecha, id);
+		}
+		catch (Exception exception)
+		{
+			log.error(Constants.ERR_CURSOR_NO_VALIDO_MESSAGE, exception);
+			throw new IssuesServerError(Constants.ERR_CURSOR_NO_VALIDO_CODE, Constants.ERR_CURSOR_NO_VALIDO_MESSAGE, exception);
+		}
+	}
+}
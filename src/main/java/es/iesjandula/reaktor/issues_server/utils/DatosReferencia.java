@@ -0,0 +1,45 @@
+package es.iesjandula.reaktor.issues_server.utils;
+
+import java.util.List;
+import java.util.Map;
+
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Instantánea inmutable de los datos de referencia: ubicaciones, categorías y responsables.
+ * <p>
+ * Se construye completa y se publica de una vez, por lo que puede leerse desde varios hilos sin
+ * bloqueos. Las entidades que contiene están desconectadas de la base de datos y se comparten
+ * entre peticiones: se pueden asignar a una incidencia, pero no deben modificarse.
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public class DatosReferencia
+{
+	/** Ubicaciones por nombre */
+	private final Map<String, Ubicacion> ubicaciones;
+
+	/** Categorías por nombre */
+	private final Map<String, Categoria> categorias;
+
+	/** Responsables por id */
+	private final Map<UsuarioCategoriaId, UsuarioCategoria> responsables;
+
+	/** Responsables de cada categoría ordenados por email */
+	private final Map<String, List<UsuarioCategoria>> responsablesPorCategoria;
+
+	/** Ubicaciones ordenadas por nombre, serializadas en JSON */
+	private final byte[] ubicacionesJson;
+
+	/** Categorías ordenadas por nombre, serializadas en JSON */
+	private final byte[] categoriasJson;
+
+	/** Responsables ordenados por categoría y email, serializados en JSON */
+	private final byte[] responsablesJson;
+}
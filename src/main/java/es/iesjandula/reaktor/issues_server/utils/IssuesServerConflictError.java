@@ -0,0 +1,23 @@
+package es.iesjandula.reaktor.issues_server.utils;
+
+/**
+ * Error de una actualización condicional: la incidencia ya no tiene la versión indicada
+ * porque otro usuario la ha modificado. Los controladores lo devuelven con el código HTTP 412.
+ */
+public class IssuesServerConflictError extends IssuesServerError
+{
+	/**
+	 * Auto-generated ID
+	 */
+	private static final long serialVersionUID = -3790151846724139521L;
+
+	/***
+	 * Constructor sin la Excepción
+	 * @param code Código del error
+	 * @param message Mensaje del error
+	 */
+	public IssuesServerConflictError(int code, String message)
+	{
+		super(code, message);
+	}
+}
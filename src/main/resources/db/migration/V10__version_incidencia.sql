@@ -0,0 +1,9 @@
+-- Versión de cada incidencia para el control de concurrencia optimista.
+--
+-- Cada actualización incrementa la versión y solo se aplica si la versión leída sigue
+-- siendo la actual (comparar y asignar), así que dos administradores que editan la misma
+-- incidencia a la vez no se pisan los cambios sin que ninguno espere por un bloqueo.
+-- La API la expone como ETag y la acepta en la cabecera If-Match.
+
+ALTER TABLE incidencia
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,29 @@
+-- Archivo de incidencias de cursos académicos cerrados (separación de datos calientes y fríos).
+--
+-- Casi todas las consultas trabajan con el curso en vigor. Cuando todas las incidencias de un
+-- curso anterior están en un estado final, la tarea de archivo las mueve aquí por bloques, así
+-- que la tabla incidencia y sus índices solo crecen con el curso actual. Solo se consulta esta
+-- tabla cuando se pide un curso anterior (exportación y estadísticas).
+--
+-- No tiene claves ajenas: guarda los nombres de la ubicación, la categoría y el responsable tal
+-- y como estaban al archivar, para que el histórico no dependa de los datos de referencia.
+
+CREATE TABLE incidencia_archivo
+(
+    id                 BIGINT       NOT NULL,
+    curso_academico    VARCHAR(255) NOT NULL,
+    ubicacion          VARCHAR(255) NOT NULL,
+    email              VARCHAR(255) NOT NULL,
+    nombre             VARCHAR(255) NOT NULL,
+    apellidos          VARCHAR(255) NOT NULL,
+    fecha              DATETIME(6)  NOT NULL,
+    problema           TEXT,
+    estado             VARCHAR(255),
+    solucion           TEXT,
+    nombre_categoria   VARCHAR(255) NOT NULL,
+    email_responsable  VARCHAR(255) NOT NULL,
+    nombre_responsable VARCHAR(255),
+    version            BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_incidencia_archivo_curso_fecha (curso_academico, fecha)
+) ENGINE = InnoDB;
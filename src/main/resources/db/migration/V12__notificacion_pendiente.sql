@@ -0,0 +1,22 @@
+-- Bandeja de salida de las notificaciones email de las incidencias.
+--
+-- Cada notificación se inserta en la misma transacción que el cambio de la incidencia y un proceso
+-- en segundo plano la envía y la borra. Si el envío falla, se reintenta más tarde con una espera
+-- que se duplica en cada intento; tras el número máximo de intentos se marca como fallida y se
+-- conserva para revisarla. El índice (fallida, siguiente_intento) sirve la búsqueda de las
+-- notificaciones que toca enviar.
+
+CREATE TABLE notificacion_pendiente
+(
+    id                BIGINT        NOT NULL AUTO_INCREMENT,
+    destinatario      VARCHAR(255)  NOT NULL,
+    asunto            VARCHAR(1000) NOT NULL,
+    cuerpo            MEDIUMTEXT    NOT NULL,
+    fecha_creacion    DATETIME(6)   NOT NULL,
+    intentos          INT           NOT NULL DEFAULT 0,
+    siguiente_intento DATETIME(6)   NOT NULL,
+    fallida           BOOLEAN       NOT NULL DEFAULT FALSE,
+    ultimo_error      VARCHAR(1000),
+    PRIMARY KEY (id),
+    INDEX idx_notificacion_pendiente_despacho (fallida, siguiente_intento)
+) ENGINE = InnoDB;
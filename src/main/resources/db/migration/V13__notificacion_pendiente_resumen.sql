@@ -0,0 +1,14 @@
+-- Datos de cada notificación para agruparla con las demás del mismo destinatario en un resumen.
+--
+-- Las notificaciones esperan una ventana antes de enviarse; las de un mismo destinatario que se
+-- juntan en ella se envían en un único email. El tipo es el del evento del historial (CREACION,
+-- ESTADO o SOLUCION) y el detalle, el problema, el nuevo estado o la nueva solución. Las filas sin
+-- tipo (anteriores a esta migración) se envían solas. El índice sirve la búsqueda por destinatario.
+
+ALTER TABLE notificacion_pendiente
+    ADD COLUMN tipo           VARCHAR(20)  NULL,
+    ADD COLUMN incidencia_id  BIGINT       NULL,
+    ADD COLUMN ubicacion      VARCHAR(255) NULL,
+    ADD COLUMN nombre_usuario VARCHAR(255) NULL,
+    ADD COLUMN detalle        MEDIUMTEXT   NULL,
+    ADD INDEX idx_notificacion_pendiente_destinatario (destinatario, fallida, siguiente_intento);
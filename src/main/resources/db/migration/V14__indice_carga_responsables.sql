@@ -0,0 +1,7 @@
+-- Índice para la carga de los responsables (contarAbiertasPorUbicacionYResponsable).
+--
+-- Al arrancar, CargaResponsablesService cuenta las incidencias abiertas de cada responsable en
+-- cada ubicación. Sin este índice la consulta recorre la tabla completa para quedarse con las
+-- pocas incidencias abiertas; con él solo lee el rango de los estados abiertos. Las columnas de
+-- agrupación no caben junto al estado en una misma clave de InnoDB con utf8mb4 (3072 bytes).
+CREATE INDEX idx_incidencia_estado ON incidencia (estado);
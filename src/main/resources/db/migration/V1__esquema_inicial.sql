@@ -0,0 +1,47 @@
+-- Esquema inicial del servidor de incidencias.
+--
+-- Reproduce las tablas que hasta ahora creaba Hibernate con "ddl-auto: update".
+-- En las instalaciones existentes (esquema no vacío) Flyway marca esta versión
+-- como línea base y no la ejecuta (spring.flyway.baseline-version = 1).
+
+CREATE TABLE IF NOT EXISTS categoria
+(
+    nombre           VARCHAR(255) NOT NULL,
+    imprimir_informe BIT(1),
+    PRIMARY KEY (nombre)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS ubicacion
+(
+    nombre VARCHAR(255) NOT NULL,
+    PRIMARY KEY (nombre)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS usuario_categoria
+(
+    nombre_categoria   VARCHAR(255) NOT NULL,
+    email_responsable  VARCHAR(255) NOT NULL,
+    nombre_responsable VARCHAR(255),
+    PRIMARY KEY (nombre_categoria, email_responsable),
+    CONSTRAINT fk_usuario_categoria_categoria FOREIGN KEY (nombre_categoria) REFERENCES categoria (nombre)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS incidencia
+(
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    curso_academico   VARCHAR(255) NOT NULL,
+    ubicacion         VARCHAR(255) NOT NULL,
+    email             VARCHAR(255) NOT NULL,
+    nombre            VARCHAR(255) NOT NULL,
+    apellidos         VARCHAR(255) NOT NULL,
+    fecha             DATETIME(6)  NOT NULL,
+    problema          TEXT,
+    estado            VARCHAR(255),
+    solucion          TEXT,
+    nombre_categoria  VARCHAR(255) NOT NULL,
+    email_responsable VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_incidencia_ubicacion FOREIGN KEY (ubicacion) REFERENCES ubicacion (nombre),
+    CONSTRAINT fk_incidencia_usuario_categoria FOREIGN KEY (nombre_categoria, email_responsable)
+        REFERENCES usuario_categoria (nombre_categoria, email_responsable)
+) ENGINE = InnoDB;
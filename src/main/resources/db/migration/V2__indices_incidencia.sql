@@ -0,0 +1,18 @@
+-- Índices de la tabla incidencia alineados con las consultas de IIncidenciaRepository.
+--
+-- InnoDB añade la clave primaria (id) al final de cada índice secundario, por lo que
+-- los índices que terminan en "fecha" también sirven para ordenar por (fecha, id).
+
+-- Listado del administrador (buscarIncidenciaOrdenadaFechaPorAdmin y su variante por cursor)
+CREATE INDEX idx_incidencia_fecha ON incidencia (fecha);
+
+-- Listado del profesor (buscarIncidenciaOrdenadaFechaPorUsuario): el OR entre creador y
+-- responsable se resuelve con una unión de índices (index_merge) sobre estos dos índices
+CREATE INDEX idx_incidencia_email_fecha ON incidencia (email, fecha);
+CREATE INDEX idx_incidencia_responsable_fecha ON incidencia (email_responsable, fecha);
+
+-- Estadísticas por curso académico (obtenerEstadisticasPorCategoria/Estado/Ubicacion):
+-- índices de cobertura que permiten agrupar sin leer las filas
+CREATE INDEX idx_incidencia_curso_categoria ON incidencia (curso_academico, nombre_categoria);
+CREATE INDEX idx_incidencia_curso_estado ON incidencia (curso_academico, estado);
+CREATE INDEX idx_incidencia_curso_ubicacion ON incidencia (curso_academico, ubicacion);
@@ -0,0 +1,3 @@
+-- Índice para la exportación de un curso académico completo (exportarIncidenciasPorCursoAcademico):
+-- permite recorrer las filas del curso ya ordenadas por (fecha, id) sin ordenar en el servidor.
+CREATE INDEX idx_incidencia_curso_fecha ON incidencia (curso_academico, fecha);
@@ -0,0 +1,34 @@
+-- Contadores de estadísticas de incidencias mantenidos en escritura.
+--
+-- Cada contador se identifica por (curso_academico, dimension, valor) y se reparte en
+-- varias franjas para que los incrementos concurrentes no compitan por la misma fila.
+-- El total de un valor es la suma de sus franjas.
+--
+-- Dimensiones: CATEGORIA, ESTADO y UBICACION.
+
+CREATE TABLE estadistica_contador
+(
+    curso_academico VARCHAR(255) NOT NULL,
+    dimension       VARCHAR(20)  NOT NULL,
+    valor           VARCHAR(255) NOT NULL,
+    franja          INT          NOT NULL,
+    cantidad        BIGINT       NOT NULL,
+    PRIMARY KEY (curso_academico, dimension, valor, franja)
+) ENGINE = InnoDB;
+
+-- Carga inicial desde las incidencias existentes (en la franja 0)
+INSERT INTO estadistica_contador (curso_academico, dimension, valor, franja, cantidad)
+SELECT curso_academico, 'CATEGORIA', nombre_categoria, 0, COUNT(*)
+FROM incidencia
+GROUP BY curso_academico, nombre_categoria;
+
+INSERT INTO estadistica_contador (curso_academico, dimension, valor, franja, cantidad)
+SELECT curso_academico, 'ESTADO', estado, 0, COUNT(*)
+FROM incidencia
+WHERE estado IS NOT NULL
+GROUP BY curso_academico, estado;
+
+INSERT INTO estadistica_contador (curso_academico, dimension, valor, franja, cantidad)
+SELECT curso_academico, 'UBICACION', ubicacion, 0, COUNT(*)
+FROM incidencia
+GROUP BY curso_academico, ubicacion;
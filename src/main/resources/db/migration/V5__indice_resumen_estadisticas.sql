@@ -0,0 +1,7 @@
+-- Índice para el resumen de estadísticas (obtenerEstadisticasPorCelda): la agrupación por
+-- (ubicacion, nombre_categoria, estado) de un curso lee sus filas en el orden de las dos
+-- primeras columnas de agrupación.
+--
+-- Con utf8mb4 cada VARCHAR(255) ocupa hasta 1020 bytes en la clave y InnoDB admite como máximo
+-- 3072, así que el estado no cabe en el índice y se lee de la fila.
+CREATE INDEX idx_incidencia_curso_resumen ON incidencia (curso_academico, ubicacion, nombre_categoria);
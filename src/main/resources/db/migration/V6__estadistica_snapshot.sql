@@ -0,0 +1,13 @@
+-- Instantáneas de estadísticas de los cursos académicos cerrados.
+--
+-- Cuando un curso ha terminado, sus estadísticas (todos los desgloses y el desglose
+-- mensual) se calculan una sola vez y se guardan aquí en JSON. Las filas no se
+-- modifican nunca: se insertan con INSERT IGNORE y después solo se leen.
+
+CREATE TABLE estadistica_snapshot
+(
+    curso_academico VARCHAR(255) NOT NULL,
+    fecha_creacion  DATETIME(6)  NOT NULL,
+    contenido       LONGTEXT     NOT NULL,
+    PRIMARY KEY (curso_academico)
+) ENGINE = InnoDB;
@@ -0,0 +1,25 @@
+-- Agregados diarios de incidencias por categoría y ubicación.
+--
+-- Se mantienen en escritura (alta, cambio de categoría y borrado de incidencias) y
+-- sirven para calcular tendencias por día, semana o mes sumando filas de esta tabla
+-- en lugar de recorrer rangos de fechas de la tabla incidencia.
+
+CREATE TABLE estadistica_diaria
+(
+    dia       DATE         NOT NULL,
+    dimension VARCHAR(20)  NOT NULL,
+    valor     VARCHAR(255) NOT NULL,
+    cantidad  BIGINT       NOT NULL,
+    PRIMARY KEY (dimension, dia, valor)
+) ENGINE = InnoDB;
+
+-- Carga inicial desde las incidencias existentes
+INSERT INTO estadistica_diaria (dia, dimension, valor, cantidad)
+SELECT DATE(fecha), 'CATEGORIA', nombre_categoria, COUNT(*)
+FROM incidencia
+GROUP BY DATE(fecha), nombre_categoria;
+
+INSERT INTO estadistica_diaria (dia, dimension, valor, cantidad)
+SELECT DATE(fecha), 'UBICACION', ubicacion, COUNT(*)
+FROM incidencia
+GROUP BY DATE(fecha), ubicacion;
@@ -0,0 +1,18 @@
+-- Historial de cambios de las incidencias (solo se insertan filas, nunca se modifican).
+--
+-- No tiene clave ajena hacia incidencia para que el historial se conserve aunque la
+-- incidencia se borre. El índice (incidencia_id, id) sirve la línea de tiempo de una
+-- incidencia paginada por id.
+
+CREATE TABLE incidencia_evento
+(
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    incidencia_id  BIGINT       NOT NULL,
+    fecha          DATETIME(6)  NOT NULL,
+    tipo           VARCHAR(20)  NOT NULL,
+    valor_anterior TEXT,
+    valor_nuevo    TEXT,
+    email_usuario  VARCHAR(255),
+    PRIMARY KEY (id),
+    INDEX idx_incidencia_evento_incidencia (incidencia_id, id)
+) ENGINE = InnoDB;
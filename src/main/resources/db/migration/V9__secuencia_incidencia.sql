@@ -0,0 +1,16 @@
+-- Generador de ids de incidencia por bloques (pooled) para poder insertar en lote.
+--
+-- Con GenerationType.IDENTITY Hibernate tiene que insertar cada incidencia por separado
+-- para conocer su id. Con este generador reserva bloques de 50 ids con una sola
+-- actualización de esta tabla y agrupa los INSERT en lotes JDBC.
+--
+-- El optimizador "pooled" usa el rango (next_val - 49 .. next_val), por lo que el valor
+-- inicial debe quedar 50 posiciones por encima del mayor id existente.
+
+CREATE TABLE incidencia_seq
+(
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO incidencia_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 50 FROM incidencia;
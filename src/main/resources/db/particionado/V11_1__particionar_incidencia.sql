@@ -0,0 +1,40 @@
+-- Particionado opcional de la tabla incidencia por curso académico.
+--
+-- Alternativa al archivo (V11) para mantener todos los cursos en línea. Esta migración solo se
+-- aplica si se añade classpath:db/particionado a spring.flyway.locations (con out-of-order: true
+-- si ya se han aplicado migraciones posteriores), junto con reaktor.particionado.habilitado: true.
+--
+-- Cada curso ocupa una partición RANGE COLUMNS sobre curso_academico, de modo que las consultas
+-- que filtran por curso (estadísticas, exportación y actualizaciones) solo leen su partición. La
+-- última partición llega hasta MAXVALUE para que una inserción nunca falle; al empezar un curso
+-- nuevo, ParticionesIncidenciaService la divide para que el curso estrene su propia partición.
+--
+-- MySQL exige que la clave primaria incluya la columna de particionado y no admite claves ajenas
+-- en tablas particionadas: la integridad con ubicacion y usuario_categoria pasa a comprobarse en
+-- la aplicación antes de borrar una ubicación, una categoría o un responsable.
+
+-- Las claves ajenas pueden tener el nombre de V1 o el que generó Hibernate en instalaciones antiguas
+SET @sql = (SELECT CONCAT('ALTER TABLE incidencia ', GROUP_CONCAT(CONCAT('DROP FOREIGN KEY `', CONSTRAINT_NAME, '`') SEPARATOR ', '))
+            FROM information_schema.REFERENTIAL_CONSTRAINTS
+            WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'incidencia');
+SET @sql = COALESCE(@sql, 'DO 0');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+ALTER TABLE incidencia
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, curso_academico);
+
+-- Una partición por cada curso existente, llamada como el curso (p_2024_2025 para "2024-2025")
+SET @particiones = (SELECT GROUP_CONCAT(CONCAT('PARTITION p_', REGEXP_REPLACE(curso, '[^0-9A-Za-z]', '_'),
+                                               ' VALUES LESS THAN (', IF(siguiente IS NULL, 'MAXVALUE', CONCAT('''', siguiente, '''')), ')')
+                                        ORDER BY curso SEPARATOR ', ')
+                    FROM (SELECT curso_academico AS curso, LEAD(curso_academico) OVER (ORDER BY curso_academico) AS siguiente
+                          FROM (SELECT DISTINCT curso_academico FROM incidencia) cursos) limites);
+
+SET @sql = CONCAT('ALTER TABLE incidencia PARTITION BY RANGE COLUMNS (curso_academico) (',
+                  COALESCE(@particiones, 'PARTITION p_inicial VALUES LESS THAN (MAXVALUE)'), ')');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
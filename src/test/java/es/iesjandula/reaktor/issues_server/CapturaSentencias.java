@@ -0,0 +1,86 @@
+package es.iesjandula.reaktor.issues_server;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Guarda el SQL que genera Hibernate para que las pruebas puedan lanzar EXPLAIN sobre las consultas
+ * reales de los repositorios, en lugar de sobre una copia escrita a mano que podría quedarse desfasada.
+ * <p>
+ * Se registra con spring.jpa.properties.hibernate.session_factory.statement_inspector. También permite
+ * ejecutar una acción justo antes de una sentencia, por ejemplo para que otro usuario modifique una
+ * incidencia entre la lectura y la escritura de una actualización.
+ * </p>
+ */
+public class CapturaSentencias implements StatementInspector
+{
+    private static final long serialVersionUID = 1L;
+
+    /** Sentencias capturadas por el hilo de la prueba */
+    private static final ThreadLocal<List<String>> SENTENCIAS = ThreadLocal.withInitial(ArrayList::new);
+
+    /** Acción pendiente del hilo de la prueba y prefijo de la sentencia ante la que se ejecuta */
+    private static final ThreadLocal<Map.Entry<String, Runnable>> INTERCEPCION = new ThreadLocal<Map.Entry<String, Runnable>>();
+
+    @Override
+    public String inspect(String sql)
+    {
+        SENTENCIAS.get().add(sql);
+
+        Map.Entry<String, Runnable> intercepcion = INTERCEPCION.get();
+        if (intercepcion != null && sql.regionMatches(true, 0, intercepcion.getKey(), 0, intercepcion.getKey().length()))
+        {
+            INTERCEPCION.remove();
+            intercepcion.getValue().run();
+        }
+
+        return sql;
+    }
+
+    /**
+     * Ejecuta una acción justo antes de que el hilo actual lance la siguiente sentencia que empiece por el
+     * prefijo indicado, una sola vez. La acción se ejecuta dentro de la transacción de esa sentencia.
+     * @param prefijo El comienzo de la sentencia, sin distinguir mayúsculas (por ejemplo "update incidencia").
+     * @param accion La acción.
+     */
+    public static void antesDe(String prefijo, Runnable accion)
+    {
+        INTERCEPCION.set(new SimpleEntry<String, Runnable>(prefijo, accion));
+    }
+
+    /**
+     * Ejecuta una operación y devuelve la primera sentencia SQL que ha lanzado Hibernate.
+     * @param operacion La operación, normalmente una llamada a un repositorio.
+     * @return El SQL de la primera sentencia, con sus parámetros como '?'.
+     */
+    public static String capturar(Runnable operacion)
+    {
+        List<String> sentencias = CapturaSentencias.capturarTodas(operacion);
+        if (sentencias.isEmpty())
+        {
+            throw new IllegalStateException("La operación no ha lanzado ninguna sentencia SQL");
+        }
+
+        return sentencias.get(0);
+    }
+
+    /**
+     * Ejecuta una operación y devuelve todas las sentencias SQL que ha preparado Hibernate. No incluye
+     * las de la reserva de ids (tabla incidencia_seq), que Hibernate lanza en una transacción aparte sin
+     * pasar por el inspector, ni las que se lanzan con JdbcTemplate.
+     * @param operacion La operación, normalmente una llamada a un servicio.
+     * @return El SQL de cada sentencia, en orden (una sola vez por cada lote JDBC).
+     */
+    public static List<String> capturarTodas(Runnable operacion)
+    {
+        SENTENCIAS.get().clear();
+
+        operacion.run();
+
+        return new ArrayList<String>(SENTENCIAS.get());
+    }
+}
@@ -0,0 +1,142 @@
+package es.iesjandula.reaktor.issues_server;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.MySQLContainer;
+
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.repository.IIncidenciaRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Base de las pruebas que necesitan una base de datos MySQL real.
+ * <p>
+ * Todas comparten un único contenedor de Testcontainers, que se arranca una sola vez por ejecución
+ * para que el contexto de Spring se pueda reutilizar entre clases. Cada contexto aplica las migraciones
+ * de Flyway y carga solo las entidades y los repositorios; los servicios que prueba cada clase se
+ * añaden con @Import. Cada prueba se ejecuta en una transacción que se deshace al terminar.
+ * </p>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ContextConfiguration(classes = PruebaMySqlBase.Configuracion.class)
+public abstract class PruebaMySqlBase
+{
+    /** Tabla incidencia en el FROM o el UPDATE de una sentencia, con su alias si lo tiene */
+    private static final Pattern FROM_INCIDENCIA = Pattern.compile("(?i)\\b(?:from|update)\\s+incidencia\\b(?:\\s+(?!where\\b|set\\b|join\\b|left\\b|inner\\b|group\\b|order\\b|limit\\b)(\\w+))?");
+
+    /** Contenedor MySQL compartido por todas las pruebas */
+    @ServiceConnection
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    static
+    {
+        MYSQL.start();
+    }
+
+    /** Acceso JDBC para preparar los datos y lanzar EXPLAIN */
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    /** Factoría de entidades, de la que se obtienen las estadísticas de Hibernate */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * @return Las estadísticas de Hibernate, vacías para que solo cuenten las sentencias que siguen.
+     */
+    protected Statistics reiniciarEstadisticas()
+    {
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+
+    /**
+     * Lee un contador de sentencias del servidor MySQL (Com_select, Com_update...). Cuenta también las
+     * sentencias que no pasan por Hibernate, como los lotes de JdbcTemplate, y cada sentencia de un lote
+     * por separado.
+     * @param contador El nombre de la variable de estado.
+     * @return Las sentencias de ese tipo que ha ejecutado el servidor desde que arrancó.
+     */
+    protected long contarSentenciasServidor(String contador)
+    {
+        return Long.parseLong(String.valueOf(this.jdbcTemplate.queryForMap("SHOW GLOBAL STATUS LIKE ?", contador).get("Value")));
+    }
+
+    /**
+     * Inserta una ubicación, una categoría y su responsable para las incidencias de prueba.
+     * @param ubicacion El nombre de la ubicación.
+     * @param categoria El nombre de la categoría.
+     * @param emailResponsable El email del responsable.
+     */
+    protected void insertarDatosReferencia(String ubicacion, String categoria, String emailResponsable)
+    {
+        this.jdbcTemplate.update("INSERT INTO ubicacion (nombre) VALUES (?)", ubicacion);
+        this.jdbcTemplate.update("INSERT INTO categoria (nombre, imprimir_informe) VALUES (?, FALSE)", categoria);
+        this.jdbcTemplate.update("INSERT INTO usuario_categoria (nombre_categoria, email_responsable, nombre_responsable) VALUES (?, ?, ?)",
+                                 categoria, emailResponsable, "Responsable");
+    }
+
+    /**
+     * Lanza EXPLAIN sobre una consulta y devuelve la fila de su plan que corresponde a la tabla incidencia.
+     * @param sql La consulta, con sus parámetros como '?'.
+     * @param parametros Los valores de los parámetros.
+     * @return La fila del plan (columnas table, partitions, type, key, rows...).
+     */
+    protected Map<String, Object> explicarIncidencia(String sql, Object... parametros)
+    {
+        return this.explicarIncidencia(this.jdbcTemplate, sql, parametros);
+    }
+
+    /**
+     * Lanza EXPLAIN sobre una sentencia en otra base de datos y devuelve la fila de su plan que corresponde a la tabla incidencia.
+     * @param baseDatos El acceso JDBC a la base de datos.
+     * @param sql La sentencia, con sus parámetros como '?'.
+     * @param parametros Los valores de los parámetros.
+     * @return La fila del plan (columnas table, partitions, type, key, rows...).
+     */
+    protected Map<String, Object> explicarIncidencia(JdbcTemplate baseDatos, String sql, Object... parametros)
+    {
+        Matcher matcher = FROM_INCIDENCIA.matcher(sql);
+        if (!matcher.find())
+        {
+            throw new IllegalArgumentException("La sentencia no usa la tabla incidencia: " + sql);
+        }
+
+        String tabla = matcher.group(1) != null ? matcher.group(1) : "incidencia";
+
+        List<Map<String, Object>> plan = baseDatos.queryForList("EXPLAIN " + sql, parametros);
+
+        return plan.stream()
+                   .filter(fila -> tabla.equals(fila.get("table")))
+                   .findFirst()
+                   .orElseThrow(() -> new IllegalStateException("El plan no incluye la tabla " + tabla + ": " + plan));
+    }
+
+    /**
+     * Configuración de las pruebas: entidades y repositorios de la aplicación, sin el resto de sus componentes.
+     */
+    @Configuration
+    @EntityScan(basePackageClasses = Incidencia.class)
+    @EnableJpaRepositories(basePackageClasses = IIncidenciaRepository.class)
+    public static class Configuracion
+    {
+    }
+}
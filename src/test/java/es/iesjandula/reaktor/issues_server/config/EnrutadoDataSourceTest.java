@@ -0,0 +1,188 @@
+package es.iesjandula.reaktor.issues_server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.iesjandula.reaktor.base.security.models.DtoUsuarioExtended;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+
+/**
+ * Comprueba el enrutado de las conexiones: las transacciones de solo lectura van a la réplica y las de
+ * escritura a la principal, y un usuario que acaba de confirmar una escritura lee de la principal
+ * durante la ventana configurada, sin afectar a los demás usuarios.
+ * <p>
+ * La principal y la réplica son el mismo MySQL de las pruebas, envuelto para anotar a cuál de las dos
+ * se pide cada conexión. Las transacciones son las del propio DataSource enrutado, así que estas
+ * pruebas no se ejecutan en la transacción de la prueba.
+ * </p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EnrutadoDataSourceTest extends PruebaMySqlBase
+{
+    /** Milisegundos que un usuario lee de la principal después de escribir */
+    private static final long FIJAR_PRINCIPAL_MS = 300;
+
+    /** Nombre de la base de datos principal en las anotaciones */
+    private static final String PRINCIPAL = "principal";
+
+    /** Nombre de la réplica en las anotaciones */
+    private static final String REPLICA = "replica";
+
+    /** DataSource de las pruebas, que hace de principal y de réplica */
+    @Autowired
+    private DataSource dataSource;
+
+    /** Bases de datos a las que se ha pedido una conexión, en orden */
+    private final List<String> conexiones = new ArrayList<String>();
+
+    /** Transacciones de escritura sobre el DataSource enrutado */
+    private TransactionTemplate escritura;
+
+    /** Transacciones de solo lectura sobre el DataSource enrutado */
+    private TransactionTemplate lectura;
+
+    /** Acceso JDBC a través del DataSource enrutado */
+    private JdbcTemplate jdbcTemplateEnrutado;
+
+    /**
+     * Monta el DataSource enrutado como en {@link DataSourceConfig}.
+     */
+    @BeforeEach
+    public void prepararDataSource()
+    {
+        EnrutadoDataSource enrutadoDataSource = new EnrutadoDataSource(this.anotarConexiones(PRINCIPAL), this.anotarConexiones(REPLICA), FIJAR_PRINCIPAL_MS);
+        enrutadoDataSource.afterPropertiesSet();
+
+        DataSource enrutado = new LazyConnectionDataSourceProxy(enrutadoDataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(enrutado);
+
+        this.escritura = new TransactionTemplate(transactionManager);
+
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+
+        this.jdbcTemplateEnrutado = new JdbcTemplate(enrutado);
+    }
+
+    /**
+     * Quita el usuario autenticado.
+     */
+    @AfterEach
+    public void borrarUsuario()
+    {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void lecturasALaReplicaYEscriturasALaPrincipal()
+    {
+        assertThat(this.ejecutar(this.lectura)).isEqualTo(REPLICA);
+        assertThat(this.ejecutar(this.escritura)).isEqualTo(PRINCIPAL);
+
+        // Sin usuario (tareas programadas) no se fija nada después de escribir
+        assertThat(this.ejecutar(this.lectura)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    public void quienEscribeLeeDeLaPrincipalDuranteLaVentana() throws InterruptedException
+    {
+        this.autenticar("profesor@iesjandula.es");
+        assertThat(this.ejecutar(this.escritura)).isEqualTo(PRINCIPAL);
+        assertThat(this.ejecutar(this.lectura)).isEqualTo(PRINCIPAL);
+
+        // Los demás usuarios siguen leyendo de la réplica
+        this.autenticar("otro@iesjandula.es");
+        assertThat(this.ejecutar(this.lectura)).isEqualTo(REPLICA);
+
+        // Pasada la ventana, la réplica ya tiene su cambio
+        Thread.sleep(FIJAR_PRINCIPAL_MS + 100);
+
+        this.autenticar("profesor@iesjandula.es");
+        assertThat(this.ejecutar(this.lectura)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    public void unaEscrituraDeshechaNoFijaAlUsuario()
+    {
+        this.autenticar("profesor@iesjandula.es");
+
+        this.conexiones.clear();
+        this.escritura.executeWithoutResult(status ->
+        {
+            this.jdbcTemplateEnrutado.queryForObject("SELECT 1", Integer.class);
+            status.setRollbackOnly();
+        });
+        assertThat(this.conexiones).containsExactly(PRINCIPAL);
+
+        assertThat(this.ejecutar(this.lectura)).isEqualTo(REPLICA);
+    }
+
+    /**
+     * Ejecuta una sentencia en una transacción.
+     * @param transactionTemplate La transacción, de escritura o de solo lectura.
+     * @return La base de datos a la que ha ido la conexión de la transacción.
+     */
+    private String ejecutar(TransactionTemplate transactionTemplate)
+    {
+        this.conexiones.clear();
+
+        transactionTemplate.executeWithoutResult(status -> this.jdbcTemplateEnrutado.queryForObject("SELECT 1", Integer.class));
+
+        assertThat(this.conexiones).hasSize(1);
+
+        return this.conexiones.get(0);
+    }
+
+    /**
+     * Autentica a un usuario en el hilo de la prueba.
+     * @param email El email del usuario.
+     */
+    private void autenticar(String email)
+    {
+        DtoUsuarioExtended usuario = mock(DtoUsuarioExtended.class);
+        when(usuario.getEmail()).thenReturn(email);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(usuario, null));
+    }
+
+    /**
+     * @param nombre El nombre con el que se anota la base de datos.
+     * @return El DataSource de las pruebas, anotando cada conexión que se le pide.
+     */
+    private DataSource anotarConexiones(String nombre)
+    {
+        return new DelegatingDataSource(this.dataSource)
+        {
+            @Override
+            public Connection getConnection() throws SQLException
+            {
+                conexiones.add(nombre);
+
+                return super.getConnection();
+            }
+        };
+    }
+}
@@ -0,0 +1,226 @@
+package es.iesjandula.reaktor.issues_server.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import es.iesjandula.reaktor.issues_server.CapturaSentencias;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.CursorKeyset;
+
+/**
+ * Comprueba con EXPLAIN que las consultas y actualizaciones por curso académico solo leen la partición
+ * de su curso cuando la tabla incidencia está particionada (migración db/particionado/V11_1).
+ * <p>
+ * Las lecturas que no conocen el curso (listados sin curso, búsquedas por id y la carga de los
+ * responsables) leen todas las particiones, y se comprueba que lo hacen por índice: es el coste
+ * aceptado de no exigir el curso en esas peticiones.
+ * </p>
+ * <p>
+ * El esquema particionado se crea aparte, en otra base de datos del mismo contenedor, para no cambiar
+ * la tabla de las demás pruebas: se migra hasta V11, se insertan incidencias de tres cursos para que
+ * V11_1 cree una partición por curso, y se termina de migrar con db/particionado. El SQL es el que genera
+ * Hibernate para cada método del repositorio ({@link CapturaSentencias}); se captura sobre el esquema de
+ * siempre y se explica sobre el particionado, ya que el texto de la sentencia es el mismo.
+ * </p>
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=es.iesjandula.reaktor.issues_server.CapturaSentencias")
+public class ParticionadoIncidenciaTest extends PruebaMySqlBase
+{
+    /** Base de datos con la tabla incidencia particionada */
+    private static final String BASE_DATOS_PARTICIONADA = "incidencias_particionadas";
+
+    /** Cursos académicos de las incidencias de prueba */
+    private static final List<String> CURSOS = List.of("2022-2023", "2023-2024", "2024-2025");
+
+    /** Curso académico consultado: el intermedio, para que la poda descarte particiones a ambos lados */
+    private static final String CURSO_CONSULTADO = "2023-2024";
+
+    /** Partición del curso consultado, con el nombre que le da V11_1 */
+    private static final String PARTICION_CONSULTADA = "p_2023_2024";
+
+    /** Todas las particiones, tal como las muestra EXPLAIN */
+    private static final String TODAS_LAS_PARTICIONES = "p_2022_2023,p_2023_2024,p_2024_2025";
+
+    /** Tamaño de página de los listados */
+    private static final int TAMANIO_PAGINA = 20;
+
+    /** Email del creador de las incidencias de prueba */
+    private static final String EMAIL_PROFESOR = "profesor@iesjandula.es";
+
+    /** Incidencias de prueba por curso */
+    private static final int INCIDENCIAS_POR_CURSO = 200;
+
+    /** Acceso JDBC a la base de datos particionada */
+    private static JdbcTemplate particionada;
+
+    /** Repositorio probado */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /**
+     * Crea la base de datos particionada con incidencias de tres cursos.
+     */
+    @BeforeAll
+    public static void crearBaseDatosParticionada()
+    {
+        // El usuario de la prueba no puede crear bases de datos: se usa root, con la misma contraseña
+        String url = "jdbc:mysql://" + MYSQL.getHost() + ":" + MYSQL.getMappedPort(3306) + "/" + BASE_DATOS_PARTICIONADA + "?createDatabaseIfNotExist=true";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "root", MYSQL.getPassword());
+
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target("11").load().migrate();
+
+        particionada = new JdbcTemplate(dataSource);
+        particionada.update("INSERT INTO ubicacion (nombre) VALUES ('Aula 1')");
+        particionada.update("INSERT INTO categoria (nombre, imprimir_informe) VALUES ('Informática', FALSE)");
+        particionada.update("INSERT INTO usuario_categoria (nombre_categoria, email_responsable, nombre_responsable) VALUES ('Informática', 'responsable@iesjandula.es', 'Responsable')");
+
+        List<Object[]> filas = new ArrayList<Object[]>();
+        long id = 1;
+
+        for (int curso = 0; curso < CURSOS.size(); curso++)
+        {
+            LocalDateTime inicio = LocalDateTime.of(2022 + curso, 9, 15, 8, 0);
+
+            for (int i = 0; i < INCIDENCIAS_POR_CURSO; i++)
+            {
+                filas.add(new Object[] { id++, CURSOS.get(curso), Timestamp.valueOf(inicio.plusHours(i * 20L)) });
+            }
+        }
+
+        particionada.batchUpdate("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (?, ?, 'Aula 1', 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'Problema', 'PENDIENTE', NULL, 'Informática', 'responsable@iesjandula.es')", filas);
+
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration", "classpath:db/particionado").load().migrate();
+    }
+
+    @Test
+    public void migracionCreaUnaParticionPorCurso()
+    {
+        List<String> particiones = particionada.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                                                             "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'incidencia' ORDER BY PARTITION_ORDINAL_POSITION",
+                                                             String.class, BASE_DATOS_PARTICIONADA);
+
+        assertThat(particiones).containsExactly("p_2022_2023", "p_2023_2024", "p_2024_2025");
+    }
+
+    @Test
+    public void exportacionLeeSoloSuParticion()
+    {
+        String sql = CapturaSentencias.capturar(() ->
+        {
+            try (Stream<IncidenciaDto> incidencias = this.incidenciaRepository.exportarIncidenciasPorCursoAcademico(CURSO_CONSULTADO))
+            {
+                incidencias.findFirst();
+            }
+        });
+
+        this.comprobarPoda(sql, CURSO_CONSULTADO);
+    }
+
+    @Test
+    public void estadisticasLeenSoloSuParticion()
+    {
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorCategoria(CURSO_CONSULTADO)), CURSO_CONSULTADO);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorEstado(CURSO_CONSULTADO)), CURSO_CONSULTADO);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorUbicacion(CURSO_CONSULTADO)), CURSO_CONSULTADO);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorCelda(CURSO_CONSULTADO)), CURSO_CONSULTADO);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorMes(CURSO_CONSULTADO)), CURSO_CONSULTADO);
+    }
+
+    @Test
+    public void actualizacionesLeenSoloSuParticion()
+    {
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.actualizarEstado(250L, CURSO_CONSULTADO, "RESUELTA", 0L)),
+                           "RESUELTA", 250L, CURSO_CONSULTADO, 0L);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.actualizarSolucion(250L, CURSO_CONSULTADO, "Solución", 0L)),
+                           "Solución", 250L, CURSO_CONSULTADO, 0L);
+
+        UsuarioCategoria usuarioCategoria = new UsuarioCategoria(new UsuarioCategoriaId("Informática", "responsable@iesjandula.es"), "Responsable", null);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.actualizarUsuarioCategoria(250L, CURSO_CONSULTADO, usuarioCategoria, 0L)),
+                           "Informática", "responsable@iesjandula.es", 250L, CURSO_CONSULTADO, 0L);
+
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.borrarConVersion(250L, CURSO_CONSULTADO, 0L)),
+                           250L, CURSO_CONSULTADO, 0L);
+    }
+
+    @Test
+    public void listadosDeUnCursoLeenSoloSuParticion()
+    {
+        LocalDateTime fecha = LocalDateTime.of(2024, 1, 10, 8, 0);
+        Long id             = 300L;
+
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminYCurso(CURSO_CONSULTADO, PageRequest.of(0, TAMANIO_PAGINA))),
+                           CURSO_CONSULTADO, TAMANIO_PAGINA);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuarioYCurso(PageRequest.of(0, TAMANIO_PAGINA), EMAIL_PROFESOR, CURSO_CONSULTADO)),
+                           EMAIL_PROFESOR, EMAIL_PROFESOR, CURSO_CONSULTADO, TAMANIO_PAGINA);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminYCursoDesdeCursor(CURSO_CONSULTADO, fecha, id, PageRequest.of(0, TAMANIO_PAGINA))),
+                           CURSO_CONSULTADO, fecha, fecha, id, TAMANIO_PAGINA);
+        this.comprobarPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuarioYCursoDesdeCursor(EMAIL_PROFESOR, CURSO_CONSULTADO, fecha, id, PageRequest.of(0, TAMANIO_PAGINA))),
+                           EMAIL_PROFESOR, EMAIL_PROFESOR, CURSO_CONSULTADO, fecha, fecha, id, TAMANIO_PAGINA);
+    }
+
+    @Test
+    public void lecturasSinCursoRecorrenLasParticionesPorIndice()
+    {
+        CursorKeyset inicial = CursorKeyset.inicial();
+        List<Long> ids       = List.of(10L, 250L, 450L);
+
+        this.comprobarSinPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminDesdeCursor(inicial.getFecha(), inicial.getId(), PageRequest.of(0, TAMANIO_PAGINA))),
+                              inicial.getFecha(), inicial.getFecha(), inicial.getId(), TAMANIO_PAGINA);
+        this.comprobarSinPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciasPorIds(ids)), ids.toArray());
+        this.comprobarSinPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarDatosNotificacionPorIds(ids)), ids.toArray());
+        this.comprobarSinPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarDatosNotificacionPorId(250L)), 250L);
+        this.comprobarSinPoda(CapturaSentencias.capturar(() -> this.incidenciaRepository.findById(250L)), 250L);
+
+        // Todas las incidencias de prueba están abiertas, así que aquí no se exige el índice de estado
+        String sql               = CapturaSentencias.capturar(() -> this.incidenciaRepository.contarAbiertasPorUbicacionYResponsable(Constants.ESTADOS_ABIERTOS));
+        Map<String, Object> plan = this.explicarIncidencia(particionada, sql, Constants.ESTADOS_ABIERTOS.toArray());
+
+        assertThat(plan.get("partitions")).as("%s -> %s", sql, plan).isEqualTo(TODAS_LAS_PARTICIONES);
+    }
+
+    /**
+     * Comprueba que el plan de una sentencia sobre la base de datos particionada solo incluye la partición del curso consultado.
+     * @param sql La sentencia generada por Hibernate.
+     * @param parametros Los valores de sus parámetros, en orden.
+     */
+    private void comprobarPoda(String sql, Object... parametros)
+    {
+        Map<String, Object> plan = this.explicarIncidencia(particionada, sql, parametros);
+
+        assertThat(plan.get("partitions")).as("%s -> %s", sql, plan).isEqualTo(PARTICION_CONSULTADA);
+    }
+
+    /**
+     * Comprueba que el plan de una sentencia que no filtra por curso incluye todas las particiones, pero
+     * que en cada una accede por un índice en lugar de recorrerla entera.
+     * @param sql La sentencia generada por Hibernate.
+     * @param parametros Los valores de sus parámetros, en orden.
+     */
+    private void comprobarSinPoda(String sql, Object... parametros)
+    {
+        Map<String, Object> plan = this.explicarIncidencia(particionada, sql, parametros);
+
+        assertThat(plan.get("partitions")).as("%s -> %s", sql, plan).isEqualTo(TODAS_LAS_PARTICIONES);
+        assertThat(plan.get("type")).as("%s -> %s", sql, plan).isNotEqualTo("ALL");
+    }
+}
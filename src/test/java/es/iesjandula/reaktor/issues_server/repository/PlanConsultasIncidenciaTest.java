@@ -0,0 +1,542 @@
+package es.iesjandula.reaktor.issues_server.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.iesjandula.reaktor.issues_server.CapturaSentencias;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.FiltroBusquedaDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.services.BusquedaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.CursorKeyset;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+
+/**
+ * Comprueba con EXPLAIN que cada consulta y cada sentencia de IIncidenciaRepository, y la búsqueda
+ * dinámica de {@link BusquedaIncidenciasService}, usan su índice y no recorren la tabla completa.
+ * <p>
+ * El SQL es el que genera Hibernate para cada consulta (se captura con {@link CapturaSentencias}).
+ * La búsqueda dinámica se genera con los valores en línea para que su única variable sea el límite.
+ * La tabla se llena con varios miles de filas repartidas entre cursos, profesores, responsables,
+ * categorías, ubicaciones y estados, y se analiza antes de cada prueba, porque con una tabla casi
+ * vacía el optimizador prefiere recorrerla entera. Como ANALYZE TABLE confirma la transacción,
+ * estas pruebas no se ejecutan en una transacción y borran sus datos al terminar.
+ * </p>
+ * <p>
+ * La única consulta que recorre la tabla completa a propósito es recorrerTextoIncidencias, que
+ * reconstruye el índice de texto con todas las incidencias.
+ * </p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(BusquedaIncidenciasService.class)
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=es.iesjandula.reaktor.issues_server.CapturaSentencias",
+    "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+})
+public class PlanConsultasIncidenciaTest extends PruebaMySqlBase
+{
+    /** Número de incidencias de prueba */
+    private static final int INCIDENCIAS = 3000;
+
+    /** Número de cursos académicos entre los que se reparten */
+    private static final int CURSOS = 20;
+
+    /** Número de profesores que las crean */
+    private static final int PROFESORES = 100;
+
+    /** Número de responsables a los que se asignan */
+    private static final int RESPONSABLES = 50;
+
+    /** Número de categorías (cada responsable pertenece a una) */
+    private static final int CATEGORIAS = 5;
+
+    /** Número de ubicaciones */
+    private static final int UBICACIONES = 10;
+
+    /** Filas de la página pedida en los listados */
+    private static final int TAMANIO_PAGINA = 20;
+
+    /** Tipos de acceso de EXPLAIN que leen un rango de un índice de email */
+    private static final List<String> ACCESOS_RANGO = List.of("range", "index_merge");
+
+    /** Índices por email del creador y del responsable */
+    private static final List<String> INDICES_EMAIL = List.of("idx_incidencia_email_fecha", "idx_incidencia_responsable_fecha");
+
+    /** Repositorio probado */
+    @Autowired
+    private IIncidenciaRepository incidenciaRepository;
+
+    /** Búsqueda dinámica probada */
+    @Autowired
+    private BusquedaIncidenciasService busquedaIncidenciasService;
+
+    /** Transacciones para las consultas que devuelven un Stream y las sentencias de modificación */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Inserta las incidencias de prueba y actualiza las estadísticas de sus índices.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        for (int ubicacion = 0; ubicacion < UBICACIONES; ubicacion++)
+        {
+            this.jdbcTemplate.update("INSERT INTO ubicacion (nombre) VALUES (?)", this.ubicacion(ubicacion));
+        }
+
+        for (int categoria = 0; categoria < CATEGORIAS; categoria++)
+        {
+            this.jdbcTemplate.update("INSERT INTO categoria (nombre, imprimir_informe) VALUES (?, FALSE)", this.categoria(categoria));
+        }
+
+        for (int responsable = 0; responsable < RESPONSABLES; responsable++)
+        {
+            this.jdbcTemplate.update("INSERT INTO usuario_categoria (nombre_categoria, email_responsable, nombre_responsable) VALUES (?, ?, 'Responsable')",
+                                     this.categoria(responsable % CATEGORIAS), this.emailResponsable(responsable));
+        }
+
+        LocalDateTime inicio = LocalDateTime.of(2020, 9, 1, 8, 0);
+        List<Object[]> filas = new ArrayList<Object[]>();
+
+        for (int i = 0; i < INCIDENCIAS; i++)
+        {
+            int responsable = i % RESPONSABLES;
+
+            filas.add(new Object[] { i + 1L, this.cursoAcademico(i % CURSOS), this.ubicacion(i % UBICACIONES), this.emailProfesor(i % PROFESORES),
+                                     Timestamp.valueOf(this.fecha(inicio, i)), this.estado(i), this.categoria(responsable % CATEGORIAS), this.emailResponsable(responsable) });
+        }
+
+        this.jdbcTemplate.batchUpdate("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                      "VALUES (?, ?, ?, ?, 'Nombre', 'Apellidos', ?, 'Problema', ?, NULL, ?, ?)", filas);
+
+        this.jdbcTemplate.execute("ANALYZE TABLE incidencia");
+    }
+
+    /**
+     * Borra los datos de prueba, que se han confirmado.
+     */
+    @AfterEach
+    public void borrarDatos()
+    {
+        this.jdbcTemplate.update("DELETE FROM incidencia");
+        this.jdbcTemplate.update("DELETE FROM usuario_categoria");
+        this.jdbcTemplate.update("DELETE FROM categoria");
+        this.jdbcTemplate.update("DELETE FROM ubicacion");
+    }
+
+    /**
+     * Listado del administrador: recorre idx_incidencia_fecha hacia atrás y se detiene al llenar la página.
+     */
+    @Test
+    public void listadoAdministradorUsaIndiceFecha()
+    {
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdmin(PageRequest.of(0, TAMANIO_PAGINA)));
+
+        Map<String, Object> plan = this.explicarIncidencia(sql, TAMANIO_PAGINA);
+
+        assertThat(plan.get("type")).as("plan %s", plan).isNotEqualTo("ALL");
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("idx_incidencia_fecha");
+        this.comprobarSinOrdenacion(plan);
+    }
+
+    /**
+     * Listado del profesor: el OR entre creador y responsable se resuelve con una unión de sus índices por email.
+     */
+    @Test
+    public void listadoProfesorUsaIndicesEmail()
+    {
+        String email = this.emailProfesor(7);
+
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuario(PageRequest.of(0, TAMANIO_PAGINA), email));
+
+        this.comprobarIndicesEmail(this.explicarIncidencia(sql, email, email, TAMANIO_PAGINA));
+    }
+
+    /**
+     * Listado del administrador por cursor: rango de idx_incidencia_fecha a partir del cursor, ya ordenado.
+     */
+    @Test
+    public void listadoAdministradorPorCursorUsaRangoFecha()
+    {
+        LocalDateTime fecha = this.fecha(LocalDateTime.of(2020, 9, 1, 8, 0), INCIDENCIAS / 2);
+        Long id             = INCIDENCIAS / 2 + 1L;
+
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminDesdeCursor(fecha, id, PageRequest.of(0, TAMANIO_PAGINA)));
+
+        Map<String, Object> plan = this.explicarIncidencia(sql, fecha, fecha, id, TAMANIO_PAGINA);
+
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("range");
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("idx_incidencia_fecha");
+        this.comprobarSinOrdenacion(plan);
+    }
+
+    /**
+     * Listado del profesor por cursor: rangos de sus índices por email.
+     */
+    @Test
+    public void listadoProfesorPorCursorUsaIndicesEmail()
+    {
+        String email        = this.emailResponsable(3);
+        LocalDateTime fecha = this.fecha(LocalDateTime.of(2020, 9, 1, 8, 0), INCIDENCIAS / 2);
+        Long id             = INCIDENCIAS / 2 + 1L;
+
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorUsuarioDesdeCursor(email, fecha, id, PageRequest.of(0, TAMANIO_PAGINA)));
+
+        this.comprobarIndicesEmail(this.explicarIncidencia(sql, email, email, fecha, fecha, id, TAMANIO_PAGINA));
+    }
+
+    /**
+     * Listado de un curso por cursor: rango de idx_incidencia_curso_fecha a partir del cursor, ya ordenado.
+     */
+    @Test
+    public void listadoCursoPorCursorUsaIndiceCursoFecha()
+    {
+        String cursoAcademico = this.cursoAcademico(3);
+        LocalDateTime fecha   = this.fecha(LocalDateTime.of(2020, 9, 1, 8, 0), INCIDENCIAS / 2);
+        Long id               = INCIDENCIAS / 2 + 1L;
+
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciaOrdenadaFechaPorAdminYCursoDesdeCursor(cursoAcademico, fecha, id,
+                                                                                                                                        PageRequest.of(0, TAMANIO_PAGINA)));
+
+        Map<String, Object> plan = this.explicarIncidencia(sql, cursoAcademico, fecha, fecha, id, TAMANIO_PAGINA);
+
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("range");
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("idx_incidencia_curso_fecha");
+        this.comprobarSinOrdenacion(plan);
+    }
+
+    /**
+     * Exportación de un curso: lee sus filas por idx_incidencia_curso_fecha, ya ordenadas por (fecha, id).
+     */
+    @Test
+    public void exportacionUsaIndiceCursoFecha()
+    {
+        String cursoAcademico = this.cursoAcademico(3);
+
+        String sql = CapturaSentencias.capturar(() -> this.transactionTemplate.executeWithoutResult(status ->
+        {
+            try (Stream<IncidenciaDto> incidencias = this.incidenciaRepository.exportarIncidenciasPorCursoAcademico(cursoAcademico))
+            {
+                incidencias.findFirst();
+            }
+        }));
+
+        Map<String, Object> plan = this.explicarIncidencia(sql, cursoAcademico);
+
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("ref");
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("idx_incidencia_curso_fecha");
+        this.comprobarSinOrdenacion(plan);
+    }
+
+    /**
+     * Lecturas por id (búsqueda por texto, actualización en lote y borrado): clave primaria.
+     */
+    @Test
+    public void lecturasPorIdUsanClavePrimaria()
+    {
+        List<Long> ids = List.of(10L, 20L, 30L);
+
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarIncidenciasPorIds(ids));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, ids.toArray()), "range");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarDatosNotificacionPorIds(ids));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, ids.toArray()), "range");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.buscarDatosNotificacionPorId(10L));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, 10L), "const");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.findById(10L));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, 10L), "const");
+    }
+
+    /**
+     * Actualizaciones y borrado condicionados a la versión: clave primaria, sin bloquear otras filas.
+     */
+    @Test
+    public void actualizacionesUsanClavePrimaria()
+    {
+        String cursoAcademico = this.cursoAcademico(9);
+
+        String sql = this.capturarModificacion(() -> this.incidenciaRepository.actualizarEstado(10L, cursoAcademico, Constants.ESTADO_RESUELTA, -1L));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, Constants.ESTADO_RESUELTA, 10L, cursoAcademico, -1L), "range");
+
+        sql = this.capturarModificacion(() -> this.incidenciaRepository.actualizarSolucion(10L, cursoAcademico, "Solución", -1L));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, "Solución", 10L, cursoAcademico, -1L), "range");
+
+        UsuarioCategoria usuarioCategoria = new UsuarioCategoria(new UsuarioCategoriaId(this.categoria(0), this.emailResponsable(0)), "Responsable", null);
+        sql = this.capturarModificacion(() -> this.incidenciaRepository.actualizarUsuarioCategoria(10L, cursoAcademico, usuarioCategoria, -1L));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, this.categoria(0), this.emailResponsable(0), 10L, cursoAcademico, -1L), "range");
+
+        sql = this.capturarModificacion(() -> this.incidenciaRepository.borrarConVersion(10L, cursoAcademico, -1L));
+        this.comprobarClavePrimaria(this.explicarIncidencia(sql, 10L, cursoAcademico, -1L), "range");
+    }
+
+    /**
+     * Carga de los responsables: solo el rango de los estados abiertos de idx_incidencia_estado.
+     */
+    @Test
+    public void cargaResponsablesUsaIndiceEstado()
+    {
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.contarAbiertasPorUbicacionYResponsable(Constants.ESTADOS_ABIERTOS));
+
+        Map<String, Object> plan = this.explicarIncidencia(sql, Constants.ESTADOS_ABIERTOS.toArray());
+
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("range");
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("idx_incidencia_estado");
+    }
+
+    /**
+     * Comprobaciones de integridad antes de borrar datos de referencia: índices de las claves ajenas.
+     */
+    @Test
+    public void validacionesDeBorradoUsanIndices()
+    {
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.validarSiExistenIncidenciasAsociadasACategoria(this.categoria(1)));
+        this.comprobarAccesoPorIndice(this.explicarIncidencia(sql, this.categoria(1)), "fk_incidencia_usuario_categoria", "idx_incidencia_curso_categoria");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.validarSiExistenIncidenciasAsociadasAUbicacion(this.ubicacion(1)));
+        this.comprobarAccesoPorIndice(this.explicarIncidencia(sql, this.ubicacion(1)), "fk_incidencia_ubicacion", "idx_incidencia_curso_ubicacion");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.validarSiExistenIncidenciasAsociadasAResponsable(this.categoria(1), this.emailResponsable(1)));
+        this.comprobarAccesoPorIndice(this.explicarIncidencia(sql, this.categoria(1), this.emailResponsable(1)), "fk_incidencia_usuario_categoria", "idx_incidencia_responsable_fecha");
+    }
+
+    /**
+     * Estadísticas de un curso: los desgloses por una dimensión se agrupan leyendo solo un índice de
+     * cobertura (el suyo o idx_incidencia_curso_resumen); el resumen y el desglose mensual leen las
+     * filas del curso por un índice del curso.
+     */
+    @Test
+    public void estadisticasUsanIndicesCurso()
+    {
+        String cursoAcademico = this.cursoAcademico(5);
+
+        String sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorCategoria(cursoAcademico));
+        this.comprobarIndiceCobertura(this.explicarIncidencia(sql, cursoAcademico), "idx_incidencia_curso_categoria", "idx_incidencia_curso_resumen");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorEstado(cursoAcademico));
+        this.comprobarIndiceCobertura(this.explicarIncidencia(sql, cursoAcademico), "idx_incidencia_curso_estado");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorUbicacion(cursoAcademico));
+        this.comprobarIndiceCobertura(this.explicarIncidencia(sql, cursoAcademico), "idx_incidencia_curso_ubicacion", "idx_incidencia_curso_resumen");
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorCelda(cursoAcademico));
+        this.comprobarIndiceCurso(this.explicarIncidencia(sql, cursoAcademico));
+
+        sql = CapturaSentencias.capturar(() -> this.incidenciaRepository.obtenerEstadisticasPorMes(cursoAcademico));
+        this.comprobarIndiceCurso(this.explicarIncidencia(sql, cursoAcademico));
+    }
+
+    /**
+     * Búsqueda sin filtros: el mismo rango de idx_incidencia_fecha que el listado por cursor.
+     */
+    @Test
+    public void busquedaSinFiltrosUsaIndiceFecha()
+    {
+        String sql = CapturaSentencias.capturar(() -> this.buscar(new FiltroBusquedaDto()));
+
+        Map<String, Object> plan = this.explicarIncidencia(sql, TAMANIO_PAGINA);
+
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("range");
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("idx_incidencia_fecha");
+        this.comprobarSinOrdenacion(plan);
+    }
+
+    /**
+     * Búsqueda por docente y fechas: rango de idx_incidencia_email_fecha, ya ordenado por (fecha, id).
+     */
+    @Test
+    public void busquedaPorDocenteUsaIndiceEmailFecha()
+    {
+        FiltroBusquedaDto filtro = new FiltroBusquedaDto();
+        filtro.setCorreoDocente(this.emailProfesor(7));
+        filtro.setFechaInicio("2021-01-01");
+
+        String sql = CapturaSentencias.capturar(() -> this.buscar(filtro));
+
+        Map<String, Object> plan = this.explicarIncidencia(sql, TAMANIO_PAGINA);
+
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("range");
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("idx_incidencia_email_fecha");
+        this.comprobarSinOrdenacion(plan);
+    }
+
+    /**
+     * Lanza la búsqueda dinámica desde la primera página.
+     * @param filtro El filtro de búsqueda.
+     */
+    private void buscar(FiltroBusquedaDto filtro)
+    {
+        try
+        {
+            this.busquedaIncidenciasService.buscar(filtro, CursorKeyset.inicial(), TAMANIO_PAGINA);
+        }
+        catch (IssuesServerError issuesServerError)
+        {
+            throw new IllegalStateException(issuesServerError);
+        }
+    }
+
+    /**
+     * Captura una sentencia de modificación, que necesita una transacción.
+     * @param sentencia La llamada al repositorio.
+     * @return El SQL de la sentencia.
+     */
+    private String capturarModificacion(Runnable sentencia)
+    {
+        return CapturaSentencias.capturar(() -> this.transactionTemplate.executeWithoutResult(status -> sentencia.run()));
+    }
+
+    /**
+     * @param plan La fila del plan de la tabla incidencia.
+     */
+    private void comprobarSinOrdenacion(Map<String, Object> plan)
+    {
+        assertThat(String.valueOf(plan.get("Extra"))).as("plan %s", plan).doesNotContain("Using filesort");
+    }
+
+    /**
+     * @param plan La fila del plan de la tabla incidencia.
+     */
+    private void comprobarIndicesEmail(Map<String, Object> plan)
+    {
+        assertThat(plan.get("type")).as("plan %s", plan).isIn(ACCESOS_RANGO.toArray());
+        assertThat(String.valueOf(plan.get("key"))).as("plan %s", plan).containsAnyOf(INDICES_EMAIL.toArray(new String[0]));
+        assertThat(String.valueOf(plan.get("key"))).as("plan %s", plan).doesNotContain("idx_incidencia_fecha");
+    }
+
+    /**
+     * @param plan La fila del plan de la tabla incidencia.
+     * @param tipo El tipo de acceso esperado.
+     */
+    private void comprobarClavePrimaria(Map<String, Object> plan, String tipo)
+    {
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo(tipo);
+        assertThat(plan.get("key")).as("plan %s", plan).isEqualTo("PRIMARY");
+    }
+
+    /**
+     * @param plan La fila del plan de la tabla incidencia.
+     * @param indices Los índices con los que se puede resolver la consulta.
+     */
+    private void comprobarAccesoPorIndice(Map<String, Object> plan, String... indices)
+    {
+        assertThat(plan.get("type")).as("plan %s", plan).isIn("ref", "range");
+        assertThat(plan.get("key")).as("plan %s", plan).isIn((Object[]) indices);
+    }
+
+    /**
+     * @param plan La fila del plan de la tabla incidencia.
+     * @param indices Los índices de cobertura con los que se puede resolver la consulta.
+     */
+    private void comprobarIndiceCobertura(Map<String, Object> plan, String... indices)
+    {
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("ref");
+        assertThat(plan.get("key")).as("plan %s", plan).isIn((Object[]) indices);
+        assertThat(String.valueOf(plan.get("Extra"))).as("plan %s", plan).contains("Using index");
+    }
+
+    /**
+     * @param plan La fila del plan de la tabla incidencia.
+     */
+    private void comprobarIndiceCurso(Map<String, Object> plan)
+    {
+        assertThat(plan.get("type")).as("plan %s", plan).isEqualTo("ref");
+        assertThat(String.valueOf(plan.get("key"))).as("plan %s", plan).startsWith("idx_incidencia_curso_");
+    }
+
+    /**
+     * @param inicio La fecha de la primera incidencia.
+     * @param indice El índice de la incidencia.
+     * @return La fecha de la incidencia (una cada 37 minutos).
+     */
+    private LocalDateTime fecha(LocalDateTime inicio, int indice)
+    {
+        return inicio.plusMinutes(indice * 37L);
+    }
+
+    /**
+     * @param indice El índice de la incidencia.
+     * @return Su estado: una de cada diez sigue abierta, como en un centro real.
+     */
+    private String estado(int indice)
+    {
+        switch (indice % 20)
+        {
+            case 0:
+                return Constants.ESTADO_PENDIENTE;
+            case 1:
+                return Constants.ESTADO_EN_PROGRESO;
+            case 2:
+                return Constants.ESTADO_CANCELADA;
+            default:
+                return Constants.ESTADO_RESUELTA;
+        }
+    }
+
+    /**
+     * @param indice El índice del curso.
+     * @return Un curso académico de prueba (2000-2001, 2001-2002...).
+     */
+    private String cursoAcademico(int indice)
+    {
+        return (2000 + indice) + "-" + (2001 + indice);
+    }
+
+    /**
+     * @param indice El índice de la ubicación.
+     * @return El nombre de una ubicación de prueba.
+     */
+    private String ubicacion(int indice)
+    {
+        return "Aula " + indice;
+    }
+
+    /**
+     * @param indice El índice de la categoría.
+     * @return El nombre de una categoría de prueba.
+     */
+    private String categoria(int indice)
+    {
+        return "Categoría " + indice;
+    }
+
+    /**
+     * @param indice El índice del profesor.
+     * @return El email de un profesor de prueba.
+     */
+    private String emailProfesor(int indice)
+    {
+        return "profesor" + indice + "@iesjandula.es";
+    }
+
+    /**
+     * @param indice El índice del responsable.
+     * @return El email de un responsable de prueba.
+     */
+    private String emailResponsable(int indice)
+    {
+        return "responsable" + indice + "@iesjandula.es";
+    }
+}
@@ -0,0 +1,350 @@
+package es.iesjandula.reaktor.issues_server.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.servlet.context.AnnotationConfigServletWebServerApplicationContext;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import es.iesjandula.reaktor.base.security.models.DtoUsuarioExtended;
+import es.iesjandula.reaktor.base_client.requests.notificaciones.RequestNotificacionesEnviarEmail;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.services.BusquedaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.ConsultaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.DatosReferenciaService;
+import es.iesjandula.reaktor.issues_server.services.DespachoNotificacionesService;
+import es.iesjandula.reaktor.issues_server.services.EstadisticasContadorService;
+import es.iesjandula.reaktor.issues_server.services.ExportacionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.HistorialIncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.ImpresionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.IncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.IndiceTextoIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.NotificacionesIncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.AsignacionResponsableService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Prueba de carga de la creación de incidencias por HTTP con el servidor de notificaciones lento, con
+ * hilos de plataforma y con hilos virtuales (spring.threads.virtual.enabled).
+ * <p>
+ * Se arranca un Tomcat real con {@value #HILOS_TOMCAT} hilos de plataforma como máximo, delante del
+ * controlador y de los servicios de escritura reales sobre MySQL (con el historial). Mientras
+ * {@value #CLIENTES} clientes crean a la vez {@value #PETICIONES} incidencias, el despachador de la
+ * bandeja de salida envía sus notificaciones a
+ * un servidor que tarda {@value #LATENCIA_MS} ms por email. Si una petición esperase a ese servidor, con
+ * {@value #HILOS_TOMCAT} hilos la carga duraría al menos {@value #PETICIONES} / {@value #HILOS_TOMCAT} ×
+ * {@value #LATENCIA_MS} ms. Se exige que ninguna petición tarde tanto como una sola llamada lenta y que,
+ * aun así, todas las notificaciones acaben enviándose.
+ * </p>
+ * <p>
+ * Las peticiones confirman sus propias transacciones, así que esta prueba no se ejecuta en una transacción
+ * y borra sus datos al terminar.
+ * </p>
+ */
+@Log4j2
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({IncidenciaService.class, NotificacionesIncidenciaService.class, DespachoNotificacionesService.class, HistorialIncidenciaService.class})
+@TestPropertySource(properties = "reaktor.notificaciones.ventana_ms=0")
+public class IncidenciaCargaTest extends PruebaMySqlBase
+{
+    /** Hilos de Tomcat con hilos de plataforma */
+    private static final int HILOS_TOMCAT = 8;
+
+    /** Incidencias que se crean */
+    private static final int PETICIONES = 200;
+
+    /** Clientes que envían peticiones a la vez */
+    private static final int CLIENTES = 50;
+
+    /** Milisegundos que tarda el servidor de notificaciones en enviar cada email */
+    private static final long LATENCIA_MS = 1000;
+
+    /** Segundos que se espera como máximo a que se envíen todas las notificaciones */
+    private static final long ESPERA_MAXIMA_S = 120;
+
+    /** Ubicación de las incidencias */
+    private static final String UBICACION = "Aula 1";
+
+    /** Categoría de las incidencias */
+    private static final String CATEGORIA = "Electricidad";
+
+    /** Email del responsable de la categoría */
+    private static final String EMAIL_RESPONSABLE = "responsable@iesjandula.es";
+
+    /** Contexto de la prueba, padre del contexto web */
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    /** Despachador de la bandeja de salida */
+    @Autowired
+    private DespachoNotificacionesService despachoNotificacionesService;
+
+    /** Cliente lento del servidor de notificaciones */
+    @MockBean
+    private RequestNotificacionesEnviarEmail requestNotificacionesEnviarEmail;
+
+    /** Servicio de contadores de estadísticas */
+    @MockBean
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /**
+     * Crea los datos de referencia y hace lento el servidor de notificaciones.
+     * @throws Exception si falla la preparación del mock
+     */
+    @BeforeEach
+    public void prepararDatos() throws Exception
+    {
+        this.insertarDatosReferencia(UBICACION, CATEGORIA, EMAIL_RESPONSABLE);
+
+        doAnswer(invocation ->
+        {
+            Thread.sleep(LATENCIA_MS);
+            return null;
+        }).when(this.requestNotificacionesEnviarEmail).enviarNotificacionEmail(any());
+    }
+
+    /**
+     * Borra los datos de prueba, que se han confirmado.
+     */
+    @AfterEach
+    public void borrarDatos()
+    {
+        this.jdbcTemplate.update("DELETE FROM notificacion_pendiente");
+        this.jdbcTemplate.update("DELETE FROM incidencia_evento");
+        this.jdbcTemplate.update("DELETE FROM incidencia");
+        this.jdbcTemplate.update("DELETE FROM usuario_categoria");
+        this.jdbcTemplate.update("DELETE FROM categoria");
+        this.jdbcTemplate.update("DELETE FROM ubicacion");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void peticionesNoEsperanAlServidorDeNotificaciones(boolean hilosVirtuales)
+    {
+        new WebApplicationContextRunner(AnnotationConfigServletWebServerApplicationContext::new)
+            .withParent(this.applicationContext)
+            .withConfiguration(AutoConfigurations.of(ServletWebServerFactoryAutoConfiguration.class, EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+                                                     DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class,
+                                                     HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class))
+            .withUserConfiguration(ConfiguracionWeb.class)
+            .withPropertyValues("server.port=0", "server.tomcat.threads.max=" + HILOS_TOMCAT, "spring.threads.virtual.enabled=" + hilosVirtuales)
+            .withInitializer(applicationContext ->
+            {
+                // Como singletons ya creados, para que Spring no intente inyectar las dependencias de los mocks
+                applicationContext.getBeanFactory().registerSingleton("datosReferenciaService", this.crearDatosReferenciaService());
+                applicationContext.getBeanFactory().registerSingleton("asignacionResponsableService", this.crearAsignacionResponsableService());
+                applicationContext.getBeanFactory().registerSingleton("impresionIncidenciasService", mock(ImpresionIncidenciasService.class));
+                applicationContext.getBeanFactory().registerSingleton("exportacionIncidenciasService", mock(ExportacionIncidenciasService.class));
+                applicationContext.getBeanFactory().registerSingleton("busquedaIncidenciasService", mock(BusquedaIncidenciasService.class));
+                applicationContext.getBeanFactory().registerSingleton("indiceTextoIncidenciasService", mock(IndiceTextoIncidenciasService.class));
+                applicationContext.getBeanFactory().registerSingleton("consultaIncidenciasService", mock(ConsultaIncidenciasService.class));
+            })
+            .run(context ->
+        {
+            URI uri = URI.create("http://localhost:" + ((ServletWebServerApplicationContext) context.getSourceApplicationContext()).getWebServer().getPort() +
+                                 "/issues/incidencias/");
+            HttpClient httpClient = HttpClient.newHttpClient();
+
+            long enviadasAntes = this.despachoNotificacionesService.obtenerMetricas().getEnviadas();
+
+            // La primera petición inicializa el DispatcherServlet y no se mide
+            assertThat(this.crearIncidencia(httpClient, uri, -1)).isEqualTo(200);
+
+            // El despachador envía mientras llegan las peticiones, como la tarea programada
+            AtomicBoolean cargaTerminada = new AtomicBoolean();
+            CompletableFuture<Void> despacho = CompletableFuture.runAsync(() ->
+            {
+                while (!cargaTerminada.get() || this.contarPendientes() > 0)
+                {
+                    this.despachoNotificacionesService.despachar();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                }
+            });
+
+            ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+            List<Future<long[]>> respuestas = new ArrayList<Future<long[]>>(PETICIONES);
+
+            long inicio = System.nanoTime();
+            for (int i = 0; i < PETICIONES; i++)
+            {
+                int indice = i;
+                respuestas.add(clientes.submit(() ->
+                {
+                    long peticion = System.nanoTime();
+                    int estado = this.crearIncidencia(httpClient, uri, indice);
+
+                    return new long[] { estado, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - peticion) };
+                }));
+            }
+
+            long maximoMs = 0;
+            for (Future<long[]> respuesta : respuestas)
+            {
+                long[] resultado = respuesta.get();
+
+                assertThat(resultado[0]).as("estado HTTP").isEqualTo(200);
+                maximoMs = Math.max(maximoMs, resultado[1]);
+            }
+            long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            clientes.shutdown();
+
+            cargaTerminada.set(true);
+            despacho.get(ESPERA_MAXIMA_S, TimeUnit.SECONDS);
+
+            log.info("{} incidencias con {} clientes y {}: {} ms en total, {} ms la más lenta, {} peticiones/s",
+                     PETICIONES, CLIENTES, hilosVirtuales ? "hilos virtuales" : HILOS_TOMCAT + " hilos de Tomcat", totalMs, maximoMs, PETICIONES * 1000L / Math.max(1, totalMs));
+
+            // Ninguna petición espera al servidor de notificaciones, ni siquiera a un solo envío
+            assertThat(maximoMs).isLessThan(LATENCIA_MS);
+            assertThat(totalMs).isLessThan(PETICIONES / HILOS_TOMCAT * LATENCIA_MS);
+
+            // Y todas las notificaciones (las de la carga y la de la primera petición) se envían después, aunque el servidor sea lento
+            assertThat(this.despachoNotificacionesService.obtenerMetricas().getEnviadas() - enviadasAntes).isEqualTo(PETICIONES + 1);
+        });
+    }
+
+    /**
+     * Envía la petición de creación de una incidencia.
+     * @param httpClient El cliente HTTP.
+     * @param uri La URI del endpoint.
+     * @param indice El número de la incidencia.
+     * @return El estado HTTP de la respuesta.
+     * @throws Exception si falla la petición
+     */
+    private int crearIncidencia(HttpClient httpClient, URI uri, int indice) throws Exception
+    {
+        HttpRequest httpRequest = HttpRequest.newBuilder(uri)
+                                             .header("nombreUbicacion", UBICACION)
+                                             .header("problema", "Sin luz " + indice)
+                                             .header("nombreCategoria", CATEGORIA)
+                                             .POST(HttpRequest.BodyPublishers.noBody())
+                                             .build();
+
+        return httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * @return Las notificaciones que quedan por enviar.
+     */
+    private long contarPendientes()
+    {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notificacion_pendiente WHERE fallida = FALSE", Long.class);
+    }
+
+    /**
+     * @return Los datos de referencia en memoria, con la ubicación, la categoría y el responsable de la prueba.
+     */
+    private DatosReferenciaService crearDatosReferenciaService()
+    {
+        UsuarioCategoria responsable = new UsuarioCategoria(new UsuarioCategoriaId(CATEGORIA, EMAIL_RESPONSABLE), "Responsable", null);
+
+        DatosReferenciaService datosReferenciaService = mock(DatosReferenciaService.class);
+        when(datosReferenciaService.obtener()).thenReturn(new DatosReferencia(Map.of(UBICACION, new Ubicacion(UBICACION)),
+                                                                              Map.of(CATEGORIA, new Categoria(CATEGORIA, false, null)),
+                                                                              Map.of(responsable.getId(), responsable), Map.of(CATEGORIA, List.of(responsable)),
+                                                                              new byte[0], new byte[0], new byte[0]));
+
+        return datosReferenciaService;
+    }
+
+    /**
+     * @return La asignación de responsables, que elige siempre el primero.
+     */
+    private AsignacionResponsableService crearAsignacionResponsableService()
+    {
+        AsignacionResponsableService asignacionResponsableService = mock(AsignacionResponsableService.class);
+        when(asignacionResponsableService.asignar(anyList(), anyString())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).get(0));
+
+        return asignacionResponsableService;
+    }
+
+    /**
+     * Controlador de incidencias con el profesor que crea las incidencias como usuario autenticado, en lugar
+     * de la seguridad de la aplicación.
+     */
+    @Configuration
+    @Import(IncidenciaController.class)
+    public static class ConfiguracionWeb implements WebMvcConfigurer
+    {
+        @Override
+        public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers)
+        {
+            DtoUsuarioExtended usuario = mock(DtoUsuarioExtended.class);
+            when(usuario.getEmail()).thenReturn("profesor@iesjandula.es");
+            when(usuario.getNombre()).thenReturn("Nombre");
+            when(usuario.getApellidos()).thenReturn("Apellidos");
+
+            resolvers.add(new HandlerMethodArgumentResolver()
+            {
+                @Override
+                public boolean supportsParameter(MethodParameter parameter)
+                {
+                    return DtoUsuarioExtended.class.equals(parameter.getParameterType());
+                }
+
+                @Override
+                public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest,
+                                              WebDataBinderFactory binderFactory)
+                {
+                    return usuario;
+                }
+            });
+        }
+    }
+}
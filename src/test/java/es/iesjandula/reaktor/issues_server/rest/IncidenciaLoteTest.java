@@ -0,0 +1,209 @@
+package es.iesjandula.reaktor.issues_server.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.jayway.jsonpath.JsonPath;
+
+import es.iesjandula.reaktor.base.security.models.DtoUsuarioExtended;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.services.BusquedaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.ConsultaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.DatosReferenciaService;
+import es.iesjandula.reaktor.issues_server.services.EstadisticasContadorService;
+import es.iesjandula.reaktor.issues_server.services.ExportacionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.HistorialIncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.ImpresionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.IncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.IndiceTextoIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.NotificacionesIncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.AsignacionResponsableService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+
+/**
+ * Comprueba la creación de incidencias en lote: cada elemento recibe su id o su error en la posición en
+ * que llegó, un elemento no válido no impide crear el resto y las incidencias válidas se guardan sin
+ * consultar los datos de referencia.
+ * <p>
+ * El controlador se prueba con MockMvc sobre el servicio de escritura real y MySQL; los datos de referencia
+ * son una instantánea en memoria y el resto de colaboradores son mocks.
+ * </p>
+ */
+@Import({IncidenciaController.class, IncidenciaService.class})
+public class IncidenciaLoteTest extends PruebaMySqlBase
+{
+    /** Ubicación de las incidencias */
+    private static final String UBICACION = "Aula 1";
+
+    /** Categoría de las incidencias */
+    private static final String CATEGORIA = "Informática";
+
+    /** Email del profesor que crea las incidencias */
+    private static final String EMAIL_PROFESOR = "profesor@iesjandula.es";
+
+    /** Controlador probado */
+    @Autowired
+    private IncidenciaController incidenciaController;
+
+    /** Servicio de contadores de estadísticas */
+    @MockBean
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @MockBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Servicio de datos de referencia en memoria */
+    @MockBean
+    private DatosReferenciaService datosReferenciaService;
+
+    /** Servicio de impresión del parte de desperfectos */
+    @MockBean
+    private ImpresionIncidenciasService impresionIncidenciasService;
+
+    /** Servicio de exportación de incidencias */
+    @MockBean
+    private ExportacionIncidenciasService exportacionIncidenciasService;
+
+    /** Servicio de búsqueda de incidencias */
+    @MockBean
+    private BusquedaIncidenciasService busquedaIncidenciasService;
+
+    /** Servicio del índice de texto completo de incidencias */
+    @MockBean
+    private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
+
+    /** Servicio de lectura de los listados de incidencias */
+    @MockBean
+    private ConsultaIncidenciasService consultaIncidenciasService;
+
+    /** Servicio de asignación de responsables */
+    @MockBean
+    private AsignacionResponsableService asignacionResponsableService;
+
+    /** Servicio del historial de incidencias */
+    @MockBean
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    /** Cliente de los endpoints */
+    private MockMvc mockMvc;
+
+    /**
+     * Crea los datos de referencia, su instantánea en memoria y autentica al profesor que crea las incidencias.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia(UBICACION, CATEGORIA, "responsable@iesjandula.es");
+
+        UsuarioCategoria responsable = new UsuarioCategoria(new UsuarioCategoriaId(CATEGORIA, "responsable@iesjandula.es"), "Responsable", null);
+        when(this.datosReferenciaService.obtener()).thenReturn(new DatosReferencia(Map.of(UBICACION, new Ubicacion(UBICACION)),
+                                                                                   Map.of(CATEGORIA, new Categoria(CATEGORIA, false, null)),
+                                                                                   Map.of(responsable.getId(), responsable), Map.of(CATEGORIA, List.of(responsable)),
+                                                                                   new byte[0], new byte[0], new byte[0]));
+
+        when(this.asignacionResponsableService.asignar(anyList(), anyString())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).get(0));
+
+        this.mockMvc = MockMvcBuilders.standaloneSetup(this.incidenciaController)
+                                      .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                                      .build();
+
+        DtoUsuarioExtended usuario = mock(DtoUsuarioExtended.class);
+        when(usuario.getEmail()).thenReturn(EMAIL_PROFESOR);
+        when(usuario.getNombre()).thenReturn("Nombre");
+        when(usuario.getApellidos()).thenReturn("Apellidos");
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(usuario, null));
+    }
+
+    /**
+     * Quita el usuario autenticado.
+     */
+    @AfterEach
+    public void borrarUsuario()
+    {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void loteDevuelveElResultadoDeCadaElemento() throws Exception
+    {
+        String lote = """
+                      [
+                        {"nombreUbicacion": "Aula 1", "problema": "No hay red", "nombreCategoria": "Informática"},
+                        {"nombreUbicacion": "Aula 99", "problema": "No hay luz", "nombreCategoria": "Informática"},
+                        {"nombreUbicacion": "Aula 1", "problema": "El proyector no enciende", "nombreCategoria": "Informática"}
+                      ]
+                      """;
+
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        MvcResult mvcResult = this.mockMvc.perform(post("/issues/incidencias/lote").contentType(MediaType.APPLICATION_JSON).content(lote))
+                                          .andExpect(status().isOk())
+                                          .andExpect(jsonPath("$.length()").value(3))
+                                          .andExpect(jsonPath("$[0].posicion").value(0))
+                                          .andExpect(jsonPath("$[0].error").doesNotExist())
+                                          .andExpect(jsonPath("$[1].id").doesNotExist())
+                                          .andExpect(jsonPath("$[1].error.code").value(String.valueOf(Constants.ERR_INCIDENCIA_UBICACION_NO_ENCONTRADA_CODE)))
+                                          .andExpect(jsonPath("$[2].posicion").value(2))
+                                          .andExpect(jsonPath("$[2].error").doesNotExist())
+                                          .andReturn();
+
+        String respuesta = mvcResult.getResponse().getContentAsString();
+        long id0 = ((Number) JsonPath.read(respuesta, "$[0].id")).longValue();
+        long id2 = ((Number) JsonPath.read(respuesta, "$[2].id")).longValue();
+
+        // Cada id corresponde a la incidencia de su posición
+        assertThat(this.jdbcTemplate.queryForObject("SELECT problema FROM incidencia WHERE id = ?", String.class, id0)).isEqualTo("No hay red");
+        assertThat(this.jdbcTemplate.queryForObject("SELECT problema FROM incidencia WHERE id = ?", String.class, id2)).isEqualTo("El proyector no enciende");
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM incidencia WHERE email = ?", Long.class, EMAIL_PROFESOR)).isEqualTo(2);
+
+        // Solo se insertan las dos incidencias válidas, sin consultar los datos de referencia
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    public void loteVacioSeRechaza() throws Exception
+    {
+        this.mockMvc.perform(post("/issues/incidencias/lote").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value(String.valueOf(Constants.ERR_LOTE_NO_VALIDO_CODE)));
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM incidencia", Long.class)).isZero();
+    }
+}
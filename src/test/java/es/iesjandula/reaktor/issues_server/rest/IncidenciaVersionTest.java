@@ -0,0 +1,370 @@
+package es.iesjandula.reaktor.issues_server.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.iesjandula.reaktor.base.security.models.DtoUsuarioExtended;
+import es.iesjandula.reaktor.issues_server.CapturaSentencias;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.services.BusquedaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.ConsultaIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.DatosReferenciaService;
+import es.iesjandula.reaktor.issues_server.services.EstadisticasContadorService;
+import es.iesjandula.reaktor.issues_server.services.ExportacionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.HistorialIncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.ImpresionIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.IncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.IndiceTextoIncidenciasService;
+import es.iesjandula.reaktor.issues_server.services.NotificacionesIncidenciaService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.AsignacionResponsableService;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba la concurrencia optimista de los endpoints de incidencias: el ETag de la lectura, el 412
+ * de un If-Match desfasado y los reintentos de las actualizaciones sin If-Match, individuales y en lote.
+ * <p>
+ * El controlador se prueba con MockMvc sobre el servicio de escritura real y MySQL; el resto de sus
+ * colaboradores son mocks. El otro usuario se simula modificando la incidencia desde otro hilo justo
+ * antes de la escritura: antes del UPDATE de las actualizaciones individuales ({@link CapturaSentencias})
+ * y antes del lote JDBC de las actualizaciones en lote (espía de JdbcTemplate). Como el otro usuario
+ * confirma su cambio en su propia transacción, estas pruebas no se ejecutan en una transacción y borran
+ * sus datos al terminar.
+ * </p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({IncidenciaController.class, IncidenciaService.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=es.iesjandula.reaktor.issues_server.CapturaSentencias")
+public class IncidenciaVersionTest extends PruebaMySqlBase
+{
+    /** Email del profesor que crea las incidencias */
+    private static final String EMAIL_PROFESOR = "profesor@iesjandula.es";
+
+    /** Controlador probado */
+    @Autowired
+    private IncidenciaController incidenciaController;
+
+    /** Servicio de escritura de incidencias, con el que se simula al otro usuario */
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    /** Espía del acceso JDBC, para intervenir antes del lote de la actualización en lote */
+    @SpyBean
+    private JdbcTemplate jdbcTemplateEspia;
+
+    /** Servicio de contadores de estadísticas */
+    @MockBean
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @MockBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Servicio de datos de referencia en memoria */
+    @MockBean
+    private DatosReferenciaService datosReferenciaService;
+
+    /** Servicio de impresión del parte de desperfectos */
+    @MockBean
+    private ImpresionIncidenciasService impresionIncidenciasService;
+
+    /** Servicio de exportación de incidencias */
+    @MockBean
+    private ExportacionIncidenciasService exportacionIncidenciasService;
+
+    /** Servicio de búsqueda de incidencias */
+    @MockBean
+    private BusquedaIncidenciasService busquedaIncidenciasService;
+
+    /** Servicio del índice de texto completo de incidencias */
+    @MockBean
+    private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
+
+    /** Servicio de lectura de los listados de incidencias */
+    @MockBean
+    private ConsultaIncidenciasService consultaIncidenciasService;
+
+    /** Servicio de asignación de responsables */
+    @MockBean
+    private AsignacionResponsableService asignacionResponsableService;
+
+    /** Servicio del historial de incidencias */
+    @MockBean
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    /** Cliente de los endpoints */
+    private MockMvc mockMvc;
+
+    /**
+     * Crea los datos de referencia y autentica al profesor que crea las incidencias.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+
+        this.mockMvc = MockMvcBuilders.standaloneSetup(this.incidenciaController)
+                                      .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                                      .build();
+
+        // Sin roles: el profesor solo ve sus incidencias. Los endpoints de administrador no comprueban el rol sin la seguridad de métodos
+        DtoUsuarioExtended usuario = mock(DtoUsuarioExtended.class);
+        when(usuario.getEmail()).thenReturn(EMAIL_PROFESOR);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(usuario, null));
+    }
+
+    /**
+     * Borra los datos de prueba, que se han confirmado.
+     */
+    @AfterEach
+    public void borrarDatos()
+    {
+        SecurityContextHolder.clearContext();
+        reset(this.jdbcTemplateEspia);
+
+        this.jdbcTemplate.update("DELETE FROM incidencia");
+        this.jdbcTemplate.update("DELETE FROM usuario_categoria");
+        this.jdbcTemplate.update("DELETE FROM categoria");
+        this.jdbcTemplate.update("DELETE FROM ubicacion");
+    }
+
+    @Test
+    public void lecturaDevuelveLaVersionEnElEtag() throws Exception
+    {
+        long id = this.insertarIncidencia(1L);
+
+        this.mockMvc.perform(get("/issues/incidencias/detalle/").param("id", String.valueOf(id)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                    .andExpect(jsonPath("$.id").value(id))
+                    .andExpect(jsonPath("$.version").value(0));
+
+        // El ETag de la lectura sirve como If-Match de la edición, que devuelve el siguiente
+        this.mockMvc.perform(put("/issues/incidencias/estado/").header("id", id).header("estado", Constants.ESTADO_RESUELTA).header(HttpHeaders.IF_MATCH, "\"0\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        this.mockMvc.perform(get("/issues/incidencias/detalle/").param("id", String.valueOf(id)))
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                    .andExpect(jsonPath("$.estado").value(Constants.ESTADO_RESUELTA));
+    }
+
+    @Test
+    public void ifMatchDesfasadoDevuelve412SinCambiarNada() throws Exception
+    {
+        long id = this.insertarIncidencia(1L);
+
+        this.mockMvc.perform(put("/issues/incidencias/estado/").header("id", id).header("estado", Constants.ESTADO_EN_PROGRESO).header(HttpHeaders.IF_MATCH, "\"0\""))
+                    .andExpect(status().isOk());
+
+        // El segundo administrador edita con la versión que leyó antes del primer cambio
+        this.mockMvc.perform(put("/issues/incidencias/solucion/").header("id", id).header("solucion", "Cambiada la lámpara").header(HttpHeaders.IF_MATCH, "\"0\""))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.code").value(String.valueOf(Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_CODE)));
+
+        Map<String, Object> fila = this.leerIncidencia(id);
+
+        assertThat(fila.get("solucion")).isNull();
+        assertThat(((Number) fila.get("version")).longValue()).isEqualTo(1L);
+    }
+
+    @Test
+    public void ifMatchDeUnaVersionCambiadaAntesDeEscribirDevuelve412() throws Exception
+    {
+        long id = this.insertarIncidencia(1L);
+
+        // El otro usuario cambia la incidencia entre la lectura y el UPDATE: no se reintenta porque el cliente exige su versión
+        CapturaSentencias.antesDe("update incidencia", () -> this.actualizarSolucionEnOtroHilo(id, "Cambiada la lámpara"));
+
+        this.mockMvc.perform(put("/issues/incidencias/estado/").header("id", id).header("estado", Constants.ESTADO_RESUELTA).header(HttpHeaders.IF_MATCH, "\"0\""))
+                    .andExpect(status().isPreconditionFailed());
+
+        Map<String, Object> fila = this.leerIncidencia(id);
+
+        assertThat(fila.get("estado")).isEqualTo(Constants.ESTADO_PENDIENTE);
+        assertThat(fila.get("solucion")).isEqualTo("Cambiada la lámpara");
+        assertThat(((Number) fila.get("version")).longValue()).isEqualTo(1L);
+    }
+
+    @Test
+    public void escritoresConcurrentesSinIfMatchAplicanAmbosCambios() throws Exception
+    {
+        long id = this.insertarIncidencia(1L);
+
+        CapturaSentencias.antesDe("update incidencia", () -> this.actualizarSolucionEnOtroHilo(id, "Cambiada la lámpara"));
+
+        List<String> sentencias = CapturaSentencias.capturarTodas(() ->
+        {
+            try
+            {
+                this.mockMvc.perform(put("/issues/incidencias/estado/").header("id", id).header("estado", Constants.ESTADO_RESUELTA))
+                            .andExpect(status().isOk())
+                            .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+            }
+            catch (Exception exception)
+            {
+                throw new IllegalStateException(exception);
+            }
+        });
+
+        // El primer UPDATE no encuentra la versión leída; se vuelve a leer y el segundo se aplica
+        assertThat(sentencias.stream().filter(sql -> sql.regionMatches(true, 0, "update incidencia", 0, 17)).count()).isEqualTo(2);
+
+        Map<String, Object> fila = this.leerIncidencia(id);
+
+        assertThat(fila.get("estado")).isEqualTo(Constants.ESTADO_RESUELTA);
+        assertThat(fila.get("solucion")).isEqualTo("Cambiada la lámpara");
+        assertThat(((Number) fila.get("version")).longValue()).isEqualTo(2L);
+    }
+
+    @Test
+    public void loteReintentaLaIncidenciaModificadaUnaVez() throws Exception
+    {
+        long id1 = this.insertarIncidencia(1L);
+        long id2 = this.insertarIncidencia(2L);
+
+        this.modificarAntesDelLote(id2, 1);
+
+        this.mockMvc.perform(put("/issues/incidencias/lote").contentType(MediaType.APPLICATION_JSON)
+                                                             .content("{\"ids\": [" + id1 + ", " + id2 + "], \"estado\": \"" + Constants.ESTADO_RESUELTA + "\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(id1))
+                    .andExpect(jsonPath("$[0].error").doesNotExist())
+                    .andExpect(jsonPath("$[1].id").value(id2))
+                    .andExpect(jsonPath("$[1].error").doesNotExist());
+
+        assertThat(this.leerIncidencia(id1).get("estado")).isEqualTo(Constants.ESTADO_RESUELTA);
+        assertThat(this.leerIncidencia(id2).get("estado")).isEqualTo(Constants.ESTADO_RESUELTA);
+        assertThat(((Number) this.leerIncidencia(id2).get("version")).longValue()).isEqualTo(2L);
+    }
+
+    @Test
+    public void loteDevuelveElConflictoDeCadaFilaQueSigueModificandose() throws Exception
+    {
+        long id1 = this.insertarIncidencia(1L);
+        long id2 = this.insertarIncidencia(2L);
+        long id3 = this.insertarIncidencia(3L);
+
+        // Otro usuario modifica la segunda incidencia antes de cada intento
+        this.modificarAntesDelLote(id2, Constants.INTENTOS_ACTUALIZACION_INCIDENCIA);
+
+        this.mockMvc.perform(put("/issues/incidencias/lote").contentType(MediaType.APPLICATION_JSON)
+                                                             .content("{\"ids\": [" + id1 + ", " + id2 + ", " + id3 + "], \"estado\": \"" + Constants.ESTADO_RESUELTA + "\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].error").doesNotExist())
+                    .andExpect(jsonPath("$[1].id").value(id2))
+                    .andExpect(jsonPath("$[1].error.code").value(String.valueOf(Constants.ERR_INCIDENCIA_VERSION_CONFLICTO_CODE)))
+                    .andExpect(jsonPath("$[2].error").doesNotExist());
+
+        assertThat(this.leerIncidencia(id1).get("estado")).isEqualTo(Constants.ESTADO_RESUELTA);
+        assertThat(this.leerIncidencia(id2).get("estado")).isEqualTo(Constants.ESTADO_PENDIENTE);
+        assertThat(this.leerIncidencia(id3).get("estado")).isEqualTo(Constants.ESTADO_RESUELTA);
+    }
+
+    /**
+     * Simula que otro usuario modifica una incidencia justo antes de cada uno de los primeros lotes JDBC.
+     * @param id El id de la incidencia que modifica.
+     * @param veces En cuántos lotes la modifica.
+     */
+    private void modificarAntesDelLote(long id, int veces)
+    {
+        AtomicInteger pendientes = new AtomicInteger(veces);
+
+        doAnswer(invocation ->
+        {
+            if (pendientes.getAndDecrement() > 0)
+            {
+                CompletableFuture.runAsync(() -> this.jdbcTemplate.update("UPDATE incidencia SET version = version + 1 WHERE id = ?", id)).join();
+            }
+
+            return invocation.callRealMethod();
+        }).when(this.jdbcTemplateEspia).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    /**
+     * Cambia la solución de una incidencia desde otro hilo, con su propia transacción, y espera a que se confirme.
+     * @param id El id de la incidencia.
+     * @param solucion La nueva solución.
+     */
+    private void actualizarSolucionEnOtroHilo(long id, String solucion)
+    {
+        CompletableFuture.runAsync(() ->
+        {
+            try
+            {
+                this.incidenciaService.actualizarSolucion(id, solucion, null, "admin@iesjandula.es");
+            }
+            catch (Exception exception)
+            {
+                throw new IllegalStateException(exception);
+            }
+        }).join();
+    }
+
+    /**
+     * Inserta una incidencia pendiente del profesor, con versión 0.
+     * @param id El id de la incidencia.
+     * @return El id de la incidencia.
+     */
+    private long insertarIncidencia(long id)
+    {
+        this.jdbcTemplate.update("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (?, '2024-2025', 'Aula 1', ?, 'Nombre', 'Apellidos', ?, 'El proyector no enciende', ?, NULL, 'Informática', 'responsable@iesjandula.es')",
+                                 id, EMAIL_PROFESOR, Timestamp.valueOf(LocalDateTime.of(2025, 1, 15, 10, 0)), Constants.ESTADO_PENDIENTE);
+
+        return id;
+    }
+
+    /**
+     * @param id El id de la incidencia.
+     * @return Su estado, su solución y su versión en la base de datos.
+     */
+    private Map<String, Object> leerIncidencia(long id)
+    {
+        return this.jdbcTemplate.queryForMap("SELECT estado, solucion, version FROM incidencia WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,142 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoActualizacionLoteDto;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba la actualización en lote del estado y la solución: se aplica a todas las incidencias
+ * existentes, conserva el campo que no se informa, ignora los ids que no existen y solo avisa de las
+ * incidencias que cambian de verdad.
+ */
+@Import(IncidenciaService.class)
+public class ActualizacionLoteIncidenciasTest extends PruebaMySqlBase
+{
+    /** Email del usuario que hace los cambios */
+    private static final String EMAIL_USUARIO = "admin@iesjandula.es";
+
+    /** Id que no corresponde a ninguna incidencia */
+    private static final long ID_INEXISTENTE = 999L;
+
+    /** Servicio probado */
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    /** Servicio de contadores de estadísticas */
+    @MockBean
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @MockBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Historial de cambios de las incidencias */
+    @MockBean
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    /**
+     * Inserta dos incidencias pendientes (ids 1 y 2) y una ya resuelta con su solución (id 3).
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+
+        this.insertarIncidencia(1L, Constants.ESTADO_PENDIENTE, null);
+        this.insertarIncidencia(2L, Constants.ESTADO_PENDIENTE, null);
+        this.insertarIncidencia(3L, Constants.ESTADO_RESUELTA, "Cambiado el cable");
+    }
+
+    @Test
+    public void actualizarEstadoConservaLaSolucionYSoloAvisaDeLosCambios()
+    {
+        ResultadoActualizacionLoteDto resultado = this.incidenciaService.actualizarLote(List.of(1L, 2L, 3L, ID_INEXISTENTE), Constants.ESTADO_RESUELTA, null, EMAIL_USUARIO);
+
+        assertThat(resultado.getActualizadas()).extracting(IncidenciaNotificacionDto::getId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(resultado.getConflictos()).isEmpty();
+
+        assertThat(this.leer(1L)).containsEntry("estado", Constants.ESTADO_RESUELTA).containsEntry("solucion", null).containsEntry("version", 1L);
+        assertThat(this.leer(2L)).containsEntry("estado", Constants.ESTADO_RESUELTA).containsEntry("version", 1L);
+        assertThat(this.leer(3L)).containsEntry("estado", Constants.ESTADO_RESUELTA).containsEntry("solucion", "Cambiado el cable");
+
+        // La incidencia 3 ya estaba resuelta: no se avisa a su creador
+        this.comprobarAvisosEstado(1L, 2L);
+        verify(this.notificacionesIncidenciaService, never()).encolarEmailsActualizacionSolucion(anyList(), anyString());
+    }
+
+    @Test
+    public void actualizarSolucionConservaElEstado()
+    {
+        ResultadoActualizacionLoteDto resultado = this.incidenciaService.actualizarLote(List.of(1L, 3L), null, "Revisado por mantenimiento", EMAIL_USUARIO);
+
+        assertThat(resultado.getActualizadas()).hasSize(2);
+
+        assertThat(this.leer(1L)).containsEntry("estado", Constants.ESTADO_PENDIENTE).containsEntry("solucion", "Revisado por mantenimiento");
+        assertThat(this.leer(3L)).containsEntry("estado", Constants.ESTADO_RESUELTA).containsEntry("solucion", "Revisado por mantenimiento");
+
+        // La incidencia 2 no está en el lote
+        assertThat(this.leer(2L)).containsEntry("solucion", null).containsEntry("version", 0L);
+
+        verify(this.notificacionesIncidenciaService, never()).encolarEmailsActualizacionEstado(anyList(), anyString());
+    }
+
+    /**
+     * Comprueba que solo se avisa del cambio de estado de las incidencias indicadas.
+     * @param ids Los ids de las incidencias que cambian de estado.
+     */
+    @SuppressWarnings("unchecked")
+    private void comprobarAvisosEstado(Long... ids)
+    {
+        ArgumentCaptor<List<IncidenciaNotificacionDto>> avisadas = ArgumentCaptor.forClass(List.class);
+        verify(this.notificacionesIncidenciaService).encolarEmailsActualizacionEstado(avisadas.capture(), eq(Constants.ESTADO_RESUELTA));
+
+        assertThat(avisadas.getValue()).extracting(IncidenciaNotificacionDto::getId).containsExactlyInAnyOrder(ids);
+    }
+
+    /**
+     * @param id El id de la incidencia.
+     * @return El estado, la solución y la versión de la incidencia en la base de datos.
+     */
+    private Map<String, Object> leer(Long id)
+    {
+        return this.jdbcTemplate.queryForMap("SELECT estado, solucion, version FROM incidencia WHERE id = ?", id);
+    }
+
+    /**
+     * Inserta una incidencia del curso 2024-2025.
+     * @param id El id de la incidencia.
+     * @param estado El estado de la incidencia.
+     * @param solucion La solución de la incidencia.
+     */
+    private void insertarIncidencia(Long id, String estado, String solucion)
+    {
+        this.jdbcTemplate.update("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (?, '2024-2025', 'Aula 1', 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'Problema', ?, ?, 'Informática', 'responsable@iesjandula.es')",
+                                 id, Timestamp.valueOf(LocalDateTime.of(2024, 11, 5, 10, 30)), estado, solucion);
+    }
+}
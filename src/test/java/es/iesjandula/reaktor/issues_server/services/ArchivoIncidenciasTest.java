@@ -0,0 +1,119 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import es.iesjandula.reaktor.base.utils.FechasUtils;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba que la tarea de archivo mueve a incidencia_archivo, por bloques, todas las incidencias de un
+ * curso cerrado cuyas incidencias están todas en un estado final, y que no toca un curso cerrado que
+ * todavía tiene incidencias abiertas ni el curso actual.
+ * <p>
+ * El tamaño de bloque es menor que el número de incidencias del curso para que se muevan en varios bloques.
+ * </p>
+ */
+@Import(ArchivoIncidenciasService.class)
+@TestPropertySource(properties = "reaktor.archivo.tamanio_bloque=2")
+public class ArchivoIncidenciasTest extends PruebaMySqlBase
+{
+    /** Curso cerrado con todas sus incidencias en un estado final */
+    private static final String CURSO_FINALIZADO = "2018-2019";
+
+    /** Curso cerrado con alguna incidencia abierta */
+    private static final String CURSO_CON_ABIERTAS = "2019-2020";
+
+    /** Servicio probado */
+    @Autowired
+    private ArchivoIncidenciasService archivoIncidenciasService;
+
+    /** Índice de texto completo, del que se quitan las incidencias archivadas */
+    @MockBean
+    private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
+
+    /**
+     * Inserta tres incidencias finales del curso finalizado, una resuelta y una pendiente del curso
+     * con abiertas y una pendiente del curso actual.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+
+        this.insertarIncidencia(1L, CURSO_FINALIZADO, Constants.ESTADO_RESUELTA);
+        this.insertarIncidencia(2L, CURSO_FINALIZADO, Constants.ESTADO_CANCELADA);
+        this.insertarIncidencia(3L, CURSO_FINALIZADO, Constants.ESTADO_DUPLICADA);
+        this.insertarIncidencia(4L, CURSO_CON_ABIERTAS, Constants.ESTADO_RESUELTA);
+        this.insertarIncidencia(5L, CURSO_CON_ABIERTAS, Constants.ESTADO_PENDIENTE);
+        this.insertarIncidencia(6L, FechasUtils.obtenerCursoAcademicoActual(), Constants.ESTADO_PENDIENTE);
+    }
+
+    @Test
+    public void archivaElCursoFinalizadoYDejaElQueTieneAbiertas()
+    {
+        this.archivoIncidenciasService.archivarCursosCerrados();
+
+        // El curso finalizado sale completo de la tabla incidencia y pasa al archivo con su responsable
+        assertThat(this.contarIncidencias(CURSO_FINALIZADO)).isZero();
+        assertThat(this.jdbcTemplate.queryForList("SELECT id FROM incidencia_archivo WHERE curso_academico = ? ORDER BY id", Long.class, CURSO_FINALIZADO))
+            .containsExactly(1L, 2L, 3L);
+
+        Map<String, Object> archivada = this.jdbcTemplate.queryForMap("SELECT estado, nombre_responsable, version FROM incidencia_archivo WHERE id = 2");
+        assertThat(archivada).containsEntry("estado", Constants.ESTADO_CANCELADA).containsEntry("nombre_responsable", "Responsable").containsEntry("version", 0L);
+
+        // El curso con una incidencia abierta no se archiva, ni siquiera su incidencia resuelta
+        assertThat(this.contarIncidencias(CURSO_CON_ABIERTAS)).isEqualTo(2);
+        assertThat(this.contarIncidencias(FechasUtils.obtenerCursoAcademicoActual())).isEqualTo(1);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM incidencia_archivo WHERE curso_academico <> ?", Long.class, CURSO_FINALIZADO)).isZero();
+
+        // Las incidencias archivadas dejan de aparecer en la búsqueda por texto
+        verify(this.indiceTextoIncidenciasService, times(3)).eliminar(anyLong());
+    }
+
+    @Test
+    public void archivarDosVecesNoDuplicaNada()
+    {
+        this.archivoIncidenciasService.archivarCursosCerrados();
+        this.archivoIncidenciasService.archivarCursosCerrados();
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM incidencia_archivo", Long.class)).isEqualTo(3);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM incidencia", Long.class)).isEqualTo(3);
+    }
+
+    /**
+     * @param cursoAcademico El curso académico.
+     * @return Las incidencias del curso que siguen en la tabla incidencia.
+     */
+    private long contarIncidencias(String cursoAcademico)
+    {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM incidencia WHERE curso_academico = ?", Long.class, cursoAcademico);
+    }
+
+    /**
+     * Inserta una incidencia.
+     * @param id El id de la incidencia.
+     * @param cursoAcademico El curso académico.
+     * @param estado El estado de la incidencia.
+     */
+    private void insertarIncidencia(Long id, String cursoAcademico, String estado)
+    {
+        this.jdbcTemplate.update("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (?, ?, 'Aula 1', 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'Problema', ?, NULL, 'Informática', 'responsable@iesjandula.es')",
+                                 id, cursoAcademico, Timestamp.valueOf(LocalDateTime.of(2019, 2, 10, 9, 0)), estado);
+    }
+}
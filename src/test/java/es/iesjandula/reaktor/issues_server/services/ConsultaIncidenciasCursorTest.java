@@ -0,0 +1,147 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.CursorKeyset;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+
+/**
+ * Comprueba la paginación por clave (fecha, id) del listado de incidencias: el cursor inicial devuelve
+ * la incidencia más reciente, los cursores manipulados se rechazan con ERR_CURSOR_NO_VALIDO y los
+ * empates de fecha se resuelven por id sin saltar ni repetir filas entre páginas.
+ */
+@Import(ConsultaIncidenciasService.class)
+public class ConsultaIncidenciasCursorTest extends PruebaMySqlBase
+{
+    /** Curso académico de las incidencias */
+    private static final String CURSO = "2024-2025";
+
+    /** Fecha compartida por las dos incidencias más recientes */
+    private static final LocalDateTime FECHA_EMPATADA = LocalDateTime.of(2024, 11, 5, 10, 30);
+
+    /** Una incidencia por página, para recorrer los empates de uno en uno */
+    private static final Pageable UNA_FILA = PageRequest.of(0, 1);
+
+    /** Servicio probado */
+    @Autowired
+    private ConsultaIncidenciasService consultaIncidenciasService;
+
+    /**
+     * Inserta dos incidencias con la misma fecha (ids 1 y 2) y una anterior (id 3).
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+
+        this.insertarIncidencia(1L, FECHA_EMPATADA);
+        this.insertarIncidencia(2L, FECHA_EMPATADA);
+        this.insertarIncidencia(3L, FECHA_EMPATADA.minusDays(1));
+    }
+
+    @Test
+    public void sinCursorSeEmpiezaPorElCursorInicial() throws IssuesServerError
+    {
+        assertThat(CursorKeyset.decodificar(null)).isEqualTo(CursorKeyset.inicial());
+        assertThat(CursorKeyset.decodificar("")).isEqualTo(CursorKeyset.inicial());
+
+        CursorKeyset inicial = CursorKeyset.inicial();
+        List<IncidenciaDto> pagina = this.consultaIncidenciasService.listarTodasDesdeCursor(CURSO, inicial.getFecha(), inicial.getId(), UNA_FILA);
+
+        assertThat(pagina).extracting(IncidenciaDto::getId).containsExactly(2L);
+    }
+
+    @Test
+    public void losEmpatesDeFechaSeResuelvenPorId() throws IssuesServerError
+    {
+        CursorKeyset cursor = CursorKeyset.inicial();
+        List<Long> recorridos = new ArrayList<Long>();
+
+        List<IncidenciaDto> pagina = this.consultaIncidenciasService.listarTodasDesdeCursor(CURSO, cursor.getFecha(), cursor.getId(), UNA_FILA);
+        while (!pagina.isEmpty())
+        {
+            IncidenciaDto ultima = pagina.get(0);
+            recorridos.add(ultima.getId());
+
+            // El cursor viaja codificado hasta el cliente y vuelve en la siguiente petición
+            cursor = CursorKeyset.decodificar(new CursorKeyset(ultima.getFechaOrden(), ultima.getId()).codificar());
+            pagina = this.consultaIncidenciasService.listarTodasDesdeCursor(CURSO, cursor.getFecha(), cursor.getId(), UNA_FILA);
+        }
+
+        assertThat(recorridos).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    public void elCursorConservaLaFechaYElId() throws IssuesServerError
+    {
+        CursorKeyset cursor = new CursorKeyset(FECHA_EMPATADA, 2L);
+
+        assertThat(CursorKeyset.decodificar(cursor.codificar())).isEqualTo(cursor);
+    }
+
+    @Test
+    public void unCursorQueNoEsBase64SeRechaza()
+    {
+        this.comprobarCursorNoValido("no es base64!");
+    }
+
+    @Test
+    public void unCursorManipuladoSeRechaza()
+    {
+        this.comprobarCursorNoValido(this.codificar("sin separador"));
+        this.comprobarCursorNoValido(this.codificar(FECHA_EMPATADA + "|dos"));
+        this.comprobarCursorNoValido(this.codificar("ayer|2"));
+    }
+
+    /**
+     * Comprueba que decodificar un cursor lanza el error de cursor no válido.
+     * @param cursor El cursor recibido del cliente.
+     */
+    private void comprobarCursorNoValido(String cursor)
+    {
+        assertThatThrownBy(() -> CursorKeyset.decodificar(cursor))
+            .isInstanceOf(IssuesServerError.class)
+            .hasMessage(Constants.ERR_CURSOR_NO_VALIDO_MESSAGE)
+            .satisfies(error -> assertThat(((IssuesServerError) error).getBodyErrorMessage())
+                                    .containsEntry("code", String.valueOf(Constants.ERR_CURSOR_NO_VALIDO_CODE)));
+    }
+
+    /**
+     * @param contenido El contenido del cursor sin codificar.
+     * @return El contenido en Base64, como lo haría un cliente que manipula el cursor.
+     */
+    private String codificar(String contenido)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Inserta una incidencia pendiente del curso de prueba.
+     * @param id El id de la incidencia.
+     * @param fecha La fecha de la incidencia.
+     */
+    private void insertarIncidencia(Long id, LocalDateTime fecha)
+    {
+        this.jdbcTemplate.update("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (?, ?, 'Aula 1', 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'Problema', ?, NULL, 'Informática', 'responsable@iesjandula.es')",
+                                 id, CURSO, Timestamp.valueOf(fecha), Constants.ESTADO_PENDIENTE);
+    }
+}
@@ -0,0 +1,362 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.iesjandula.reaktor.base_client.requests.notificaciones.RequestNotificacionesEnviarEmail;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaNotificacionDto;
+import es.iesjandula.reaktor.issues_server.dtos.NotificacionPendienteDto;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba el despacho de la bandeja de salida de notificaciones sobre MySQL: los reintentos con espera
+ * exponencial hasta marcar la notificación como fallida, que dos despachadores a la vez nunca envían la
+ * misma fila (FOR UPDATE SKIP LOCKED), que una reserva abandonada se vuelve a enviar al vencer y que
+ * los cambios de un destinatario dentro de la ventana se envían en un único resumen.
+ * <p>
+ * Las esperas son de minutos para que no venzan durante la prueba; el paso del tiempo se simula
+ * adelantando siguiente_intento en la tabla. El despacho reserva y borra en transacciones propias,
+ * así que estas pruebas no se ejecutan en una transacción y borran sus datos al terminar.
+ * </p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DespachoNotificacionesService.class, NotificacionesIncidenciaService.class})
+@TestPropertySource(properties = {"reaktor.notificaciones.tamanio_lote=5",
+                                  "reaktor.notificaciones.max_intentos=4",
+                                  "reaktor.notificaciones.espera_inicial_ms=60000",
+                                  "reaktor.notificaciones.espera_maxima_ms=150000",
+                                  "reaktor.notificaciones.ventana_ms=60000",
+                                  "reaktor.notificaciones.reserva_ms=600000"})
+public class DespachoNotificacionesTest extends PruebaMySqlBase
+{
+    /** Espera antes del primer reintento, igual que en las propiedades de la prueba */
+    private static final Duration ESPERA_INICIAL = Duration.ofMillis(60000);
+
+    /** Espera máxima entre reintentos, igual que en las propiedades de la prueba */
+    private static final Duration ESPERA_MAXIMA = Duration.ofMillis(150000);
+
+    /** Duración de la reserva, igual que en las propiedades de la prueba */
+    private static final Duration RESERVA = Duration.ofMillis(600000);
+
+    /** Segundos que espera cada despachador a que el otro haya reservado su lote */
+    private static final long ESPERA_RESERVA_S = 10;
+
+    /** Servicio probado */
+    @Autowired
+    private DespachoNotificacionesService despachoNotificacionesService;
+
+    /** Transacción en la que se encolan las notificaciones, como al modificar una incidencia */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** Espía del servicio que prepara los emails, para ver qué incluye cada resumen */
+    @SpyBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Espía del acceso JDBC, para ver qué filas reserva y borra cada despachador */
+    @SpyBean
+    private JdbcTemplate jdbcTemplateEspia;
+
+    /** Cliente del servidor de notificaciones */
+    @MockBean
+    private RequestNotificacionesEnviarEmail requestNotificacionesEnviarEmail;
+
+    /**
+     * Borra las notificaciones de la prueba, que se han confirmado.
+     */
+    @AfterEach
+    public void borrarDatos()
+    {
+        this.jdbcTemplate.update("DELETE FROM notificacion_pendiente");
+    }
+
+    @Test
+    public void fallosReintentanConEsperaExponencialHastaMarcarFallida() throws Exception
+    {
+        doThrow(new IllegalStateException("Servidor de notificaciones caído")).when(this.requestNotificacionesEnviarEmail).enviarNotificacionEmail(any());
+
+        long id = this.insertarNotificacion("profesor@iesjandula.es", null, null, null, 0, LocalDateTime.now().minusSeconds(1));
+
+        // Cada fallo duplica la espera hasta el máximo: 1, 2 y 2,5 minutos (4 queda limitado a 2,5)
+        List<Duration> esperas = List.of(ESPERA_INICIAL, ESPERA_INICIAL.multipliedBy(2), ESPERA_MAXIMA);
+        for (int intento = 1; intento <= esperas.size(); intento++)
+        {
+            LocalDateTime antes = LocalDateTime.now();
+            this.despachoNotificacionesService.despachar();
+            LocalDateTime despues = LocalDateTime.now();
+
+            Map<String, Object> fila = this.leerNotificacion(id);
+
+            assertThat(fila.get("intentos")).isEqualTo(intento);
+            assertThat(fila.get("fallida")).isEqualTo(false);
+            assertThat(fila.get("ultimo_error")).isEqualTo("Servidor de notificaciones caído");
+            assertThat(((Timestamp) fila.get("siguiente_intento")).toLocalDateTime()).isBetween(antes.plus(esperas.get(intento - 1)),
+                                                                                               despues.plus(esperas.get(intento - 1)));
+
+            // Mientras no vence la espera no se reintenta
+            this.despachoNotificacionesService.despachar();
+            verify(this.requestNotificacionesEnviarEmail, times(intento)).enviarNotificacionEmail(any());
+
+            this.vencer(id);
+        }
+
+        // El cuarto fallo agota los intentos
+        this.despachoNotificacionesService.despachar();
+
+        Map<String, Object> fila = this.leerNotificacion(id);
+        assertThat(fila.get("intentos")).isEqualTo(4);
+        assertThat(fila.get("fallida")).isEqualTo(true);
+
+        // Una notificación fallida se queda en la tabla y no se vuelve a enviar
+        this.vencer(id);
+        this.despachoNotificacionesService.despachar();
+
+        verify(this.requestNotificacionesEnviarEmail, times(4)).enviarNotificacionEmail(any());
+        assertThat(this.despachoNotificacionesService.obtenerMetricas().getFallidas()).isEqualTo(1);
+    }
+
+    @Test
+    public void dosDespachadoresNuncaEnvianLaMismaFila() throws Exception
+    {
+        int destinatarios = 60;
+        for (int i = 0; i < destinatarios; i++)
+        {
+            this.insertarNotificacion("profesor" + i + "@iesjandula.es", null, null, null, 0, LocalDateTime.now().minusSeconds(1));
+        }
+        this.jdbcTemplate.execute("ANALYZE TABLE notificacion_pendiente");
+
+        // Los dos primeros lotes esperan, con sus filas bloqueadas, a que el otro despachador haya reservado el suyo
+        CyclicBarrier ambosReservados = new CyclicBarrier(2);
+        AtomicInteger reservas = new AtomicInteger();
+        List<Set<Long>> primerosLotes = new CopyOnWriteArrayList<Set<Long>>();
+        doAnswer(invocation ->
+        {
+            if (reservas.getAndIncrement() < 2)
+            {
+                primerosLotes.add(this.obtenerIds(invocation.getArgument(1)));
+                ambosReservados.await(ESPERA_RESERVA_S, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(this.jdbcTemplateEspia).batchUpdate(startsWith("UPDATE notificacion_pendiente SET siguiente_intento"), anyCollection(), anyInt(),
+                                                    any(ParameterizedPreparedStatementSetter.class));
+
+        // Cada id borrado es una fila enviada
+        Map<Long, Integer> borradas = new ConcurrentHashMap<Long, Integer>();
+        doAnswer(invocation ->
+        {
+            for (Object id : (Collection<?>) invocation.getArgument(1))
+            {
+                borradas.merge((Long) id, 1, Integer::sum);
+            }
+            return invocation.callRealMethod();
+        }).when(this.jdbcTemplateEspia).batchUpdate(startsWith("DELETE FROM notificacion_pendiente"), anyCollection(), anyInt(),
+                                                    any(ParameterizedPreparedStatementSetter.class));
+
+        CompletableFuture.allOf(CompletableFuture.runAsync(this.despachoNotificacionesService::despachar),
+                                CompletableFuture.runAsync(this.despachoNotificacionesService::despachar)).join();
+
+        // Las dos reservas estaban abiertas a la vez y cada una tomó filas distintas
+        assertThat(primerosLotes).hasSize(2);
+        assertThat(primerosLotes.get(0)).isNotEmpty().doesNotContainAnyElementsOf(primerosLotes.get(1));
+        assertThat(primerosLotes.get(1)).isNotEmpty();
+
+        assertThat(borradas).hasSize(destinatarios);
+        assertThat(borradas.values()).containsOnly(1);
+        verify(this.requestNotificacionesEnviarEmail, times(destinatarios)).enviarNotificacionEmail(any());
+        assertThat(this.contarNotificaciones()).isZero();
+    }
+
+    @Test
+    public void reservaAbandonadaSeEnviaAlVencer() throws Exception
+    {
+        // La instancia se detiene tras reservar y antes de enviar: el error no lo captura el despachador
+        doThrow(new Error("Instancia detenida")).doNothing().when(this.requestNotificacionesEnviarEmail).enviarNotificacionEmail(any());
+
+        long id = this.insertarNotificacion("profesor@iesjandula.es", null, null, null, 0, LocalDateTime.now().minusSeconds(1));
+
+        LocalDateTime antes = LocalDateTime.now();
+        assertThatThrownBy(this.despachoNotificacionesService::despachar).isInstanceOf(Error.class);
+        LocalDateTime despues = LocalDateTime.now();
+
+        // La fila sigue reservada, sin intentos anotados
+        Map<String, Object> fila = this.leerNotificacion(id);
+        assertThat(fila.get("intentos")).isEqualTo(0);
+        assertThat(((Timestamp) fila.get("siguiente_intento")).toLocalDateTime()).isBetween(antes.plus(RESERVA), despues.plus(RESERVA));
+
+        // Mientras dura la reserva ningún despachador la toma
+        this.despachoNotificacionesService.despachar();
+        verify(this.requestNotificacionesEnviarEmail, times(1)).enviarNotificacionEmail(any());
+
+        this.vencer(id);
+        this.despachoNotificacionesService.despachar();
+
+        verify(this.requestNotificacionesEnviarEmail, times(2)).enviarNotificacionEmail(any());
+        assertThat(this.contarNotificaciones()).isZero();
+    }
+
+    @Test
+    public void cambiosEnLaVentanaSeEnvianEnUnResumenConLosUltimosValores() throws Exception
+    {
+        String email = "profesor@iesjandula.es";
+        IncidenciaNotificacionDto proyector = this.datosIncidencia(1L, email);
+        IncidenciaNotificacionDto pizarra   = this.datosIncidencia(2L, email);
+
+        this.transactionTemplate.executeWithoutResult(status ->
+        {
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionEstado(List.of(proyector), Constants.ESTADO_EN_PROGRESO);
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionSolucion(List.of(proyector), "Cambiado el cable");
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionEstado(List.of(proyector), Constants.ESTADO_RESUELTA);
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionSolucion(List.of(proyector), "Cambiado el proyector");
+            this.notificacionesIncidenciaService.encolarEmailsActualizacionEstado(List.of(pizarra), Constants.ESTADO_CANCELADA);
+        });
+
+        // Un reintento del mismo destinatario que vence dentro de la ventana sigue su espera y no entra en el resumen
+        long reintento = this.insertarNotificacion(email, Constants.EVENTO_ESTADO, 3L, Constants.ESTADO_PENDIENTE, 1, LocalDateTime.now().plusSeconds(30));
+
+        // Mientras la ventana está abierta no se envía nada
+        this.despachoNotificacionesService.despachar();
+        verify(this.requestNotificacionesEnviarEmail, never()).enviarNotificacionEmail(any());
+
+        AtomicReference<NotificacionPendienteDto> resumen = new AtomicReference<NotificacionPendienteDto>();
+        doAnswer(invocation ->
+        {
+            resumen.set((NotificacionPendienteDto) invocation.callRealMethod());
+            return resumen.get();
+        }).when(this.notificacionesIncidenciaService).crearResumen(anyString(), anyList());
+
+        // Se cierra la ventana de la primera notificación: se envían con ella las demás nuevas del destinatario
+        long primera = this.jdbcTemplate.queryForObject("SELECT MIN(id) FROM notificacion_pendiente", Long.class);
+        this.vencer(primera);
+        this.despachoNotificacionesService.despachar();
+
+        verify(this.requestNotificacionesEnviarEmail, times(1)).enviarNotificacionEmail(any());
+        verify(this.notificacionesIncidenciaService, times(1)).crearResumen(anyString(), anyList());
+
+        // De cada incidencia solo el último estado y la última solución
+        assertThat(resumen.get().getDestinatario()).isEqualTo(email);
+        assertThat(resumen.get().getAsunto()).isEqualTo("Resumen de 3 avisos de incidencias");
+        assertThat(resumen.get().getCuerpo()).contains(Constants.ESTADO_RESUELTA, "Cambiado el proyector", Constants.ESTADO_CANCELADA)
+                                             .doesNotContain(Constants.ESTADO_EN_PROGRESO, "Cambiado el cable", Constants.ESTADO_PENDIENTE);
+
+        // Solo queda el reintento, sin tocar
+        assertThat(this.jdbcTemplate.queryForList("SELECT id FROM notificacion_pendiente", Long.class)).containsExactly(reintento);
+        assertThat(this.leerNotificacion(reintento).get("intentos")).isEqualTo(1);
+    }
+
+    /**
+     * @param id El id de la incidencia.
+     * @param email El email del usuario que la creó.
+     * @return Los datos de una incidencia para notificar sus cambios.
+     */
+    private IncidenciaNotificacionDto datosIncidencia(long id, String email)
+    {
+        IncidenciaNotificacionDto incidencia = new IncidenciaNotificacionDto();
+
+        incidencia.setId(id);
+        incidencia.setEmail(email);
+        incidencia.setUbicacion("Aula " + id);
+
+        return incidencia;
+    }
+
+    /**
+     * Inserta una notificación en la bandeja de salida.
+     * @param destinatario El email del destinatario.
+     * @param tipo El tipo de evento, o nulo si no se agrupa.
+     * @param incidenciaId El id de la incidencia.
+     * @param detalle El problema, el nuevo estado o la nueva solución.
+     * @param intentos Los envíos fallidos.
+     * @param siguienteIntento Cuándo toca enviarla.
+     * @return El id de la notificación.
+     */
+    private long insertarNotificacion(String destinatario, String tipo, Long incidenciaId, String detalle, int intentos, LocalDateTime siguienteIntento)
+    {
+        this.jdbcTemplate.update("INSERT INTO notificacion_pendiente (destinatario, asunto, cuerpo, fecha_creacion, intentos, siguiente_intento, tipo, incidencia_id, ubicacion, detalle) " +
+                                 "VALUES (?, 'Asunto', 'Cuerpo', ?, ?, ?, ?, ?, 'Aula 1', ?)",
+                                 destinatario, Timestamp.valueOf(LocalDateTime.now()), intentos, Timestamp.valueOf(siguienteIntento), tipo, incidenciaId, detalle);
+
+        return this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM notificacion_pendiente", Long.class);
+    }
+
+    /**
+     * Simula que ha vencido la espera o la reserva de una notificación.
+     * @param id El id de la notificación.
+     */
+    private void vencer(long id)
+    {
+        this.jdbcTemplate.update("UPDATE notificacion_pendiente SET siguiente_intento = ? WHERE id = ?", Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), id);
+    }
+
+    /**
+     * @param id El id de la notificación.
+     * @return Sus intentos, siguiente intento, si es fallida y su último error.
+     */
+    private Map<String, Object> leerNotificacion(long id)
+    {
+        return this.jdbcTemplate.queryForMap("SELECT intentos, siguiente_intento, fallida, ultimo_error FROM notificacion_pendiente WHERE id = ?", id);
+    }
+
+    /**
+     * @return Las notificaciones que quedan en la bandeja de salida.
+     */
+    private long contarNotificaciones()
+    {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notificacion_pendiente", Long.class);
+    }
+
+    /**
+     * @param lote Las notificaciones reservadas.
+     * @return Sus ids.
+     */
+    private Set<Long> obtenerIds(Collection<NotificacionPendienteDto> lote)
+    {
+        List<Long> ids = new ArrayList<Long>(lote.size());
+        for (NotificacionPendienteDto notificacion : lote)
+        {
+            ids.add(notificacion.getId());
+        }
+
+        return Set.copyOf(ids);
+    }
+}
@@ -0,0 +1,187 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasEstadoDto;
+import es.iesjandula.reaktor.issues_server.dtos.EstadisticasResumenDto;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+
+/**
+ * Comprueba que las estadísticas de un curso anterior al actual solo se congelan cuando todas sus
+ * incidencias están en un estado final, y que modificar después una incidencia del curso descarta la
+ * instantánea en lugar de dejar las estadísticas desfasadas.
+ * <p>
+ * Las instantáneas se calculan en transacciones propias que deben ver las incidencias de la prueba,
+ * así que estas pruebas no se ejecutan en una transacción y borran sus datos al terminar.
+ * </p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({IncidenciaService.class, EstadisticasService.class, EstadisticasContadorService.class})
+public class EstadisticasCursoCerradoTest extends PruebaMySqlBase
+{
+    /** Curso académico anterior al actual */
+    private static final String CURSO_ANTERIOR = "2020-2021";
+
+    /** Servicio de escritura de incidencias */
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    /** Servicio probado */
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @MockBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Historial de cambios de las incidencias */
+    @MockBean
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    /** Incidencia resuelta del curso anterior */
+    private Incidencia resuelta;
+
+    /** Incidencia pendiente del curso anterior */
+    private Incidencia pendiente;
+
+    /**
+     * Crea una incidencia resuelta y otra pendiente en un curso anterior al actual.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+
+        this.resuelta  = this.nuevaIncidencia(Constants.ESTADO_RESUELTA);
+        this.pendiente = this.nuevaIncidencia(Constants.ESTADO_PENDIENTE);
+
+        this.incidenciaService.crearLote(List.of(this.resuelta, this.pendiente), false, null);
+    }
+
+    /**
+     * Borra los datos de prueba, que se han confirmado, y las instantáneas que se hayan quedado en memoria.
+     */
+    @AfterEach
+    public void borrarDatos()
+    {
+        this.estadisticasService.invalidarSnapshots(List.of(CURSO_ANTERIOR));
+
+        this.jdbcTemplate.update("DELETE FROM incidencia");
+        this.jdbcTemplate.update("DELETE FROM estadistica_contador");
+        this.jdbcTemplate.update("DELETE FROM estadistica_diaria");
+        this.jdbcTemplate.update("DELETE FROM usuario_categoria");
+        this.jdbcTemplate.update("DELETE FROM categoria");
+        this.jdbcTemplate.update("DELETE FROM ubicacion");
+    }
+
+    @Test
+    public void cursoConIncidenciasAbiertasSeCalculaAlMomento() throws JsonProcessingException, IssuesServerError
+    {
+        assertThat(this.contarPorEstado(this.estadisticasService.obtenerResumen(CURSO_ANTERIOR), Constants.ESTADO_RESUELTA)).isEqualTo(1);
+        assertThat(this.existeSnapshot()).isFalse();
+
+        this.incidenciaService.actualizarEstado(this.pendiente.getId(), Constants.ESTADO_RESUELTA, null, "admin@iesjandula.es");
+
+        EstadisticasResumenDto resumen = this.estadisticasService.obtenerResumen(CURSO_ANTERIOR);
+
+        assertThat(this.contarPorEstado(resumen, Constants.ESTADO_RESUELTA)).isEqualTo(2);
+        assertThat(this.contarPorEstado(resumen, Constants.ESTADO_PENDIENTE)).isZero();
+
+        // Ya están todas cerradas: ahora sí se congela
+        assertThat(this.existeSnapshot()).isTrue();
+    }
+
+    @Test
+    public void modificarIncidenciaDeCursoCerradoDescartaLaInstantanea() throws JsonProcessingException, IssuesServerError
+    {
+        this.incidenciaService.actualizarEstado(this.pendiente.getId(), Constants.ESTADO_CANCELADA, null, "admin@iesjandula.es");
+
+        EstadisticasResumenDto congelado = this.estadisticasService.obtenerResumen(CURSO_ANTERIOR);
+
+        assertThat(this.contarPorEstado(congelado, Constants.ESTADO_CANCELADA)).isEqualTo(1);
+        assertThat(this.existeSnapshot()).isTrue();
+
+        // Una incidencia en estado final se puede seguir modificando desde los endpoints
+        this.incidenciaService.actualizarEstado(this.resuelta.getId(), Constants.ESTADO_CANCELADA, null, "admin@iesjandula.es");
+
+        assertThat(this.existeSnapshot()).isFalse();
+
+        EstadisticasResumenDto resumen = this.estadisticasService.obtenerResumen(CURSO_ANTERIOR);
+
+        assertThat(this.contarPorEstado(resumen, Constants.ESTADO_CANCELADA)).isEqualTo(2);
+        assertThat(this.contarPorEstado(resumen, Constants.ESTADO_RESUELTA)).isZero();
+        assertThat(this.estadisticasService.obtenerEstadisticasPorEstado(CURSO_ANTERIOR)).extracting(EstadisticasEstadoDto::getEstado)
+                                                                                          .containsExactly(Constants.ESTADO_CANCELADA);
+    }
+
+    /**
+     * @param resumen El resumen de estadísticas.
+     * @param estado El estado.
+     * @return Las incidencias del resumen en ese estado.
+     */
+    private long contarPorEstado(EstadisticasResumenDto resumen, String estado)
+    {
+        return resumen.getPorEstado()
+                      .stream()
+                      .filter(porEstado -> estado.equals(porEstado.getEstado()))
+                      .mapToLong(EstadisticasEstadoDto::getCantidad)
+                      .sum();
+    }
+
+    /**
+     * @return true si está guardada la instantánea del curso anterior.
+     */
+    private boolean existeSnapshot()
+    {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM estadistica_snapshot WHERE curso_academico = ?", Long.class, CURSO_ANTERIOR) > 0;
+    }
+
+    /**
+     * @param estado El estado de la incidencia.
+     * @return Una incidencia nueva del curso anterior.
+     */
+    private Incidencia nuevaIncidencia(String estado)
+    {
+        Incidencia incidencia = new Incidencia();
+
+        incidencia.setCursoAcademico(CURSO_ANTERIOR);
+        incidencia.setUbicacion(new Ubicacion("Aula 1"));
+        incidencia.setEmail("profesor@iesjandula.es");
+        incidencia.setNombre("Nombre");
+        incidencia.setApellidos("Apellidos");
+        incidencia.setFecha(LocalDateTime.of(2021, 3, 10, 9, 0));
+        incidencia.setProblema("El proyector no enciende");
+        incidencia.setEstado(estado);
+        incidencia.setUsuarioCategoria(new UsuarioCategoria(new UsuarioCategoriaId("Informática", "responsable@iesjandula.es"), "Responsable", null));
+
+        return incidencia;
+    }
+}
@@ -0,0 +1,138 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba que la reconciliación nocturna de los contadores de estadísticas cuenta también las
+ * incidencias archivadas, de modo que no pone a cero los contadores de los cursos que ya se han
+ * movido a incidencia_archivo y sigue corrigiendo los del curso en uso.
+ * <p>
+ * La reconciliación abre sus propias transacciones, así que estas pruebas no se ejecutan en una
+ * transacción y borran sus datos al terminar.
+ * </p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(EstadisticasContadorService.class)
+public class EstadisticasReconciliacionTest extends PruebaMySqlBase
+{
+    /** Curso académico archivado */
+    private static final String CURSO_ARCHIVADO = "2019-2020";
+
+    /** Curso académico en uso */
+    private static final String CURSO_EN_USO = "2024-2025";
+
+    /** Ubicación de las incidencias */
+    private static final String UBICACION = "Aula 1";
+
+    /** Categoría de las incidencias */
+    private static final String CATEGORIA = "Informática";
+
+    /** Servicio probado */
+    @Autowired
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Servicio de estadísticas, del que solo se descartan instantáneas */
+    @MockBean
+    private EstadisticasService estadisticasService;
+
+    /**
+     * Archiva dos incidencias de un curso cerrado con sus contadores al día y crea una incidencia del
+     * curso en uso sin contadores.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia(UBICACION, CATEGORIA, "responsable@iesjandula.es");
+
+        for (long id = 1; id <= 2; id++)
+        {
+            this.jdbcTemplate.update("INSERT INTO incidencia_archivo (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, " +
+                                     "nombre_categoria, email_responsable, nombre_responsable, version) " +
+                                     "VALUES (?, ?, ?, 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'Problema', ?, 'Solución', ?, 'responsable@iesjandula.es', 'Responsable', 0)",
+                                     id, CURSO_ARCHIVADO, UBICACION, Timestamp.valueOf(LocalDateTime.of(2020, 2, 10, 9, 0)), Constants.ESTADO_RESUELTA, CATEGORIA);
+        }
+
+        this.insertarContador(CURSO_ARCHIVADO, Constants.DIMENSION_CATEGORIA, CATEGORIA, 2);
+        this.insertarContador(CURSO_ARCHIVADO, Constants.DIMENSION_ESTADO, Constants.ESTADO_RESUELTA, 2);
+        this.insertarContador(CURSO_ARCHIVADO, Constants.DIMENSION_UBICACION, UBICACION, 2);
+
+        this.jdbcTemplate.update("INSERT INTO estadistica_diaria (dia, dimension, valor, cantidad) VALUES ('2020-02-10', ?, ?, 2), ('2020-02-10', ?, ?, 2)",
+                                 Constants.DIMENSION_CATEGORIA, CATEGORIA, Constants.DIMENSION_UBICACION, UBICACION);
+
+        this.jdbcTemplate.update("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (3, ?, ?, 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'Problema', ?, NULL, ?, 'responsable@iesjandula.es')",
+                                 CURSO_EN_USO, UBICACION, Timestamp.valueOf(LocalDateTime.of(2024, 10, 1, 9, 0)), Constants.ESTADO_PENDIENTE, CATEGORIA);
+    }
+
+    /**
+     * Borra los datos de prueba, que se han confirmado.
+     */
+    @AfterEach
+    public void borrarDatos()
+    {
+        this.jdbcTemplate.update("DELETE FROM incidencia");
+        this.jdbcTemplate.update("DELETE FROM incidencia_archivo");
+        this.jdbcTemplate.update("DELETE FROM estadistica_contador");
+        this.jdbcTemplate.update("DELETE FROM estadistica_diaria");
+        this.jdbcTemplate.update("DELETE FROM usuario_categoria");
+        this.jdbcTemplate.update("DELETE FROM categoria");
+        this.jdbcTemplate.update("DELETE FROM ubicacion");
+    }
+
+    @Test
+    public void reconciliarConservaLosContadoresDeLosCursosArchivados()
+    {
+        this.estadisticasContadorService.reconciliar();
+
+        assertThat(this.sumarContador(CURSO_ARCHIVADO, Constants.DIMENSION_CATEGORIA, CATEGORIA)).isEqualTo(2);
+        assertThat(this.sumarContador(CURSO_ARCHIVADO, Constants.DIMENSION_ESTADO, Constants.ESTADO_RESUELTA)).isEqualTo(2);
+        assertThat(this.sumarContador(CURSO_ARCHIVADO, Constants.DIMENSION_UBICACION, UBICACION)).isEqualTo(2);
+
+        // La incidencia del curso en uso no estaba contada: la reconciliación la suma
+        assertThat(this.sumarContador(CURSO_EN_USO, Constants.DIMENSION_CATEGORIA, CATEGORIA)).isEqualTo(1);
+        assertThat(this.sumarContador(CURSO_EN_USO, Constants.DIMENSION_ESTADO, Constants.ESTADO_PENDIENTE)).isEqualTo(1);
+        assertThat(this.sumarContador(CURSO_EN_USO, Constants.DIMENSION_UBICACION, UBICACION)).isEqualTo(1);
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT cantidad FROM estadistica_diaria WHERE dia = '2020-02-10' AND dimension = ?", Long.class,
+                                                    Constants.DIMENSION_CATEGORIA)).isEqualTo(2);
+    }
+
+    /**
+     * @param cursoAcademico El curso académico.
+     * @param dimension La dimensión.
+     * @param valor El valor de la dimensión.
+     * @param cantidad La cantidad de la franja 0.
+     */
+    private void insertarContador(String cursoAcademico, String dimension, String valor, long cantidad)
+    {
+        this.jdbcTemplate.update("INSERT INTO estadistica_contador (curso_academico, dimension, valor, franja, cantidad) VALUES (?, ?, ?, 0, ?)",
+                                 cursoAcademico, dimension, valor, cantidad);
+    }
+
+    /**
+     * @param cursoAcademico El curso académico.
+     * @param dimension La dimensión.
+     * @param valor El valor de la dimensión.
+     * @return La suma de las franjas del contador.
+     */
+    private long sumarContador(String cursoAcademico, String dimension, String valor)
+    {
+        return this.jdbcTemplate.queryForObject("SELECT COALESCE(SUM(cantidad), 0) FROM estadistica_contador WHERE curso_academico = ? AND dimension = ? AND valor = ?",
+                                                Long.class, cursoAcademico, dimension, valor);
+    }
+}
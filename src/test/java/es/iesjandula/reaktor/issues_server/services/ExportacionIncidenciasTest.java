@@ -0,0 +1,121 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba que la exportación de un curso académico escribe solo las incidencias de ese curso, en orden
+ * de fecha, con los campos CSV entrecomillados cuando hace falta, y que un curso cerrado incluye también
+ * las incidencias ya movidas al archivo.
+ */
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(ExportacionIncidenciasService.class)
+public class ExportacionIncidenciasTest extends PruebaMySqlBase
+{
+    /** Curso académico exportado */
+    private static final String CURSO = "2019-2020";
+
+    /** Otro curso académico, que no debe aparecer en la exportación */
+    private static final String OTRO_CURSO = "2018-2019";
+
+    /** Fecha de la primera incidencia del curso */
+    private static final LocalDateTime FECHA = LocalDateTime.of(2019, 11, 5, 10, 30);
+
+    /** Servicio probado */
+    @Autowired
+    private ExportacionIncidenciasService exportacionIncidenciasService;
+
+    /** Lector de las líneas JSON exportadas */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Inserta dos incidencias del curso exportado (la más antigua con comas y comillas en el problema),
+     * una de otro curso y una del curso exportado ya archivada.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+
+        this.insertarIncidencia(1L, CURSO, FECHA, "El proyector, el de \"siempre\", no enciende");
+        this.insertarIncidencia(2L, CURSO, FECHA.plusDays(1), "No hay red");
+        this.insertarIncidencia(3L, OTRO_CURSO, FECHA.minusYears(1), "Pizarra rota");
+
+        this.jdbcTemplate.update("INSERT INTO incidencia_archivo (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, " +
+                                 "nombre_categoria, email_responsable, nombre_responsable, version) " +
+                                 "VALUES (4, ?, 'Aula 1', 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'Ratón roto', ?, 'Cambiado', 'Informática', " +
+                                 "'responsable@iesjandula.es', 'Responsable', 0)",
+                                 CURSO, Timestamp.valueOf(FECHA.minusDays(1)), Constants.ESTADO_RESUELTA);
+    }
+
+    @Test
+    public void exportarCsvEscribeLasIncidenciasDelCurso() throws IOException
+    {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long exportadas = this.exportacionIncidenciasService.exportar(CURSO, Constants.FORMATO_EXPORTACION_CSV, salida);
+
+        List<String> lineas = salida.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertThat(exportadas).isEqualTo(3);
+        assertThat(lineas).hasSize(4);
+        assertThat(lineas.get(0)).isEqualTo("id,ubicacion,email,nombre,apellidos,fecha,problema,estado,solucion,emailResponsable,nombreResponsable,categoria");
+
+        // Primero el archivo del curso cerrado y después la tabla incidencia, cada uno en orden de fecha
+        assertThat(lineas.get(1)).startsWith("4,");
+        assertThat(lineas.get(2)).isEqualTo("1,Aula 1,profesor@iesjandula.es,Nombre,Apellidos,05/11/2019 10:30,\"El proyector, el de \"\"siempre\"\", no enciende\"," +
+                                            Constants.ESTADO_PENDIENTE + ",,responsable@iesjandula.es,Responsable,Informática");
+        assertThat(lineas.get(3)).startsWith("2,");
+    }
+
+    @Test
+    public void exportarJsonlEscribeUnaIncidenciaPorLinea() throws IOException
+    {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long exportadas = this.exportacionIncidenciasService.exportar(CURSO, Constants.FORMATO_EXPORTACION_JSONL, salida);
+
+        List<String> lineas = salida.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertThat(exportadas).isEqualTo(3);
+        assertThat(lineas).hasSize(3);
+
+        JsonNode incidencia = this.objectMapper.readTree(lineas.get(1));
+        assertThat(incidencia.get("id").asLong()).isEqualTo(1L);
+        assertThat(incidencia.get("problema").asText()).isEqualTo("El proyector, el de \"siempre\", no enciende");
+    }
+
+    /**
+     * Inserta una incidencia pendiente.
+     * @param id El id de la incidencia.
+     * @param cursoAcademico El curso académico.
+     * @param fecha La fecha de la incidencia.
+     * @param problema La descripción del problema.
+     */
+    private void insertarIncidencia(Long id, String cursoAcademico, LocalDateTime fecha, String problema)
+    {
+        this.jdbcTemplate.update("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (?, ?, 'Aula 1', 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, ?, ?, NULL, 'Informática', 'responsable@iesjandula.es')",
+                                 id, cursoAcademico, Timestamp.valueOf(fecha), problema, Constants.ESTADO_PENDIENTE);
+    }
+}
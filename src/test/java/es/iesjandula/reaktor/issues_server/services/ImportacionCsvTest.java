@@ -0,0 +1,187 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.ErrorLineaDto;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoImportacionDto;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+
+/**
+ * Comprueba la importación CSV: las filas válidas se guardan (actualizando las que ya existen), cada
+ * fila no válida se informa con su número de línea sin impedir importar las demás, y un fichero sin
+ * las columnas obligatorias se rechaza entero.
+ * <p>
+ * Las incidencias se guardan con el servicio de escritura real; el resto de colaboradores son mocks.
+ * </p>
+ */
+@Import({ImportacionCsvService.class, IncidenciaService.class})
+public class ImportacionCsvTest extends PruebaMySqlBase
+{
+    /** Ubicación de las incidencias */
+    private static final String UBICACION = "Aula 1";
+
+    /** Categoría de las incidencias */
+    private static final String CATEGORIA = "Informática";
+
+    /** Email del responsable de la categoría */
+    private static final String EMAIL_RESPONSABLE = "responsable@iesjandula.es";
+
+    /** Servicio probado */
+    @Autowired
+    private ImportacionCsvService importacionCsvService;
+
+    /** Servicio de datos de referencia en memoria */
+    @MockBean
+    private DatosReferenciaService datosReferenciaService;
+
+    /** Servicio del índice de texto de incidencias */
+    @MockBean
+    private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
+
+    /** Servicio de estadísticas */
+    @MockBean
+    private EstadisticasService estadisticasService;
+
+    /** Servicio de contadores de estadísticas */
+    @MockBean
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @MockBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Historial de cambios de las incidencias */
+    @MockBean
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    @Test
+    public void importarUbicacionesInformaLasLineasErroneas() throws Exception
+    {
+        this.jdbcTemplate.update("INSERT INTO ubicacion (nombre) VALUES (?)", UBICACION);
+
+        ResultadoImportacionDto resultado = this.importacionCsvService.importarUbicaciones(this.csv("""
+                                                                                                    nombre
+                                                                                                    Aula 1
+                                                                                                    Aula 2
+                                                                                                    ""
+                                                                                                    Laboratorio
+                                                                                                    """));
+
+        assertThat(resultado.getLeidas()).isEqualTo(4);
+        assertThat(resultado.getImportadas()).isEqualTo(3);
+        assertThat(resultado.getErroneas()).isEqualTo(1);
+        assertThat(resultado.getErrores()).extracting(ErrorLineaDto::getLinea).containsExactly(4L);
+        assertThat(resultado.getErrores().get(0).getError()).containsEntry("code", String.valueOf(Constants.ERR_IMPORTACION_CAMPO_OBLIGATORIO_CODE));
+
+        // La ubicación que ya existía se mantiene sin duplicarse
+        assertThat(this.jdbcTemplate.queryForList("SELECT nombre FROM ubicacion ORDER BY nombre", String.class)).containsExactly("Aula 1", "Aula 2", "Laboratorio");
+
+        verify(this.datosReferenciaService).recargar();
+    }
+
+    @Test
+    public void importarCategoriasActualizaLasExistentes() throws Exception
+    {
+        this.jdbcTemplate.update("INSERT INTO categoria (nombre, imprimir_informe) VALUES (?, FALSE)", CATEGORIA);
+
+        ResultadoImportacionDto resultado = this.importacionCsvService.importarCategorias(this.csv("""
+                                                                                                   nombre,imprimirInforme
+                                                                                                   Informática,true
+                                                                                                   Electricidad,false
+                                                                                                   """));
+
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT imprimir_informe FROM categoria WHERE nombre = ?", Boolean.class, CATEGORIA)).isTrue();
+        assertThat(this.jdbcTemplate.queryForObject("SELECT imprimir_informe FROM categoria WHERE nombre = 'Electricidad'", Boolean.class)).isFalse();
+    }
+
+    @Test
+    public void ficheroSinLasColumnasObligatoriasSeRechaza() throws Exception
+    {
+        assertThatThrownBy(() -> this.importacionCsvService.importarCategorias(this.csv("nombre\nInformática\n")))
+            .isInstanceOf(IssuesServerError.class)
+            .satisfies(error -> assertThat(((IssuesServerError) error).getBodyErrorMessage())
+                                    .containsEntry("code", String.valueOf(Constants.ERR_IMPORTACION_FICHERO_NO_VALIDO_CODE)));
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categoria", Long.class)).isZero();
+        verify(this.datosReferenciaService, never()).recargar();
+    }
+
+    @Test
+    public void importarIncidenciasHistoricas() throws Exception
+    {
+        this.insertarDatosReferencia(UBICACION, CATEGORIA, EMAIL_RESPONSABLE);
+
+        UsuarioCategoria responsable = new UsuarioCategoria(new UsuarioCategoriaId(CATEGORIA, EMAIL_RESPONSABLE), "Responsable", null);
+        when(this.datosReferenciaService.obtener()).thenReturn(new DatosReferencia(Map.of(UBICACION, new Ubicacion(UBICACION)),
+                                                                                   Map.of(CATEGORIA, new Categoria(CATEGORIA, false, null)),
+                                                                                   Map.of(responsable.getId(), responsable), Map.of(CATEGORIA, List.of(responsable)),
+                                                                                   new byte[0], new byte[0], new byte[0]));
+
+        String cabecera = "cursoAcademico,ubicacion,email,nombre,apellidos,fecha,problema,estado,solucion,categoria,emailResponsable\n";
+        String fila     = "2015-2016,Aula 1,profesor@iesjandula.es,Nombre,Apellidos,%s,%s,%s,%s,Informática,%s\n";
+
+        ResultadoImportacionDto resultado = this.importacionCsvService.importarIncidencias(this.csv(cabecera +
+            fila.formatted("05/11/2015 10:30", "No hay red", Constants.ESTADO_RESUELTA, "Cambiado el router", EMAIL_RESPONSABLE) +
+            fila.formatted("2015-11-06T09:15", "\"Sin luz, en el pasillo\"", Constants.ESTADO_CANCELADA, "", EMAIL_RESPONSABLE) +
+            fila.formatted("07/11/2015 12:00", "Pizarra rota", Constants.ESTADO_RESUELTA, "", "otro@iesjandula.es") +
+            fila.formatted("ayer", "Ratón roto", Constants.ESTADO_RESUELTA, "", EMAIL_RESPONSABLE)));
+
+        assertThat(resultado.getLeidas()).isEqualTo(4);
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getErrores()).extracting(ErrorLineaDto::getLinea).containsExactly(4L, 5L);
+        assertThat(resultado.getErrores().get(0).getError()).containsEntry("code", String.valueOf(Constants.ERR_IMPORTACION_RESPONSABLE_NO_ENCONTRADO_CODE));
+        assertThat(resultado.getErrores().get(1).getError()).containsEntry("code", String.valueOf(Constants.ERR_IMPORTACION_FECHA_NO_VALIDA_CODE));
+
+        assertThat(this.jdbcTemplate.queryForList("SELECT problema FROM incidencia WHERE curso_academico = '2015-2016' ORDER BY fecha", String.class))
+            .containsExactly("No hay red", "Sin luz, en el pasillo");
+        assertThat(this.jdbcTemplate.queryForObject("SELECT solucion FROM incidencia WHERE problema = 'Sin luz, en el pasillo'", String.class)).isNull();
+
+        // Las incidencias importadas se indexan y las estadísticas congeladas de su curso cerrado se descartan, sin avisar a nadie
+        verify(this.indiceTextoIncidenciasService, times(2)).indexar(anyLong(), anyString(), any());
+        verify(this.estadisticasService).invalidarSnapshots(Set.of("2015-2016"));
+        verify(this.notificacionesIncidenciaService, never()).encolarEmailsCreacionIncidencias(anyList());
+    }
+
+    /**
+     * @param contenido El contenido del fichero CSV.
+     * @return El fichero como flujo de entrada.
+     */
+    private InputStream csv(String contenido)
+    {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
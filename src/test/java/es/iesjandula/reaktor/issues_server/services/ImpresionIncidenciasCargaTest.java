@@ -0,0 +1,166 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import es.iesjandula.reaktor.base_client.requests.printers.RequestImpresion;
+import es.iesjandula.reaktor.base_client.requests.school_base_server.ObtencionCursoAcademico;
+import es.iesjandula.reaktor.issues_server.models.Categoria;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.utils.DatosReferencia;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Prueba de carga de la impresión de partes de desperfectos con los servidores de cursos académicos y de
+ * impresión lentos, con hilos de plataforma y con hilos virtuales (spring.threads.virtual.enabled).
+ * <p>
+ * Se crean a la vez {@value #PARTES} incidencias cuya categoría pide parte. Cada impresión hace dos llamadas
+ * que tardan {@value #LATENCIA_MS} ms. Con hilos de plataforma el ejecutor de @Async tiene 8 hilos, así
+ * que las impresiones se atienden de 8 en 8. Con hilos virtuales cada una tiene su hilo y todas esperan a la
+ * vez. Se mide el tiempo hasta que se han impreso todas y se exige que con hilos virtuales el rendimiento sea
+ * al menos {@value #MEJORA_MINIMA} veces mayor (el teórico es de unas 25 veces).
+ * </p>
+ */
+@Log4j2
+public class ImpresionIncidenciasCargaTest
+{
+    /** Partes que se imprimen a la vez */
+    private static final int PARTES = 200;
+
+    /** Milisegundos que tarda cada llamada a otro servidor */
+    private static final long LATENCIA_MS = 100;
+
+    /** Veces que, como mínimo, debe mejorar el rendimiento con hilos virtuales */
+    private static final int MEJORA_MINIMA = 5;
+
+    /** Segundos que se espera como máximo a que terminen las impresiones */
+    private static final long ESPERA_MAXIMA_S = 60;
+
+    @Test
+    public void hilosVirtualesNoSeAgotanConServidoresLentos() throws Exception
+    {
+        long plataformaNanos = this.imprimirPartes(false);
+        long virtualesNanos  = this.imprimirPartes(true);
+
+        log.info("Impresión de {} partes con {} ms por llamada: hilos de plataforma {} partes/s, hilos virtuales {} partes/s",
+                 PARTES, LATENCIA_MS, this.calcularRendimiento(plataformaNanos), this.calcularRendimiento(virtualesNanos));
+
+        assertThat(virtualesNanos * MEJORA_MINIMA).isLessThan(plataformaNanos);
+    }
+
+    /**
+     * Arranca el servicio de impresión con el ejecutor de @Async de Spring Boot, lanza todas las impresiones
+     * y espera a que terminen.
+     * @param hilosVirtuales Si se activa spring.threads.virtual.enabled.
+     * @return Los nanosegundos transcurridos hasta imprimir todos los partes.
+     * @throws Exception si falla la preparación de los mocks
+     */
+    private long imprimirPartes(boolean hilosVirtuales) throws Exception
+    {
+        CountDownLatch impresos = new CountDownLatch(PARTES);
+        AtomicLong nanos = new AtomicLong();
+
+        ObtencionCursoAcademico obtencionCursoAcademico = mock(ObtencionCursoAcademico.class);
+        when(obtencionCursoAcademico.obtenerCursoAcademicoSeleccionado()).thenAnswer(invocation ->
+        {
+            Thread.sleep(LATENCIA_MS);
+            return "2024-2025";
+        });
+
+        RequestImpresion requestImpresion = mock(RequestImpresion.class);
+        doAnswer(invocation ->
+        {
+            Thread.sleep(LATENCIA_MS);
+            impresos.countDown();
+            return null;
+        }).when(requestImpresion).imprimirPdf(any());
+
+        PdfParteDesperfectosService pdfParteDesperfectosService = mock(PdfParteDesperfectosService.class);
+        when(pdfParteDesperfectosService.generarPdfParteDesperfectos(any(), any())).thenReturn(new byte[0]);
+
+        DatosReferenciaService datosReferenciaService = mock(DatosReferenciaService.class);
+        when(datosReferenciaService.obtener()).thenReturn(new DatosReferencia(Map.of(), Map.of("Informática", new Categoria("Informática", true, null)),
+                                                                              Map.of(), Map.of(), new byte[0], new byte[0], new byte[0]));
+
+        new ApplicationContextRunner().withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+                                      .withUserConfiguration(ConfiguracionAsincrona.class)
+                                      .withPropertyValues("spring.threads.virtual.enabled=" + hilosVirtuales)
+                                      .withInitializer(applicationContext ->
+                                      {
+                                          // Como singletons ya creados, para que Spring no intente inyectar las dependencias de los mocks
+                                          applicationContext.getBeanFactory().registerSingleton("obtencionCursoAcademico", obtencionCursoAcademico);
+                                          applicationContext.getBeanFactory().registerSingleton("requestImpresion", requestImpresion);
+                                          applicationContext.getBeanFactory().registerSingleton("pdfParteDesperfectosService", pdfParteDesperfectosService);
+                                          applicationContext.getBeanFactory().registerSingleton("datosReferenciaService", datosReferenciaService);
+                                      })
+                                      .withBean(ImpresionIncidenciasService.class)
+                                      .run(context ->
+        {
+            ImpresionIncidenciasService impresionIncidenciasService = context.getBean(ImpresionIncidenciasService.class);
+
+            long inicio = System.nanoTime();
+
+            // Cada incidencia creada lanza su propia impresión, como hace la creación desde el controlador
+            for (int i = 0; i < PARTES; i++)
+            {
+                impresionIncidenciasService.imprimirPartes(List.of(this.nuevaIncidencia(i)));
+            }
+
+            assertThat(impresos.await(ESPERA_MAXIMA_S, TimeUnit.SECONDS)).as("partes impresos a tiempo").isTrue();
+
+            nanos.set(System.nanoTime() - inicio);
+        });
+
+        return nanos.get();
+    }
+
+    /**
+     * @param nanos Los nanosegundos que han tardado todas las impresiones.
+     * @return Los partes impresos por segundo.
+     */
+    private long calcularRendimiento(long nanos)
+    {
+        return PARTES * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * @param indice El índice de la incidencia.
+     * @return Una incidencia de una categoría que pide parte de desperfectos.
+     */
+    private Incidencia nuevaIncidencia(int indice)
+    {
+        Incidencia incidencia = new Incidencia();
+
+        incidencia.setId((long) indice);
+        incidencia.setUsuarioCategoria(new UsuarioCategoria(new UsuarioCategoriaId("Informática", "responsable@iesjandula.es"), "Responsable", null));
+
+        return incidencia;
+    }
+
+    /**
+     * Activa @Async con el ejecutor que configura Spring Boot (hilos virtuales o pool de hilos de plataforma).
+     */
+    @Configuration
+    @EnableAsync
+    public static class ConfiguracionAsincrona
+    {
+    }
+}
@@ -0,0 +1,116 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba que crear incidencias con la ubicación y el responsable de la instantánea de datos de
+ * referencia (entidades desasociadas) no consulta sus tablas: solo se lanzan los INSERT de las incidencias.
+ * <p>
+ * Los contadores, la carga de los responsables, la bandeja de salida y el historial se sustituyen por mocks para contar
+ * únicamente las sentencias de Hibernate sobre la incidencia.
+ * </p>
+ */
+@Import(IncidenciaService.class)
+public class IncidenciaServiceCreacionTest extends PruebaMySqlBase
+{
+    /** Servicio probado */
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    /** Servicio de contadores de estadísticas */
+    @MockBean
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @MockBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Historial de cambios de las incidencias */
+    @MockBean
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    /**
+     * Inserta los datos de referencia y crea una primera incidencia para que la reserva del bloque de
+     * ids (tabla incidencia_seq) no cuente en las pruebas.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+
+        this.incidenciaService.crear(this.nuevaIncidencia(), null);
+    }
+
+    @Test
+    public void crearNoConsultaLosDatosDeReferencia()
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        Incidencia incidencia = this.nuevaIncidencia();
+        this.incidenciaService.crear(incidencia, null);
+
+        assertThat(incidencia.getId()).isNotNull();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void crearLoteNoConsultaLosDatosDeReferencia()
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        List<Incidencia> incidencias = List.of(this.nuevaIncidencia(), this.nuevaIncidencia(), this.nuevaIncidencia());
+        this.incidenciaService.crearLote(incidencias, false, null);
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+
+        // Un único INSERT preparado para todo el lote JDBC
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * @return Una incidencia nueva con la ubicación y el responsable desasociados, como los de la instantánea.
+     */
+    private Incidencia nuevaIncidencia()
+    {
+        Incidencia incidencia = new Incidencia();
+
+        incidencia.setCursoAcademico("2024-2025");
+        incidencia.setUbicacion(new Ubicacion("Aula 1"));
+        incidencia.setEmail("profesor@iesjandula.es");
+        incidencia.setNombre("Nombre");
+        incidencia.setApellidos("Apellidos");
+        incidencia.setFecha(LocalDateTime.now());
+        incidencia.setProblema("El proyector no enciende");
+        incidencia.setEstado(Constants.ESTADO_PENDIENTE);
+        incidencia.setUsuarioCategoria(new UsuarioCategoria(new UsuarioCategoriaId("Informática", "responsable@iesjandula.es"), "Responsable", null));
+
+        return incidencia;
+    }
+}
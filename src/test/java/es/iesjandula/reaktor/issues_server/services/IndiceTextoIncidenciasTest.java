@@ -0,0 +1,96 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+
+/**
+ * Comprueba el índice de texto completo de las incidencias: las búsquedas pliegan los acentos y reducen
+ * las palabras a su raíz, las coincidencias en el problema pesan más que en la solución, y la
+ * reconstrucción desde la base de datos añade las incidencias que faltan y quita las que ya no existen.
+ * <p>
+ * Cada contexto abre el índice en un directorio temporal propio.
+ * </p>
+ */
+@TestPropertySource(properties = "reaktor.indice_texto.ruta=${java.io.tmpdir}/indice_texto_prueba_${random.uuid}")
+@Import(IndiceTextoIncidenciasService.class)
+public class IndiceTextoIncidenciasTest extends PruebaMySqlBase
+{
+    /** Número máximo de resultados de las búsquedas */
+    private static final int LIMITE = 10;
+
+    /** Servicio probado */
+    @Autowired
+    private IndiceTextoIncidenciasService indiceTextoIncidenciasService;
+
+    /**
+     * Vacía el índice reconstruyéndolo antes de insertar las incidencias de la prueba.
+     */
+    @BeforeEach
+    public void vaciarIndice()
+    {
+        this.indiceTextoIncidenciasService.reconstruir();
+    }
+
+    @Test
+    public void buscarPliegaAcentosYReduceALaRaiz() throws IOException
+    {
+        this.indiceTextoIncidenciasService.indexar(1L, "No funciona la calefacción del aula", null);
+        this.indiceTextoIncidenciasService.indexar(2L, "Faltan enchufes junto a la pizarra", null);
+
+        assertThat(this.indiceTextoIncidenciasService.buscar("CALEFACCION", LIMITE)).containsExactly(1L);
+        assertThat(this.indiceTextoIncidenciasService.buscar("enchufe", LIMITE)).containsExactly(2L);
+
+        // Solo palabras vacías: no hay nada que buscar
+        assertThat(this.indiceTextoIncidenciasService.buscar("de la", LIMITE)).isEmpty();
+    }
+
+    @Test
+    public void elProblemaPesaMasQueLaSolucion() throws IOException
+    {
+        this.indiceTextoIncidenciasService.indexar(1L, "La impresora no imprime", "Se ha cambiado el tóner");
+        this.indiceTextoIncidenciasService.indexar(2L, "El tóner está vacío", "Se ha repuesto");
+
+        assertThat(this.indiceTextoIncidenciasService.buscar("toner", LIMITE)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void actualizarYEliminarSeVenEnLasBusquedas() throws IOException
+    {
+        this.indiceTextoIncidenciasService.indexar(1L, "El ratón no responde", null);
+        this.indiceTextoIncidenciasService.indexar(1L, "El ratón no responde", "Se ha cambiado el cable");
+
+        assertThat(this.indiceTextoIncidenciasService.buscar("cable", LIMITE)).containsExactly(1L);
+
+        this.indiceTextoIncidenciasService.eliminar(1L);
+
+        assertThat(this.indiceTextoIncidenciasService.buscar("raton", LIMITE)).isEmpty();
+    }
+
+    @Test
+    public void reconstruirSincronizaElIndiceConLaBaseDeDatos() throws IOException
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+        this.jdbcTemplate.update("INSERT INTO incidencia (id, curso_academico, ubicacion, email, nombre, apellidos, fecha, problema, estado, solucion, nombre_categoria, email_responsable) " +
+                                 "VALUES (1, '2024-2025', 'Aula 1', 'profesor@iesjandula.es', 'Nombre', 'Apellidos', ?, 'La persiana está atascada', ?, NULL, 'Informática', 'responsable@iesjandula.es')",
+                                 Timestamp.valueOf(LocalDateTime.of(2024, 11, 5, 10, 30)), Constants.ESTADO_PENDIENTE);
+
+        // Una incidencia que está en el índice pero ya no existe en la base de datos
+        this.indiceTextoIncidenciasService.indexar(99L, "La persiana está rota", null);
+
+        this.indiceTextoIncidenciasService.reconstruir();
+
+        assertThat(this.indiceTextoIncidenciasService.buscar("persianas", LIMITE)).containsExactly(1L);
+    }
+}
@@ -0,0 +1,451 @@
+package es.iesjandula.reaktor.issues_server.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import es.iesjandula.reaktor.base.utils.FechasUtils;
+import es.iesjandula.reaktor.issues_server.CapturaSentencias;
+import es.iesjandula.reaktor.issues_server.PruebaMySqlBase;
+import es.iesjandula.reaktor.issues_server.dtos.FiltroBusquedaDto;
+import es.iesjandula.reaktor.issues_server.dtos.IncidenciaDto;
+import es.iesjandula.reaktor.issues_server.dtos.ResultadoActualizacionLoteDto;
+import es.iesjandula.reaktor.issues_server.models.Incidencia;
+import es.iesjandula.reaktor.issues_server.models.Ubicacion;
+import es.iesjandula.reaktor.issues_server.models.UsuarioCategoria;
+import es.iesjandula.reaktor.issues_server.models.ids.UsuarioCategoriaId;
+import es.iesjandula.reaktor.issues_server.services.asignacion.CargaResponsablesService;
+import es.iesjandula.reaktor.issues_server.utils.Constants;
+import es.iesjandula.reaktor.issues_server.utils.CursorKeyset;
+import es.iesjandula.reaktor.issues_server.utils.IssuesServerError;
+
+/**
+ * Cuenta las sentencias SQL de las operaciones de los endpoints de incidencias con las estadísticas
+ * de Hibernate, para que una relación cargada sin querer (EAGER, un proxy inicializado o un grafo
+ * que arrastre otra tabla) haga fallar la prueba.
+ * <p>
+ * Los contadores, la carga de los responsables y la bandeja de salida se sustituyen por mocks: sus
+ * sentencias no dependen de cómo se carga la incidencia.
+ * </p>
+ * <p>
+ * Las escrituras se cuentan con {@link CapturaSentencias}, que no ve la reserva de bloques de ids
+ * (una transacción aparte cada 50 incidencias, que haría variar las estadísticas de Hibernate según
+ * el orden de las pruebas). Las sentencias de JdbcTemplate, como la inserción del historial en la
+ * transacción del cambio, se cuentan en el servidor MySQL.
+ * </p>
+ */
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({IncidenciaService.class, ConsultaIncidenciasService.class, BusquedaIncidenciasService.class,
+         ExportacionIncidenciasService.class, HistorialIncidenciaService.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=es.iesjandula.reaktor.issues_server.CapturaSentencias")
+public class SentenciasIncidenciaTest extends PruebaMySqlBase
+{
+    /** Servicio de escritura de incidencias */
+    @Autowired
+    private IncidenciaService incidenciaService;
+
+    /** Servicio de consulta de incidencias */
+    @Autowired
+    private ConsultaIncidenciasService consultaIncidenciasService;
+
+    /** Servicio de búsqueda de incidencias */
+    @Autowired
+    private BusquedaIncidenciasService busquedaIncidenciasService;
+
+    /** Servicio de exportación de incidencias */
+    @Autowired
+    private ExportacionIncidenciasService exportacionIncidenciasService;
+
+    /** Servicio del historial de incidencias */
+    @Autowired
+    private HistorialIncidenciaService historialIncidenciaService;
+
+    /** Gestor de entidades de las pruebas */
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /** Servicio de contadores de estadísticas */
+    @MockBean
+    private EstadisticasContadorService estadisticasContadorService;
+
+    /** Índice de la carga de los responsables */
+    @MockBean
+    private CargaResponsablesService cargaResponsablesService;
+
+    /** Bandeja de salida de las notificaciones email */
+    @MockBean
+    private NotificacionesIncidenciaService notificacionesIncidenciaService;
+
+    /** Email del usuario que hace los cambios */
+    private static final String EMAIL_USUARIO = "admin@iesjandula.es";
+
+    /** La incidencia creada para cada prueba */
+    private Incidencia incidencia;
+
+    /**
+     * Crea una incidencia y vacía el contexto de persistencia, como si la siguiente operación llegase en otra petición.
+     */
+    @BeforeEach
+    public void prepararDatos()
+    {
+        this.insertarDatosReferencia("Aula 1", "Informática", "responsable@iesjandula.es");
+        this.insertarDatosReferencia("Aula 2", "Mantenimiento", "mantenimiento@iesjandula.es");
+
+        this.incidencia = this.nuevaIncidencia();
+
+        this.incidenciaService.crear(this.incidencia, EMAIL_USUARIO);
+
+        this.testEntityManager.clear();
+    }
+
+    /**
+     * Borrar una incidencia: un SELECT sin joins y el DELETE condicionado a la versión.
+     * @throws IssuesServerError si no se puede borrar
+     */
+    @Test
+    public void borrarIncidencia() throws IssuesServerError
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        Incidencia leida = this.incidenciaService.buscarPorId(this.incidencia.getId()).orElseThrow();
+
+        // Los permisos solo necesitan las claves de las relaciones, que el proxy conoce sin inicializarse
+        assertThat(leida.getUsuarioCategoria().getId().getEmailResponsable()).isEqualTo("responsable@iesjandula.es");
+        assertThat(Hibernate.isInitialized(leida.getUbicacion())).isFalse();
+        assertThat(Hibernate.isInitialized(leida.getUsuarioCategoria())).isFalse();
+
+        this.incidenciaService.borrar(leida, EMAIL_USUARIO);
+
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    /**
+     * Listar incidencias: una única consulta de proyección (la página no está llena, así que no hay COUNT).
+     */
+    @Test
+    public void listarIncidencias()
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        Page<IncidenciaDto> pagina = this.consultaIncidenciasService.listarTodas(PageRequest.of(0, 10), null);
+
+        assertThat(pagina.getContent()).hasSize(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Leer incidencias por id (búsqueda por texto): una única consulta de proyección.
+     */
+    @Test
+    public void buscarIncidenciasPorIds()
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        List<IncidenciaDto> incidencias = this.consultaIncidenciasService.buscarPorIds(List.of(this.incidencia.getId()));
+
+        assertThat(incidencias).hasSize(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Crear una incidencia: solo su INSERT. La ubicación y el responsable son referencias sin
+     * inicializar, así que no se consultan sus tablas para comprobar que existen.
+     */
+    @Test
+    public void crearIncidencia()
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        List<String> sentencias = CapturaSentencias.capturarTodas(() -> this.incidenciaService.crear(this.nuevaIncidencia(), EMAIL_USUARIO));
+
+        assertThat(sentencias).as("sentencias %s", sentencias).hasSize(1);
+        assertThat(sentencias.get(0)).startsWithIgnoringCase("insert into incidencia");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    /**
+     * Crear varias incidencias: un único INSERT preparado para todo el lote JDBC.
+     */
+    @Test
+    public void crearLoteIncidencias()
+    {
+        List<Incidencia> incidencias = new ArrayList<Incidencia>();
+        for (int i = 0; i < 3; i++)
+        {
+            incidencias.add(this.nuevaIncidencia());
+        }
+
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        List<String> sentencias = CapturaSentencias.capturarTodas(() -> this.incidenciaService.crearLote(incidencias, true, EMAIL_USUARIO));
+
+        assertThat(sentencias).as("sentencias %s", sentencias).hasSize(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    /**
+     * Cambiar el estado: la proyección con los valores anteriores, el UPDATE condicionado a la versión
+     * y el INSERT del evento del historial.
+     */
+    @Test
+    public void actualizarEstado()
+    {
+        this.comprobarLecturaYActualizacion(Constants.EVENTO_ESTADO,
+                                            () -> this.incidenciaService.actualizarEstado(this.incidencia.getId(), Constants.ESTADO_RESUELTA, null, EMAIL_USUARIO));
+    }
+
+    /**
+     * Cambiar la solución: la proyección con los valores anteriores, el UPDATE condicionado a la versión
+     * y el INSERT del evento del historial.
+     */
+    @Test
+    public void actualizarSolucion()
+    {
+        this.comprobarLecturaYActualizacion(Constants.EVENTO_SOLUCION,
+                                            () -> this.incidenciaService.actualizarSolucion(this.incidencia.getId(), "Cambiada la lámpara", null, EMAIL_USUARIO));
+    }
+
+    /**
+     * Cambiar el responsable dentro de la categoría: la proyección y el UPDATE, sin cargar el responsable.
+     */
+    @Test
+    public void actualizarResponsable()
+    {
+        this.insertarResponsable("Informática", "otro@iesjandula.es");
+
+        UsuarioCategoria usuarioCategoria = new UsuarioCategoria(new UsuarioCategoriaId("Informática", "otro@iesjandula.es"), "Otro", null);
+
+        this.comprobarLecturaYActualizacion(Constants.EVENTO_RESPONSABLE,
+                                            () -> this.incidenciaService.actualizarUsuarioCategoria(this.incidencia.getId(), usuarioCategoria, null, EMAIL_USUARIO));
+    }
+
+    /**
+     * Cambiar la categoría (y con ella el responsable): las mismas dos sentencias que el cambio de responsable.
+     * El responsable se elige con la ubicación leída en la primera, sin consultarla aparte.
+     */
+    @Test
+    public void actualizarCategoria()
+    {
+        UsuarioCategoria usuarioCategoria = new UsuarioCategoria(new UsuarioCategoriaId("Mantenimiento", "mantenimiento@iesjandula.es"), "Responsable", null);
+        List<String> ubicaciones          = new ArrayList<String>();
+
+        this.comprobarLecturaYActualizacion(Constants.EVENTO_CATEGORIA, () -> this.incidenciaService.actualizarCategoria(this.incidencia.getId(), nombreUbicacion ->
+        {
+            ubicaciones.add(nombreUbicacion);
+            return usuarioCategoria;
+        }, null, EMAIL_USUARIO));
+
+        assertThat(ubicaciones).containsExactly("Aula 1");
+    }
+
+    /**
+     * Actualizar varias incidencias: una única consulta de proyección para todas, un único lote JDBC
+     * con un UPDATE por incidencia, sin lecturas por fila, y otro con el INSERT de cada evento del historial.
+     */
+    @Test
+    public void actualizarLoteIncidencias()
+    {
+        List<Incidencia> incidencias = List.of(this.nuevaIncidencia(), this.nuevaIncidencia());
+        this.incidenciaService.crearLote(incidencias, false, EMAIL_USUARIO);
+
+        List<Long> ids = List.of(this.incidencia.getId(), incidencias.get(0).getId(), incidencias.get(1).getId());
+
+        Statistics statistics = this.reiniciarEstadisticas();
+        long selects          = this.contarSentenciasServidor("Com_select");
+        long updates          = this.contarSentenciasServidor("Com_update");
+        long inserts          = this.contarSentenciasServidor("Com_insert");
+
+        List<ResultadoActualizacionLoteDto> resultado = new ArrayList<ResultadoActualizacionLoteDto>();
+        List<String> sentencias = CapturaSentencias.capturarTodas(() -> resultado.add(this.incidenciaService.actualizarLote(ids, Constants.ESTADO_RESUELTA, null, EMAIL_USUARIO)));
+
+        assertThat(resultado.get(0).getActualizadas()).hasSize(3);
+        assertThat(sentencias).as("sentencias %s", sentencias).hasSize(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(this.contarSentenciasServidor("Com_select") - selects).isEqualTo(1);
+        assertThat(this.contarSentenciasServidor("Com_update") - updates).isEqualTo(ids.size());
+        assertThat(this.contarSentenciasServidor("Com_insert") - inserts).isEqualTo(ids.size());
+
+        for (Long id : ids)
+        {
+            assertThat(this.contarEventos(id, Constants.EVENTO_ESTADO)).isEqualTo(1);
+        }
+    }
+
+    /**
+     * Listar incidencias por cursor: una única consulta de proyección, sin COUNT.
+     */
+    @Test
+    public void listarIncidenciasDesdeCursor()
+    {
+        CursorKeyset inicial  = CursorKeyset.inicial();
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        List<IncidenciaDto> incidencias = this.consultaIncidenciasService.listarTodasDesdeCursor(null, inicial.getFecha(), inicial.getId(), PageRequest.of(0, 10));
+
+        assertThat(incidencias).hasSize(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Buscar incidencias con filtros: una única consulta de proyección.
+     * @throws IssuesServerError si el filtro no es válido
+     */
+    @Test
+    public void buscarIncidencias() throws IssuesServerError
+    {
+        FiltroBusquedaDto filtro = new FiltroBusquedaDto();
+        filtro.setUbicacion("Aula 1");
+        filtro.setEstadoIncidencia(Constants.ESTADO_PENDIENTE);
+
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        List<IncidenciaDto> incidencias = this.busquedaIncidenciasService.buscar(filtro, CursorKeyset.inicial(), 10);
+
+        assertThat(incidencias).hasSize(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Exportar el curso actual: una única consulta en streaming (no se lee el archivo de cursos cerrados).
+     * @throws IOException si falla la escritura
+     */
+    @Test
+    public void exportarIncidencias() throws IOException
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        long exportadas = this.exportacionIncidenciasService.exportar(this.incidencia.getCursoAcademico(), Constants.FORMATO_EXPORTACION_CSV, new ByteArrayOutputStream());
+
+        assertThat(exportadas).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Leer el historial de una incidencia: una única consulta de proyección.
+     */
+    @Test
+    public void buscarHistorial()
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+
+        this.historialIncidenciaService.buscarEventos(this.incidencia.getId(), null, 50);
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Comprueba que una actualización individual lanza exactamente dos sentencias de Hibernate: la proyección con
+     * los valores anteriores y el UPDATE condicionado a la versión, sin cargar ninguna entidad; y un único INSERT
+     * del evento del historial en la misma transacción.
+     * @param tipoEvento El tipo del evento que debe quedar en el historial.
+     * @param actualizacion La actualización.
+     */
+    private void comprobarLecturaYActualizacion(String tipoEvento, Actualizacion actualizacion)
+    {
+        Statistics statistics = this.reiniciarEstadisticas();
+        long inserts          = this.contarSentenciasServidor("Com_insert");
+
+        List<String> sentencias = CapturaSentencias.capturarTodas(() ->
+        {
+            try
+            {
+                actualizacion.ejecutar();
+            }
+            catch (IssuesServerError issuesServerError)
+            {
+                throw new IllegalStateException(issuesServerError);
+            }
+        });
+
+        assertThat(sentencias).as("sentencias %s", sentencias).hasSize(2);
+        assertThat(sentencias.get(0)).startsWithIgnoringCase("select");
+        assertThat(sentencias.get(1)).startsWithIgnoringCase("update incidencia");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+
+        assertThat(this.contarSentenciasServidor("Com_insert") - inserts).isEqualTo(1);
+        assertThat(this.contarEventos(this.incidencia.getId(), tipoEvento)).isEqualTo(1);
+    }
+
+    /**
+     * @param incidenciaId El id de la incidencia.
+     * @param tipo El tipo de evento.
+     * @return Los eventos de ese tipo en el historial de la incidencia.
+     */
+    private long contarEventos(Long incidenciaId, String tipo)
+    {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM incidencia_evento WHERE incidencia_id = ? AND tipo = ?", Long.class, incidenciaId, tipo);
+    }
+
+    /**
+     * Inserta otro responsable de una categoría existente.
+     * @param categoria El nombre de la categoría.
+     * @param emailResponsable El email del responsable.
+     */
+    private void insertarResponsable(String categoria, String emailResponsable)
+    {
+        this.jdbcTemplate.update("INSERT INTO usuario_categoria (nombre_categoria, email_responsable, nombre_responsable) VALUES (?, ?, 'Otro')",
+                                 categoria, emailResponsable);
+    }
+
+    /**
+     * @return Una incidencia nueva del curso actual.
+     */
+    private Incidencia nuevaIncidencia()
+    {
+        Incidencia incidencia = new Incidencia();
+
+        incidencia.setCursoAcademico(FechasUtils.obtenerCursoAcademicoActual());
+        incidencia.setUbicacion(new Ubicacion("Aula 1"));
+        incidencia.setEmail("profesor@iesjandula.es");
+        incidencia.setNombre("Nombre");
+        incidencia.setApellidos("Apellidos");
+        incidencia.setFecha(LocalDateTime.now());
+        incidencia.setProblema("El proyector no enciende");
+        incidencia.setEstado(Constants.ESTADO_PENDIENTE);
+        incidencia.setUsuarioCategoria(new UsuarioCategoria(new UsuarioCategoriaId("Informática", "responsable@iesjandula.es"), "Responsable", null));
+
+        return incidencia;
+    }
+
+    /**
+     * Actualización individual de una incidencia.
+     */
+    @FunctionalInterface
+    private interface Actualizacion
+    {
+        /**
+         * @throws IssuesServerError si la incidencia no existe o la ha modificado otro usuario
+         */
+        void ejecutar() throws IssuesServerError;
+    }
+}